@@ -0,0 +1,72 @@
+import os
+import sys
+
+from sentence_transformers import SentenceTransformer
+
+# Persistent worker mode used by HESML, which is implemented by the
+# shared hesmlworker module (see PythonWorker/hesmlworker.py).
+
+sys.path.append(os.path.join(os.path.dirname(os.path.abspath(__file__)), "..", "..", "PythonWorker"))
+import hesmlworker
+
+worker_mode = hesmlworker.start_worker_mode()
+
+# get the input parameters
+
+# get the model path
+
+strModelPath = sys.argv[1]
+print("MODEL " + strModelPath)
+
+# get the input sentences and the output embedding paths.
+
+if not worker_mode:
+    absPathTempSentencesFile = sys.argv[2] # the preprocessed sentences path in format: s1 \t s2 \n
+    absPathTempVectorsFile = sys.argv[3] # the output path
+
+# strModelPath = "seiya/oubiobert-base-uncased"
+# absPathTempSentencesFile = "../wordpiecetokenizer_lc_nonestopwords_none_none_pubmedbert-base-uncased-abstract__Sents.txt"
+# absPathTempVectorsFile = "../wordpiecetokenizer_lc_nonestopwords_none_none_pubmedbert-base-uncased-abstract__Vecs.txt"
+
+model = SentenceTransformer(strModelPath, device="cpu")
+model.save("downl_" + strModelPath.replace("/", "_"))
+
+# serve the requests of HESML in worker mode. The sentences with less
+# than three characters are filtered by HESML.
+
+if worker_mode:
+    hesmlworker.serve_worker(lambda sentences: model.encode(sentences, convert_to_numpy=True))
+    sys.exit(0)
+
+f = open(absPathTempSentencesFile, "r")
+file = f.read().split("\n")
+
+with open(absPathTempVectorsFile, 'w') as f:
+    for row in file:
+        if (not row == "") and (len(row)>1):
+            data = row.split("\t")
+
+            # get the sentences
+
+            s1 = data[0].strip()
+            s2 = data[1].strip()
+            if len(s1) > 2 and len(s2) > 2:
+
+                # infer the vectors of the sentences
+
+                sentence_embeddings_1 = model.encode(s1, convert_to_numpy=True)
+                sentence_embeddings_2 = model.encode(s2, convert_to_numpy=True)
+
+                sentence_embeddings_1 = sentence_embeddings_1.tolist()  # nested lists with same data, indices
+                sentence_embeddings_2 = sentence_embeddings_2.tolist()  # nested lists with same data, indices
+
+                # format and write the output
+
+                strVector1 = ",".join(map(str, sentence_embeddings_1))
+                strVector2 = ",".join(map(str, sentence_embeddings_2))
+
+                line = strVector1 + "\t" + strVector2
+                f.write("%s\n" % line)
+            else:
+                line = "," + "\t" + ","
+                f.write("%s\n" % line)
\ No newline at end of file
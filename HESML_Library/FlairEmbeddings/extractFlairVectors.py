@@ -1,12 +1,23 @@
 from flair.data import Sentence
 from flair.embeddings import FlairEmbeddings, DocumentPoolEmbeddings
+import os
 import sys
 
+# Persistent worker mode used by HESML, which is implemented by the
+# shared hesmlworker module (see PythonWorker/hesmlworker.py).
+
+sys.path.append(os.path.join(os.path.dirname(os.path.abspath(__file__)), "..", "PythonWorker"))
+import hesmlworker
+
+worker_mode = hesmlworker.start_worker_mode()
+
 # import the arguments
 
 strModelsPath = sys.argv[1]
-absPathTempSentencesFile = sys.argv[2] # the preprocessed sentences path in format: s1 \t s2 \n
-absPathTempVectorsFile = sys.argv[3] # the output path
+
+if not worker_mode:
+    absPathTempSentencesFile = sys.argv[2] # the preprocessed sentences path in format: s1 \t s2 \n
+    absPathTempVectorsFile = sys.argv[3] # the output path
 
 # examples
 
@@ -25,6 +36,19 @@ for model_path in models:
 
 document_embeddings = DocumentPoolEmbeddings(embeddings=embeddingModels)
 
+# embed a batch of sentences
+
+def embed(strSentences):
+    sentences = [Sentence(s) for s in strSentences]
+    document_embeddings.embed(sentences)
+    return [sentence.embedding.detach().cpu().numpy() for sentence in sentences]
+
+# serve the requests of HESML in worker mode
+
+if worker_mode:
+    hesmlworker.serve_worker(embed)
+    sys.exit(0)
+
 # open the sentences file
 
 f = open(absPathTempSentencesFile, "r")
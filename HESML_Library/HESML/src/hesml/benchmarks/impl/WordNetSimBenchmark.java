@@ -770,13 +770,13 @@ abstract class WordNetSimBenchmark extends AbstractBenchmark
     {
         IVertexList vertexes;   // Returned value
         
-        Long[]   ids;    // Synset ids
+        long[]   ids;    // Synset ids
         
         int i;  // Counter
         
         // We build the vector of vertxes ID (synsets)
         
-        ids = new Long[synsets.length];
+        ids = new long[synsets.length];
         
         // We get the ids of the synsets
         
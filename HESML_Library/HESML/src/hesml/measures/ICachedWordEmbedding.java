@@ -0,0 +1,93 @@
+/*
+ * Copyright (C) 2016-2022 Universidad Nacional de Educación a Distancia (UNED)
+ *
+ * This program is free software for non-commercial use:
+ * you can redistribute it and/or modify it under the terms of the
+ * Creative Commons Attribution-NonCommercial-ShareAlike 4.0 International
+ * (CC BY-NC-SA 4.0) as published by the Creative Commons Corporation,
+ * either version 4 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * section 5 of the CC BY-NC-SA 4.0 License for more details.
+ *
+ * You should have received a copy of the Creative Commons
+ * Attribution-NonCommercial-ShareAlike 4.0 International (CC BY-NC-SA 4.0)
+ * license along with this program. If not,
+ * see <http://creativecommons.org/licenses/by-nc-sa/4.0/>.
+ *
+ */
+
+package hesml.measures;
+
+/**
+ * This interface represents a pre-trained word embedding model whose
+ * decoded word vectors are kept into a bounded LRU cache, with the aim
+ * of avoiding the file accesses required by the disk-backed models
+ * for the most frequently queried words.
+ * @author j.lastra
+ */
+
+public interface ICachedWordEmbedding extends IPretrainedWordEmbedding
+{
+    /**
+     * This function loads into the cache the vectors of the input words
+     * contained in the model. The words beyond the cache capacity
+     * evict the least recently used vectors.
+     * @param strWords
+     * @throws Exception
+     */
+    
+    void preloadWords(String[] strWords) throws Exception;
+    
+    /**
+     * This function returns the number of vector queries solved by the cache.
+     * @return
+     */
+    
+    long getHitCount();
+    
+    /**
+     * This function returns the number of vector queries which required
+     * reading the vector from the underlying model.
+     * @return
+     */
+    
+    long getMissCount();
+    
+    /**
+     * This function returns the ratio of vector queries solved by the cache.
+     * @return
+     */
+    
+    double getHitRate();
+    
+    /**
+     * This function returns the number of vectors in the cache.
+     * @return
+     */
+    
+    int getCachedVectorCount();
+    
+    /**
+     * This function returns the estimated memory used by the cached vectors.
+     * @return Bytes used
+     */
+    
+    long getCachedBytes();
+    
+    /**
+     * This function returns the maximum memory used by the cached vectors.
+     * @return Capacity in bytes
+     */
+    
+    long getCacheCapacity();
+    
+    /**
+     * This function removes all vectors from the cache and resets
+     * the hit and miss counters.
+     */
+    
+    void clearCache();
+}
@@ -62,4 +62,11 @@ public interface IPretrainedWordEmbedding extends IWordSimilarityMeasure
      */
     
     int getVectorDimension();
+    
+    /**
+     * This function returns all the words contained in the model.
+     * @return 
+     */
+    
+    String[] getVocabulary();
 }
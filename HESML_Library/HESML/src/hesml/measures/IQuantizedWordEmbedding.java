@@ -0,0 +1,50 @@
+/*
+ * Copyright (C) 2016-2022 Universidad Nacional de Educación a Distancia (UNED)
+ *
+ * This program is free software for non-commercial use:
+ * you can redistribute it and/or modify it under the terms of the
+ * Creative Commons Attribution-NonCommercial-ShareAlike 4.0 International
+ * (CC BY-NC-SA 4.0) as published by the Creative Commons Corporation,
+ * either version 4 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * section 5 of the CC BY-NC-SA 4.0 License for more details.
+ *
+ * You should have received a copy of the Creative Commons
+ * Attribution-NonCommercial-ShareAlike 4.0 International (CC BY-NC-SA 4.0)
+ * license along with this program. If not,
+ * see <http://creativecommons.org/licenses/by-nc-sa/4.0/>.
+ *
+ */
+
+package hesml.measures;
+
+/**
+ * This interface represents a pre-trained word embedding model whose
+ * word vectors are compressed by a lossy quantization. The model reports
+ * the accuracy loss measured on random word pairs when it was built.
+ * @author j.lastra
+ */
+
+public interface IQuantizedWordEmbedding extends IPretrainedWordEmbedding
+{
+    /**
+     * This function returns the Pearson correlation between the cosine
+     * similarity computed with the original and quantized vectors,
+     * or NaN if it was not measured.
+     * @return Pearson correlation
+     */
+    
+    double getQuantizationPearsonCorrelation();
+    
+    /**
+     * This function returns the mean absolute error of the cosine
+     * similarity computed with the quantized vectors, or NaN if
+     * it was not measured.
+     * @return Mean absolute error
+     */
+    
+    double getQuantizationMeanAbsoluteError();
+}
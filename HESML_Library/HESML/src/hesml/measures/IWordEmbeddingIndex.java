@@ -0,0 +1,126 @@
+/*
+ * Copyright (C) 2016-2022 Universidad Nacional de Educación a Distancia (UNED)
+ *
+ * This program is free software for non-commercial use:
+ * you can redistribute it and/or modify it under the terms of the
+ * Creative Commons Attribution-NonCommercial-ShareAlike 4.0 International
+ * (CC BY-NC-SA 4.0) as published by the Creative Commons Corporation,
+ * either version 4 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * section 5 of the CC BY-NC-SA 4.0 License for more details.
+ *
+ * You should have received a copy of the Creative Commons
+ * Attribution-NonCommercial-ShareAlike 4.0 International (CC BY-NC-SA 4.0)
+ * license along with this program. If not,
+ * see <http://creativecommons.org/licenses/by-nc-sa/4.0/>.
+ *
+ */
+
+package hesml.measures;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+
+/**
+ * This interface represents an approximate nearest-neighbour index built
+ * on the word vectors of a pre-trained word embedding model, which allows
+ * the most similar words to any input word to be retrieved without
+ * scanning the whole vocabulary of the model.
+ * @author j.lastra
+ */
+
+public interface IWordEmbeddingIndex
+{
+    /**
+     * This function returns the k most similar words to the input word
+     * sorted in descending order by their cosine similarity. The input
+     * word is excluded from the output. If the word is not contained
+     * in the index, the function returns an empty collection.
+     * @param strWord
+     * @param k Number of neighbours to be retrieved
+     * @return Words and their cosine similarity with the input word
+     * @throws java.lang.Exception
+     */
+    
+    LinkedHashMap<String, Double> getMostSimilarWords(
+            String  strWord,
+            int     k) throws Exception;
+    
+    /**
+     * This function returns the k most similar words to the input vector
+     * sorted in descending order by their cosine similarity.
+     * @param vector Query vector with the same dimension as the index
+     * @param k Number of neighbours to be retrieved
+     * @return Words and their cosine similarity with the input vector
+     * @throws java.lang.Exception
+     */
+    
+    LinkedHashMap<String, Double> getMostSimilarWords(
+            double[]    vector,
+            int         k) throws Exception;
+    
+    /**
+     * This function sets the size of the dynamic candidate list used
+     * during the search. Larger values increase the recall at the
+     * expense of a higher query latency.
+     * @param searchListSize
+     */
+    
+    void setSearchListSize(int searchListSize);
+    
+    /**
+     * This function returns the size of the dynamic candidate list used
+     * during the search.
+     * @return
+     */
+    
+    int getSearchListSize();
+    
+    /**
+     * This function returns the maximum number of connections per
+     * vertex (M) used to build the index.
+     * @return
+     */
+    
+    int getMaxConnections();
+    
+    /**
+     * This function returns the size of the dynamic candidate list used
+     * during the construction of the index.
+     * @return
+     */
+    
+    int getConstructionListSize();
+    
+    /**
+     * This function returns the number of words indexed.
+     * @return
+     */
+    
+    int getWordCount();
+    
+    /**
+     * This function returns the dimensions of the vectors in the index.
+     * @return
+     */
+    
+    int getVectorDimension();
+    
+    /**
+     * This function saves the index into a binary file.
+     * @param strIndexFilename
+     * @throws IOException
+     */
+    
+    void save(String strIndexFilename) throws IOException;
+    
+    /**
+     * This function is called with the aim of releasing all resources used
+     * by the index.
+     */
+    
+    void clear();
+}
@@ -500,5 +500,6 @@ public enum SimilarityMeasureType
     EMBWordEmbedding,
     UKBppvEmbedding,
     NasariEmbedding,
-    FastTextBinaryWordEmbedding
+    FastTextBinaryWordEmbedding,
+    ProductQuantizedWordEmbedding
 }
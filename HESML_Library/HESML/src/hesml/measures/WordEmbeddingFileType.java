@@ -30,5 +30,6 @@ package hesml.measures;
 public enum WordEmbeddingFileType
 {
     BioWordVecBinaryWordEmbedding,
-    FastTextVecWordEmbedding
+    FastTextVecWordEmbedding,
+    ProductQuantizedWordEmbedding
 }
@@ -0,0 +1,459 @@
+/*
+ * Copyright (C) 2016-2022 Universidad Nacional de Educación a Distancia (UNED)
+ *
+ * This program is free software for non-commercial use:
+ * you can redistribute it and/or modify it under the terms of the
+ * Creative Commons Attribution-NonCommercial-ShareAlike 4.0 International
+ * (CC BY-NC-SA 4.0) as published by the Creative Commons Corporation,
+ * either version 4 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * section 5 of the CC BY-NC-SA 4.0 License for more details.
+ *
+ * You should have received a copy of the Creative Commons
+ * Attribution-NonCommercial-ShareAlike 4.0 International (CC BY-NC-SA 4.0)
+ * license along with this program. If not,
+ * see <http://creativecommons.org/licenses/by-nc-sa/4.0/>.
+ *
+ */
+
+package hesml.measures.impl;
+
+import hesml.measures.ICachedWordEmbedding;
+import hesml.measures.IPretrainedWordEmbedding;
+import hesml.measures.SimilarityMeasureClass;
+import hesml.measures.SimilarityMeasureType;
+import hesml.measures.WordEmbeddingFileType;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * This class implements a bounded LRU cache of decoded word vectors placed
+ * in front of a pre-trained word embedding model. This cache is especially
+ * intended for the disk-backed models, such as the BioWordVec and FastText
+ * ones, which read the file for every vector query, whilst the sentence
+ * similarity datasets reuse heavily a small vocabulary. All the queries
+ * are thread-safe provided that the underlying model supports
+ * concurrent vector queries.
+ * @author j.lastra
+ */
+
+class CachedWordEmbeddingModel implements ICachedWordEmbedding
+{
+    /**
+     * Underlying word embedding model
+     */
+    
+    private final IPretrainedWordEmbedding  m_Model;
+    
+    /**
+     * Decoded vectors sorted in access order, thus the first entry
+     * is the least recently used one.
+     */
+    
+    private final LinkedHashMap<String, double[]>   m_Cache;
+    
+    /**
+     * Maximum number of vectors in the cache and estimated memory
+     * used by every cached vector.
+     */
+    
+    private final int   m_MaxVectorCount;
+    private final long  m_VectorBytes;
+    
+    /**
+     * Query counters
+     */
+    
+    private long    m_HitCount;
+    private long    m_MissCount;
+    
+    /**
+     * Constructor
+     * @param model Underlying word embedding model
+     * @param cacheCapacity Maximum memory used by the cached vectors in bytes
+     */
+    
+    CachedWordEmbeddingModel(
+            IPretrainedWordEmbedding    model,
+            long                        cacheCapacity)
+    {
+        // We save the underlying model
+        
+        m_Model = model;
+        
+        // We estimate the memory used by every vector, including the
+        // array header, to compute the maximum number of cached vectors
+        
+        m_VectorBytes = 16L + 8L * model.getVectorDimension();
+        m_MaxVectorCount = (int)Math.min(Integer.MAX_VALUE, Math.max(0L, cacheCapacity) / m_VectorBytes);
+        
+        // We create the LRU cache, which removes the least recently
+        // used vector when the capacity is exceeded
+        
+        m_Cache = new LinkedHashMap<String, double[]>(16, 0.75f, true)
+        {
+            @Override
+            protected boolean removeEldestEntry(
+                    Map.Entry<String, double[]> eldest)
+            {
+                return (size() > m_MaxVectorCount);
+            }
+        };
+    }
+    
+    /**
+     * This function returns the decoded vector of a word contained in the
+     * model, which is read from the underlying model and cached whether
+     * it is not found in the cache. The returned vector is shared with
+     * the cache, thus it must not be modified.
+     * @param strWord
+     * @param countQuery Flag to update the hit and miss counters
+     * @return
+     * @throws Exception 
+     */
+    
+    private double[] getCachedVector(
+            String  strWord,
+            boolean countQuery) throws Exception
+    {
+        // We look for the vector in the cache
+        
+        double[] vector;
+        
+        synchronized (m_Cache)
+        {
+            vector = m_Cache.get(strWord);
+            
+            if (countQuery)
+            {
+                if (vector != null)
+                {
+                    m_HitCount++;
+                }
+                else
+                {
+                    m_MissCount++;
+                }
+            }
+        }
+        
+        // We read the vector out of the lock in order to allow concurrent
+        // file accesses, thus a vector could be read twice by two threads
+        
+        if (vector == null)
+        {
+            vector = m_Model.getWordVector(strWord);
+            
+            synchronized (m_Cache)
+            {
+                m_Cache.put(strWord, vector);
+            }
+        }
+        
+        // We return the result
+        
+        return (vector);
+    }
+    
+    /**
+     * This function returns the vector corresponding to the input word,
+     * or a zero-value vector if the word is not in the model.
+     * @param strWord
+     * @return
+     * @throws Exception 
+     */
+    
+    @Override
+    public double[] getWordVector(
+            String  strWord) throws Exception
+    {
+        // We only cache the vectors of the words contained in the model
+        
+        double[] vector = m_Model.ContainsWord(strWord) ?
+                            getCachedVector(strWord, true).clone() :
+                            new double[m_Model.getVectorDimension()];
+        
+        // We return the result
+        
+        return (vector);
+    }
+    
+    /**
+     * This function loads into the cache the vectors of the input words
+     * contained in the model. The words beyond the cache capacity
+     * evict the least recently used vectors.
+     * @param strWords
+     * @throws Exception
+     */
+    
+    @Override
+    public void preloadWords(
+            String[]    strWords) throws Exception
+    {
+        // Debug message
+        
+        System.out.println("Preloading " + strWords.length + " word vectors into the cache of " + m_Model);
+        
+        // We load the vectors without updating the query counters
+        
+        for (String strWord : strWords)
+        {
+            if (m_Model.ContainsWord(strWord))
+            {
+                getCachedVector(strWord, false);
+            }
+        }
+        
+        // Debug message
+        
+        System.out.println(getCachedVectorCount() + " word vectors cached ("
+                + getCachedBytes() + " bytes)");
+    }
+    
+    /**
+     * This function returns the number of vector queries solved by the cache.
+     * @return
+     */
+    
+    @Override
+    public long getHitCount()
+    {
+        synchronized (m_Cache)
+        {
+            return (m_HitCount);
+        }
+    }
+    
+    /**
+     * This function returns the number of vector queries which required
+     * reading the vector from the underlying model.
+     * @return
+     */
+    
+    @Override
+    public long getMissCount()
+    {
+        synchronized (m_Cache)
+        {
+            return (m_MissCount);
+        }
+    }
+    
+    /**
+     * This function returns the ratio of vector queries solved by the cache.
+     * @return
+     */
+    
+    @Override
+    public double getHitRate()
+    {
+        synchronized (m_Cache)
+        {
+            long queryCount = m_HitCount + m_MissCount;
+            
+            return ((queryCount > 0) ? (double)m_HitCount / queryCount : 0.0);
+        }
+    }
+    
+    /**
+     * This function returns the number of vectors in the cache.
+     * @return
+     */
+    
+    @Override
+    public int getCachedVectorCount()
+    {
+        synchronized (m_Cache)
+        {
+            return (m_Cache.size());
+        }
+    }
+    
+    /**
+     * This function returns the estimated memory used by the cached vectors.
+     * @return Bytes used
+     */
+    
+    @Override
+    public long getCachedBytes()
+    {
+        return (getCachedVectorCount() * m_VectorBytes);
+    }
+    
+    /**
+     * This function returns the maximum memory used by the cached vectors.
+     * @return Capacity in bytes
+     */
+    
+    @Override
+    public long getCacheCapacity()
+    {
+        return (m_MaxVectorCount * m_VectorBytes);
+    }
+    
+    /**
+     * This function removes all vectors from the cache and resets
+     * the hit and miss counters.
+     */
+    
+    @Override
+    public void clearCache()
+    {
+        synchronized (m_Cache)
+        {
+            m_Cache.clear();
+            
+            m_HitCount = 0;
+            m_MissCount = 0;
+        }
+    }
+    
+    /**
+     * This function is called with the aim of releasing all resources used
+     * by the measure.
+     */
+    
+    @Override
+    public void clear()
+    {
+        clearCache();
+        m_Model.clear();
+    }
+    
+    /**
+     * This function returns the type of pre-trained file managed by the
+     * object.
+     * @return 
+     */
+    
+    @Override
+    public WordEmbeddingFileType getWordEmbeddingFileType()
+    {
+        return (m_Model.getWordEmbeddingFileType());
+    }
+    
+    /**
+     * This function returns the name of the vectors file.
+     * @return 
+     */
+    
+    @Override
+    public String toString()
+    {
+        return (m_Model.toString());
+    }
+    
+    /**
+     * This function returns the similarity measure class.
+     * @return 
+     */
+    
+    @Override
+    public SimilarityMeasureClass getMeasureClass()
+    {
+        return (m_Model.getMeasureClass());
+    }
+    
+    /**
+     * This function returns the measure type.
+     * @return 
+     */
+    
+    @Override
+    public SimilarityMeasureType getMeasureType()
+    {
+        return (m_Model.getMeasureType());
+    }
+    
+    /**
+     * This function returns the semantic measure between two words.
+     * @param strWord1 The first word
+     * @param strWord2 The second word
+     * @return 
+     * @throws java.lang.InterruptedException 
+     */
+    
+    @Override
+    public double getSimilarity(
+            String strWord1,
+            String strWord2) throws InterruptedException, Exception
+    {
+        double similarity = 0.0;    // Returned value
+        
+        // We get the vectors representing both words without copying
+        // the cached ones
+        
+        double[] word1 = m_Model.ContainsWord(strWord1) ?
+                            getCachedVector(strWord1, true) :
+                            new double[m_Model.getVectorDimension()];
+        
+        double[] word2 = m_Model.ContainsWord(strWord2) ?
+                            getCachedVector(strWord2, true) :
+                            new double[m_Model.getVectorDimension()];
+        
+        // We compute the cosine similarity function (dot product)
+        
+        for (int i = 0; i < word1.length; i++)
+        {
+            similarity += word1[i] * word2[i];
+        }
+        
+        // We divide by the vector norms
+        
+        similarity /= (MeasureFactory.getVectorNorm(word1) * MeasureFactory.getVectorNorm(word2));
+        
+        // We return the result
+        
+        return (similarity);
+    }
+    
+    /**
+     * This function returns the value returned by the similarity measure when
+     * there is none similarity between both input concepts, or the concept
+     * is not contained in the taxonomy.
+     * @return 
+     */
+    
+    @Override
+    public double getNullSimilarityValue()
+    {
+        return (m_Model.getNullSimilarityValue());
+    }
+    
+    /**
+     * This function checks the existence of the word in the model.
+     * @param strWord
+     * @return 
+     */
+    
+    @Override
+    public boolean ContainsWord(String strWord)
+    {
+        return (m_Model.ContainsWord(strWord));
+    }
+    
+    /**
+     * This function returns the dimensions of the vectors in the model.
+     * @return 
+     */
+    
+    @Override
+    public int getVectorDimension()
+    {
+        return (m_Model.getVectorDimension());
+    }
+    
+    /**
+     * This function returns all the words contained in the model.
+     * @return 
+     */
+    
+    @Override
+    public String[] getVocabulary()
+    {
+        return (m_Model.getVocabulary());
+    }
+}
@@ -28,12 +28,12 @@ package hesml.measures.impl;
 import hesml.measures.IWordSimilarityMeasure;
 import hesml.measures.SimilarityMeasureClass;
 import hesml.measures.SimilarityMeasureType;
-import java.io.BufferedReader;
+import hesml.utils.ParallelTextFileReader;
 import java.io.File;
 import java.io.FileNotFoundException;
-import java.io.FileReader;
 import java.io.IOException;
 import java.text.ParseException;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
 
@@ -100,43 +100,43 @@ class EMBWordEmbeddingModel implements IWordSimilarityMeasure
         
         System.out.println("Loading words vectors from " + m_strRawPretrainedEmbeddingFilename);
         
-        // We scan the sense vector file to retrieve all senses at the same time
+        // We scan the vector file in parallel. Each chunk parses the
+        // vectors of the pending words found in its lines.
         
-        BufferedReader reader = new BufferedReader(new FileReader(m_strRawPretrainedEmbeddingFilename), 1000000);
+        ArrayList<HashMap<String, Double[]>> chunkVectors = ParallelTextFileReader.parseFile(
+                m_strRawPretrainedEmbeddingFilename, HashMap::new,
+                (vectors, buffer, start, end) ->
+                {
+                    // We get the word of the line
+                    
+                    int wordEnd = ParallelTextFileReader.indexOf(buffer, start, end, (byte)' ');
+                    
+                    if (wordEnd < end)
+                    {
+                        // We normalize the multiple-word terms by removing the unbderline
+                        
+                        String strWord = ParallelTextFileReader.getString(buffer, start, wordEnd).replace('_', ' ');
+                        
+                        // We save the first vector of any pending word
+                        
+                        if (pendingWords.contains(strWord) && !vectors.containsKey(strWord))
+                        {
+                            vectors.put(strWord, parseWordVector(
+                                    ParallelTextFileReader.getString(buffer, start, end)));
+                        }
+                    }
+                });
         
-        String strLine = reader.readLine();
+        // We merge the chunk results in file order keeping the
+        // first vector found for each word
         
-        while ((strLine != null) && (pendingWords.size() > 0))
+        for (HashMap<String, Double[]> vectors : chunkVectors)
         {
-            // We get the word of the line
-            
-            String strWord = strLine.substring(0, strLine.indexOf(" "));
-            
-            // We normalize the multiple-word terms by removing the unbderline
-            
-            strWord = strWord.replace('_', ' ');
-            
-            // We check if the sense is in the list
-            
-            if (pendingWords.contains(strWord))
+            for (String strWord : vectors.keySet())
             {
-                // We save the sense vector
-                
-                m_bufferedWordVectors.put(strWord, parseWordVector(strLine));
-                
-                // We remove the sense from list
-                
-                pendingWords.remove(strWord);
+                m_bufferedWordVectors.putIfAbsent(strWord, vectors.get(strWord));
             }
-            
-            // We read the next line
-            
-            strLine = reader.readLine();
         }
-               
-        // We close the file
-        
-        reader.close();
     }
     
     /**
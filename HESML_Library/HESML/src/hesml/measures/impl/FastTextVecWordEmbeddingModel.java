@@ -368,4 +368,23 @@ class FastTextVecWordEmbeddingModel implements IPretrainedWordEmbedding
     {
         return (m_VectorDimension);
     }
+    
+    /**
+     * This function returns all the words contained in the model.
+     * @return 
+     */
+    
+    @Override
+    public String[] getVocabulary()
+    {
+        // We copy the words indexed in the offsets table
+        
+        String[] strWords = new String[m_WordOffsetsInFile.size()];
+        
+        m_WordOffsetsInFile.keySet().toArray(strWords);
+        
+        // We return the result
+        
+        return (strWords);
+    }
 }
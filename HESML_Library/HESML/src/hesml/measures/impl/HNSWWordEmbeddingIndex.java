@@ -0,0 +1,1296 @@
+/*
+ * Copyright (C) 2016-2022 Universidad Nacional de Educación a Distancia (UNED)
+ *
+ * This program is free software for non-commercial use:
+ * you can redistribute it and/or modify it under the terms of the
+ * Creative Commons Attribution-NonCommercial-ShareAlike 4.0 International
+ * (CC BY-NC-SA 4.0) as published by the Creative Commons Corporation,
+ * either version 4 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * section 5 of the CC BY-NC-SA 4.0 License for more details.
+ *
+ * You should have received a copy of the Creative Commons
+ * Attribution-NonCommercial-ShareAlike 4.0 International (CC BY-NC-SA 4.0)
+ * license along with this program. If not,
+ * see <http://creativecommons.org/licenses/by-nc-sa/4.0/>.
+ *
+ */
+
+package hesml.measures.impl;
+
+import hesml.measures.IPretrainedWordEmbedding;
+import hesml.measures.IWordEmbeddingIndex;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Random;
+
+/**
+ * This class implements a Hierarchical Navigable Small World (HNSW) graph
+ * index [1] on the normalized word vectors of any pre-trained word
+ * embedding model, which allows the most similar words to any input word
+ * to be retrieved in logarithmic time. The index is defined by the
+ * maximum number of connections per vertex (M) and the size of the dynamic
+ * candidate lists used during the construction and search processes.
+ *
+ * [1] Y.A. Malkov, D.A. Yashunin, Efficient and robust approximate nearest
+ *     neighbor search using Hierarchical Navigable Small World graphs,
+ *     IEEE Trans. Pattern Anal. Mach. Intell. 42 (2020) 824–836.
+ *
+ * @author j.lastra
+ */
+
+class HNSWWordEmbeddingIndex implements IWordEmbeddingIndex
+{
+    /**
+     * Signature and version of the index files
+     */
+    
+    private static final int    FILE_SIGNATURE = 0x484E5357;
+    private static final int    FILE_VERSION = 1;
+    
+    /**
+     * Maximum number of floats stored in every block of word vectors
+     */
+    
+    private static final int    MAX_BLOCK_SIZE = 1 << 24;
+    
+    /**
+     * Words indexed and their position in the index
+     */
+    
+    private String[]    m_Words;
+    
+    private HashMap<String, Integer>    m_WordIds;
+    
+    /**
+     * Normalized word vectors stored in blocks holding a whole number of
+     * vectors, because the vectors of the largest models do not fit into
+     * a single Java array.
+     */
+    
+    private float[][]   m_VectorBlocks;
+    
+    /**
+     * Number of word vectors stored in every block
+     */
+    
+    private int m_VectorsPerBlock;
+    
+    /**
+     * Dimension of the word vectors
+     */
+    
+    private int m_VectorDimension;
+    
+    /**
+     * Maximum number of connections per vertex in the upper layers.
+     * The bottom layer allows twice this number of connections.
+     */
+    
+    private int m_MaxConnections;
+    
+    /**
+     * Size of the dynamic candidate list used to build the index
+     */
+    
+    private int m_ConstructionListSize;
+    
+    /**
+     * Size of the dynamic candidate list used during the search
+     */
+    
+    private int m_SearchListSize;
+    
+    /**
+     * Adjacency lists of each vertex per layer. The first position
+     * of each list stores the number of neighbours.
+     */
+    
+    private int[][][]   m_Links;
+    
+    /**
+     * Entry point and top layer of the graph
+     */
+    
+    private int m_EntryPoint;
+    private int m_MaxLevel;
+    
+    /**
+     * Visiting marks used by the search algorithm of each thread
+     */
+    
+    private final ThreadLocal<int[]>    m_VisitedMarks;
+    private final ThreadLocal<int[]>    m_VisitedStamp;
+    
+    /**
+     * Constructor to build the index from a pre-trained model.
+     * @param model Word embedding model to be indexed
+     * @param maxConnections Maximum number of connections (M)
+     * @param constructionListSize Size of the construction candidate list
+     * @param searchListSize Size of the search candidate list
+     */
+    
+    HNSWWordEmbeddingIndex(
+            IPretrainedWordEmbedding    model,
+            int                         maxConnections,
+            int                         constructionListSize,
+            int                         searchListSize) throws Exception
+    {
+        // We check the input parameters
+        
+        if ((maxConnections < 2) || (constructionListSize < 1) || (searchListSize < 1))
+        {
+            String strError = "Wrong HNSW index parameters";
+            throw (new IllegalArgumentException(strError));
+        }
+        
+        // We save the index parameters
+        
+        m_MaxConnections = maxConnections;
+        m_ConstructionListSize = Math.max(constructionListSize, maxConnections);
+        m_SearchListSize = searchListSize;
+        
+        m_VisitedMarks = new ThreadLocal<>();
+        m_VisitedStamp = new ThreadLocal<>();
+        
+        // We load the word vectors and build the graph
+        
+        loadWordVectors(model);
+        buildGraph();
+    }
+    
+    /**
+     * Constructor to load a previously saved index.
+     * @param strIndexFilename
+     */
+    
+    HNSWWordEmbeddingIndex(
+            String  strIndexFilename) throws IOException
+    {
+        m_VisitedMarks = new ThreadLocal<>();
+        m_VisitedStamp = new ThreadLocal<>();
+        
+        // We load the index
+        
+        loadIndex(strIndexFilename);
+    }
+    
+    /**
+     * This function loads and normalizes all the word vectors of the model.
+     * @param model
+     */
+    
+    private void loadWordVectors(
+            IPretrainedWordEmbedding    model) throws Exception
+    {
+        // Debug message
+        
+        System.out.println("Loading word vectors to build HNSW index for " + model.toString());
+        
+        // We get the vocabulary of the model
+        
+        m_Words = model.getVocabulary();
+        m_VectorDimension = model.getVectorDimension();
+        m_WordIds = new HashMap<>(m_Words.length);
+        
+        createVectorBlocks(m_Words.length);
+        
+        // We copy the normalized vectors
+        
+        for (int iWord = 0; iWord < m_Words.length; iWord++)
+        {
+            m_WordIds.put(m_Words[iWord], iWord);
+            
+            double[] vector = model.getWordVector(m_Words[iWord]);
+            double norm = MeasureFactory.getVectorNorm(vector);
+            
+            if (norm > 0.0)
+            {
+                float[] block = m_VectorBlocks[iWord / m_VectorsPerBlock];
+                int offset = (iWord % m_VectorsPerBlock) * m_VectorDimension;
+                
+                for (int i = 0; i < m_VectorDimension; i++)
+                {
+                    block[offset + i] = (float)(vector[i] / norm);
+                }
+            }
+        }
+    }
+    
+    /**
+     * This function creates the blocks storing the word vectors, whose
+     * overall size is computed with long arithmetic. The vocabularies
+     * whose vectors do not fit into the Java heap are rejected.
+     * @param wordCount Number of word vectors
+     * @throws IOException The vectors do not fit into memory
+     */
+    
+    private void createVectorBlocks(
+            int wordCount) throws IOException
+    {
+        // We check the size of the vectors
+        
+        long floatCount = (long)wordCount * m_VectorDimension;
+        
+        if ((wordCount < 0) || (m_VectorDimension < 1)
+                || (4L * floatCount > Runtime.getRuntime().maxMemory()))
+        {
+            String strError = "The " + wordCount + " word vectors with "
+                    + m_VectorDimension + " dimensions (" + floatCount
+                    + " floats) do not fit into the Java heap of the HNSW index";
+            throw (new IOException(strError));
+        }
+        
+        // We create the blocks, thus every vector is stored in a single block
+        
+        m_VectorsPerBlock = Math.max(1, MAX_BLOCK_SIZE / m_VectorDimension);
+        
+        int blockCount = (int)((wordCount + (long)m_VectorsPerBlock - 1) / m_VectorsPerBlock);
+        
+        m_VectorBlocks = new float[blockCount][];
+        
+        for (int iBlock = 0; iBlock < blockCount; iBlock++)
+        {
+            int vectorCount = Math.min(m_VectorsPerBlock, wordCount - iBlock * m_VectorsPerBlock);
+            
+            m_VectorBlocks[iBlock] = new float[vectorCount * m_VectorDimension];
+        }
+    }
+    
+    /**
+     * This function copies the vector of a vertex into the output array.
+     * @param iNode
+     * @param vector Output vector
+     */
+    
+    private void copyVector(
+            int     iNode,
+            float[] vector)
+    {
+        System.arraycopy(m_VectorBlocks[iNode / m_VectorsPerBlock],
+                (iNode % m_VectorsPerBlock) * m_VectorDimension,
+                vector, 0, m_VectorDimension);
+    }
+    
+    /**
+     * This function inserts all the word vectors into the graph.
+     */
+    
+    private void buildGraph()
+    {
+        // Debug message
+        
+        System.out.println("Building HNSW index of " + m_Words.length + " words");
+        
+        // We start the stopwatch to evaluate the building time
+        
+        long startTime = System.currentTimeMillis();
+        
+        // We initialize the graph
+        
+        m_Links = new int[m_Words.length][][];
+        m_EntryPoint = -1;
+        m_MaxLevel = -1;
+        
+        // We use a fixed seed in order to get reproducible indexes
+        
+        Random random = new Random(m_Words.length);
+        double levelMultiplier = 1.0 / Math.log(m_MaxConnections);
+        
+        // We insert the vertexes one by one
+        
+        for (int iNode = 0; iNode < m_Words.length; iNode++)
+        {
+            int level = (int)(-Math.log(1.0 - random.nextDouble()) * levelMultiplier);
+            
+            insertNode(iNode, level);
+        }
+        
+        // We measure the elapsed time
+        
+        long seconds = (System.currentTimeMillis() - startTime) / 1000;
+        
+        System.out.println("Overall HNSW index building time (seconds) = " + seconds);
+    }
+    
+    /**
+     * This function inserts a new vertex into the graph.
+     * @param iNode
+     * @param level Top layer of the new vertex
+     */
+    
+    private void insertNode(
+            int iNode,
+            int level)
+    {
+        // We create the adjacency lists of the vertex
+        
+        m_Links[iNode] = new int[level + 1][];
+        
+        for (int lc = 0; lc <= level; lc++)
+        {
+            m_Links[iNode][lc] = new int[getMaxConnections(lc) + 1];
+        }
+        
+        // The first vertex becomes the entry point
+        
+        if (m_EntryPoint < 0)
+        {
+            m_EntryPoint = iNode;
+            m_MaxLevel = level;
+            return;
+        }
+        
+        // We get the query vector
+        
+        float[] query = new float[m_VectorDimension];
+        
+        copyVector(iNode, query);
+        
+        // We descend greedily through the upper layers
+        
+        int entryPoint = m_EntryPoint;
+        
+        for (int lc = m_MaxLevel; lc > level; lc--)
+        {
+            entryPoint = searchGreedy(query, entryPoint, lc);
+        }
+        
+        // We connect the vertex in each layer
+        
+        for (int lc = Math.min(level, m_MaxLevel); lc >= 0; lc--)
+        {
+            ScoredNodeHeap candidates = searchLayer(query, entryPoint, m_ConstructionListSize, lc);
+            
+            // We get the candidates sorted by descending similarity
+            
+            int[] sortedNodes = candidates.getSortedNodes();
+            
+            entryPoint = sortedNodes[0];
+            
+            // We select and connect the neighbours
+            
+            int[] neighbours = selectNeighbours(iNode, sortedNodes, m_MaxConnections);
+            
+            for (int neighbour : neighbours)
+            {
+                addLink(iNode, neighbour, lc);
+                addLink(neighbour, iNode, lc);
+            }
+        }
+        
+        // We update the entry point
+        
+        if (level > m_MaxLevel)
+        {
+            m_MaxLevel = level;
+            m_EntryPoint = iNode;
+        }
+    }
+    
+    /**
+     * This function adds a directed link from the source to the target
+     * vertex. If the adjacency list overflows, the neighbours are
+     * pruned with the selection heuristic.
+     * @param source
+     * @param target
+     * @param level
+     */
+    
+    private void addLink(
+            int source,
+            int target,
+            int level)
+    {
+        int[] links = m_Links[source][level];
+        int count = links[0];
+        
+        // We add the link whether there is room enough
+        
+        if (count < links.length - 1)
+        {
+            links[++count] = target;
+            links[0] = count;
+        }
+        else
+        {
+            // We sort the current neighbours and the new one by their
+            // similarity with the source vertex
+            
+            int[] candidates = new int[count + 1];
+            
+            System.arraycopy(links, 1, candidates, 0, count);
+            candidates[count] = target;
+            
+            sortBySimilarity(source, candidates);
+            
+            // We select the new neighbour set
+            
+            int[] neighbours = selectNeighbours(source, candidates, links.length - 1);
+            
+            System.arraycopy(neighbours, 0, links, 1, neighbours.length);
+            links[0] = neighbours.length;
+        }
+    }
+    
+    /**
+     * This function selects the neighbours of a vertex using the heuristic
+     * detailed in [1, alg. 4], which favours diverse directions in order to
+     * keep the graph connected. Pruned candidates fill the remaining room.
+     * @param iNode Source vertex
+     * @param sortedCandidates Candidates sorted by descending similarity
+     * @param maxCount Maximum number of neighbours
+     * @return
+     */
+    
+    private int[] selectNeighbours(
+            int     iNode,
+            int[]   sortedCandidates,
+            int     maxCount)
+    {
+        int[] selected = new int[Math.min(maxCount, sortedCandidates.length)];
+        boolean[] accepted = new boolean[sortedCandidates.length];
+        int selectedCount = 0;
+        
+        // We select the candidates closer to the vertex than to any
+        // previously selected neighbour
+        
+        for (int i = 0; (i < sortedCandidates.length) && (selectedCount < selected.length); i++)
+        {
+            int candidate = sortedCandidates[i];
+            
+            if (candidate == iNode)
+            {
+                continue;
+            }
+            
+            float similarity = getSimilarity(iNode, candidate);
+            boolean good = true;
+            
+            for (int j = 0; good && (j < selectedCount); j++)
+            {
+                good = getSimilarity(candidate, selected[j]) < similarity;
+            }
+            
+            if (good)
+            {
+                selected[selectedCount++] = candidate;
+                accepted[i] = true;
+            }
+        }
+        
+        // We fill the remaining room with the pruned candidates
+        
+        for (int i = 0; (i < sortedCandidates.length) && (selectedCount < selected.length); i++)
+        {
+            if (!accepted[i] && (sortedCandidates[i] != iNode))
+            {
+                selected[selectedCount++] = sortedCandidates[i];
+            }
+        }
+        
+        // We return the result
+        
+        return ((selectedCount == selected.length) ? selected
+                : Arrays.copyOf(selected, selectedCount));
+    }
+    
+    /**
+     * This function sorts the input vertexes by descending similarity
+     * with the source vertex.
+     * @param source
+     * @param nodes
+     */
+    
+    private void sortBySimilarity(
+            int     source,
+            int[]   nodes)
+    {
+        ScoredNodeHeap heap = new ScoredNodeHeap(nodes.length, false);
+        
+        for (int node : nodes)
+        {
+            heap.push(node, getSimilarity(source, node));
+        }
+        
+        System.arraycopy(heap.getSortedNodes(), 0, nodes, 0, nodes.length);
+    }
+    
+    /**
+     * This function returns the most similar vertex to the query vector
+     * by moving greedily through the layer.
+     * @param query
+     * @param entryPoint
+     * @param level
+     * @return
+     */
+    
+    private int searchGreedy(
+            float[] query,
+            int     entryPoint,
+            int     level)
+    {
+        int current = entryPoint;
+        float bestSimilarity = getSimilarity(query, current);
+        boolean changed = true;
+        
+        while (changed)
+        {
+            changed = false;
+            
+            int[] links = m_Links[current][level];
+            
+            for (int i = 1; i <= links[0]; i++)
+            {
+                float similarity = getSimilarity(query, links[i]);
+                
+                if (similarity > bestSimilarity)
+                {
+                    bestSimilarity = similarity;
+                    current = links[i];
+                    changed = true;
+                }
+            }
+        }
+        
+        // We return the result
+        
+        return (current);
+    }
+    
+    /**
+     * This function implements the layer search detailed in [1, alg. 2].
+     * @param query Normalized query vector
+     * @param entryPoint
+     * @param listSize Size of the dynamic candidate list
+     * @param level
+     * @return The closest vertexes found in the layer
+     */
+    
+    private ScoredNodeHeap searchLayer(
+            float[] query,
+            int     entryPoint,
+            int     listSize,
+            int     level)
+    {
+        // We get the visiting marks of the current thread
+        
+        int[] visited = m_VisitedMarks.get();
+        int[] stamp = m_VisitedStamp.get();
+        
+        if ((visited == null) || (visited.length < m_Links.length))
+        {
+            visited = new int[m_Links.length];
+            stamp = new int[1];
+            
+            m_VisitedMarks.set(visited);
+            m_VisitedStamp.set(stamp);
+        }
+        
+        // We get a new visiting mark. Marks are reset on overflow.
+        
+        if (++stamp[0] == Integer.MAX_VALUE)
+        {
+            Arrays.fill(visited, 0);
+            stamp[0] = 1;
+        }
+        
+        int mark = stamp[0];
+        
+        // We create the candidate list and the result list
+        
+        ScoredNodeHeap candidates = new ScoredNodeHeap(listSize * 2, true);
+        ScoredNodeHeap results = new ScoredNodeHeap(listSize + 1, false);
+        
+        float entrySimilarity = getSimilarity(query, entryPoint);
+        
+        candidates.push(entryPoint, entrySimilarity);
+        results.push(entryPoint, entrySimilarity);
+        visited[entryPoint] = mark;
+        
+        // We expand the candidates until no improvement is found
+        
+        while (candidates.size() > 0)
+        {
+            if ((results.size() >= listSize)
+                    && (candidates.peekScore() < results.peekScore()))
+            {
+                break;
+            }
+            
+            int[] links = m_Links[candidates.pop()][level];
+            
+            for (int i = 1; i <= links[0]; i++)
+            {
+                int neighbour = links[i];
+                
+                if (visited[neighbour] != mark)
+                {
+                    visited[neighbour] = mark;
+                    
+                    float similarity = getSimilarity(query, neighbour);
+                    
+                    if ((results.size() < listSize) || (similarity > results.peekScore()))
+                    {
+                        candidates.push(neighbour, similarity);
+                        results.push(neighbour, similarity);
+                        
+                        if (results.size() > listSize)
+                        {
+                            results.pop();
+                        }
+                    }
+                }
+            }
+        }
+        
+        // We return the result
+        
+        return (results);
+    }
+    
+    /**
+     * This function returns the k most similar words to the input word
+     * sorted in descending order by their cosine similarity.
+     * @param strWord
+     * @param k
+     * @return
+     */
+    
+    @Override
+    public LinkedHashMap<String, Double> getMostSimilarWords(
+            String  strWord,
+            int     k) throws Exception
+    {
+        // We initialize the output
+        
+        LinkedHashMap<String, Double> neighbours = new LinkedHashMap<>();
+        
+        // We search the word in the index
+        
+        Integer wordId = m_WordIds.get(strWord);
+        
+        if (wordId != null)
+        {
+            float[] query = new float[m_VectorDimension];
+            
+            copyVector(wordId, query);
+            
+            neighbours = search(query, k, wordId);
+        }
+        
+        // We return the result
+        
+        return (neighbours);
+    }
+    
+    /**
+     * This function returns the k most similar words to the input vector
+     * sorted in descending order by their cosine similarity.
+     * @param vector
+     * @param k
+     * @return
+     */
+    
+    @Override
+    public LinkedHashMap<String, Double> getMostSimilarWords(
+            double[]    vector,
+            int         k) throws Exception
+    {
+        // We check the vector dimension
+        
+        if (vector.length != m_VectorDimension)
+        {
+            String strError = "The query vector dimension does not match the index";
+            throw (new IllegalArgumentException(strError));
+        }
+        
+        // We normalize the query vector
+        
+        float[] query = new float[m_VectorDimension];
+        double norm = MeasureFactory.getVectorNorm(vector);
+        
+        if (norm > 0.0)
+        {
+            for (int i = 0; i < m_VectorDimension; i++)
+            {
+                query[i] = (float)(vector[i] / norm);
+            }
+        }
+        
+        // We return the result
+        
+        return (search(query, k, -1));
+    }
+    
+    /**
+     * This function searches the nearest neighbours of the query vector.
+     * @param query Normalized query vector
+     * @param k Number of neighbours
+     * @param excludedNode Vertex excluded from the output or -1
+     * @return
+     */
+    
+    private LinkedHashMap<String, Double> search(
+            float[] query,
+            int     k,
+            int     excludedNode)
+    {
+        // We initialize the output
+        
+        LinkedHashMap<String, Double> neighbours = new LinkedHashMap<>();
+        
+        if ((k < 1) || (m_EntryPoint < 0))
+        {
+            return (neighbours);
+        }
+        
+        // We descend greedily through the upper layers
+        
+        int entryPoint = m_EntryPoint;
+        
+        for (int lc = m_MaxLevel; lc > 0; lc--)
+        {
+            entryPoint = searchGreedy(query, entryPoint, lc);
+        }
+        
+        // We search the bottom layer
+        
+        ScoredNodeHeap results = searchLayer(query, entryPoint, Math.max(m_SearchListSize, k + 1), 0);
+        
+        // We copy the k best words
+        
+        int[] sortedNodes = results.getSortedNodes();
+        
+        for (int i = 0; (i < sortedNodes.length) && (neighbours.size() < k); i++)
+        {
+            if (sortedNodes[i] != excludedNode)
+            {
+                neighbours.put(m_Words[sortedNodes[i]], (double)getSimilarity(query, sortedNodes[i]));
+            }
+        }
+        
+        // We return the result
+        
+        return (neighbours);
+    }
+    
+    /**
+     * This function returns the cosine similarity between a query vector
+     * and a vertex.
+     * @param query
+     * @param iNode
+     * @return
+     */
+    
+    private float getSimilarity(
+            float[] query,
+            int     iNode)
+    {
+        float similarity = 0.0f;
+        
+        float[] block = m_VectorBlocks[iNode / m_VectorsPerBlock];
+        
+        for (int i = 0, offset = (iNode % m_VectorsPerBlock) * m_VectorDimension; i < m_VectorDimension; i++)
+        {
+            similarity += query[i] * block[offset + i];
+        }
+        
+        return (similarity);
+    }
+    
+    /**
+     * This function returns the cosine similarity between two vertexes.
+     * @param iNode1
+     * @param iNode2
+     * @return
+     */
+    
+    private float getSimilarity(
+            int iNode1,
+            int iNode2)
+    {
+        float similarity = 0.0f;
+        
+        float[] block1 = m_VectorBlocks[iNode1 / m_VectorsPerBlock];
+        float[] block2 = m_VectorBlocks[iNode2 / m_VectorsPerBlock];
+        
+        int offset1 = (iNode1 % m_VectorsPerBlock) * m_VectorDimension;
+        int offset2 = (iNode2 % m_VectorsPerBlock) * m_VectorDimension;
+        
+        for (int i = 0; i < m_VectorDimension; i++)
+        {
+            similarity += block1[offset1 + i] * block2[offset2 + i];
+        }
+        
+        return (similarity);
+    }
+    
+    /**
+     * This function returns the maximum number of connections in a layer.
+     * @param level
+     * @return
+     */
+    
+    private int getMaxConnections(
+            int level)
+    {
+        return ((level == 0) ? 2 * m_MaxConnections : m_MaxConnections);
+    }
+    
+    /**
+     * This function saves the index into a binary file.
+     * @param strIndexFilename
+     * @throws IOException
+     */
+    
+    @Override
+    public void save(
+            String  strIndexFilename) throws IOException
+    {
+        // Debug message
+        
+        System.out.println("Saving HNSW index into " + strIndexFilename);
+        
+        // We open the output file
+        
+        DataOutputStream writer = new DataOutputStream(new BufferedOutputStream(
+                                    new FileOutputStream(strIndexFilename), 1000000));
+        
+        // We write the header
+        
+        writer.writeInt(FILE_SIGNATURE);
+        writer.writeInt(FILE_VERSION);
+        writer.writeInt(m_Words.length);
+        writer.writeInt(m_VectorDimension);
+        writer.writeInt(m_MaxConnections);
+        writer.writeInt(m_ConstructionListSize);
+        writer.writeInt(m_SearchListSize);
+        writer.writeInt(m_MaxLevel);
+        writer.writeInt(m_EntryPoint);
+        
+        // We write the words, vectors and adjacency lists
+        
+        for (int iNode = 0; iNode < m_Words.length; iNode++)
+        {
+            writer.writeUTF(m_Words[iNode]);
+            
+            float[] block = m_VectorBlocks[iNode / m_VectorsPerBlock];
+            int offset = (iNode % m_VectorsPerBlock) * m_VectorDimension;
+            
+            for (int i = 0; i < m_VectorDimension; i++)
+            {
+                writer.writeFloat(block[offset + i]);
+            }
+            
+            writer.writeInt(m_Links[iNode].length);
+            
+            for (int[] links : m_Links[iNode])
+            {
+                writer.writeInt(links[0]);
+                
+                for (int i = 1; i <= links[0]; i++)
+                {
+                    writer.writeInt(links[i]);
+                }
+            }
+        }
+        
+        // We close the file
+        
+        writer.close();
+    }
+    
+    /**
+     * This function loads a previously saved index.
+     * @param strIndexFilename
+     */
+    
+    private void loadIndex(
+            String  strIndexFilename) throws IOException
+    {
+        // Debug message
+        
+        System.out.println("Loading HNSW index from " + strIndexFilename);
+        
+        // We open the input file
+        
+        DataInputStream reader = new DataInputStream(new BufferedInputStream(
+                                    new FileInputStream(strIndexFilename), 1000000));
+        
+        // We check the file format
+        
+        if ((reader.readInt() != FILE_SIGNATURE) || (reader.readInt() != FILE_VERSION))
+        {
+            reader.close();
+            
+            String strError = strIndexFilename + " is not a valid HNSW index file";
+            throw (new IOException(strError));
+        }
+        
+        // We read the header
+        
+        int wordCount = reader.readInt();
+        
+        m_VectorDimension = reader.readInt();
+        m_MaxConnections = reader.readInt();
+        m_ConstructionListSize = reader.readInt();
+        m_SearchListSize = reader.readInt();
+        m_MaxLevel = reader.readInt();
+        m_EntryPoint = reader.readInt();
+        
+        // We create the index tables
+        
+        try
+        {
+            createVectorBlocks(wordCount);
+        }
+        catch (IOException error)
+        {
+            reader.close();
+            throw (error);
+        }
+        
+        m_Words = new String[wordCount];
+        m_WordIds = new HashMap<>(wordCount);
+        m_Links = new int[wordCount][][];
+        
+        // We read the words, vectors and adjacency lists
+        
+        for (int iNode = 0; iNode < wordCount; iNode++)
+        {
+            m_Words[iNode] = reader.readUTF();
+            m_WordIds.put(m_Words[iNode], iNode);
+            
+            float[] block = m_VectorBlocks[iNode / m_VectorsPerBlock];
+            int offset = (iNode % m_VectorsPerBlock) * m_VectorDimension;
+            
+            for (int i = 0; i < m_VectorDimension; i++)
+            {
+                block[offset + i] = reader.readFloat();
+            }
+            
+            m_Links[iNode] = new int[reader.readInt()][];
+            
+            for (int lc = 0; lc < m_Links[iNode].length; lc++)
+            {
+                int count = reader.readInt();
+                
+                int[] links = new int[getMaxConnections(lc) + 1];
+                
+                links[0] = count;
+                
+                for (int i = 1; i <= count; i++)
+                {
+                    links[i] = reader.readInt();
+                }
+                
+                m_Links[iNode][lc] = links;
+            }
+        }
+        
+        // We close the file
+        
+        reader.close();
+    }
+    
+    /**
+     * This function sets the size of the dynamic candidate list used
+     * during the search.
+     * @param searchListSize
+     */
+    
+    @Override
+    public void setSearchListSize(
+            int searchListSize)
+    {
+        if (searchListSize < 1)
+        {
+            String strError = "The search list size must be positive";
+            throw (new IllegalArgumentException(strError));
+        }
+        
+        m_SearchListSize = searchListSize;
+    }
+    
+    /**
+     * This function returns the size of the dynamic candidate list used
+     * during the search.
+     * @return
+     */
+    
+    @Override
+    public int getSearchListSize()
+    {
+        return (m_SearchListSize);
+    }
+    
+    /**
+     * This function returns the maximum number of connections per
+     * vertex (M) used to build the index.
+     * @return
+     */
+    
+    @Override
+    public int getMaxConnections()
+    {
+        return (m_MaxConnections);
+    }
+    
+    /**
+     * This function returns the size of the dynamic candidate list used
+     * during the construction of the index.
+     * @return
+     */
+    
+    @Override
+    public int getConstructionListSize()
+    {
+        return (m_ConstructionListSize);
+    }
+    
+    /**
+     * This function returns the number of words indexed.
+     * @return
+     */
+    
+    @Override
+    public int getWordCount()
+    {
+        return (m_Words.length);
+    }
+    
+    /**
+     * This function returns the dimensions of the vectors in the index.
+     * @return
+     */
+    
+    @Override
+    public int getVectorDimension()
+    {
+        return (m_VectorDimension);
+    }
+    
+    /**
+     * This function is called with the aim of releasing all resources used
+     * by the index.
+     */
+    
+    @Override
+    public void clear()
+    {
+        m_WordIds.clear();
+        m_Words = new String[0];
+        m_VectorBlocks = new float[0][];
+        m_Links = new int[0][][];
+        m_EntryPoint = -1;
+        m_MaxLevel = -1;
+    }
+    
+    /**
+     * This class implements a binary heap of vertexes indexed by their
+     * similarity with the query vector. The heap can be ordered in
+     * descending order (max-heap) or ascending order (min-heap).
+     */
+    
+    private static class ScoredNodeHeap
+    {
+        /**
+         * Vertexes and similarity values
+         */
+        
+        private int[]   m_Nodes;
+        private float[] m_Scores;
+        
+        /**
+         * Number of elements in the heap
+         */
+        
+        private int     m_Size;
+        
+        /**
+         * Flag indicating whether the top element is the maximum one
+         */
+        
+        private final boolean m_MaxHeap;
+        
+        /**
+         * Constructor
+         * @param capacity Initial capacity
+         * @param maxHeap
+         */
+        
+        ScoredNodeHeap(
+                int     capacity,
+                boolean maxHeap)
+        {
+            m_Nodes = new int[Math.max(capacity, 4)];
+            m_Scores = new float[m_Nodes.length];
+            m_MaxHeap = maxHeap;
+        }
+        
+        /**
+         * This function returns the number of elements in the heap.
+         * @return
+         */
+        
+        int size()
+        {
+            return (m_Size);
+        }
+        
+        /**
+         * This function returns the score of the top element.
+         * @return
+         */
+        
+        float peekScore()
+        {
+            return (m_Scores[0]);
+        }
+        
+        /**
+         * This function checks whether the first element must be
+         * placed above the second one.
+         */
+        
+        private boolean isAbove(
+                float   score1,
+                float   score2)
+        {
+            return (m_MaxHeap ? (score1 > score2) : (score1 < score2));
+        }
+        
+        /**
+         * This function inserts a new element into the heap.
+         * @param node
+         * @param score
+         */
+        
+        void push(
+                int     node,
+                float   score)
+        {
+            // We grow the heap when it is full
+            
+            if (m_Size == m_Nodes.length)
+            {
+                m_Nodes = Arrays.copyOf(m_Nodes, 2 * m_Size);
+                m_Scores = Arrays.copyOf(m_Scores, 2 * m_Size);
+            }
+            
+            // We sift up the new element
+            
+            int i = m_Size++;
+            
+            while (i > 0)
+            {
+                int parent = (i - 1) >>> 1;
+                
+                if (!isAbove(score, m_Scores[parent]))
+                {
+                    break;
+                }
+                
+                m_Nodes[i] = m_Nodes[parent];
+                m_Scores[i] = m_Scores[parent];
+                i = parent;
+            }
+            
+            m_Nodes[i] = node;
+            m_Scores[i] = score;
+        }
+        
+        /**
+         * This function removes the top element and returns its vertex.
+         * @return
+         */
+        
+        int pop()
+        {
+            int top = m_Nodes[0];
+            
+            // We move the last element to the top and sift it down
+            
+            int node = m_Nodes[--m_Size];
+            float score = m_Scores[m_Size];
+            
+            int i = 0;
+            
+            while (true)
+            {
+                int child = 2 * i + 1;
+                
+                if (child >= m_Size)
+                {
+                    break;
+                }
+                
+                if ((child + 1 < m_Size) && isAbove(m_Scores[child + 1], m_Scores[child]))
+                {
+                    child++;
+                }
+                
+                if (!isAbove(m_Scores[child], score))
+                {
+                    break;
+                }
+                
+                m_Nodes[i] = m_Nodes[child];
+                m_Scores[i] = m_Scores[child];
+                i = child;
+            }
+            
+            m_Nodes[i] = node;
+            m_Scores[i] = score;
+            
+            // We return the result
+            
+            return (top);
+        }
+        
+        /**
+         * This function empties the heap and returns its vertexes sorted
+         * by descending similarity.
+         * @return
+         */
+        
+        int[] getSortedNodes()
+        {
+            int[] sorted = new int[m_Size];
+            
+            // Max-heaps are popped in descending order whilst
+            // min-heaps are popped in ascending order
+            
+            if (m_MaxHeap)
+            {
+                for (int i = 0; i < sorted.length; i++)
+                {
+                    sorted[i] = pop();
+                }
+            }
+            else
+            {
+                for (int i = sorted.length - 1; i >= 0; i--)
+                {
+                    sorted[i] = pop();
+                }
+            }
+            
+            // We return the result
+            
+            return (sorted);
+        }
+    }
+}
@@ -27,6 +27,7 @@ import hesml.configurators.ITaxonomyInfoConfigurator;
 import hesml.measures.*;
 import hesml.taxonomy.*;
 import hesml.taxonomyreaders.wordnet.IWordNetDB;
+import java.io.File;
 import java.io.IOException;
 import java.security.InvalidParameterException;
 import java.text.ParseException;
@@ -714,10 +715,176 @@ public class MeasureFactory
                 model = new FastTextVecWordEmbeddingModel(strRawVectorFile);
                 
                 break;
+                
+            case ProductQuantizedWordEmbedding:
+             
+                model = new ProductQuantizedEmbeddingModel(strRawVectorFile);
+                
+                break;
+        }
+        
+        // We return the result
+        
+        return (model);
+    }
+    
+    /**
+     * This function loads a word embedding model whose decoded vectors
+     * are kept into a bounded LRU cache. This function is intended for
+     * the disk-backed models, such as the BioWordVec and FastText ones,
+     * which read the model file in every vector query.
+     * @param embeddingType
+     * @param strRawVectorFile
+     * @param cacheCapacity Maximum memory used by the cached vectors in bytes
+     * @return
+     * @throws java.lang.Exception
+     */
+    
+    public static ICachedWordEmbedding getCachedWordEmbeddingModel(
+            WordEmbeddingFileType   embeddingType,
+            String                  strRawVectorFile,
+            long                    cacheCapacity) throws Exception
+    {
+        return (getCachedWordEmbeddingModel(getWordEmbeddingModel(embeddingType,
+                strRawVectorFile), cacheCapacity));
+    }
+    
+    /**
+     * This function returns a bounded LRU cache of decoded vectors
+     * placed in front of the input word embedding model.
+     * @param model
+     * @param cacheCapacity Maximum memory used by the cached vectors in bytes
+     * @return
+     */
+    
+    public static ICachedWordEmbedding getCachedWordEmbeddingModel(
+            IPretrainedWordEmbedding    model,
+            long                        cacheCapacity)
+    {
+        return (new CachedWordEmbeddingModel(model, cacheCapacity));
+    }
+    
+    /**
+     * This function returns a compressed version of a pre-trained word
+     * embedding model based on product quantization. The first call
+     * trains and encodes the quantized model, which is saved into a
+     * companion file next to the model file (*.pq) and the accuracy loss
+     * is reported. Subsequent calls load the quantized model directly.
+     * @param embeddingType Type of the original model
+     * @param strRawVectorFile Filename of the original model
+     * @param subspaceCount Number of subspaces, thus bytes per word vector
+     * @return 
+     * @throws java.lang.Exception 
+     */
+    
+    public static IPretrainedWordEmbedding getProductQuantizedWordEmbeddingModel(
+            WordEmbeddingFileType   embeddingType,
+            String                  strRawVectorFile,
+            int                     subspaceCount) throws Exception
+    {
+        // We initialize the output
+        
+        IPretrainedWordEmbedding model;
+        
+        // We check if the model was previously quantized
+        
+        String strQuantizedFilename = strRawVectorFile + ".pq";
+        
+        if (new File(strQuantizedFilename).exists())
+        {
+            model = new ProductQuantizedEmbeddingModel(strQuantizedFilename);
+        }
+        else
+        {
+            // We load the original model to train the quantized one
+            
+            IPretrainedWordEmbedding rawModel = getWordEmbeddingModel(embeddingType, strRawVectorFile);
+            
+            model = new ProductQuantizedEmbeddingModel(rawModel, subspaceCount, strQuantizedFilename);
+            
+            // We release the original model
+            
+            rawModel.clear();
         }
         
         // We return the result
         
         return (model);
     }
+    
+    /**
+     * This function returns an approximate nearest-neighbour (HNSW) index
+     * built on the word vectors of the input model. The index is saved
+     * into a companion file next to the model file (*.hnsw), which is
+     * loaded instead of rebuilding the index in subsequent calls whether
+     * it was built with the same construction parameters.
+     * @param model Pre-trained model to be indexed
+     * @param strRawVectorFile Filename of the pre-trained model
+     * @param maxConnections Maximum number of connections per vertex (M)
+     * @param constructionListSize Candidate list size during the construction
+     * @param searchListSize Candidate list size during the search
+     * @return 
+     * @throws java.lang.Exception 
+     */
+    
+    public static IWordEmbeddingIndex getWordEmbeddingIndex(
+            IPretrainedWordEmbedding    model,
+            String                      strRawVectorFile,
+            int                         maxConnections,
+            int                         constructionListSize,
+            int                         searchListSize) throws Exception
+    {
+        // We initialize the output
+        
+        IWordEmbeddingIndex index = null;
+        
+        // We check if the index was previously built with the same
+        // construction parameters, which are saved in the file header.
+        // The construction list size is never lower than M.
+        
+        String strIndexFilename = strRawVectorFile + ".hnsw";
+        
+        if (new File(strIndexFilename).exists())
+        {
+            index = new HNSWWordEmbeddingIndex(strIndexFilename);
+            
+            if ((index.getMaxConnections() == maxConnections)
+                    && (index.getConstructionListSize() == Math.max(constructionListSize, maxConnections)))
+            {
+                index.setSearchListSize(searchListSize);
+            }
+            else
+            {
+                index.clear();
+                index = null;
+            }
+        }
+        
+        // We build and save the index whether it is missing or outdated
+        
+        if (index == null)
+        {
+            index = new HNSWWordEmbeddingIndex(model, maxConnections,
+                        constructionListSize, searchListSize);
+            
+            index.save(strIndexFilename);
+        }
+        
+        // We return the result
+        
+        return (index);
+    }
+    
+    /**
+     * This function loads a previously saved word embedding index.
+     * @param strIndexFilename
+     * @return 
+     * @throws java.io.IOException 
+     */
+    
+    public static IWordEmbeddingIndex loadWordEmbeddingIndex(
+            String  strIndexFilename) throws IOException
+    {
+        return (new HNSWWordEmbeddingIndex(strIndexFilename));
+    }
 }
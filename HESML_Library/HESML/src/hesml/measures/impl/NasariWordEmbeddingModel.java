@@ -24,12 +24,13 @@ package hesml.measures.impl;
 import hesml.measures.IWordSimilarityMeasure;
 import hesml.measures.SimilarityMeasureClass;
 import hesml.measures.SimilarityMeasureType;
-import java.io.BufferedReader;
+import hesml.utils.ParallelTextFileReader;
 import java.io.File;
 import java.io.FileNotFoundException;
-import java.io.FileReader;
 import java.io.IOException;
 import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
 
@@ -73,16 +74,18 @@ class NasariWordEmbeddingModel implements IWordSimilarityMeasure
     private final String m_strWordSenseFilename;
     
     /**
-     * Word senses
+     * Word senses. Senses are interned into integer ids during the
+     * loading process and sorted in ascending order.
      */
     
-    private final HashMap<String, HashSet<String>>    m_WordSenses;
+    private final HashMap<String, int[]>    m_WordSenses;
     
     /**
-     * Buffered Sense vectors
+     * Buffered sense vectors indexed by sense id. The coordinates of
+     * each vector store the rank of each synset.
      */
     
-    private final HashMap<String, HashMap<String, Integer>>  m_BufferedSenseVectors;
+    private SparseWordVector[]  m_BufferedSenseVectors;
     
     /**
      * Constructor
@@ -102,12 +105,12 @@ class NasariWordEmbeddingModel implements IWordSimilarityMeasure
         // We initialize the overall tables
                         
         m_WordSenses = new HashMap<>();
-        m_BufferedSenseVectors = new HashMap<>();
         
         // We load the word senses and coords
         
-        loadWordSenses(strWordSenseFilename, words);
-        loadBufferedSenseVectors(words);
+        HashMap<String, Integer> senseIds = loadWordSenses(strWordSenseFilename, words);
+        
+        loadBufferedSenseVectors(senseIds);
     }
     
     /**
@@ -118,78 +121,83 @@ class NasariWordEmbeddingModel implements IWordSimilarityMeasure
     @Override
     public void clear()
     {
-        m_BufferedSenseVectors.clear();
+        m_BufferedSenseVectors = new SparseWordVector[0];
         m_WordSenses.clear();
     }
     
     /**
      * This function retrieves all sense vectors corresponding to the
      * senses of the input words.
-     * @param words 
+     * @param senseIds Interned ids of all senses of the input words
      */
     
     private void loadBufferedSenseVectors(
-        String[]    words) throws IOException, ParseException
+        HashMap<String, Integer>    senseIds) throws IOException, ParseException
     {
         // We create the list of all senses of the input words
         
-        HashSet<String> pendingSenses = new HashSet<>();
+        HashSet<String> pendingSenses = new HashSet<>(senseIds.keySet());
         
-        // We iterate on words to get their senses
+        // We create the sense vector table and the dictionary
+        // used to intern the synsets of the vectors
         
-        for (int i = 0; i < words.length; i++)
-        {
-            if (m_WordSenses.containsKey(words[i]))
-            {
-                pendingSenses.addAll(m_WordSenses.get(words[i]));
-            }
-        }
+        m_BufferedSenseVectors = new SparseWordVector[senseIds.size()];
+        
+        HashMap<String, Integer> synsetIds = new HashMap<>();
         
         // Debug message
         
         System.out.println("Loading sense vectors from " + m_strSenseVectorsFilename);
         
-        // We scan the sense vector file to retrieve all senses at the same time
+        // We scan the sense vector file in parallel. Each chunk collects
+        // the lines of the pending senses found in its byte range.
         
-        BufferedReader reader = new BufferedReader(new FileReader(m_strSenseVectorsFilename), 1000000);
+        ArrayList<HashMap<String, String>> chunkLines = ParallelTextFileReader.parseFile(
+                m_strSenseVectorsFilename, HashMap::new,
+                (lines, buffer, start, end) ->
+                {
+                    // We get the synset of the line
+                    
+                    int senseEnd = ParallelTextFileReader.indexOf(buffer, start, end, (byte)'\t');
+                    
+                    if (senseEnd < end)
+                    {
+                        String strSense = ParallelTextFileReader.getString(buffer, start, senseEnd);
+                        
+                        // We save the first line of any pending sense
+                        
+                        if (pendingSenses.contains(strSense) && !lines.containsKey(strSense))
+                        {
+                            lines.put(strSense, ParallelTextFileReader.getString(buffer, start, end));
+                        }
+                    }
+                });
         
-        String strLine = reader.readLine();
+        // We parse the sense vectors in file order keeping the first
+        // vector found for each sense. The vectors are parsed here
+        // because all of them share the synset dictionary.
         
-        while ((strLine != null) && (pendingSenses.size() > 0))
+        for (HashMap<String, String> lines : chunkLines)
         {
-            // We get the synset of the line
-            
-            String strSense = strLine.substring(0, strLine.indexOf("\t"));
-            
-            // We check if the sense is in the list
-            
-            if (pendingSenses.contains(strSense))
+            for (String strSense : lines.keySet())
             {
-                // We save the sense vector
-                
-                m_BufferedSenseVectors.put(strSense, parseSenseVector(strLine));
+                int senseId = senseIds.get(strSense);
                 
-                // We remove the sense from list
-                
-                pendingSenses.remove(strSense);
+                if (m_BufferedSenseVectors[senseId] == null)
+                {
+                    m_BufferedSenseVectors[senseId] = parseSenseVector(lines.get(strSense), synsetIds);
+                }
             }
-            
-            // We read the next line
-            
-            strLine = reader.readLine();
         }
-        
-        // We close the file
-        
-        reader.close();
     }
     
     /**
      * This function loads the word senses.
      * @param strWordSensesFilename 
+     * @return The interned ids of the senses
      */
     
-    private void loadWordSenses(
+    private HashMap<String, Integer> loadWordSenses(
             String      strWordSensesFilename,
             String[]    strInputWords) throws FileNotFoundException, IOException
     {
@@ -197,10 +205,6 @@ class NasariWordEmbeddingModel implements IWordSimilarityMeasure
         
         System.out.println("Loading word senses from " + strWordSensesFilename);
         
-        // We open the file to read all word senses with a buffer of 10 Mbytes
-        
-        BufferedReader reader = new BufferedReader(new FileReader(strWordSensesFilename), 1000000);
-
         // We create the list of all senses of the input words
         
         HashSet<String> pendingWords = new HashSet<>();
@@ -212,65 +216,100 @@ class NasariWordEmbeddingModel implements IWordSimilarityMeasure
             pendingWords.add(strWord);
         }
         
-        // We read all word senses
+        // We scan the word senses file in parallel. Each chunk collects
+        // the word-sense pairs of the pending words in file order.
+        
+        ArrayList<ArrayList<String[]>> chunkSenses = ParallelTextFileReader.parseFile(
+                strWordSensesFilename, ArrayList::new,
+                (senses, buffer, start, end) ->
+                {
+                    // We get the word of the line
+                    
+                    int wordEnd = ParallelTextFileReader.indexOf(buffer, start, end, (byte)'\t');
+                    
+                    if ((wordEnd < end) && pendingWords.contains(
+                            ParallelTextFileReader.getString(buffer, start, wordEnd)))
+                    {
+                        // We split the line into fields
+                        
+                        String[] strFields = ParallelTextFileReader.getString(buffer, start, end).split("\t");
+                        
+                        if (strFields.length == 2)
+                        {
+                            senses.add(strFields);
+                        }
+                    }
+                });
+        
+        // We create the temporary table of word senses
         
-        String strLine  = reader.readLine();
+        HashMap<String, HashSet<String>> wordSenses = new HashMap<>();
         
-        while (strLine != null)
+        // We merge all word senses
+        
+        for (ArrayList<String[]> senses : chunkSenses)
         {
-            // We split the line into fields
-            
-            String[] strFields = strLine.split("\t");
-            
-            if (strFields.length == 2)
+            for (String[] strFields : senses)
             {
-                // We get the word
-                
-                String strWord = strFields[0];
-                
                 // We check if the word is already in the table
                 
-                if (pendingWords.contains(strWord))
+                if (!wordSenses.containsKey(strFields[0]))
                 {
-                    if (!m_WordSenses.containsKey(strWord))
-                    {
-                        m_WordSenses.put(strWord, new HashSet<>());
-                    }
+                    wordSenses.put(strFields[0], new HashSet<>());
+                }
                 
-                    // We add the sense
+                // We add the sense
                 
-                    m_WordSenses.get(strWord).add(strFields[1]);
-                }
+                wordSenses.get(strFields[0]).add(strFields[1]);
+            }
+        }
+        
+        // We intern the senses and save them sorted by id
+        
+        HashMap<String, Integer> senseIds = new HashMap<>();
+        
+        for (String strWord : wordSenses.keySet())
+        {
+            int[] senses = new int[wordSenses.get(strWord).size()];
+            int iSense = 0;
+            
+            for (String strSense : wordSenses.get(strWord))
+            {
+                senses[iSense++] = SparseWordVector.getInternedId(senseIds, strSense);
             }
             
-            // We read the next line
+            Arrays.sort(senses);
             
-            strLine = reader.readLine();
+            m_WordSenses.put(strWord, senses);
         }
         
-        // We close the file
+        // We return the result
         
-        reader.close();
+        return (senseIds);
     }
 
     /**
      * This function parses a text line in order to retrieve the synset
      * vector of an input sense.
      * @param strSenseLine
+     * @param synsetIds Dictionary used to intern the synsets
      * @return 
      */
     
-    private HashMap<String, Integer> parseSenseVector(
-            String strSenseLine) throws ParseException
+    private SparseWordVector parseSenseVector(
+            String                      strSenseLine,
+            HashMap<String, Integer>    synsetIds) throws ParseException
     {
-        // We initialize the output
-        
-        HashMap<String, Integer> ranksVector = new HashMap<>();
-        
         // We split into fields
-
+        
         String[] strFields = strSenseLine.split("\t");
+        
+        // We create the coordinate buffers
 
+        int[] ids = new int[strFields.length];
+        float[] ranks = new float[strFields.length];
+        int count = 0;
+        
         // We read all vector components which are ranked in accordance
         // with their weigths. We are assuming that the vectors are already
         // sorted by their weights.
@@ -281,13 +320,29 @@ class NasariWordEmbeddingModel implements IWordSimilarityMeasure
 
             if (strSenseWeight.length == 2)
             {
-                ranksVector.put(strSenseWeight[0], rank);
+                ids[count] = SparseWordVector.getInternedId(synsetIds, strSenseWeight[0]);
+                ranks[count++] = rank;
             }
         }
 
+        // We reverse the coordinates because the sparse vector keeps the
+        // first occurrence of duplicated synsets, whilst the ranking
+        // keeps the last one.
+        
+        for (int i = 0, j = count - 1; i < j; i++, j--)
+        {
+            int id = ids[i];
+            float rank = ranks[i];
+            
+            ids[i] = ids[j];
+            ranks[i] = ranks[j];
+            ids[j] = id;
+            ranks[j] = rank;
+        }
+        
         // We return the result
         
-        return (ranksVector);
+        return (new SparseWordVector(ids, ranks, count));
     }
     
     /**
@@ -349,24 +404,32 @@ class NasariWordEmbeddingModel implements IWordSimilarityMeasure
         
         // We obtain the word senses
         
-        HashSet<String> senses1 = m_WordSenses.get(strWord1);
-        HashSet<String> senses2 = m_WordSenses.get(strWord2);
+        int[] senses1 = m_WordSenses.get(strWord1);
+        int[] senses2 = m_WordSenses.get(strWord2);
 
         // We check the existence of the words in the dictionary
         
         if ((senses1 != null) && (senses2 != null)
-                && !senses1.isEmpty() && !senses2.isEmpty())
+                && (senses1.length > 0) && (senses2.length > 0))
         {
             // We initialize the output and state variables
             
             similarity = 0.0;
             boolean synonym = false;
             
-            // We check ids the words are synonym
+            // We check if the words are synonym by merging their sorted senses
             
-            for (String strSense1 : senses1)
+            for (int i = 0, j = 0; (i < senses1.length) && (j < senses2.length); )
             {
-                if (senses2.contains(strSense1))
+                if (senses1[i] < senses2[j])
+                {
+                    i++;
+                }
+                else if (senses1[i] > senses2[j])
+                {
+                    j++;
+                }
+                else
                 {
                     similarity = 1.0;
                     synonym = true;
@@ -386,16 +449,18 @@ class NasariWordEmbeddingModel implements IWordSimilarityMeasure
                 // We evaluate the Cartesian product looking for the
                 // highest similarity value
                 
-                for (String strSense1: senses1)
+                for (int sense1 : senses1)
                 {
-                    for (String strSense2: senses2)
+                    for (int sense2 : senses2)
                     {
                         // We check that both sense vectors exist
 
-                        if (m_BufferedSenseVectors.containsKey(strSense1)
-                            && m_BufferedSenseVectors.containsKey(strSense2))
+                        SparseWordVector vector1 = m_BufferedSenseVectors[sense1];
+                        SparseWordVector vector2 = m_BufferedSenseVectors[sense2];
+                        
+                        if ((vector1 != null) && (vector2 != null))
                         {
-                            scoreMax = Math.max(scoreMax, getWeightedOverlap(strSense1, strSense2));
+                            scoreMax = Math.max(scoreMax, getWeightedOverlap(vector1, vector2));
                             vectorsFound = true;
                         }
                     }
@@ -436,13 +501,16 @@ class NasariWordEmbeddingModel implements IWordSimilarityMeasure
      */
     
     private double getWeightedOverlap(
-            String  strSense1,
-            String  strSense2) throws IOException
+            SparseWordVector    vector1,
+            SparseWordVector    vector2)
     {
-        // We retieve the sense vectors
+        // We retieve the synset ids and ranks of the sense vectors
+        
+        int[] ids1 = vector1.getIds();
+        int[] ids2 = vector2.getIds();
         
-        HashMap<String, Integer> vector1 = m_BufferedSenseVectors.get(strSense1);
-        HashMap<String, Integer> vector2 = m_BufferedSenseVectors.get(strSense2);
+        float[] ranks1 = vector1.getWeights();
+        float[] ranks2 = vector2.getWeights();
         
         // We initialize the score and counters
         
@@ -451,15 +519,24 @@ class NasariWordEmbeddingModel implements IWordSimilarityMeasure
         
         int cont = 0;
         
-        // We compute the weighted overlap score
+        // We compute the weighted overlap score by merging the sorted
+        // synset ids of both vectors
         
-        for (String word: vector1.keySet())
+        for (int i = 0, j = 0; (i < ids1.length) && (j < ids2.length); )
         {
-            if (vector2.containsKey(word))
+            if (ids1[i] < ids2[j])
+            {
+                i++;
+            }
+            else if (ids1[i] > ids2[j])
+            {
+                j++;
+            }
+            else
             {
                 cont += 1;
                 normalization += 1.0 / (2.0 * cont);
-                score_prov += 1.0 / (vector1.get(word) + vector2.get(word));
+                score_prov += 1.0 / (ranks1[i++] + ranks2[j++]);
             }
         }
     
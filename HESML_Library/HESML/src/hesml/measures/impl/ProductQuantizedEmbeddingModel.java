@@ -0,0 +1,933 @@
+/*
+ * Copyright (C) 2016-2022 Universidad Nacional de Educación a Distancia (UNED)
+ *
+ * This program is free software for non-commercial use:
+ * you can redistribute it and/or modify it under the terms of the
+ * Creative Commons Attribution-NonCommercial-ShareAlike 4.0 International
+ * (CC BY-NC-SA 4.0) as published by the Creative Commons Corporation,
+ * either version 4 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * section 5 of the CC BY-NC-SA 4.0 License for more details.
+ *
+ * You should have received a copy of the Creative Commons
+ * Attribution-NonCommercial-ShareAlike 4.0 International (CC BY-NC-SA 4.0)
+ * license along with this program. If not,
+ * see <http://creativecommons.org/licenses/by-nc-sa/4.0/>.
+ *
+ */
+
+package hesml.measures.impl;
+
+import hesml.measures.IPretrainedWordEmbedding;
+import hesml.measures.IQuantizedWordEmbedding;
+import hesml.measures.SimilarityMeasureClass;
+import hesml.measures.SimilarityMeasureType;
+import hesml.measures.WordEmbeddingFileType;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Random;
+import java.util.stream.IntStream;
+
+/**
+ * This class implements a compressed version of any pre-trained word
+ * embedding model based on the product quantization method introduced
+ * in [1]. Word vectors are split into a set of subspaces, and every
+ * sub-vector is replaced by the one-byte index of its closest centroid
+ * in the codebook of its subspace. Thus, the memory cost of every word
+ * vector is reduced to one byte per subspace. Similarity values are
+ * computed directly on the codes by means of the tables of inner
+ * products between centroids of each subspace.
+ *
+ * [1] H. Jégou, M. Douze, C. Schmid, Product quantization for nearest
+ *     neighbor search, IEEE Trans. Pattern Anal. Mach. Intell. 33 (2011)
+ *     117–128.
+ *
+ * @author j.lastra
+ */
+
+class ProductQuantizedEmbeddingModel implements IQuantizedWordEmbedding
+{
+    /**
+     * Signature and version of the quantized model files
+     */
+    
+    private static final int    FILE_SIGNATURE = 0x50514D31;
+    private static final int    FILE_VERSION = 2;
+    
+    /**
+     * Number of centroids per subspace, which allows the codes
+     * to be stored in one byte.
+     */
+    
+    private static final int    CENTROID_COUNT = 256;
+    
+    /**
+     * Maximum number of vectors and iterations used to train the codebooks
+     */
+    
+    private static final int    MAX_TRAINING_VECTORS = 32768;
+    private static final int    TRAINING_ITERATIONS = 20;
+    
+    /**
+     * Number of random word pairs used to evaluate the accuracy loss
+     */
+    
+    private static final int    EVALUATION_PAIRS = 10000;
+    
+    /**
+     * Filename of the quantized model
+     */
+    
+    private final String    m_strQuantizedModelFilename;
+    
+    /**
+     * Words in the model and their position in the code table
+     */
+    
+    private String[]    m_Words;
+    
+    private HashMap<String, Integer>    m_WordIds;
+    
+    /**
+     * Dimension of the word vectors
+     */
+    
+    private int m_VectorDimension;
+    
+    /**
+     * Number of subspaces and first coordinate of each subspace.
+     * The last position stores the vector dimension.
+     */
+    
+    private int     m_SubspaceCount;
+    private int[]   m_SubspaceOffsets;
+    
+    /**
+     * Centroids of each subspace stored as flat arrays
+     */
+    
+    private float[][]   m_Centroids;
+    
+    /**
+     * Codes of the word vectors stored as a flat array with one
+     * byte per subspace.
+     */
+    
+    private byte[]  m_Codes;
+    
+    /**
+     * Inner products between all the centroids of each subspace
+     */
+    
+    private float[][]   m_CentroidProducts;
+    
+    /**
+     * Accuracy loss measured when the model was built, which is
+     * saved into the model file. NaN values mean that the accuracy
+     * loss is unknown.
+     */
+    
+    private double  m_PearsonCorrelation = Double.NaN;
+    private double  m_MeanAbsoluteError = Double.NaN;
+    
+    /**
+     * Constructor to load a previously quantized model.
+     * @param strQuantizedModelFilename
+     */
+    
+    ProductQuantizedEmbeddingModel(
+            String  strQuantizedModelFilename) throws IOException
+    {
+        m_strQuantizedModelFilename = strQuantizedModelFilename;
+        
+        // We load the codebooks and codes
+        
+        loadModel();
+        buildCentroidProducts();
+    }
+    
+    /**
+     * Constructor to train and encode a new quantized model from
+     * a pre-trained model. The new model is saved into the output file.
+     * @param model Pre-trained model to be compressed
+     * @param subspaceCount Number of subspaces (bytes per word)
+     * @param strQuantizedModelFilename Output file
+     */
+    
+    ProductQuantizedEmbeddingModel(
+            IPretrainedWordEmbedding    model,
+            int                         subspaceCount,
+            String                      strQuantizedModelFilename) throws Exception
+    {
+        // We check the number of subspaces
+        
+        if ((subspaceCount < 1) || (subspaceCount > model.getVectorDimension()))
+        {
+            String strError = "Wrong number of subspaces for product quantization";
+            throw (new IllegalArgumentException(strError));
+        }
+        
+        // We initialize the model
+        
+        m_strQuantizedModelFilename = strQuantizedModelFilename;
+        m_VectorDimension = model.getVectorDimension();
+        m_SubspaceCount = subspaceCount;
+        m_Words = model.getVocabulary();
+        
+        setSubspaceOffsets();
+        
+        // We train the codebooks, encode the vectors and save the model
+        
+        trainCodebooks(model);
+        encodeVectors(model);
+        buildCentroidProducts();
+        
+        // We measure the accuracy loss caused by the compression,
+        // which is saved with the model
+        
+        reportAccuracyLoss(model);
+        
+        saveModel();
+    }
+    
+    /**
+     * This function splits the vector coordinates into subspaces
+     * with almost the same dimension.
+     */
+    
+    private void setSubspaceOffsets()
+    {
+        m_SubspaceOffsets = new int[m_SubspaceCount + 1];
+        
+        for (int j = 0; j <= m_SubspaceCount; j++)
+        {
+            m_SubspaceOffsets[j] = (j * m_VectorDimension) / m_SubspaceCount;
+        }
+    }
+    
+    /**
+     * This function trains the codebook of each subspace by applying
+     * the k-means algorithm on a random sample of word vectors.
+     * @param model
+     */
+    
+    private void trainCodebooks(
+            IPretrainedWordEmbedding    model) throws Exception
+    {
+        // Debug message
+        
+        System.out.println("Training product quantization codebooks for " + model.toString());
+        
+        // We start the stopwatch to evaluate the training time
+        
+        long startTime = System.currentTimeMillis();
+        
+        // We select a random sample of training vectors
+        
+        Random random = new Random(m_Words.length);
+        
+        int sampleCount = Math.min(MAX_TRAINING_VECTORS, m_Words.length);
+        
+        final float[][] sample = new float[sampleCount][];
+        
+        for (int i = 0; i < sampleCount; i++)
+        {
+            String strWord = m_Words[(sampleCount < m_Words.length) ?
+                                random.nextInt(m_Words.length) : i];
+            
+            sample[i] = toFloatVector(model.getWordVector(strWord));
+        }
+        
+        // We train the subspaces in parallel
+        
+        m_Centroids = new float[m_SubspaceCount][];
+        
+        IntStream.range(0, m_SubspaceCount).parallel().forEach(
+                j -> m_Centroids[j] = trainSubspaceCodebook(sample, j));
+        
+        // We measure the elapsed time
+        
+        long seconds = (System.currentTimeMillis() - startTime) / 1000;
+        
+        System.out.println("Overall codebook training time (seconds) = " + seconds);
+    }
+    
+    /**
+     * This function computes the centroids of a subspace by applying
+     * the k-means algorithm.
+     * @param sample Training vectors
+     * @param subspace
+     * @return The centroids
+     */
+    
+    private float[] trainSubspaceCodebook(
+            float[][]   sample,
+            int         subspace)
+    {
+        // We get the subspace coordinates
+        
+        int firstCoord = m_SubspaceOffsets[subspace];
+        int dimension = m_SubspaceOffsets[subspace + 1] - firstCoord;
+        
+        // We initialize the centroids with random training vectors
+        
+        Random random = new Random(subspace);
+        
+        float[] centroids = new float[CENTROID_COUNT * dimension];
+        
+        for (int k = 0; k < CENTROID_COUNT; k++)
+        {
+            System.arraycopy(sample[random.nextInt(sample.length)], firstCoord,
+                    centroids, k * dimension, dimension);
+        }
+        
+        // We refine the centroids with the Lloyd iterations
+        
+        int[] assignments = new int[sample.length];
+        double[] sums = new double[CENTROID_COUNT * dimension];
+        int[] counts = new int[CENTROID_COUNT];
+        
+        for (int iter = 0; iter < TRAINING_ITERATIONS; iter++)
+        {
+            // We assign every vector to its closest centroid
+            
+            for (int i = 0; i < sample.length; i++)
+            {
+                assignments[i] = getClosestCentroid(sample[i], firstCoord, centroids, dimension);
+            }
+            
+            // We compute the new centroids
+            
+            Arrays.fill(sums, 0.0);
+            Arrays.fill(counts, 0);
+            
+            for (int i = 0; i < sample.length; i++)
+            {
+                int offset = assignments[i] * dimension;
+                
+                counts[assignments[i]]++;
+                
+                for (int d = 0; d < dimension; d++)
+                {
+                    sums[offset + d] += sample[i][firstCoord + d];
+                }
+            }
+            
+            for (int k = 0; k < CENTROID_COUNT; k++)
+            {
+                // Empty clusters are re-seeded with random vectors
+                
+                if (counts[k] == 0)
+                {
+                    System.arraycopy(sample[random.nextInt(sample.length)], firstCoord,
+                            centroids, k * dimension, dimension);
+                }
+                else
+                {
+                    for (int d = 0; d < dimension; d++)
+                    {
+                        centroids[k * dimension + d] = (float)(sums[k * dimension + d] / counts[k]);
+                    }
+                }
+            }
+        }
+        
+        // We return the result
+        
+        return (centroids);
+    }
+    
+    /**
+     * This function returns the closest centroid to the sub-vector
+     * starting at the input coordinate.
+     * @param vector
+     * @param firstCoord
+     * @param centroids
+     * @param dimension
+     * @return
+     */
+    
+    private int getClosestCentroid(
+            float[] vector,
+            int     firstCoord,
+            float[] centroids,
+            int     dimension)
+    {
+        int closest = 0;
+        float minDistance = Float.MAX_VALUE;
+        
+        // We compute the squared Euclidean distance to each centroid
+        
+        for (int k = 0, offset = 0; k < CENTROID_COUNT; k++, offset += dimension)
+        {
+            float distance = 0.0f;
+            
+            for (int d = 0; d < dimension; d++)
+            {
+                float diff = vector[firstCoord + d] - centroids[offset + d];
+                distance += diff * diff;
+            }
+            
+            if (distance < minDistance)
+            {
+                minDistance = distance;
+                closest = k;
+            }
+        }
+        
+        // We return the result
+        
+        return (closest);
+    }
+    
+    /**
+     * This function encodes all the word vectors of the model.
+     * @param model
+     */
+    
+    private void encodeVectors(
+            IPretrainedWordEmbedding    model) throws Exception
+    {
+        // Debug message
+        
+        System.out.println("Encoding " + m_Words.length + " word vectors");
+        
+        // We create the code table
+        
+        m_Codes = new byte[m_Words.length * m_SubspaceCount];
+        m_WordIds = new HashMap<>(m_Words.length);
+        
+        // We encode every vector
+        
+        for (int iWord = 0; iWord < m_Words.length; iWord++)
+        {
+            m_WordIds.put(m_Words[iWord], iWord);
+            
+            float[] vector = toFloatVector(model.getWordVector(m_Words[iWord]));
+            
+            for (int j = 0; j < m_SubspaceCount; j++)
+            {
+                int dimension = m_SubspaceOffsets[j + 1] - m_SubspaceOffsets[j];
+                
+                m_Codes[iWord * m_SubspaceCount + j] = (byte)getClosestCentroid(
+                        vector, m_SubspaceOffsets[j], m_Centroids[j], dimension);
+            }
+        }
+    }
+    
+    /**
+     * This function computes the inner products between all the
+     * centroids of each subspace.
+     */
+    
+    private void buildCentroidProducts()
+    {
+        m_CentroidProducts = new float[m_SubspaceCount][CENTROID_COUNT * CENTROID_COUNT];
+        
+        for (int j = 0; j < m_SubspaceCount; j++)
+        {
+            int dimension = m_SubspaceOffsets[j + 1] - m_SubspaceOffsets[j];
+            
+            float[] centroids = m_Centroids[j];
+            float[] products = m_CentroidProducts[j];
+            
+            for (int k1 = 0; k1 < CENTROID_COUNT; k1++)
+            {
+                for (int k2 = k1; k2 < CENTROID_COUNT; k2++)
+                {
+                    float product = 0.0f;
+                    
+                    for (int d = 0; d < dimension; d++)
+                    {
+                        product += centroids[k1 * dimension + d] * centroids[k2 * dimension + d];
+                    }
+                    
+                    products[k1 * CENTROID_COUNT + k2] = product;
+                    products[k2 * CENTROID_COUNT + k1] = product;
+                }
+            }
+        }
+    }
+    
+    /**
+     * This function computes the cosine similarity between two encoded
+     * word vectors by adding the inner products between their centroids.
+     * @param iWord1
+     * @param iWord2
+     * @return
+     */
+    
+    double getCodeSimilarity(
+            int iWord1,
+            int iWord2)
+    {
+        double product = 0.0;
+        double norm1 = 0.0;
+        double norm2 = 0.0;
+        
+        int offset1 = iWord1 * m_SubspaceCount;
+        int offset2 = iWord2 * m_SubspaceCount;
+        
+        // We read the inner products from the subspace tables
+        
+        for (int j = 0; j < m_SubspaceCount; j++)
+        {
+            int code1 = m_Codes[offset1 + j] & 0xff;
+            int code2 = m_Codes[offset2 + j] & 0xff;
+            
+            float[] products = m_CentroidProducts[j];
+            
+            product += products[code1 * CENTROID_COUNT + code2];
+            norm1 += products[code1 * CENTROID_COUNT + code1];
+            norm2 += products[code2 * CENTROID_COUNT + code2];
+        }
+        
+        // We compute the cosine function
+        
+        return (((norm1 > 0.0) && (norm2 > 0.0)) ? product / Math.sqrt(norm1 * norm2) : 0.0);
+    }
+    
+    /**
+     * This function reports the accuracy loss of the quantized model by
+     * comparing the cosine similarity of random word pairs computed with
+     * the original and quantized vectors.
+     * @param model Original pre-trained model
+     */
+    
+    private void reportAccuracyLoss(
+            IPretrainedWordEmbedding    model) throws Exception
+    {
+        // We initialize the statistics
+        
+        Random random = new Random(m_Words.length + 1);
+        
+        double[] exactValues = new double[EVALUATION_PAIRS];
+        double[] quantizedValues = new double[EVALUATION_PAIRS];
+        
+        double absError = 0.0;
+        
+        // We evaluate random word pairs
+        
+        for (int i = 0; i < EVALUATION_PAIRS; i++)
+        {
+            int iWord1 = random.nextInt(m_Words.length);
+            int iWord2 = random.nextInt(m_Words.length);
+            
+            double[] vector1 = model.getWordVector(m_Words[iWord1]);
+            double[] vector2 = model.getWordVector(m_Words[iWord2]);
+            
+            double norms = MeasureFactory.getVectorNorm(vector1) * MeasureFactory.getVectorNorm(vector2);
+            double product = 0.0;
+            
+            for (int d = 0; d < vector1.length; d++)
+            {
+                product += vector1[d] * vector2[d];
+            }
+            
+            exactValues[i] = (norms > 0.0) ? product / norms : 0.0;
+            quantizedValues[i] = getCodeSimilarity(iWord1, iWord2);
+            
+            absError += Math.abs(exactValues[i] - quantizedValues[i]);
+        }
+        
+        // We compute the Pearson correlation between both similarity sets
+        
+        double mean1 = Arrays.stream(exactValues).average().orElse(0.0);
+        double mean2 = Arrays.stream(quantizedValues).average().orElse(0.0);
+        
+        double covariance = 0.0;
+        double variance1 = 0.0;
+        double variance2 = 0.0;
+        
+        for (int i = 0; i < EVALUATION_PAIRS; i++)
+        {
+            covariance += (exactValues[i] - mean1) * (quantizedValues[i] - mean2);
+            variance1 += (exactValues[i] - mean1) * (exactValues[i] - mean1);
+            variance2 += (quantizedValues[i] - mean2) * (quantizedValues[i] - mean2);
+        }
+        
+        m_PearsonCorrelation = ((variance1 > 0.0) && (variance2 > 0.0)) ?
+                        covariance / Math.sqrt(variance1 * variance2) : 0.0;
+        
+        m_MeanAbsoluteError = absError / EVALUATION_PAIRS;
+        
+        // We report the results
+        
+        System.out.println("Product quantization (" + m_SubspaceCount + " bytes per word) accuracy loss on "
+                + EVALUATION_PAIRS + " random word pairs:");
+        System.out.println("Pearson correlation with the original cosine similarity = " + m_PearsonCorrelation);
+        System.out.println("Mean absolute error of the cosine similarity = " + m_MeanAbsoluteError);
+    }
+    
+    /**
+     * This function returns the position of the word in the code table
+     * or -1 if the word is not in the model.
+     * @param strWord
+     * @return
+     */
+    
+    int getWordId(
+            String  strWord)
+    {
+        Integer wordId = m_WordIds.get(strWord);
+        
+        return ((wordId != null) ? wordId : -1);
+    }
+    
+    /**
+     * This function converts the input vector into a float vector.
+     * @param vector
+     * @return
+     */
+    
+    private float[] toFloatVector(
+            double[]    vector)
+    {
+        float[] floatVector = new float[vector.length];
+        
+        for (int i = 0; i < vector.length; i++)
+        {
+            floatVector[i] = (float)vector[i];
+        }
+        
+        return (floatVector);
+    }
+    
+    /**
+     * This function saves the quantized model.
+     */
+    
+    private void saveModel() throws IOException
+    {
+        // Debug message
+        
+        System.out.println("Saving quantized model into " + m_strQuantizedModelFilename);
+        
+        // We open the output file
+        
+        DataOutputStream writer = new DataOutputStream(new BufferedOutputStream(
+                                    new FileOutputStream(m_strQuantizedModelFilename), 1000000));
+        
+        // We write the header
+        
+        writer.writeInt(FILE_SIGNATURE);
+        writer.writeInt(FILE_VERSION);
+        writer.writeInt(m_Words.length);
+        writer.writeInt(m_VectorDimension);
+        writer.writeInt(m_SubspaceCount);
+        writer.writeDouble(m_PearsonCorrelation);
+        writer.writeDouble(m_MeanAbsoluteError);
+        
+        // We write the codebooks
+        
+        for (float[] centroids : m_Centroids)
+        {
+            for (float value : centroids)
+            {
+                writer.writeFloat(value);
+            }
+        }
+        
+        // We write the words and their codes
+        
+        for (int iWord = 0; iWord < m_Words.length; iWord++)
+        {
+            writer.writeUTF(m_Words[iWord]);
+            writer.write(m_Codes, iWord * m_SubspaceCount, m_SubspaceCount);
+        }
+        
+        // We close the file
+        
+        writer.close();
+    }
+    
+    /**
+     * This function loads a quantized model.
+     */
+    
+    private void loadModel() throws IOException
+    {
+        // Debug message
+        
+        System.out.println("Loading quantized model from " + m_strQuantizedModelFilename);
+        
+        // We open the input file
+        
+        DataInputStream reader = new DataInputStream(new BufferedInputStream(
+                                    new FileInputStream(m_strQuantizedModelFilename), 1000000));
+        
+        // We check the file format. The files of the first version
+        // do not store the accuracy loss.
+        
+        int fileVersion = (reader.readInt() == FILE_SIGNATURE) ? reader.readInt() : -1;
+        
+        if ((fileVersion < 1) || (fileVersion > FILE_VERSION))
+        {
+            reader.close();
+            
+            String strError = m_strQuantizedModelFilename + " is not a valid quantized model file";
+            throw (new IOException(strError));
+        }
+        
+        // We read the header
+        
+        int wordCount = reader.readInt();
+        
+        m_VectorDimension = reader.readInt();
+        m_SubspaceCount = reader.readInt();
+        
+        if (fileVersion >= 2)
+        {
+            m_PearsonCorrelation = reader.readDouble();
+            m_MeanAbsoluteError = reader.readDouble();
+        }
+        
+        setSubspaceOffsets();
+        
+        // We read the codebooks
+        
+        m_Centroids = new float[m_SubspaceCount][];
+        
+        for (int j = 0; j < m_SubspaceCount; j++)
+        {
+            m_Centroids[j] = new float[CENTROID_COUNT * (m_SubspaceOffsets[j + 1] - m_SubspaceOffsets[j])];
+            
+            for (int i = 0; i < m_Centroids[j].length; i++)
+            {
+                m_Centroids[j][i] = reader.readFloat();
+            }
+        }
+        
+        // We read the words and their codes
+        
+        m_Words = new String[wordCount];
+        m_WordIds = new HashMap<>(wordCount);
+        m_Codes = new byte[wordCount * m_SubspaceCount];
+        
+        for (int iWord = 0; iWord < wordCount; iWord++)
+        {
+            m_Words[iWord] = reader.readUTF();
+            m_WordIds.put(m_Words[iWord], iWord);
+            
+            reader.readFully(m_Codes, iWord * m_SubspaceCount, m_SubspaceCount);
+        }
+        
+        // We close the file
+        
+        reader.close();
+    }
+    
+    /**
+     * This function returns the type of pre-trained file managed by the
+     * object.
+     * @return
+     */
+    
+    @Override
+    public WordEmbeddingFileType getWordEmbeddingFileType()
+    {
+        return (WordEmbeddingFileType.ProductQuantizedWordEmbedding);
+    }
+    
+    /**
+     * This function returns the vector reconstructed from the codes of
+     * the input word, or a zero-value vector if the word is not in the model.
+     * @param strWord
+     * @return
+     */
+    
+    @Override
+    public double[] getWordVector(
+            String  strWord)
+    {
+        // We create the output vector
+        
+        double[] vector = new double[m_VectorDimension];
+        
+        // We copy the centroids of the word
+        
+        int iWord = getWordId(strWord);
+        
+        if (iWord >= 0)
+        {
+            for (int j = 0; j < m_SubspaceCount; j++)
+            {
+                int firstCoord = m_SubspaceOffsets[j];
+                int dimension = m_SubspaceOffsets[j + 1] - firstCoord;
+                int offset = (m_Codes[iWord * m_SubspaceCount + j] & 0xff) * dimension;
+                
+                for (int d = 0; d < dimension; d++)
+                {
+                    vector[firstCoord + d] = m_Centroids[j][offset + d];
+                }
+            }
+        }
+        
+        // We return the result
+        
+        return (vector);
+    }
+    
+    /**
+     * This function returns the semantic measure between two words.
+     * @param strWord1 The first word
+     * @param strWord2 The second word
+     * @return
+     */
+    
+    @Override
+    public double getSimilarity(
+            String strWord1,
+            String strWord2)
+    {
+        // We get the position of the words
+        
+        int iWord1 = getWordId(strWord1);
+        int iWord2 = getWordId(strWord2);
+        
+        // We return the result
+        
+        return (((iWord1 >= 0) && (iWord2 >= 0)) ?
+                getCodeSimilarity(iWord1, iWord2) : getNullSimilarityValue());
+    }
+    
+    /**
+     * This function is called with the aim of releasing all resources used
+     * by the measure.
+     */
+    
+    @Override
+    public void clear()
+    {
+        m_WordIds.clear();
+        m_Words = new String[0];
+        m_Codes = new byte[0];
+    }
+    
+    /**
+     * This function returns the name of the vectors file.
+     * @return
+     */
+    
+    @Override
+    public String toString()
+    {
+        return (new File(m_strQuantizedModelFilename).getName());
+    }
+    
+    /**
+     * This function returns the similarity measure class.
+     * @return
+     */
+    
+    @Override
+    public SimilarityMeasureClass getMeasureClass()
+    {
+        return (SimilarityMeasureClass.Similarity);
+    }
+    
+    /**
+     * This function returns the measure type.
+     * @return
+     */
+    
+    @Override
+    public SimilarityMeasureType getMeasureType()
+    {
+        return (SimilarityMeasureType.ProductQuantizedWordEmbedding);
+    }
+    
+    /**
+     * This function returns the Pearson correlation between the cosine
+     * similarity computed with the original and quantized vectors,
+     * or NaN if it was not measured.
+     * @return Pearson correlation
+     */
+    
+    @Override
+    public double getQuantizationPearsonCorrelation()
+    {
+        return (m_PearsonCorrelation);
+    }
+    
+    /**
+     * This function returns the mean absolute error of the cosine
+     * similarity computed with the quantized vectors, or NaN if
+     * it was not measured.
+     * @return Mean absolute error
+     */
+    
+    @Override
+    public double getQuantizationMeanAbsoluteError()
+    {
+        return (m_MeanAbsoluteError);
+    }
+    
+    /**
+     * This function returns the value returned by the similarity measure when
+     * there is none similarity between both input concepts, or the concept
+     * is not contained in the taxonomy.
+     * @return
+     */
+    
+    @Override
+    public double getNullSimilarityValue()
+    {
+        return (0.0);
+    }
+    
+    /**
+     * This function checks the existence of the word in the model.
+     * @param strWord
+     * @return
+     */
+    
+    @Override
+    public boolean ContainsWord(String strWord)
+    {
+        return (m_WordIds.containsKey(strWord));
+    }
+    
+    /**
+     * This function returns the dimensions of the vectors in the model.
+     * @return
+     */
+    
+    @Override
+    public int getVectorDimension()
+    {
+        return (m_VectorDimension);
+    }
+    
+    /**
+     * This function returns the number of bytes used by every word code.
+     * @return
+     */
+    
+    int getSubspaceCount()
+    {
+        return (m_SubspaceCount);
+    }
+    
+    /**
+     * This function returns all the words contained in the model.
+     * @return
+     */
+    
+    @Override
+    public String[] getVocabulary()
+    {
+        return (m_Words.clone());
+    }
+}
@@ -0,0 +1,224 @@
+/*
+ * Copyright (C) 2016-2022 Universidad Nacional de Educación a Distancia (UNED)
+ *
+ * This program is free software for non-commercial use:
+ * you can redistribute it and/or modify it under the terms of the
+ * Creative Commons Attribution-NonCommercial-ShareAlike 4.0 International
+ * (CC BY-NC-SA 4.0) as published by the Creative Commons Corporation,
+ * either version 4 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * section 5 of the CC BY-NC-SA 4.0 License for more details.
+ *
+ * You should have received a copy of the Creative Commons
+ * Attribution-NonCommercial-ShareAlike 4.0 International (CC BY-NC-SA 4.0)
+ * license along with this program. If not,
+ * see <http://creativecommons.org/licenses/by-nc-sa/4.0/>.
+ *
+ */
+
+package hesml.measures.impl;
+
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * This class implements a sparse vector whose coordinates are identified
+ * by interned integer ids sorted in ascending order. Thus, the inner
+ * product between two vectors is computed by a merge-join of their ids
+ * without allocating any object. This class is used to store the
+ * synset-based vectors of the UKB and Nasari models.
+ * @author j.lastra
+ */
+
+class SparseWordVector
+{
+    /**
+     * Sorted coordinate ids
+     */
+    
+    private final int[]     m_Ids;
+    
+    /**
+     * Coordinate values sorted by id
+     */
+    
+    private final float[]   m_Weights;
+    
+    /**
+     * Euclidean norm of the vector
+     */
+    
+    private final double    m_Norm;
+    
+    /**
+     * Constructor. The input coordinates are sorted by id and
+     * duplicated ids are removed keeping their first occurrence.
+     * @param ids Coordinate ids
+     * @param weights Coordinate values
+     * @param count Number of coordinates to be copied
+     */
+    
+    SparseWordVector(
+            int[]   ids,
+            float[] weights,
+            int     count)
+    {
+        // We sort the coordinates by id keeping their original position
+        // in order to solve the duplicated ids
+        
+        long[] sortedKeys = new long[count];
+        
+        for (int i = 0; i < count; i++)
+        {
+            sortedKeys[i] = ((long)ids[i] << 32) | i;
+        }
+        
+        Arrays.sort(sortedKeys);
+        
+        // We copy the unique coordinates
+        
+        int[] uniqueIds = new int[count];
+        float[] uniqueWeights = new float[count];
+        int uniqueCount = 0;
+        
+        double norm = 0.0;
+        
+        for (int i = 0; i < count; i++)
+        {
+            int id = (int)(sortedKeys[i] >>> 32);
+            
+            if ((uniqueCount == 0) || (uniqueIds[uniqueCount - 1] != id))
+            {
+                uniqueIds[uniqueCount] = id;
+                uniqueWeights[uniqueCount] = weights[(int)sortedKeys[i]];
+                
+                norm += (double)uniqueWeights[uniqueCount] * uniqueWeights[uniqueCount];
+                uniqueCount++;
+            }
+        }
+        
+        // We save the coordinates
+        
+        m_Ids = (uniqueCount == count) ? uniqueIds : Arrays.copyOf(uniqueIds, uniqueCount);
+        m_Weights = (uniqueCount == count) ? uniqueWeights : Arrays.copyOf(uniqueWeights, uniqueCount);
+        m_Norm = Math.sqrt(norm);
+    }
+    
+    /**
+     * This function returns the interned id of the input key, which is
+     * registered in the dictionary whether it is not found.
+     * @param dictionary
+     * @param strKey
+     * @return
+     */
+    
+    static int getInternedId(
+            HashMap<String, Integer>    dictionary,
+            String                      strKey)
+    {
+        Integer id = dictionary.get(strKey);
+        
+        if (id == null)
+        {
+            id = dictionary.size();
+            dictionary.put(strKey, id);
+        }
+        
+        // We return the result
+        
+        return (id);
+    }
+    
+    /**
+     * This function returns the number of non-zero coordinates.
+     * @return
+     */
+    
+    int size()
+    {
+        return (m_Ids.length);
+    }
+    
+    /**
+     * This function returns the sorted coordinate ids.
+     * @return
+     */
+    
+    int[] getIds()
+    {
+        return (m_Ids);
+    }
+    
+    /**
+     * This function returns the coordinate values sorted by id.
+     * @return
+     */
+    
+    float[] getWeights()
+    {
+        return (m_Weights);
+    }
+    
+    /**
+     * This function returns the Euclidean norm of the vector.
+     * @return
+     */
+    
+    double getNorm()
+    {
+        return (m_Norm);
+    }
+    
+    /**
+     * This function computes the inner product with other vector
+     * by merging their sorted ids.
+     * @param other
+     * @return
+     */
+    
+    double getDotProduct(
+            SparseWordVector    other)
+    {
+        double product = 0.0;
+        
+        int[] ids2 = other.m_Ids;
+        float[] weights2 = other.m_Weights;
+        
+        // We merge both coordinate lists
+        
+        for (int i = 0, j = 0; (i < m_Ids.length) && (j < ids2.length); )
+        {
+            if (m_Ids[i] < ids2[j])
+            {
+                i++;
+            }
+            else if (m_Ids[i] > ids2[j])
+            {
+                j++;
+            }
+            else
+            {
+                product += (double)m_Weights[i++] * weights2[j++];
+            }
+        }
+        
+        // We return the result
+        
+        return (product);
+    }
+    
+    /**
+     * This function computes the cosine similarity with other vector.
+     * @param other
+     * @return
+     */
+    
+    double getCosineSimilarity(
+            SparseWordVector    other)
+    {
+        return (getDotProduct(other) / (m_Norm * other.m_Norm));
+    }
+}
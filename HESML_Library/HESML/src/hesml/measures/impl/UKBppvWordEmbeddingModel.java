@@ -24,12 +24,12 @@ package hesml.measures.impl;
 import hesml.measures.IWordSimilarityMeasure;
 import hesml.measures.SimilarityMeasureClass;
 import hesml.measures.SimilarityMeasureType;
-import java.io.BufferedReader;
+import hesml.utils.ParallelTextFileReader;
 import java.io.File;
 import java.io.FileNotFoundException;
-import java.io.FileReader;
 import java.io.IOException;
 import java.text.ParseException;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
 
@@ -53,9 +53,10 @@ class UKBppvWordEmbeddingModel implements IWordSimilarityMeasure
     
     /**
      * Buffer saving the word vectors to be used in a similarity benchmark.
+     * Synsets are interned into integer ids during the loading process.
      */
     
-    private HashMap<String, HashMap<String,Double>>  m_bufferedWordVectors;
+    private HashMap<String, SparseWordVector>  m_bufferedWordVectors;
     
     /**
      * Constructor
@@ -94,47 +95,54 @@ class UKBppvWordEmbeddingModel implements IWordSimilarityMeasure
             pendingWords.add(strWord);
         }
         
+        // We create the dictionary used to intern the synsets
+        
+        HashMap<String, Integer> synsetIds = new HashMap<>();
+        
         // Debug message
         
         System.out.println("Loading words vectors from " + m_strRawPretrainedEmbeddingFilename);
         
-        // We scan the sense vector file to retrieve all senses at the same time
+        // We scan the vector file in parallel. Each chunk collects the
+        // lines of the pending words found in its byte range.
         
-        BufferedReader reader = new BufferedReader(new FileReader(m_strRawPretrainedEmbeddingFilename), 1000000);
+        ArrayList<HashMap<String, String>> chunkLines = ParallelTextFileReader.parseFile(
+                m_strRawPretrainedEmbeddingFilename, HashMap::new,
+                (lines, buffer, start, end) ->
+                {
+                    // We get the word of the line
+                    
+                    int wordEnd = ParallelTextFileReader.indexOf(buffer, start, end, (byte)' ');
+                    
+                    if (wordEnd < end)
+                    {
+                        // We normalize the multiple-word terms by removing the unbderline
+                        
+                        String strWord = ParallelTextFileReader.getString(buffer, start, wordEnd).replace('_', ' ');
+                        
+                        // We save the first line of any pending word
+                        
+                        if (pendingWords.contains(strWord) && !lines.containsKey(strWord))
+                        {
+                            lines.put(strWord, ParallelTextFileReader.getString(buffer, start, end));
+                        }
+                    }
+                });
         
-        String strLine = reader.readLine();
+        // We parse the word vectors in file order keeping the first
+        // vector found for each word. The vectors are parsed here
+        // because all of them share the synset dictionary.
         
-        while ((strLine != null) && (pendingWords.size() > 0))
+        for (HashMap<String, String> lines : chunkLines)
         {
-            // We get the synset of the line
-            
-            String strWord = strLine.substring(0, strLine.indexOf(" "));
-            
-            // We normalize the multiple-word terms by removing the unbderline
-            
-            strWord = strWord.replace('_', ' ');
-            
-            // We check if the sense is in the list
-            
-            if (pendingWords.contains(strWord))
+            for (String strWord : lines.keySet())
             {
-                // We save the sense vector
-                
-                m_bufferedWordVectors.put(strWord, parseWordVector(strLine));
-                
-                // We remove the sense from list
-                
-                pendingWords.remove(strWord);
+                if (!m_bufferedWordVectors.containsKey(strWord))
+                {
+                    m_bufferedWordVectors.put(strWord, parseWordVector(lines.get(strWord), synsetIds));
+                }
             }
-            
-            // We read the next line
-            
-            strLine = reader.readLine();
         }
-               
-        // We close the file
-        
-        reader.close();
     }
     
     /**
@@ -204,27 +212,18 @@ class UKBppvWordEmbeddingModel implements IWordSimilarityMeasure
         
         // We get vectors representing both words
         
-        HashMap<String,Double> wordVector1 = m_bufferedWordVectors.get(strWord1);
-        HashMap<String,Double> wordVector2 = m_bufferedWordVectors.get(strWord2);
+        SparseWordVector wordVector1 = m_bufferedWordVectors.get(strWord1);
+        SparseWordVector wordVector2 = m_bufferedWordVectors.get(strWord2);
         
         // We check the validity of the word vectors. They could be null if
         // any word is not contained in the vocabulary of the embedding.
         
         if ((wordVector1 != null) && (wordVector2 != null))
         {
-            // We compute the cosine similarity function (dot product)
-
-            for (String strSynset1: wordVector1.keySet())
-            {
-                if (wordVector2.containsKey(strSynset1))
-                {
-                    similarity += wordVector1.get(strSynset1) * wordVector2.get(strSynset1);
-                }
-            }
-            
-            // We divide by the vector norms
+            // We compute the cosine similarity function by merging
+            // the sorted synset ids of both vectors
             
-            similarity /= (getVectorNorm(wordVector1) * getVectorNorm(wordVector2));
+            similarity = wordVector1.getCosineSimilarity(wordVector2);
         }
         
         // We return the result
@@ -232,65 +231,40 @@ class UKBppvWordEmbeddingModel implements IWordSimilarityMeasure
         return (similarity);
     }
     
-    /**
-     * This function computes the Euclidean norm of the input vector
-     * @param vector
-     * @return 
-     */
-    
-    private double getVectorNorm(
-        HashMap<String, Double> vector)
-    {
-        double norm = 0.0;  // Returned value
-        
-        // We compute the acumulated square-coordinates
-        
-        for (Double value: vector.values())
-        {
-            norm += value * value;
-        }
-        
-        // Finally, we compute the square root
-        
-        norm = Math.sqrt(norm);
-        
-        // We return the result
-        
-        return (norm);
-    }
-    
     /**
      * This function retrieves the word vector from the vectors file
-     * @param strWord
+     * @param strLine
+     * @param synsetIds Dictionary used to intern the synsets
      * @return 
      */
     
-    private HashMap<String,Double> parseWordVector(
-            String strLine) throws FileNotFoundException, IOException
+    private SparseWordVector parseWordVector(
+            String                      strLine,
+            HashMap<String, Integer>    synsetIds) throws FileNotFoundException, IOException
     {
         // We initialize the output
         
         String[] strFields = strLine.split(" ");
 
-        // We create the vector
-
-        HashMap<String,Double> senseCoords = new HashMap<>();
-
-        // We copy the coordinates
+        // We create the coordinate buffers
 
+        int[] ids = new int[strFields.length - 1];
+        float[] weights = new float[ids.length];
+        
+        // We copy the coordinates. Duplicated synsets are removed by
+        // the sparse vector, which keeps their first occurrence.
+        
         for (int i = 1; i < strFields.length; i++)
         {
             String[] strCoordVector = strFields[i].split("_");
             
-            if (!senseCoords.containsKey(strCoordVector[0]))
-            {
-                senseCoords.put(strCoordVector[0], Double.parseDouble(strCoordVector[1]));
-            }
+            ids[i - 1] = SparseWordVector.getInternedId(synsetIds, strCoordVector[0]);
+            weights[i - 1] = (float)Double.parseDouble(strCoordVector[1]);
         }
         
         // We return the result
         
-        return (senseCoords);
+        return (new SparseWordVector(ids, weights, ids.length));
     }
 
     /**
@@ -240,7 +240,7 @@ class WordNetWordSimilarityMeasure implements IWordNetWordSimilarityMeasure
     {
         // We build the vector of vertxes ID (synsets)
         
-        Long[] ids = new Long[synsets.length];
+        long[] ids = new long[synsets.length];
         
         // We get the ids of the synsets
         
@@ -0,0 +1,647 @@
+/*
+ * Copyright (C) 2016-2022 Universidad Nacional de Educación a Distancia (UNED)
+ *
+ * This program is free software for non-commercial use:
+ * you can redistribute it and/or modify it under the terms of the
+ * Creative Commons Attribution-NonCommercial-ShareAlike 4.0 International
+ * (CC BY-NC-SA 4.0) as published by the Creative Commons Corporation,
+ * either version 4 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * section 5 of the CC BY-NC-SA 4.0 License for more details.
+ *
+ * You should have received a copy of the Creative Commons
+ * Attribution-NonCommercial-ShareAlike 4.0 International (CC BY-NC-SA 4.0) 
+ * license along with this program. If not,
+ * see <http://creativecommons.org/licenses/by-nc-sa/4.0/>.
+ *
+ */
+
+package hesml.taxonomy.impl;
+
+// Java references
+
+import java.util.ArrayList;
+
+// HESML references
+
+import hesml.taxonomy.*;
+
+/**
+ * This class implements the read-only functions shared by the ordered
+ * and indexed collections of IVertex objects, which are written in terms
+ * of the storage of the vertexes and the index of their positions by ID
+ * provided by the derived classes.
+ * @author Juan Lastra-Díaz
+ */
+
+abstract class AbstractVertexList implements IVertexList
+{
+    /**
+     * This function returns the positions of the vertexes indexed by
+     * their unique ID.
+     * @return The ID index
+     */
+    
+    protected abstract VertexIdIndex getIndex();
+    
+    /**
+     * This function throws the error reported when a list receives
+     * two vertexes with the same ID.
+     * @throws Exception Duplicated vertex ID
+     */
+    
+    protected static void throwDuplicatedIdError() throws Exception
+    {
+        String strError = "The taxonomy already contains a vertex with this ID";
+        Exception error = new Exception(strError);
+        throw (error);
+    }
+    
+    /**
+     * This function computes the difference set = {this \ other}
+     * @param others
+     * @return 
+     * @throws java.lang.Exception 
+     */
+    
+    @Override
+    public IVertexList getDifferenceSet(
+            IVertexList others) throws Exception
+    {
+        // We create the difference set
+        
+        ArrayList<IVertex> dif = new ArrayList<>();
+        
+        for (int i = 0; i < getCount(); i++)
+        {
+            if (!others.contains(getAt(i).getID()))
+            {
+                dif.add(getAt(i));
+            }
+        }
+        
+        // We return the value
+        
+        return (new ArrayVertexList(dif));
+    }
+    
+    /**
+     * This function computes the difference set count = | this \ other |
+     * @param others
+     * @return The cardinality of the difference set
+     * @throws java.lang.Exception
+     */
+    
+    @Override
+    public long getDifferenceSetCount(
+            IVertexList others) throws Exception
+    {
+        long difCount = 0; // Returned value
+        
+        // We count the vertexes not included in the other set
+        
+        for (int i = 0; i < getCount(); i++)
+        {
+            if (!others.contains(getAt(i).getID()))
+            {
+                difCount++;
+            }
+        }
+        
+        // We return the value
+        
+        return (difCount);
+    }
+    
+    /**
+     * This function computes the intersection set = {this and other}
+     * @param others
+     * @return 
+     * @throws java.lang.Exception 
+     */
+    
+    @Override
+    public IVertexList getIntersectionSet(
+            IVertexList others) throws Exception
+    {
+        // We create the intersection set
+        
+        ArrayList<IVertex> intersection = new ArrayList<>();
+        
+        for (int i = 0; i < getCount(); i++)
+        {
+            if (others.contains(getAt(i).getID()))
+            {
+                intersection.add(getAt(i));
+            }
+        }
+        
+        // We return the value
+        
+        return (new ArrayVertexList(intersection));
+    }
+    
+    /**
+     * This function computes the union set.
+     * @param others
+     * @return Union set
+     * @throws java.lang.Exception 
+     */
+    
+    @Override
+    public IVertexList getUnionSet(
+            IVertexList others) throws Exception
+    {
+        // We insert the vertexes in the current set
+        
+        ArrayList<IVertex> union = new ArrayList<>(getCount() + others.getCount());
+        
+        for (int i = 0; i < getCount(); i++)
+        {
+            union.add(getAt(i));
+        }
+        
+        // We insert the vertexes in the other set
+        
+        for (IVertex vertex: others)
+        {
+            if (!contains(vertex.getID()))
+            {
+                union.add(vertex);
+            }
+        }
+        
+        // We return the value
+        
+        return (new ArrayVertexList(union));
+    }
+    
+    /**
+     * This function computes the intersection set count = |{this and other}|
+     * @param others
+     * @return Cardinality of the intersection set
+     */
+    
+    @Override
+    public long getIntersectionSetCount(
+            IVertexList others)
+    {
+        long  intersection = 0; // Returned value
+        
+        // We count the vertexes included in the other set
+        
+        for (int i = 0; i < getCount(); i++)
+        {
+            if (others.contains(getAt(i).getID()))
+            {
+                intersection++;
+            }
+        }
+        
+        // We return the value
+        
+        return (intersection);
+    }
+    
+    /**
+     * This function computes the number of elements in the resulting union set
+     * of the current list with the input list.
+     * @param others
+     * @return Cardinality of the union set
+     */
+    
+    @Override
+    public long getUnionSetCount(
+            IVertexList others)
+    {
+        // We initialize the count to the current vertexes
+        
+        long  union = getIndex().getCount();
+        
+        // We compute the number of input vertexes not included in the
+        // current list.
+        
+        for (IVertex vertex: others)
+        {
+            if (!contains(vertex.getID()))
+            {
+                union++;
+            }
+        }
+        
+        // We return the value
+        
+        return (union);
+    }
+    
+    /**
+     * This function returns the highest IC value for any vertex
+     * in the collection.
+     * @return Highest IC value
+     */
+    
+    @Override
+    public double getGreatestICValue()
+    {
+        double  highestIC = 0.0;
+        
+        // We search the highest IC value
+        
+        for (int i = 0; i < getCount(); i++)
+        {
+            highestIC = Math.max(getAt(i).getICvalue(), highestIC);
+        }
+        
+        // We return the result
+        
+        return (highestIC);
+    }
+    
+    /**
+     * This function returns a vector with the IC values of the vertexes
+     * contained in the list.
+     * @return 
+     */
+    
+    @Override
+    public double[] getICValues()
+    {
+        double[] icValues = new double[getCount()];
+        
+        // We get the IC values
+        
+        for (int i = 0; i < icValues.length; i++)
+        {
+            icValues[i] = getAt(i).getICvalue();
+        }
+        
+        // We return the result
+        
+        return (icValues);
+    }
+    
+    /**
+     * This function returns a vector with the depth values of the vertexes
+     * contained in the list.
+     * @return The depth of the vertexes in the list
+     */
+    
+    @Override
+    public int[] getDepthMinValues() throws Exception
+    {
+        int[] depths = new int[getCount()];
+        
+        // We get the depth values
+        
+        for (int i = 0; i < depths.length; i++)
+        {
+            depths[i] = getAt(i).getDepthMin();
+        }
+        
+        // We return the result
+        
+        return (depths);
+    }
+    
+    /**
+     * This function returns the maximum depth of any vertex in the list.
+     * @return The max Depth value
+     */
+    
+    @Override
+    public int getGreatestDepthMin() throws Exception
+    {
+        int depthMax = 0;   // Returned value
+        
+        // We search for the maximum value
+        
+        for (int i = 0; i < getCount(); i++)
+        {
+            depthMax = Math.max(getAt(i).getDepthMin(), depthMax);
+        }
+        
+        // We return the value
+        
+        return (depthMax);
+    }
+    
+    /**
+     * This function returns the highest longest depth of any vertex in the list.
+     * @return The max Depth value
+     */
+    
+    @Override
+    public int getGreatestDepthMax() throws Exception
+    {
+        int depthMax = 1;   // Returned value
+        
+        // We search for the maximum value
+        
+        for (int i = 0; i < getCount(); i++)
+        {
+            depthMax = Math.max(getAt(i).getDepthMax(), depthMax);
+        }
+        
+        // We return the value
+        
+        return (depthMax);
+    }
+    
+    /**
+     * This function returns the maximum depth + 1.
+     * @return The max Depth value
+     */
+    
+    @Override
+    public int getGreatestDepthMinBase1() throws Exception
+    {
+        return (1 + getGreatestDepthMin());
+    }
+    
+    /**
+     * This function gets all the root ndoes in the list
+     * @return A set of roots nodes included in the list
+     * @throws java.lang.Exception
+     */
+    
+    @Override
+    public IVertexList getRoots() throws Exception
+    {
+        ArrayList<IVertex> roots = new ArrayList<>();
+        
+        // We search for the roots in the list
+        
+        for (int i = 0; i < getCount(); i++)
+        {
+            if (getAt(i).isRoot())
+            {
+                roots.add(getAt(i));
+            }
+        }
+        
+        // We return the result
+        
+        return (new ArrayVertexList(roots));
+    }
+    
+    /**
+     * This function retrieves the leaf set defined by those
+     * vertexes without any descendant.
+     * @return The leaves in the list
+     * @throws java.lang.Exception
+     */
+    
+    @Override
+    public IVertexList getLeaves() throws Exception
+    {
+        ArrayList<IVertex> leaves = new ArrayList<>();
+        
+        // We retrieve the leaf veretxes
+        
+        for (int i = 0; i < getCount(); i++)
+        {
+            if (getAt(i).isLeaf())
+            {
+                leaves.add(getAt(i));
+            }
+        }
+        
+        // We return the value
+        
+        return (new ArrayVertexList(leaves));
+    }
+    
+    /**
+     * This function computes the number of Leaf nodes in the list.
+     * @return The number of Leaf vertexes in the list.
+     */
+    
+    @Override
+    public int getLeavesCount()
+    {
+        int leaves = 0; // Returned value
+        
+        // We compute the number of leaves
+        
+        for (int i = 0; i < getCount(); i++)
+        {
+            if (getAt(i).isLeaf())
+            {
+                leaves++;
+            }
+        }
+        
+        // We return the value
+        
+        return (leaves);
+    }
+    
+    /**
+     * This function sets the value of the visited flag.
+     * @param visited 
+     */
+    
+    @Override
+    public void setVisited(
+            boolean visited)
+    {
+        for (int i = 0; i < getCount(); i++)
+        {
+            getAt(i).setVisited(visited);
+        }
+    }
+    
+    /**
+     * This function returns the position of the input vertex in the list,
+     * or -1.
+     * @param vertex
+     * @return 
+     */
+    
+    @Override
+    public int indexOf(IVertex vertex)
+    {
+        // We get the position of the vertex ID
+        
+        int index = getIndex().get(vertex.getID());
+        
+        // We check that the vertex in this position is the input one
+        
+        if ((index >= 0) && (getAt(index) != vertex))
+        {
+            index = -1;
+            
+            for (int i = 0; (i < getCount()) && (index < 0); i++)
+            {
+                if (vertex.equals(getAt(i))) index = i;
+            }
+        }
+        
+        // We return the value
+        
+        return (index);
+    }
+    
+    /**
+     * This function returns a sequence with the ID values of the
+     * vertexes in the list.
+     * @return A vector with the ID of the vertexes.
+     */
+    
+    @Override
+    public String toString()
+    {
+        StringBuilder strVertexes = new StringBuilder("[");    // Returned value
+        
+        // We copy the vertexes ID
+        
+        for (int i = 0; i < getCount(); i++)
+        {
+            strVertexes.append(getAt(i).getID()).append(',');
+        }
+        
+        strVertexes.append(']');
+        
+        // We return the result
+        
+        return (strVertexes.toString());
+    }
+    
+    /**
+     * 
+     * @param vertexID
+     * @return True if the list contains onve vertex with the inpuit ID
+     */
+    
+    @Override
+    public boolean contains(
+            Long vertexID)
+    {
+        return ((vertexID != null) && contains(vertexID.longValue()));
+    }
+    
+    /**
+     * 
+     * @param vertexID
+     * @return True if the list contains onve vertex with the inpuit ID
+     */
+    
+    @Override
+    public boolean contains(
+            long    vertexID)
+    {
+        return (getIndex().get(vertexID) >= 0);
+    }
+    
+    /**
+     * This function returns the vertex by ID.
+     * @param vertexId
+     * @return The vertexes with the required Id
+     */
+    
+    @Override
+    public IVertex getById(Long vertexId)
+    {
+        return ((vertexId != null) ? getById(vertexId.longValue()) : null);
+    }
+    
+    /**
+     * This function returns the vertex by ID.
+     * @param vertexId
+     * @return The vertexes with the required Id
+     */
+    
+    @Override
+    public IVertex getById(long vertexId)
+    {
+        int position = getIndex().get(vertexId);
+        
+        return ((position >= 0) ? getAt(position) : null);
+    }
+    
+    /**
+     * This function returns a set of vertexes by Ids.
+     * @param vertexIds
+     * @return 
+     * @throws java.lang.Exception 
+     */
+    
+    @Override
+    public IVertexList getByIds(
+            Long[]   vertexIds) throws Exception
+    {
+        ArrayList<IVertex> query = new ArrayList<>(vertexIds.length);
+        
+        // We recover all the vertexes required
+        
+        for (Long vertexID: vertexIds)
+        {
+            IVertex vertex = getById(vertexID);
+            
+            if (vertex != null)
+            {
+                query.add(vertex);
+            }
+        }
+        
+        // We return the result
+        
+        return (ArrayVertexList.createUniqueList(query));
+    }
+    
+    /**
+     * This function returns a set of vertexes by Ids.
+     * @param vertexIds
+     * @return 
+     * @throws java.lang.Exception 
+     */
+    
+    @Override
+    public IVertexList getByIds(
+            long[]   vertexIds) throws Exception
+    {
+        ArrayList<IVertex> query = new ArrayList<>(vertexIds.length);
+        
+        // We recover all the vertexes required
+        
+        for (long vertexID: vertexIds)
+        {
+            IVertex vertex = getById(vertexID);
+            
+            if (vertex != null)
+            {
+                query.add(vertex);
+            }
+        }
+        
+        // We return the result
+        
+        return (ArrayVertexList.createUniqueList(query));
+    }
+    
+    /**
+     * This function returns the sequence of ID for the vertexes within the list.
+     * @return One vector containing the IDs of all the vertexes contained
+     * in the list.
+     */
+    
+    @Override
+    public long[] getIDs()
+    {
+        long[] idVertexes = new long[getCount()];
+        
+        // We copy the iDs
+        
+        for (int i = 0; i < idVertexes.length; i++)
+        {
+            idVertexes[i] = getAt(i).getID();
+        }
+        
+        // We return the result
+        
+        return (idVertexes);
+    }
+}
@@ -0,0 +1,200 @@
+/*
+ * Copyright (C) 2016-2022 Universidad Nacional de Educación a Distancia (UNED)
+ *
+ * This program is free software for non-commercial use:
+ * you can redistribute it and/or modify it under the terms of the
+ * Creative Commons Attribution-NonCommercial-ShareAlike 4.0 International
+ * (CC BY-NC-SA 4.0) as published by the Creative Commons Corporation,
+ * either version 4 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * section 5 of the CC BY-NC-SA 4.0 License for more details.
+ *
+ * You should have received a copy of the Creative Commons
+ * Attribution-NonCommercial-ShareAlike 4.0 International (CC BY-NC-SA 4.0) 
+ * license along with this program. If not,
+ * see <http://creativecommons.org/licenses/by-nc-sa/4.0/>.
+ *
+ */
+
+package hesml.taxonomy.impl;
+
+// Java references
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+// HESML references
+
+import hesml.taxonomy.*;
+
+/**
+ * This class implements an immutable ordered collection of IVertex objects
+ * backed by a plain array, which is used to return the transient vertex
+ * lists computed on-the-fly by the traversal functions. Most client code
+ * only iterates these lists, thus the ID index is only built on the
+ * first query by ID.
+ * @author Juan Lastra-Díaz
+ */
+
+class ArrayVertexList extends AbstractVertexList
+{
+    /**
+     * Ordered vertexes
+     */
+    
+    private IVertex[]   m_Vertexes;
+    
+    /**
+     * Positions of the vertexes indexed by their unique ID, which
+     * is built on the first query by ID.
+     */
+    
+    private VertexIdIndex   m_IndexedVertexes;
+    
+    /**
+     * Constructor
+     * @param vertexes Ordered vertexes of the list
+     */
+    
+    ArrayVertexList(
+            ArrayList<IVertex>  vertexes)
+    {
+        m_Vertexes = vertexes.toArray(new IVertex[vertexes.size()]);
+        m_IndexedVertexes = null;
+    }
+    
+    /**
+     * This function creates a list whose vertexes must have distinct IDs,
+     * like the lists of vertexes queried by ID.
+     * @param vertexes Ordered vertexes of the list
+     * @return The new list
+     * @throws Exception Duplicated vertex ID
+     */
+    
+    static ArrayVertexList createUniqueList(
+            ArrayList<IVertex>  vertexes) throws Exception
+    {
+        ArrayVertexList list = new ArrayVertexList(vertexes);
+        
+        // We check that the vertex IDs are unique
+        
+        if (list.getIndex().getCount() < list.getCount())
+        {
+            throwDuplicatedIdError();
+        }
+        
+        // We return the result
+        
+        return (list);
+    }
+    
+    /**
+     * This function returns the index of the vertexes by ID,
+     * which is built the first time.
+     * @return The ID index
+     */
+    
+    @Override
+    protected VertexIdIndex getIndex()
+    {
+        // We build the index the first time
+        
+        if (m_IndexedVertexes == null)
+        {
+            m_IndexedVertexes = new VertexIdIndex(m_Vertexes.length);
+            
+            for (int i = 0; i < m_Vertexes.length; i++)
+            {
+                if (m_IndexedVertexes.get(m_Vertexes[i].getID()) < 0)
+                {
+                    m_IndexedVertexes.put(m_Vertexes[i].getID(), i);
+                }
+            }
+        }
+        
+        // We return the result
+        
+        return (m_IndexedVertexes);
+    }
+    
+    /**
+     * This functions returns the lock state of the list.
+     * @return 
+     */
+    
+    @Override
+    public boolean isLocked()
+    {
+        return (false);
+    }
+    
+    /**
+     * This function releases the vertexes of the list. The content of the
+     * list cannot be modified otherwise.
+     * @throws java.lang.Exception
+     */
+    
+    @Override
+    public void clear() throws Exception
+    {
+        m_Vertexes = new IVertex[0];
+        m_IndexedVertexes = null;
+    }
+    
+    /**
+     * 
+     * @return Number of vertexes in the list
+     */
+    
+    @Override
+    public int getCount()
+    {
+        return (m_Vertexes.length);
+    }
+    
+    /**
+     * 
+     * @param index
+     * @return The vertex in the required position
+     */
+    
+    @Override
+    public IVertex getAt(int index)
+    {
+        return (m_Vertexes[index]);
+    }
+    
+    /**
+     * Iterator
+     * @return 
+     */
+    
+    @Override
+    public Iterator<IVertex> iterator()
+    {
+        final IVertex[] vertexes = m_Vertexes;
+        
+        return (new Iterator<IVertex>()
+        {
+            private int m_Position = 0;
+            
+            @Override
+            public boolean hasNext()
+            {
+                return (m_Position < vertexes.length);
+            }
+            
+            @Override
+            public IVertex next()
+            {
+                if (m_Position >= vertexes.length) throw (new NoSuchElementException());
+                
+                return (vertexes[m_Position++]);
+            }
+        });
+    }
+}
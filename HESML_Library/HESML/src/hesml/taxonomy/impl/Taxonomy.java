@@ -24,6 +24,7 @@ package hesml.taxonomy.impl;
 // Java references
 
 import java.util.ArrayList;
+import java.util.Arrays;
 
 // HESML references
 
@@ -89,6 +90,21 @@ class Taxonomy implements ITaxonomy
         m_Vertexes = new VertexList(true, initialCapacity);
     }
     
+    /**
+     * Constructor with pre-reserved memory for the exact number of
+     * vertexes and edges of the taxonomy.
+     * @param vertexCount Quantity of vertexes
+     * @param edgeCount Quantity of edges
+     */
+    
+    Taxonomy(
+            int vertexCount,
+            int edgeCount)
+    {
+        m_Edges = new EdgeList(edgeCount);
+        m_Vertexes = new VertexList(true, vertexCount);
+    }
+    
     /**
      * This function returns the overall sum of the leaf node probabilities.
      * @return Overall probability in the leaf nodes.
@@ -882,6 +898,145 @@ class Taxonomy implements ITaxonomy
         return (newVertexInserted);
     }
 
+    /**
+     * This function inserts the whole collection of vertexes of a blank
+     * taxonomy in a single pass. The parents of the i-th vertex are the
+     * vertexes in the positions parentIndexes[parentStarts[i]] to
+     * parentIndexes[parentStarts[i + 1] - 1] of the vertexIds array.
+     * As in the addVertex method, every parent vertex must precede its
+     * children, thus the acyclicity of the taxonomy is checked once
+     * per edge. The outcoming arcs around every vertex are linked in the
+     * same order as the sequential insertion of the vertexes, which is
+     * defined by the parent arcs followed by the children arcs.
+     * @param vertexIds Integer unique keys of the vertexes
+     * @param parentStarts First parent position of every vertex
+     * @param parentIndexes Positions of the parent vertexes
+     * @throws Exception 
+     */
+    
+    void addVertexes(
+            long[]  vertexIds,
+            int[]   parentStarts,
+            int[]   parentIndexes) throws Exception
+    {
+        int vertexCount = vertexIds.length;
+        
+        // We check that the taxonomy is blank and the parent table is complete
+        
+        if (m_Vertexes.getCount() > 0)
+        {
+            String strError = "The vertexes can only be inserted in a blank taxonomy";
+            throw (new Exception(strError));
+        }
+        
+        if ((parentStarts.length != vertexCount + 1)
+                || (parentStarts[0] != 0)
+                || (parentStarts[vertexCount] != parentIndexes.length))
+        {
+            String strError = "The parent table does not match the vertexes";
+            throw (new Exception(strError));
+        }
+        
+        // We check that every parent precedes its children and
+        // we count the children of every vertex
+        
+        int[] childStarts = new int[vertexCount + 1];
+        
+        for (int i = 0; i < vertexCount; i++)
+        {
+            if (parentStarts[i + 1] < parentStarts[i])
+            {
+                String strError = "The parent table does not match the vertexes";
+                throw (new Exception(strError));
+            }
+            
+            for (int j = parentStarts[i]; j < parentStarts[i + 1]; j++)
+            {
+                if ((parentIndexes[j] < 0) || (parentIndexes[j] >= i))
+                {
+                    String strError = "The parents of the vertex " + vertexIds[i]
+                            + " are not inserted before it";
+                    
+                    throw (new Exception(strError));
+                }
+                
+                childStarts[parentIndexes[j] + 1]++;
+            }
+        }
+        
+        for (int i = 0; i < vertexCount; i++)
+        {
+            childStarts[i + 1] += childStarts[i];
+        }
+        
+        // We create and store the vertexes
+        
+        Vertex[] vertexes = new Vertex[vertexCount];
+        
+        for (int i = 0; i < vertexCount; i++)
+        {
+            vertexes[i] = new Vertex(vertexIds[i], this);
+            m_Vertexes.add(vertexes[i]);
+        }
+        
+        // We create the edges in the same order as the addVertex method,
+        // and we group the inverse arcs by parent sorted by child
+        
+        HalfEdge[] parentArcs = new HalfEdge[parentIndexes.length];
+        HalfEdge[] childArcs = new HalfEdge[parentIndexes.length];
+        
+        int[] childCursors = Arrays.copyOf(childStarts, vertexCount);
+        
+        for (int i = 0; i < vertexCount; i++)
+        {
+            for (int j = parentStarts[i]; j < parentStarts[i + 1]; j++)
+            {
+                Edge edge = new Edge(vertexes[i], vertexes[parentIndexes[j]]);
+                
+                m_Edges.add(edge);
+                
+                parentArcs[j] = (HalfEdge) edge.getDirect();
+                childArcs[childCursors[parentIndexes[j]]++] = (HalfEdge) edge.getInverse();
+            }
+        }
+        
+        // We link the outcoming arcs around every vertex
+        
+        for (int i = 0; i < vertexCount; i++)
+        {
+            int parentCount = parentStarts[i + 1] - parentStarts[i];
+            int arcCount = parentCount + childStarts[i + 1] - childStarts[i];
+            
+            HalfEdge firstArc = null;
+            HalfEdge lastArc = null;
+            
+            for (int k = 0; k < arcCount; k++)
+            {
+                HalfEdge outArc = (k < parentCount) ? parentArcs[parentStarts[i] + k]
+                                    : childArcs[childStarts[i] + k - parentCount];
+                
+                if (lastArc == null)
+                {
+                    firstArc = outArc;
+                }
+                else
+                {
+                    ((HalfEdge) lastArc.getOpposite()).setNext(outArc);
+                }
+                
+                lastArc = outArc;
+            }
+            
+            // We close the ring of arcs
+            
+            if (firstArc != null)
+            {
+                ((HalfEdge) lastArc.getOpposite()).setNext(firstArc);
+                vertexes[i].setFirstOutEdge(firstArc);
+            }
+        }
+    }
+    
     /**
      * This function returns the global collection of vertexes contained
      * in the taxonomy.
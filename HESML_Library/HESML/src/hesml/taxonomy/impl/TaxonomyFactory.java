@@ -24,6 +24,7 @@ package hesml.taxonomy.impl;
 // HESML references
 
 import hesml.taxonomy.ITaxonomy;
+import java.util.Arrays;
 
 /**
  * This class implements a set of functions to create an in-memory taxonomy
@@ -58,6 +59,100 @@ public class TaxonomyFactory
         return (new Taxonomy(expectedVertexCount));
     }
     
+    /**
+     * This function creates a taxonomy from the whole table of vertexes
+     * and parents in a single pass. The parents of the i-th vertex are the
+     * vertexes in the positions parentIndexes[parentStarts[i]] to
+     * parentIndexes[parentStarts[i + 1] - 1] of the vertexIds array,
+     * and every parent must precede its children.
+     * @param vertexIds Integer unique keys of the vertexes
+     * @param parentStarts First parent position of every vertex
+     * @param parentIndexes Positions of the parent vertexes
+     * @return The new taxonomy
+     * @throws Exception 
+     */
+    
+    public static ITaxonomy createTaxonomy(
+            long[]  vertexIds,
+            int[]   parentStarts,
+            int[]   parentIndexes) throws Exception
+    {
+        // We create the taxonomy with the exact size
+        
+        Taxonomy taxonomy = new Taxonomy(vertexIds.length, parentIndexes.length);
+        
+        // We insert all the vertexes
+        
+        taxonomy.addVertexes(vertexIds, parentStarts, parentIndexes);
+        
+        // We return the result
+        
+        return (taxonomy);
+    }
+    
+    /**
+     * This function creates a taxonomy from the whole table of vertexes
+     * and parents in a single pass, whose parents are defined by their IDs.
+     * The parents of the i-th vertex are parentIds[parentStarts[i]] to
+     * parentIds[parentStarts[i + 1] - 1], and every parent must precede
+     * its children in the vertexIds array.
+     * @param vertexIds Integer unique keys of the vertexes
+     * @param parentStarts First parent position of every vertex
+     * @param parentIds IDs of the parent vertexes
+     * @return The new taxonomy
+     * @throws Exception 
+     */
+    
+    public static ITaxonomy createTaxonomy(
+            long[]  vertexIds,
+            int[]   parentStarts,
+            long[]  parentIds) throws Exception
+    {
+        // We sort a copy of the vertex IDs in order to search them
+        
+        long[] sortedIds = vertexIds.clone();
+        Arrays.parallelSort(sortedIds);
+        
+        for (int i = 1; i < sortedIds.length; i++)
+        {
+            if (sortedIds[i] == sortedIds[i - 1])
+            {
+                String strError = "The taxonomy already contains a vertex with this ID -> " + sortedIds[i];
+                throw (new Exception(strError));
+            }
+        }
+        
+        // We get the position of every vertex in the input array
+        
+        int[] vertexIndexes = new int[sortedIds.length];
+        
+        for (int i = 0; i < vertexIds.length; i++)
+        {
+            vertexIndexes[Arrays.binarySearch(sortedIds, vertexIds[i])] = i;
+        }
+        
+        // We get the position of the parent vertexes
+        
+        int[] parentIndexes = new int[parentIds.length];
+        
+        for (int j = 0; j < parentIds.length; j++)
+        {
+            int sortedPosition = Arrays.binarySearch(sortedIds, parentIds[j]);
+            
+            if (sortedPosition < 0)
+            {
+                String strError = "The parent vertex " + parentIds[j] + " is not found";
+                throw (new Exception(strError));
+            }
+            
+            parentIndexes[j] = vertexIndexes[sortedPosition];
+        }
+        
+        // We create the taxonomy
+        
+        return (createTaxonomy(vertexIds, parentStarts, parentIndexes));
+    }
+    
     /**
      * This function saves the vertexes info into an Excel (*.csv) file.
      * @param taxonomy Input taxonomy
@@ -102,10 +102,6 @@ class TaxonomyReader
             throw (error);
         }
         
-        // We crate a new taxonomy
-        
-        taxonomy = hesml.taxonomy.impl.TaxonomyFactory.createBlankTaxonomy();
-        
         // We get the file scanner
         
         scanner = new Scanner(taxFile);
@@ -136,13 +132,33 @@ class TaxonomyReader
         
         sortNodeRecords();
         
-        // We fill the taxonomy
+        // We create the table of sorted vertexes and parents
+        
+        long[] vertexIds = new long[m_Nodes.size()];
+        int[] parentStarts = new int[vertexIds.length + 1];
+        
+        for (int i = 0; i < vertexIds.length; i++)
+        {
+            vertexIds[i] = m_Nodes.get(i).getID();
+            parentStarts[i + 1] = parentStarts[i] + m_Nodes.get(i).getParentIDs().length;
+        }
+        
+        long[] parentIds = new long[parentStarts[vertexIds.length]];
         
-        for (TaxonomyNodeRecord node: m_Nodes)
+        for (int i = 0; i < vertexIds.length; i++)
         {
-            taxonomy.addVertex(node.getID(), node.getParentIDs());
+            Long[] nodeParentIds = m_Nodes.get(i).getParentIDs();
+            
+            for (int j = 0; j < nodeParentIds.length; j++)
+            {
+                parentIds[parentStarts[i] + j] = nodeParentIds[j];
+            }
         }
         
+        // We fill the taxonomy in a single pass
+        
+        taxonomy = TaxonomyFactory.createTaxonomy(vertexIds, parentStarts, parentIds);
+        
         // We destroy the auxiliar list
         
         m_Nodes.clear();
@@ -23,6 +23,7 @@ package hesml.taxonomy.impl;
 
 // Java references
 
+import java.util.ArrayList;
 import java.util.PriorityQueue;
 
 // HESML references
@@ -461,7 +462,7 @@ class Vertex implements IVertex
     public IVertexList getAncestors(
         boolean includeVertex) throws InterruptedException, Exception
     {
-        VertexList  ancestors = new VertexList(false);  // Returned value
+        ArrayList<IVertex>  ancestors = new ArrayList<>();  // Returned value
         
         // We obtain the global visited1 set to maintain the
         // set of visited vertexes
@@ -485,9 +486,13 @@ class Vertex implements IVertex
             
             IVertex ancestor = pending.remove();
             
-            // We add the vertex to the ancestor set
+            // We add the vertex to the ancestor set, excepting the
+            // current vertex when the function call does not include it
             
-            ancestors.add(ancestor);
+            if (includeVertex || (ancestor != this))
+            {
+                ancestors.add(ancestor);
+            }
                     
             // We enqueue all its parents. We use a direct loop traversal
             // of the vertex to retrieve its parents, with the aim to
@@ -519,21 +524,13 @@ class Vertex implements IVertex
             } while (loop != ancestorFirstOutcomingArc);
         }
         
-        // We remove the current vertex when the function
-        // call does not include it
-        
-        if (!includeVertex)
-        {
-            ancestors.remove(this);
-        }
-        
         // We reset the visited set
         
         visited.clear();
         
         // We return the result
         
-        return (ancestors);
+        return (new ArrayVertexList(ancestors));
     }
     
     /**
@@ -1459,13 +1456,13 @@ class Vertex implements IVertex
     @Override
     public IVertexList getNeighbours() throws Exception
     {
-        VertexList  neighbours;    // Returned value
+        ArrayList<IVertex>  neighbours;    // Returned value
         
         IHalfEdge   loop = m_FirstOutArc;   // Cursor
         
         // We cretat the adjacent list
         
-        neighbours = new VertexList(false);
+        neighbours = new ArrayList<>();
         
         // We iterate around the vertex
         
@@ -1483,7 +1480,7 @@ class Vertex implements IVertex
         
         // We return the result
         
-        return (neighbours);
+        return (new ArrayVertexList(neighbours));
     }
     
     /**
@@ -1618,7 +1615,7 @@ class Vertex implements IVertex
     {
         // We create the set of children vertexes to be returned
         
-        VertexList  children = new VertexList(false);
+        ArrayList<IVertex>  children = new ArrayList<>();
         
         // We initialize the local vertex iterator
         
@@ -1645,7 +1642,7 @@ class Vertex implements IVertex
         
         // We return the result
         
-        return (children);
+        return (new ArrayVertexList(children));
     }
     
     /**
@@ -1696,13 +1693,13 @@ class Vertex implements IVertex
     @Override
     public IVertexList getParents() throws Exception
     {
-        VertexList   parents;   // Returned result
+        ArrayList<IVertex>   parents;   // Returned result
         
         IHalfEdge   loop = m_FirstOutArc;   // Cursor
         
         // We cretae the set of children vertexes
         
-        parents = new VertexList(false);
+        parents = new ArrayList<>();
         
         // We iterate around the vertex
         
@@ -1725,7 +1722,7 @@ class Vertex implements IVertex
         
         // We return the result
         
-        return (parents);
+        return (new ArrayVertexList(parents));
     }
     
     /**
@@ -2071,7 +2068,7 @@ class Vertex implements IVertex
     public IVertexList getHyponyms(
         boolean vertexInclusive) throws Exception
     {
-        VertexList  hyponyms = new VertexList(false);   // Returned value
+        ArrayList<IVertex>  hyponyms = new ArrayList<>();   // Returned value
         
         // We obtain the global visited1 set to maintain the
         // set of visited vertexes
@@ -2095,9 +2092,13 @@ class Vertex implements IVertex
             
             IVertex descendant = pending.remove();
             
-            // We add the current descendant to the list
+            // We add the current descendant to the list, excepting the
+            // current vertex when the function call does not include it
             
-            hyponyms.add(descendant);
+            if (vertexInclusive || (descendant != this))
+            {
+                hyponyms.add(descendant);
+            }
             
             // EXPANSION OF THE CHILDREN VERTEXES
             // We enqueue the children of the descendant. in order
@@ -2131,21 +2132,13 @@ class Vertex implements IVertex
             } while (loop != descendantFirstOurArc);
         }
             
-        // We remove the current vertex when the function
-        // call does not include it
-        
-        if (!vertexInclusive)
-        {
-            hyponyms.remove(this);
-        }
-        
         // We reset the visited set
         
         visited.clear();
         
         // We return the result
         
-        return (hyponyms);
+        return (new ArrayVertexList(hyponyms));
     }
     
     /**
@@ -2162,7 +2155,7 @@ class Vertex implements IVertex
     {
         // We create the list of leaf vertexes to be returned
         
-        VertexList  leaves = new VertexList(false);
+        ArrayList<IVertex>  leaves = new ArrayList<>();
                
         // We obtain the global visited1 set to maintain the
         // set of visited vertexes
@@ -2224,7 +2217,7 @@ class Vertex implements IVertex
         
         // We return the result
         
-        return (leaves);
+        return (new ArrayVertexList(leaves));
     }
     
     /**
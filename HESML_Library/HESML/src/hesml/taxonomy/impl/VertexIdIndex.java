@@ -0,0 +1,224 @@
+/*
+ * Copyright (C) 2016-2022 Universidad Nacional de Educación a Distancia (UNED)
+ *
+ * This program is free software for non-commercial use:
+ * you can redistribute it and/or modify it under the terms of the
+ * Creative Commons Attribution-NonCommercial-ShareAlike 4.0 International
+ * (CC BY-NC-SA 4.0) as published by the Creative Commons Corporation,
+ * either version 4 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * section 5 of the CC BY-NC-SA 4.0 License for more details.
+ *
+ * You should have received a copy of the Creative Commons
+ * Attribution-NonCommercial-ShareAlike 4.0 International (CC BY-NC-SA 4.0) 
+ * license along with this program. If not,
+ * see <http://creativecommons.org/licenses/by-nc-sa/4.0/>.
+ *
+ */
+
+package hesml.taxonomy.impl;
+
+// Java references
+
+import java.util.Arrays;
+
+/**
+ * This class implements a primitive hash index from vertex IDs to their
+ * positions in a vertex list. The index uses open addressing with linear
+ * probing on two parallel arrays, thus the lookups neither box the IDs
+ * nor allocate any object.
+ * @author Juan Lastra-Díaz
+ */
+
+class VertexIdIndex
+{
+    /**
+     * Marker of the empty slots in the table of positions
+     */
+    
+    private static final int    EMPTY_SLOT = -1;
+    
+    /**
+     * Vertex IDs stored in every slot
+     */
+    
+    private long[]  m_Keys;
+    
+    /**
+     * Position of the vertex stored in every slot, or EMPTY_SLOT
+     */
+    
+    private int[]   m_Positions;
+    
+    /**
+     * Number of IDs in the index
+     */
+    
+    private int     m_Count;
+    
+    /**
+     * Constructor
+     * @param initialCapacity Expected number of vertexes
+     */
+    
+    VertexIdIndex(
+            int initialCapacity)
+    {
+        allocate(getTableSize(initialCapacity));
+    }
+    
+    /**
+     * This function returns the number of IDs in the index.
+     * @return Number of IDs
+     */
+    
+    int getCount()
+    {
+        return (m_Count);
+    }
+    
+    /**
+     * This function returns the position of the vertex with the input ID,
+     * or -1 if it is not indexed.
+     * @param vertexId
+     * @return Position of the vertex
+     */
+    
+    int get(
+            long    vertexId)
+    {
+        int mask = m_Keys.length - 1;
+        int slot = getHash(vertexId) & mask;
+        
+        // We probe the slots until the ID or an empty slot is found
+        
+        while ((m_Positions[slot] != EMPTY_SLOT) && (m_Keys[slot] != vertexId))
+        {
+            slot = (slot + 1) & mask;
+        }
+        
+        // We return the result
+        
+        return (m_Positions[slot]);
+    }
+    
+    /**
+     * This function inserts a new vertex ID in the index. The caller
+     * must check that the ID is not indexed yet.
+     * @param vertexId
+     * @param position Position of the vertex in the list
+     */
+    
+    void put(
+            long    vertexId,
+            int     position)
+    {
+        // We grow the table to keep the load factor below 0.5
+        
+        if (2 * (m_Count + 1) > m_Keys.length)
+        {
+            long[] oldKeys = m_Keys;
+            int[] oldPositions = m_Positions;
+            int count = m_Count;
+            
+            allocate(2 * m_Keys.length);
+            m_Count = count;
+            
+            for (int i = 0; i < oldKeys.length; i++)
+            {
+                if (oldPositions[i] != EMPTY_SLOT) insert(oldKeys[i], oldPositions[i]);
+            }
+        }
+        
+        // We insert the ID
+        
+        insert(vertexId, position);
+        m_Count++;
+    }
+    
+    /**
+     * This function removes all the IDs in the index.
+     */
+    
+    void clear()
+    {
+        allocate(getTableSize(0));
+    }
+    
+    /**
+     * This function stores the ID in its first free slot.
+     * @param vertexId
+     * @param position 
+     */
+    
+    private void insert(
+            long    vertexId,
+            int     position)
+    {
+        int mask = m_Keys.length - 1;
+        int slot = getHash(vertexId) & mask;
+        
+        while (m_Positions[slot] != EMPTY_SLOT)
+        {
+            slot = (slot + 1) & mask;
+        }
+        
+        m_Keys[slot] = vertexId;
+        m_Positions[slot] = position;
+    }
+    
+    /**
+     * This function creates an empty table with the input number of slots.
+     * @param tableSize Power of two
+     */
+    
+    private void allocate(
+            int tableSize)
+    {
+        m_Keys = new long[tableSize];
+        m_Positions = new int[tableSize];
+        m_Count = 0;
+        
+        Arrays.fill(m_Positions, EMPTY_SLOT);
+    }
+    
+    /**
+     * This function returns the smallest power of two holding the input
+     * number of IDs with a load factor below 0.5.
+     * @param capacity
+     * @return Number of slots
+     */
+    
+    private static int getTableSize(
+            int capacity)
+    {
+        int tableSize = 16;
+        
+        while (tableSize < 2 * capacity)
+        {
+            tableSize <<= 1;
+        }
+        
+        // We return the result
+        
+        return (tableSize);
+    }
+    
+    /**
+     * This function scrambles the bits of the vertex ID in order to spread
+     * the consecutive IDs used by most taxonomies across the table.
+     * @param vertexId
+     * @return Hash code
+     */
+    
+    private static int getHash(
+            long    vertexId)
+    {
+        long hash = vertexId * 0x9E3779B97F4A7C15L;
+        
+        return ((int)(hash ^ (hash >>> 32)));
+    }
+}
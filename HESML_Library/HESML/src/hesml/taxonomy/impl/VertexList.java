@@ -24,7 +24,6 @@ package hesml.taxonomy.impl;
 // Java references
 
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.Iterator;
 
 // HESML references
@@ -36,13 +35,13 @@ import hesml.taxonomy.*;
  * @author Juan Lastra-Díaz
  */
 
-class VertexList implements IVertexList
+class VertexList extends AbstractVertexList
 {
     /**
-     * Vertexes indexed by the unique key URI
+     * Positions of the vertexes indexed by their unique ID
      */
     
-    private HashMap<Long, IVertex>    m_IndexedVertexes;
+    private VertexIdIndex   m_IndexedVertexes;
     
     /**
      * Ordered vertexes
@@ -64,7 +63,7 @@ class VertexList implements IVertexList
     VertexList(
         boolean locked)
     {
-        m_IndexedVertexes = new HashMap<>();
+        m_IndexedVertexes = new VertexIdIndex(0);
         m_Vertexes = new ArrayList<>();
         m_Locked = locked;
     }
@@ -80,11 +79,23 @@ class VertexList implements IVertexList
             boolean     locked,
             int         initialCapacity)
     {
-        m_IndexedVertexes = new HashMap<>(initialCapacity + 1, 1.0f);
+        m_IndexedVertexes = new VertexIdIndex(initialCapacity);
         m_Vertexes = new ArrayList<>(initialCapacity);
         m_Locked = locked;
     }
     
+    /**
+     * This function returns the positions of the vertexes indexed by
+     * their unique ID.
+     * @return The ID index
+     */
+    
+    @Override
+    protected VertexIdIndex getIndex()
+    {
+        return (m_IndexedVertexes);
+    }
+    
     /**
      * This functions returns the lock state of the list.
      * @return 
@@ -105,354 +116,31 @@ class VertexList implements IVertexList
     public boolean remove(
         IVertex vertex)
     {
-        // We get the vertex Id
+        // We get the position of the vertex
         
-        long idVertex = vertex.getID();
+        int position = m_IndexedVertexes.get(vertex.getID());
         
         // We check for the existence of the vertex in the list
         
-        boolean removed = m_IndexedVertexes.containsKey(idVertex);
+        boolean removed = (position >= 0);
         
-        // We remove the vertex
+        // We remove the vertex and rebuild the index because
+        // of the positions of the next vertexes are shifted
         
         if (removed)
         {
-            m_IndexedVertexes.remove(idVertex);
-            m_Vertexes.remove(vertex);
-        }
-        
-        // We return the result
-        
-        return (removed);
-    }
-    
-    /**
-     * This function computes the difference set = {this \ other}
-     * @param others
-     * @return 
-     * @throws java.lang.Exception 
-     */
-    
-    @Override
-    public IVertexList getDifferenceSet(
-            IVertexList others) throws Exception
-    {
-        // We create the list of leaves
-        
-        VertexList dif = new VertexList(false);
-        
-        // We comptue the number of leaves
-        
-        for (IVertex vertex: m_Vertexes)
-        {
-            if (!others.contains(vertex.getID()))
-            {
-                dif.add(vertex);
-            }
-        }
-        
-        // We return the value
-        
-        return (dif);
-    }
-    
-    /**
-     * This function computes the difference set count = | this \ other |
-     * @param others
-     * @return The cardinality of the difference set
-     * @throws java.lang.Exception
-     */
-    
-    @Override
-    public long getDifferenceSetCount(
-            IVertexList others) throws Exception
-    {
-        long difCount = 0; // Returned value
-        
-        // We comptue the number of leaves
-        
-        for (IVertex vertex: m_Vertexes)
-        {
-            if (!others.contains(vertex.getID()))
-            {
-                difCount++;
-            }
-        }
-        
-        // We return the value
-        
-        return (difCount);
-    }
-    
-    /**
-     * This function computes the intersection set = {this and other}
-     * @param others
-     * @return 
-     * @throws java.lang.Exception 
-     */
-    
-    @Override
-    public IVertexList getIntersectionSet(
-            IVertexList others) throws Exception
-    {
-        // We create the list of leaves
-        
-        VertexList dif = new VertexList(false);
-        
-        // We comptue the number of leaves
-        
-        for (IVertex vertex: m_Vertexes)
-        {
-            if (others.contains(vertex.getID()))
-            {
-                dif.add(vertex);
-            }
-        }
-        
-        // We return the value
-        
-        return (dif);
-    }
-    
-    /**
-     * This function computes the union set.
-     * @param others
-     * @return Union set
-     * @throws java.lang.Exception 
-     */
-    
-    @Override
-    public IVertexList getUnionSet(
-            IVertexList others) throws Exception
-    {
-        // We create the union set to be returned
-        
-        VertexList  union = new VertexList(false);
-        
-        // We insert the vertexes in the current set
-        
-        for (IVertex vertex: m_IndexedVertexes.values())
-        {
-            union.add(vertex);
-        }
-        
-        // We insert the vertexes in the other set
-        
-        for (IVertex vertex: others)
-        {
-            if (!union.contains(vertex.getID()))
-            {
-                union.add(vertex);
-            }
-        }
-        
-        // We return the value
-        
-        return (union);
-    }
-    
-    /**
-     * This function computes the intersection set count = |{this and other}|
-     * @param others
-     * @return Cardinality of the intersection set
-     */
-    
-    @Override
-    public long getIntersectionSetCount(
-            IVertexList others)
-    {
-        long  intersection = 0; // Returned value
-        
-        // We comptue the number of leaves
-        
-        for (IVertex vertex: m_Vertexes)
-        {
-            if (others.contains(vertex.getID()))
-            {
-                intersection++;
-            }
-        }
-        
-        // We return the value
-        
-        return (intersection);
-    }
-
-    /**
-     * This function computes the number of elements in the resulting union set
-     * of the current list with the input list.
-     * @param others
-     * @return Cardinality of the union set
-     */
-    
-    @Override
-    public long getUnionSetCount(
-            IVertexList others)
-    {
-        // We initialize the couint to the current vertexes
-        
-        long  union = m_IndexedVertexes.size();
-        
-        // We compute the number of input vertexes not included in the
-        // current list.
-        
-        for (IVertex vertex: others)
-        {
-            if (!m_IndexedVertexes.containsKey(vertex.getID()))
-            {
-                union++;
-            }
-        }
-        
-        // We return the value
-        
-        return (union);
-    }
-    
-    /**
-     * This function returns the highest IC value for any vertex
-     * in the collection.
-     * @return Highest IC value
-     */
-    
-    @Override
-    public double getGreatestICValue()
-    {
-        // We initialzie the output value
-        
-        double  highestIC = 0.0;
-        
-        // We search the highest IC value
-        
-        for (IVertex vertex: m_Vertexes)
-        {
-            // We get the IC vlaue of the current vertex
-            
-            double icValue = vertex.getICvalue();
-            
-            // We chekc for the maximum
+            m_Vertexes.remove(position);
+            m_IndexedVertexes.clear();
             
-            highestIC = Math.max(icValue, highestIC);
-        }
-        
-        // We return the result
-        
-        return (highestIC);
-    }
-    
-    /**
-     * This function returns a vector with the IC values of the vertexes
-     * contained in the list.
-     * @return 
-     */
-    
-    @Override
-    public double[] getICValues()
-    {
-        int i = 0;  // Counter
-        
-        // We create the result
-        
-        double[] icValues = new double[m_Vertexes.size()];
-        
-        // We gete the depth values
-        
-        for (IVertex vertex: m_Vertexes)
-        {
-            icValues[i++] = vertex.getICvalue();
-        }
-        
-        // We return the result
-        
-        return (icValues);
-    }
-    
-    /**
-     * This function returns a vector with the depth values of the vertexes
-     * contained in the list.
-     * @return The depth of the vertexes in the list
-     */
-    
-    @Override
-    public int[] getDepthMinValues() throws Exception
-    {
-        int i = 0;  // Counter
-        
-        // We create the result
-        
-        int[] depths = new int[m_Vertexes.size()];
-        
-        // We gete the depth values
-        
-        for (IVertex vertex: m_Vertexes)
-        {
-            depths[i++] = vertex.getDepthMin();
-        }
-        
-        // We return the result
-        
-        return (depths);
-    }
-    
-    /**
-     * This function returns the maximum depth of any vertex in the list.
-     * @return The max Depth value
-     */
-    
-    @Override
-    public int getGreatestDepthMin() throws Exception
-    {
-        int depthMax = 0;   // Returned value
-        
-        // We search for the maximum value
-        
-        for (IVertex vertex: m_Vertexes)
-        {
-            if (vertex.getDepthMin() > depthMax)
-            {
-                depthMax = vertex.getDepthMin();
-            }
-        }
-        
-        // We return the value
-        
-        return (depthMax);
-    }
-    
-    /**
-     * This function returns the highest longest depth of any vertex in the list.
-     * @return The max Depth value
-     */
-    
-    @Override
-    public int getGreatestDepthMax() throws Exception
-    {
-        int depthMax = 1;   // Returned value
-        
-        // We search for the maximum value
-        
-        for (IVertex vertex: m_Vertexes)
-        {
-            if (vertex.getDepthMax() > depthMax)
+            for (int i = 0; i < m_Vertexes.size(); i++)
             {
-                depthMax = vertex.getDepthMax();
+                m_IndexedVertexes.put(m_Vertexes.get(i).getID(), i);
             }
         }
         
-        // We return the value
+        // We return the result
         
-        return (depthMax);
-    }
-    
-    /**
-     * This function returns the maximum depth + 1.
-     * @return The max Depth value
-     */
-    
-    @Override
-    public int getGreatestDepthMinBase1() throws Exception
-    {
-        return (1 + getGreatestDepthMin());
+        return (removed);
     }
     
     /**
@@ -469,7 +157,6 @@ class VertexList implements IVertexList
         {
             // We clear the lists
 
-            m_IndexedVertexes.clear();
             m_Vertexes.clear();
 
             // We disconnect the objetcs
@@ -483,129 +170,6 @@ class VertexList implements IVertexList
         }
     }
     
-    /**
-     * This function gets all the root ndoes in the list
-     * @return A set of roots nodes included in the list
-     * @throws java.lang.Exception
-     */
-    
-    @Override
-    public IVertexList getRoots() throws Exception
-    {
-        // We cretae the list of roots
-        
-        VertexList roots = new VertexList(false);
-        
-        // We search for the roots in the list
-        
-        for (IVertex vertex: m_Vertexes)
-        {
-            if (vertex.isRoot())
-            {
-                roots.add(vertex);
-            }
-        }
-        
-        // We return the result
-        
-        return (roots);
-    }
-    
-    /**
-     * This function retrieves the leaf set defined by those
-     * vertexes without any descendant.
-     * @return The leaves in the list
-     * @throws java.lang.Exception
-     */
-    
-    @Override
-    public IVertexList getLeaves() throws Exception
-    {
-        // We create the list of leaves to be retuned
-        
-        VertexList  leaves = new VertexList(false);
-        
-        // We retrieve the leaf veretxes
-        
-        for (IVertex vertex: m_Vertexes)
-        {
-            if (vertex.isLeaf())
-            {
-                leaves.add(vertex);
-            }
-        }
-        
-        // We return the value
-        
-        return (leaves);
-    }
-
-    /**
-     * This function computes the number of Leaf nodes in the list.
-     * @return The number of Leaf vertexes in the list.
-     */
-    
-    @Override
-    public int getLeavesCount()
-    {
-        int leaves = 0; // Returned value
-        
-        // We comptue the number of leaves
-        
-        for (IVertex vertex: m_Vertexes)
-        {
-            if (vertex.isLeaf())
-            {
-                leaves++;
-            }
-        }
-        
-        // We return the value
-        
-        return (leaves);
-    }
-    
-    /**
-     * This function sets the value of the visited flag.
-     * @param visited 
-     */
-    
-    @Override
-    public void setVisited(
-            boolean visited)
-    {
-        // We set the valu of the flag
-
-        for (IVertex vertex: m_Vertexes)
-        {
-            vertex.setVisited(visited);
-        }
-    }
-    
-    /**
-     * This function returns the position of the input vertex in the list,
-     * or -1.
-     * @param vertex
-     * @return 
-     */
-    
-    @Override
-    public int indexOf(IVertex vertex)
-    {
-        int index = -1; // Returned value
-        
-        // We check that the vertex is in the list
-        
-        if (m_IndexedVertexes.containsKey(vertex.getID()))
-        {
-            index = m_Vertexes.indexOf(vertex);
-        }
-        
-        // We r eturn the value
-        
-        return (index);
-    }
-    
     /**
      * This function inserts a new vertex in the list
      * @param vertex 
@@ -615,59 +179,17 @@ class VertexList implements IVertexList
     {
         // We check the new ID
         
-        if (m_IndexedVertexes.containsKey(vertex.getID()))
+        if (m_IndexedVertexes.get(vertex.getID()) >= 0)
         {
-            String strError = "The taxonomy already contains a vertex with this ID";
-            Exception error = new Exception(strError);
-            throw (error);
+            throwDuplicatedIdError();
         }
         
         // We save the vertex in the list
         
-        m_IndexedVertexes.put(vertex.getID(), vertex);
+        m_IndexedVertexes.put(vertex.getID(), m_Vertexes.size());
         m_Vertexes.add(vertex);
     }
     
-    /**
-     * This function returns a sequence with the ID values of the
-     * vertexes in the list.
-     * @return A vector with the ID of the vertexes.
-     */
-    
-    @Override
-    public String toString()
-    {
-        String  strVertexes = "[";    // Returned value
-        
-        // We copy the vertexes ID
-        
-        for (IVertex vertex: m_Vertexes)
-        {
-            strVertexes += vertex.getID() + ",";
-        }
-        
-        // We remove the last comma
-        
-        strVertexes += "]";
-        
-        // We return the result
-        
-        return (strVertexes);
-    }
-    
-    /**
-     * 
-     * @param vertexID
-     * @return True if the list contains onve vertex with the inpuit ID
-     */
-    
-    @Override
-    public boolean contains(
-            Long vertexID)
-    {
-        return (m_IndexedVertexes.containsKey(vertexID));
-    }
-    
     /**
      * 
      * @return Number of vertexes in the list
@@ -691,86 +213,6 @@ class VertexList implements IVertexList
         return (m_Vertexes.get(index));
     }
     
-    /**
-     * This function returns the vertex by ID.
-     * @param vertexId
-     * @return The vertexes with the required Id
-     */
-    
-    @Override
-    public IVertex getById(Long vertexId)
-    {
-        IVertex query = null;   // Returned value
-        
-        // We check that the vertex is contained in the list
-        
-        if (m_IndexedVertexes.containsKey(vertexId))
-        {
-            query = m_IndexedVertexes.get(vertexId);
-        }
-        
-        // We return the result
-        
-        return (query);
-    }
-    
-    /**
-     * This function returns a set of vertexes by Ids.
-     * @param vertexIds
-     * @return 
-     * @throws java.lang.Exception 
-     */
-    
-    @Override
-    public IVertexList getByIds(
-            Long[]   vertexIds) throws Exception
-    {
-        // We create the output list
-        
-        VertexList query = new VertexList(false);
-        
-        // We recover all the vertexes required
-        
-        for (Long vertexID: vertexIds)
-        {
-            if (m_IndexedVertexes.containsKey(vertexID))
-            {
-                query.add(m_IndexedVertexes.get(vertexID));
-            }
-        }
-        
-        // We return the result
-        
-        return (query);
-    }
-    
-    /**
-     * This function returns the sequence of ID for the vertexes within the list.
-     * @return One vector containing the IDs of all the vertexes contained
-     * in the list.
-     */
-    
-    @Override
-    public long[] getIDs()
-    {
-        int i = 0;  // Counter
-        
-        // We cretae the output vector
-        
-        long[] idVertexes = new long[m_Vertexes.size()];
-        
-        // We copy the iDs
-        
-        for (IVertex vertex: m_Vertexes)
-        {
-            idVertexes[i++] = vertex.getID();
-        }
-        
-        // We return the result
-        
-        return (idVertexes);
-    }
-    
     /**
      * Iterator
      * @return 
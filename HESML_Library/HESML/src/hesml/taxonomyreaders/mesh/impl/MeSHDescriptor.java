@@ -48,11 +48,18 @@ class MeSHDescriptor implements IMeSHDescriptor
     
     /**
      * Identitiers of the tree nodes associated to this MeSH concept.
-     * All identifiers use a hierarchical coding.
+     * All identifiers use a hierarchical coding. They are released
+     * once the taxonomy is built.
      */
     
     private String[]    m_strTreeNodeIds;
     
+    /**
+     * Taxonomy vertexes ID of the tree nodes set by the ontology
+     */
+    
+    private int[]   m_VertexIds;
+    
     /**
      * Ontology which belongs the current conept.
      */
@@ -83,6 +90,7 @@ class MeSHDescriptor implements IMeSHDescriptor
         m_strDescriptorId = strDescriptorId;
         m_strPreferredName = strPreferredName;
         m_strTreeNodeIds = strTreeNodeIds;
+        m_VertexIds = null;
         m_Vertexes = null;
     }
     
@@ -129,13 +137,13 @@ class MeSHDescriptor implements IMeSHDescriptor
     {
         // We create the output vector with vertexes ID
         
-        Long[] vertexesId = new Long[m_strTreeNodeIds.length];
+        Long[] vertexesId = new Long[m_VertexIds.length];
         
         // We retrieve all vertexes ID
         
-        for (int i = 0; i < m_strTreeNodeIds.length; i++)
+        for (int i = 0; i < m_VertexIds.length; i++)
         {
-            vertexesId[i] = m_ownerOntology.getVertexIdForTreeNodeId(m_strTreeNodeIds[i]);
+            vertexesId[i] = (long) m_VertexIds[i];
         }
         
         // We return the result
@@ -143,6 +151,19 @@ class MeSHDescriptor implements IMeSHDescriptor
         return (vertexesId);
     }
     
+    /**
+     * This function sets the vertexes ID of the tree nodes, and
+     * it releases the tree node identifiers.
+     * @param vertexIds 
+     */
+    
+    void setTreeNodeVertexIds(
+            int[]   vertexIds)
+    {
+        m_VertexIds = vertexIds;
+        m_strTreeNodeIds = null;
+    }
+    
     /**
      * This fucntion stores the vertexes of the taxonomy
      */
@@ -151,7 +172,7 @@ class MeSHDescriptor implements IMeSHDescriptor
     {
         // We create the output vector with vertexes ID
         
-        m_Vertexes = new IVertex[m_strTreeNodeIds.length];
+        m_Vertexes = new IVertex[m_VertexIds.length];
         
         // We get the taxonomy
         
@@ -159,9 +180,9 @@ class MeSHDescriptor implements IMeSHDescriptor
         
         // We retrieve all vertexes ID
         
-        for (int i = 0; i < m_strTreeNodeIds.length; i++)
+        for (int i = 0; i < m_VertexIds.length; i++)
         {
-            m_Vertexes[i] = taxonomyVertexes.getById(m_ownerOntology.getVertexIdForTreeNodeId(m_strTreeNodeIds[i]));
+            m_Vertexes[i] = taxonomyVertexes.getById((long) m_VertexIds[i]);
         }
     }
     
@@ -207,7 +228,24 @@ class MeSHDescriptor implements IMeSHDescriptor
     @Override
     public String[] getTreeNodeIds()
     {
-        return (m_strTreeNodeIds);
+        // We retrieve the tree node identifiers from the ontology
+        // once the taxonomy is built
+        
+        String[] strTreeNodeIds = m_strTreeNodeIds;
+        
+        if (m_VertexIds != null)
+        {
+            strTreeNodeIds = new String[m_VertexIds.length];
+            
+            for (int i = 0; i < m_VertexIds.length; i++)
+            {
+                strTreeNodeIds[i] = m_ownerOntology.getTreeNodeId(m_VertexIds[i]);
+            }
+        }
+        
+        // We return the result
+        
+        return (strTreeNodeIds);
     }
     
     /**
@@ -21,6 +21,7 @@
 package hesml.taxonomyreaders.mesh.impl;
 
 import hesml.taxonomyreaders.mesh.IMeSHOntology;
+import hesml.taxonomyreaders.umls.IMrconsoReader;
 import java.io.IOException;
 import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.stream.XMLStreamException;
@@ -50,4 +51,21 @@ public class MeSHFactory
         return (MeSHreader.loadMeSHOntology(strMeSHXmlDescriptorFilename,
                 strUmlsCUImappingFilename));
     }
+    
+    /**
+     * This function loads a MeSH ontology in memory whose UMLS CUI
+     * mappings are extracted by a MRCONSO reader, which can be shared
+     * with the SNOMED-CT database in order to read the file once.
+     * @param strMeSHXmlDescriptorFilename
+     * @param mrconsoReader
+     * @return 
+     */
+    
+    public static IMeSHOntology loadMeSHOntology(
+            String          strMeSHXmlDescriptorFilename,
+            IMrconsoReader  mrconsoReader) throws Exception
+    {
+        return (MeSHreader.loadMeSHOntology(strMeSHXmlDescriptorFilename,
+                mrconsoReader));
+    }
 }
@@ -27,10 +27,9 @@ import hesml.taxonomy.impl.TaxonomyFactory;
 import hesml.taxonomyreaders.mesh.IMeSHDescriptor;
 import hesml.taxonomyreaders.mesh.IMeSHOntology;
 import hesml.taxonomyreaders.snomed.ISnomedConcept;
-import java.io.BufferedReader;
-import java.io.FileNotFoundException;
-import java.io.FileReader;
-import java.io.IOException;
+import hesml.taxonomyreaders.umls.IMrconsoReader;
+import hesml.utils.CompactTermIndex;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
@@ -51,10 +50,18 @@ class MeSHOntology implements IMeSHOntology
     private HashMap<String, MeSHDescriptor> m_conceptsByKeyname;
     
     /**
-     * MeSH descriptos indexed by its preferred name
+     * MeSH descriptors sorted by their insertion order
      */
     
-    private HashMap<String, MeSHDescriptor> m_conceptsByPreferredName;
+    private ArrayList<MeSHDescriptor>   m_insertedConcepts;
+    
+    /**
+     * Compact index of the preferred names of the MeSH descriptors, which
+     * are identified by their position in the m_insertedConcepts list.
+     * This index is built on the first query by preferred name or term.
+     */
+    
+    private volatile CompactTermIndex   m_PreferredNameIndex;
     
     /**
      * MeSH concepts indexed by UMLS CUI.
@@ -75,11 +82,12 @@ class MeSHOntology implements IMeSHOntology
     private ITaxonomy   m_Taxonomy;
     
     /**
-     * This hashmap sets the mapping from a MeSH tree node to a vertex in the
-     * taxonomy.
+     * Sorted MeSH tree nodes indexed by their vertex ID in the taxonomy.
+     * This array sets the mapping from a MeSH tree node to a vertex in the
+     * taxonomy by binary search.
      */
     
-    private HashMap<String, Long>   m_TreeNodeToTaxonomyVertexMap;
+    private String[]    m_strTreeNodesByVertexId;
     
     /**
      * Constructor
@@ -91,8 +99,9 @@ class MeSHOntology implements IMeSHOntology
         m_meshConcepts = null;
         m_Taxonomy = null;
         m_conceptsByKeyname = new HashMap<>();
-        m_TreeNodeToTaxonomyVertexMap = new HashMap<>();
-        m_conceptsByPreferredName = new HashMap<>();
+        m_insertedConcepts = new ArrayList<>();
+        m_strTreeNodesByVertexId = null;
+        m_PreferredNameIndex = null;
         m_conceptsByUmlsCUI = new HashMap<>();
     }
     
@@ -105,18 +114,71 @@ class MeSHOntology implements IMeSHOntology
             String      strPreferredName,
             String[]    strTreeNodeIds)
     {
-        // We create the new concept
+        addDescriptor(new MeSHDescriptor(this, strDescriptorId,
+                        strPreferredName, strTreeNodeIds));
+    }
+    
+    /**
+     * This function inserts a MeSH descriptor (concept) created by
+     * the reader into the ontology.
+     * @param newConcept 
+     */
+    
+    void addDescriptor(
+            MeSHDescriptor  newConcept)
+    {
+        // We insert a new concept in the ontology
         
-        MeSHDescriptor newConcept = new MeSHDescriptor(this, strDescriptorId,
-                                        strPreferredName, strTreeNodeIds);
+        m_conceptsByKeyname.put(newConcept.getMeSHDescriptorId(), newConcept);
+        m_insertedConcepts.add(newConcept);
         
-        // We insert a new concept in the ontology
+        // We reset the index of preferred names
+        
+        m_PreferredNameIndex = null;
+    }
+    
+    /**
+     * This function returns the index of preferred names, which is built
+     * on the first call after the insertion of new descriptors.
+     * @return The index of preferred names
+     */
+    
+    private CompactTermIndex getPreferredNameIndex()
+    {
+        CompactTermIndex preferredNameIndex = m_PreferredNameIndex;
         
-        m_conceptsByKeyname.put(strDescriptorId, newConcept);
+        // We build the index the first time
         
-        // We index the concept by its preferred name
+        if (preferredNameIndex == null)
+        {
+            synchronized (this)
+            {
+                preferredNameIndex = m_PreferredNameIndex;
+                
+                if (preferredNameIndex == null)
+                {
+                    int conceptCount = m_insertedConcepts.size();
+                    
+                    String[] strPreferredNames = new String[conceptCount];
+                    int[] owners = new int[conceptCount];
+                    
+                    for (int i = 0; i < conceptCount; i++)
+                    {
+                        strPreferredNames[i] = m_insertedConcepts.get(i).getPreferredName();
+                        owners[i] = i;
+                    }
+                    
+                    preferredNameIndex = CompactTermIndex.createIndex(
+                                        strPreferredNames, owners, conceptCount);
+                    
+                    m_PreferredNameIndex = preferredNameIndex;
+                }
+            }
+        }
+        
+        // We return the result
         
-        m_conceptsByPreferredName.put(strPreferredName, newConcept);
+        return (preferredNameIndex);
     }
     
     /**
@@ -132,57 +194,152 @@ class MeSHOntology implements IMeSHOntology
         m_meshConcepts = new IMeSHDescriptor[m_conceptsByKeyname.size()];
         m_conceptsByKeyname.values().toArray(m_meshConcepts);
         
-        // We create the taxonomy
+        // We collect and sort the tree nodes of all descriptors, thus
+        // every tree node follows its ancestors and precedes the nodes
+        // of the following subtrees
         
-        m_Taxonomy = TaxonomyFactory.createBlankTaxonomy(m_conceptsByKeyname.size());
+        int treeNodeCount = 0;
         
-        // We insert the root node becasue all MeSH trees are independent
+        for (IMeSHDescriptor descriptor: m_meshConcepts)
+        {
+            treeNodeCount += descriptor.getTreeNodeIds().length;
+        }
         
-        m_Taxonomy.addVertex(0L, new Long[0]);
-        m_TreeNodeToTaxonomyVertexMap.put("", 0L);
+        String[] strSortedTreeNodes = new String[treeNodeCount];
         
-        // We traverse the collection of descriptors
+        treeNodeCount = 0;
         
         for (IMeSHDescriptor descriptor: m_meshConcepts)
         {
-            // We get all tree nodes
-            
             for (String strTreeNode: descriptor.getTreeNodeIds())
             {
-                // We retrieve all nodes in the path from the tree node to the root
+                strSortedTreeNodes[treeNodeCount++] = strTreeNode;
+            }
+        }
+        
+        Arrays.parallelSort(strSortedTreeNodes);
+        
+        // We insert the root node becasue all MeSH trees are independent
+        
+        ArrayList<String> strVertexTreeNodes = new ArrayList<>(treeNodeCount + 1);
+        
+        strVertexTreeNodes.add("");
+        
+        // We save the parent vertex of every non-root vertex, which
+        // is stored in the position before the vertex ID
+        
+        int[] parentVertexIds = new int[treeNodeCount];
+        
+        // We insert the tree nodes in sorted order by keeping the path of
+        // vertexes from the root to the last inserted node. The missing
+        // nodes in the path to every tree node are inserted too.
+        
+        int[] pathVertexIds = new int[16];
+        int pathDepth = 0;
+        
+        for (int i = 0; i < strSortedTreeNodes.length; i++)
+        {
+            String strTreeNode = strSortedTreeNodes[i];
+            
+            // We skip the repeated tree nodes
+            
+            if ((i > 0) && strTreeNode.equals(strSortedTreeNodes[i - 1])) continue;
+            
+            // We remove the nodes in the path which are not ancestors
+            
+            while ((pathDepth > 0) && !isAncestorTreeNode(
+                    strVertexTreeNodes.get(pathVertexIds[pathDepth]), strTreeNode))
+            {
+                pathDepth--;
+            }
+            
+            // We insert the missing nodes in the path and the tree node
+            
+            int nodeStart = (pathDepth > 0) ?
+                            strVertexTreeNodes.get(pathVertexIds[pathDepth]).length() + 1 : 0;
+            
+            while (nodeStart <= strTreeNode.length())
+            {
+                // We get the keyname of the following node in the path
                 
-                String[] strPathNodes = getDecomposedPathNodes(strTreeNode);
+                int nodeEnd = strTreeNode.indexOf('.', nodeStart);
                 
-                // We insert all nodes in the path from the root
+                if (nodeEnd < 0) nodeEnd = strTreeNode.length();
                 
-                for (int i = 0; i < strPathNodes.length; i++)
+                String strPathNode = (nodeEnd == strTreeNode.length()) ?
+                                    strTreeNode : strTreeNode.substring(0, nodeEnd);
+                
+                // We check that the sorting of the vertexes is kept
+                
+                if (strPathNode.compareTo(strVertexTreeNodes.get(strVertexTreeNodes.size() - 1)) <= 0)
                 {
-                    // We chekc if the node is not currently included in the taxonomy
-                    
-                    if (!m_TreeNodeToTaxonomyVertexMap.containsKey(strPathNodes[i]))
-                    {
-                        // We get the node keyname and the keyname of its parent
-
-                        String strParentKeyname = (i > 0) ? strPathNodes[i-1] : "";
-                        
-                        // We set hte parents list
-                        
-                        Long[] parentIds = {m_TreeNodeToTaxonomyVertexMap.get(strParentKeyname)};
-                        
-                        // We set the ID of the new vertex in the taxonomy
-                        
-                        int newNodeId = m_Taxonomy.getVertexes().getCount();
-                        
-                        // We insert the new vertex in the taxonomy
-                        
-                        m_Taxonomy.addVertex((long) newNodeId, parentIds);
-                        
-                        // We register the vertex ID and insert the vertex
-                        
-                        m_TreeNodeToTaxonomyVertexMap.put(strPathNodes[i], (long) newNodeId);
-                    }
+                    String strError = "Wrong MeSH tree node -> " + strTreeNode;
+                    throw (new Exception(strError));
                 }
+                
+                // We insert the new vertex
+                
+                int newNodeId = strVertexTreeNodes.size();
+                
+                if (newNodeId > parentVertexIds.length)
+                {
+                    parentVertexIds = Arrays.copyOf(parentVertexIds, 2 * parentVertexIds.length);
+                }
+                
+                parentVertexIds[newNodeId - 1] = pathVertexIds[pathDepth];
+                strVertexTreeNodes.add(strPathNode);
+                
+                // We push the vertex into the path
+                
+                if (++pathDepth == pathVertexIds.length)
+                {
+                    pathVertexIds = Arrays.copyOf(pathVertexIds, 2 * pathVertexIds.length);
+                }
+                
+                pathVertexIds[pathDepth] = newNodeId;
+                nodeStart = nodeEnd + 1;
+            }
+        }
+        
+        // We create the taxonomy in a single pass
+        
+        int vertexCount = strVertexTreeNodes.size();
+        
+        long[] taxonomyVertexIds = new long[vertexCount];
+        int[] parentStarts = new int[vertexCount + 1];
+        
+        for (int i = 0; i < vertexCount; i++)
+        {
+            taxonomyVertexIds[i] = i;
+            parentStarts[i + 1] = i;
+        }
+        
+        m_Taxonomy = TaxonomyFactory.createTaxonomy(taxonomyVertexIds, parentStarts,
+                        Arrays.copyOf(parentVertexIds, vertexCount - 1));
+        
+        // We release the sorted list and create the vertex map
+        
+        strSortedTreeNodes = null;
+        
+        m_strTreeNodesByVertexId = strVertexTreeNodes.toArray(new String[strVertexTreeNodes.size()]);
+        
+        strVertexTreeNodes.clear();
+        
+        // We set the vertexes ID of every descriptor and
+        // release their tree node identifiers
+        
+        for (IMeSHDescriptor descriptor: m_meshConcepts)
+        {
+            String[] strTreeNodes = descriptor.getTreeNodeIds();
+            
+            int[] vertexIds = new int[strTreeNodes.length];
+            
+            for (int i = 0; i < strTreeNodes.length; i++)
+            {
+                vertexIds[i] = Arrays.binarySearch(m_strTreeNodesByVertexId, strTreeNodes[i]);
             }
+            
+            ((MeSHDescriptor)descriptor).setTreeNodeVertexIds(vertexIds);
         }
         
         // We compute all cached information
@@ -210,29 +367,22 @@ class MeSHOntology implements IMeSHOntology
     }
     
     /**
-     * This function decomposes the keyname of a tree node for recovering
-     * all ndos in the path by using the hierchical naming rule.
+     * This function checks whether the first tree node is an ancestor
+     * of the second one by using the hierchical naming rule.
+     * @param strAncestorNode
+     * @param strTreeNode
      * @return 
      */
     
-    private String[] getDecomposedPathNodes(
-        String  strTreeNodeId)
+    private static boolean isAncestorTreeNode(
+            String  strAncestorNode,
+            String  strTreeNode)
     {
-        // We decompose the node keyname to extract all nods in the pàth.
-        
-        String[] strNodes = strTreeNodeId.split("\\.");
-        
-        // We creaete the output vector containing all nodes in the path
-        
-        for (int i = 1; i < strNodes.length; i++)
-        {
-            strNodes[i] = strNodes[i - 1] + "." + strNodes[i];
-        }
-        
-        // We return the output
-        
-        return (strNodes);
+        return ((strTreeNode.length() > strAncestorNode.length())
+                && (strTreeNode.charAt(strAncestorNode.length()) == '.')
+                && strTreeNode.startsWith(strAncestorNode));
     }
+    
     /**
      * This function returns the vertex Ids in the HESML taxonomy corresponding
      * to the input tree nodes in the MeSH taxonomy.
@@ -252,8 +402,9 @@ class MeSHOntology implements IMeSHOntology
         
         for (int i = 0; i < strTreeNodes.length; i++)
         {
-            vertexesIds[i] = m_TreeNodeToTaxonomyVertexMap.containsKey(strTreeNodes[i]) ?
-                            m_TreeNodeToTaxonomyVertexMap.get(strTreeNodes[i]) : -1L;
+            Long vertexId = getVertexIdForTreeNodeId(strTreeNodes[i]);
+            
+            vertexesIds[i] = (vertexId != null) ? vertexId : -1L;
         }
         
         // We return the result
@@ -269,7 +420,26 @@ class MeSHOntology implements IMeSHOntology
     public Long getVertexIdForTreeNodeId(
         String  strTreeNodeId)
     {
-        return (m_TreeNodeToTaxonomyVertexMap.get(strTreeNodeId));
+        // We look for the tree node in the sorted array
+        
+        int vertexId = (m_strTreeNodesByVertexId != null) ?
+                        Arrays.binarySearch(m_strTreeNodesByVertexId, strTreeNodeId) : -1;
+        
+        // We return the result
+        
+        return ((vertexId >= 0) ? (long) vertexId : null);
+    }
+    
+    /**
+     * This function returns the tree node ID of a taxonomy vertex.
+     * @param vertexId
+     * @return 
+     */
+    
+    String getTreeNodeId(
+        int vertexId)
+    {
+        return (m_strTreeNodesByVertexId[vertexId]);
     }
     
     /**
@@ -292,10 +462,7 @@ class MeSHOntology implements IMeSHOntology
         
         for (IMeSHDescriptor concept: cuiEvokedConcepts)
         {
-            for (String strTreeNodeId: concept.getTreeNodeIds())
-            {
-                auxVertexesId.add(m_TreeNodeToTaxonomyVertexMap.get(strTreeNodeId));
-            }
+            auxVertexesId.addAll(Arrays.asList(concept.getTaxonomyNodesId()));
         }
         
         // We convert the set of vertex Ids into an array
@@ -346,63 +513,43 @@ class MeSHOntology implements IMeSHOntology
 
     /**
      * This function reads the concept UMLS-CUIs
-     * @param concepts 
+     * @param mrconsoReader Reader of the UMLS CUI mapping file
      */
     
     public void readConceptsUmlsCUIs(
-            String  masterCuiFile) throws FileNotFoundException, IOException
+            IMrconsoReader  mrconsoReader) throws Exception
     {
-        // We open the file for reading
+        // We get the pairs (CUI, MeSH descriptor ID)
         
-        BufferedReader reader = new BufferedReader(new FileReader(masterCuiFile));
-        System.out.println("Loading " + masterCuiFile);
-                
-        // We read the relationship lines
+        String[][] strCuiMappings = mrconsoReader.getMeSHMappings();
         
-        String strLine;
-                
-        while ((strLine = reader.readLine()) != null)
+        String[] strUmlsCuis = strCuiMappings[0];
+        String[] strDescriptorIds = strCuiMappings[1];
+        
+        for (int i = 0; i < strUmlsCuis.length; i++)
         {
-            // We extract the attributes of the relationship
+            // We get the mapping CUI -> MeSH Id
             
-            String[] strColumns = strLine.split("\\|");
+            String strUmlsCui = strUmlsCuis[i];
+            String meshDescriptorId = strDescriptorIds[i];
             
-            // We look for the MeSH tag
+            // We register the UMLS concept associated to a given CUI
+            // only if the descriptor is contained in MeSH ontology
             
-            for (int iCol = 0; iCol < strColumns.length; iCol++)
+            if (m_conceptsByKeyname.containsKey(meshDescriptorId))
             {
-                if (strColumns[iCol].equals("MSH"))
+                // We check if the CUI has been already registered
+                
+                if (!m_conceptsByUmlsCUI.containsKey(strUmlsCui))
                 {
-                    // We get the mapping CUI -> MeSH Id
-                    
-                    String strUmlsCui = strColumns[0];
-                    String meshDescriptorId = strColumns[iCol - 1];
-                    
-                    // We register the UMLS concept associated to a given CUI
-                    // only if the descriptor is contained in MeSH ontology
-                    
-                    if (m_conceptsByKeyname.containsKey(meshDescriptorId))
-                    {
-                        // We check if the CUI has been already registered
-                        
-                        if (!m_conceptsByUmlsCUI.containsKey(strUmlsCui))
-                        {
-                            m_conceptsByUmlsCUI.put(strUmlsCui, new HashSet<IMeSHDescriptor>(1));
-                        }
-                    
-                        // We register the MeSH descriptor asscopaited to the CUI
-                        
-                        m_conceptsByUmlsCUI.get(strUmlsCui).add(m_conceptsByKeyname.get(meshDescriptorId));
-                    }
-                    
-                    break;
+                    m_conceptsByUmlsCUI.put(strUmlsCui, new HashSet<IMeSHDescriptor>(1));
                 }
+                
+                // We register the MeSH descriptor asscopaited to the CUI
+                
+                m_conceptsByUmlsCUI.get(strUmlsCui).add(m_conceptsByKeyname.get(meshDescriptorId));
             }
         }
-        
-        // We close the database
-        
-        reader.close();
     }    
     
     /**
@@ -602,7 +749,16 @@ class MeSHOntology implements IMeSHOntology
     public IMeSHDescriptor getConceptByPreferredName(
         String  strPreferredName) throws Exception
     {
-        return (m_conceptsByPreferredName.get(strPreferredName));
+        // We get the descriptors with this preferred name, which are
+        // sorted by their insertion order
+        
+        int[] descriptors = getPreferredNameIndex().getOwners(strPreferredName);
+        
+        // We return the last inserted descriptor, such as the former
+        // map of preferred names did
+        
+        return ((descriptors.length > 0) ?
+                m_insertedConcepts.get(descriptors[descriptors.length - 1]) : null);
     }
     
     /**
@@ -618,7 +774,22 @@ class MeSHOntology implements IMeSHOntology
     public String[] getMeSHConceptsEvokedByTerm(
         String  strTerm) throws Exception
     {
-        return (null);
+        // We get the descriptors whose preferred name is the input term
+        
+        int[] descriptors = getPreferredNameIndex().getOwners(strTerm);
+        
+        // We copy the descriptor IDs
+        
+        String[] strDescriptorIds = new String[descriptors.length];
+        
+        for (int i = 0; i < descriptors.length; i++)
+        {
+            strDescriptorIds[i] = m_insertedConcepts.get(descriptors[i]).getMeSHDescriptorId();
+        }
+        
+        // We return the result
+        
+        return (strDescriptorIds);
     }
        
     /**
@@ -651,10 +822,11 @@ class MeSHOntology implements IMeSHOntology
     @Override
     public void clear()
     {
-        m_TreeNodeToTaxonomyVertexMap.clear();
-        m_conceptsByPreferredName.clear();
+        m_strTreeNodesByVertexId = null;
+        m_PreferredNameIndex = null;
         m_conceptsByUmlsCUI.clear();
         m_conceptsByKeyname.clear();
+        m_insertedConcepts.clear();
         
         if (m_Taxonomy != null) m_Taxonomy.clear();
     }
@@ -21,9 +21,19 @@
 package hesml.taxonomyreaders.mesh.impl;
 
 import hesml.taxonomyreaders.mesh.IMeSHOntology;
-import java.io.FileInputStream;
+import hesml.taxonomyreaders.umls.IMrconsoReader;
+import hesml.taxonomyreaders.umls.impl.UmlsFactory;
+import hesml.utils.ConcurrentTasks;
+import java.io.ByteArrayInputStream;
+import java.io.File;
 import java.io.IOException;
-import java.util.HashSet;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.stream.XMLInputFactory;
 import javax.xml.stream.XMLStreamException;
@@ -32,11 +42,38 @@ import org.xml.sax.SAXException;
 
 /**
  * This class parses the MeSH descriptor file in XML file format.
+ * The file is split into byte ranges aligned to the starting tags
+ * of the descriptor records, which are parsed concurrently.
  * @author Juan J. Lastra-Díaz <jlastra@invi.uned.es>
  */
 
 class MeSHreader
 {
+    /**
+     * Minimum size of the chunks in order to avoid splitting small files
+     */
+    
+    private static final long   MIN_CHUNK_SIZE = 16 * 1024 * 1024;
+    
+    /**
+     * Size of the buffer used to look for the chunk boundaries
+     */
+    
+    private static final int    SEARCH_BLOCK_SIZE = 64 * 1024;
+    
+    /**
+     * Starting tag of every descriptor record
+     */
+    
+    private static final byte[] RECORD_START_TAG = "<DescriptorRecord".getBytes(StandardCharsets.US_ASCII);
+    
+    /**
+     * Tags of the root element wrapping the records of every chunk
+     */
+    
+    private static final byte[] RECORD_SET_START_TAG = "<DescriptorRecordSet>".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] RECORD_SET_END_TAG = "</DescriptorRecordSet>".getBytes(StandardCharsets.US_ASCII);
+    
     /**
      * This function loads a MeSH ontology in memory.
      * @param strMeSHXmlDescriptorFilename
@@ -50,52 +87,108 @@ class MeSHreader
                                                 ParserConfigurationException,    
                                                 XMLStreamException,    
                                                 Exception    
+    {
+        // We create the reader of the UMLS CUI mapping file
+        
+        IMrconsoReader mrconsoReader = UmlsFactory.createMrconsoReader(
+                                        strUmlsCUImappingFilename, false, true);
+        
+        // We load the ontology
+        
+        IMeSHOntology meshOntology = loadMeSHOntology(strMeSHXmlDescriptorFilename, mrconsoReader);
+        
+        // We release the CUI mappings
+        
+        mrconsoReader.clear();
+        
+        // We return the result
+        
+        return (meshOntology);
+    }
+    
+    /**
+     * This function loads a MeSH ontology in memory whose UMLS CUI
+     * mappings are extracted by a MRCONSO reader.
+     * @param strMeSHXmlDescriptorFilename
+     * @param mrconsoReader
+     * @return 
+     */
+    
+    public static IMeSHOntology loadMeSHOntology(
+            String          strMeSHXmlDescriptorFilename,
+            IMrconsoReader  mrconsoReader) throws Exception
     {
         // Debugging message
         
         System.out.println("Loading the MeSH ontology file = " + strMeSHXmlDescriptorFilename);
         
+        // We check the existence of the file
+        
+        if (!(new File(strMeSHXmlDescriptorFilename)).exists())
+        {
+            String strError = "This file doesn´t exist -> " + strMeSHXmlDescriptorFilename;
+            throw (new Exception(strError));
+        }
+        
         // We create a blank MeSH ontology
         
         MeSHOntology meshOntology = new MeSHOntology();
         
-        // We open the XML-based file
+        // We split the XML-based file into chunks of descriptor records
         
-        XMLStreamReader xmlStreamReader = XMLInputFactory.newInstance().createXMLStreamReader(
-                                            new FileInputStream(strMeSHXmlDescriptorFilename));        
+        long[] chunkBoundaries = getChunkBoundaries(strMeSHXmlDescriptorFilename);
         
-        // We parse the document 
+        // We create one parsing task per chunk
+        
+        ArrayList<Callable<ArrayList<MeSHDescriptor>>> tasks = new ArrayList<>();
         
-        while(xmlStreamReader.hasNext())
+        for (int i = 0; i < chunkBoundaries.length - 1; i++)
         {
-            // We read to the next element
+            final long chunkStart = chunkBoundaries[i];
+            final long chunkEnd = chunkBoundaries[i + 1];
+            final boolean lastChunk = (i == chunkBoundaries.length - 2);
             
-            xmlStreamReader.next();
+            tasks.add(() -> parseChunk(meshOntology, strMeSHXmlDescriptorFilename,
+                                        chunkStart, chunkEnd, lastChunk));
+        }
+        
+        // We parse the chunks concurrently with the reading of the
+        // UMLS CUI mappings, and we insert the descriptors in file order
+        
+        int threadCount = Math.max(1, Math.min(
+                            Runtime.getRuntime().availableProcessors(), tasks.size()));
+        
+        ExecutorService executor = Executors.newFixedThreadPool(threadCount + 1);
+        
+        try
+        {
+            Future<String[][]> cuiMappingsTask = executor.submit(() -> mrconsoReader.getMeSHMappings());
             
-            // We detect the staring position of the DescriptorRecord
+            ArrayList<Future<ArrayList<MeSHDescriptor>>> chunkTasks = new ArrayList<>(tasks.size());
             
-            if((xmlStreamReader.getEventType() == XMLStreamReader.START_ELEMENT)
-                    && (xmlStreamReader.getLocalName().equals("DescriptorRecord")))
+            for (Callable<ArrayList<MeSHDescriptor>> task : tasks)
             {
-                // We extract the three main attributes of the MeSH descriptor
-                
-                String strDescriptorId = parseChildNode(xmlStreamReader, "DescriptorUI");
-                String[] strTreeNodes = parseTreeNodes(xmlStreamReader);
-                String strPreferredName = parsePreferredName(xmlStreamReader);
-                
-                // We insert the concept into the MeSH ontology
-                
-                if (strTreeNodes.length > 0) meshOntology.addDescriptor(strDescriptorId, strPreferredName, strTreeNodes);
+                chunkTasks.add(executor.submit(task));
             }
+            
+            for (Future<ArrayList<MeSHDescriptor>> chunkTask : chunkTasks)
+            {
+                for (MeSHDescriptor descriptor : ConcurrentTasks.getTaskResult(chunkTask))
+                {
+                    meshOntology.addDescriptor(descriptor);
+                }
+            }
+            
+            ConcurrentTasks.getTaskResult(cuiMappingsTask);
+        }
+        finally
+        {
+            executor.shutdown();
         }
-               
-        // We close the document
-        
-        xmlStreamReader.close();
         
         // We load the CUI mapping
         
-        meshOntology.readConceptsUmlsCUIs(strUmlsCUImappingFilename);
+        meshOntology.readConceptsUmlsCUIs(mrconsoReader);
         
         // We build the taxonomy
         
@@ -107,160 +200,311 @@ class MeSHreader
     }
     
     /**
-     * This function retrieves the descriptor keyname.
-     * @param xmlStreamReader
-     * @return 
+     * This function returns the boundaries of the chunks in which the file
+     * is split. Every chunk starts at the starting tag of a descriptor record,
+     * and the last chunk ends at the end of the file, thus it contains the
+     * closing tag of the record set.
+     * @param strMeSHXmlDescriptorFilename
+     * @return Sorted chunk boundaries
+     * @throws IOException 
      */
     
-    private static String[] parseTreeNodes(
-        XMLStreamReader xmlStreamReader) throws XMLStreamException
+    private static long[] getChunkBoundaries(
+            String  strMeSHXmlDescriptorFilename) throws IOException
     {
-        // We create an auxiliary set
+        // We initialize the output
         
-        HashSet<String> parsingTreeNodes = new HashSet<>();
-                
-        // We parse the descriptor record 
+        ArrayList<Long> boundaries = new ArrayList<>();
         
-        while(xmlStreamReader.hasNext())
+        try (RandomAccessFile file = new RandomAccessFile(strMeSHXmlDescriptorFilename, "r"))
         {
-            // We read to the next element
+            // We compute the number of chunks
             
-            xmlStreamReader.next();
+            long fileLength = file.length();
             
-            // We detect the staring position of the Tree Number List
+            int chunkCount = (int)Math.max(1, Math.min(
+                                4L * Runtime.getRuntime().availableProcessors(),
+                                fileLength / MIN_CHUNK_SIZE));
             
-            if((xmlStreamReader.getEventType() == XMLStreamReader.START_ELEMENT)
-                    && (xmlStreamReader.getLocalName().equals("TreeNumberList")))
+            // We align the approximate chunk starts to the following record
+            
+            for (int i = 0; i < chunkCount; i++)
             {
-                // We read all tree numbers
+                long recordStart = findRecordStart(file, i * (fileLength / chunkCount));
                 
-                do
+                if ((recordStart < fileLength)
+                        && (boundaries.isEmpty()
+                        || (recordStart > boundaries.get(boundaries.size() - 1))))
                 {
-                    // We read next element
-                    
-                    xmlStreamReader.next();
-                    
-                    if((xmlStreamReader.getEventType() == XMLStreamReader.START_ELEMENT)
-                        && xmlStreamReader.getLocalName().equals("TreeNumber"))
-                    {
-                        parsingTreeNodes.add(xmlStreamReader.getElementText());
-                    }
-                    
-                } while ((xmlStreamReader.getEventType() != XMLStreamReader.END_ELEMENT)
-                    || !xmlStreamReader.getLocalName().equals("TreeNumberList"));
-                
-                // We exit from the loop once all tree nodes have been parsed
-                
-                break;
+                    boundaries.add(recordStart);
+                }
             }
+            
+            // We close the last chunk
+            
+            if (!boundaries.isEmpty()) boundaries.add(fileLength);
         }
         
-        // We create the output vector
+        // We copy the boundaries into the output vector
         
-        String[] strTreeNodes = new String[parsingTreeNodes.size()];
+        long[] chunkBoundaries = new long[boundaries.size()];
         
-        parsingTreeNodes.toArray(strTreeNodes);
-        parsingTreeNodes.clear();
+        for (int i = 0; i < chunkBoundaries.length; i++)
+        {
+            chunkBoundaries[i] = boundaries.get(i);
+        }
         
         // We return the result
         
-        return (strTreeNodes);
+        return (chunkBoundaries);
     }
-
+    
     /**
-     * This function retrieves the preferred name of a MeSH descriptor
-     * @param xmlStreamReader
+     * This function returns the position of the first starting tag of a
+     * descriptor record following the input position, or the file length
+     * if it is not found.
+     * @param file
+     * @param fromPosition
      * @return 
      */
     
-    private static String parsePreferredName(
-        XMLStreamReader xmlStreamReader) throws XMLStreamException
+    private static long findRecordStart(
+            RandomAccessFile    file,
+            long                fromPosition) throws IOException
     {
         // We initialize the output
         
-        String strPreferredName = "";
+        long recordStart = file.length();
         
-        // We parse the descriptor record 
+        // We read overlapping blocks until the tag is found
         
-        while(xmlStreamReader.hasNext())
+        byte[] buffer = new byte[SEARCH_BLOCK_SIZE];
+        
+        long blockPosition = fromPosition;
+        boolean found = false;
+        
+        while (!found && (blockPosition < recordStart))
         {
-            // We read to the next element
+            file.seek(blockPosition);
+            
+            int filled = 0;
+            int bytesRead;
             
-            xmlStreamReader.next();
+            while ((filled < buffer.length)
+                    && ((bytesRead = file.read(buffer, filled, buffer.length - filled)) > 0))
+            {
+                filled += bytesRead;
+            }
             
-            // We detect the staring position of the Tree Number List
+            // We look for the tag followed by a whitespace or the tag end,
+            // thus the starting tag of the record set is skipped
             
-            if((xmlStreamReader.getEventType() == XMLStreamReader.START_ELEMENT)
-                    && xmlStreamReader.getLocalName().equals("Concept")
-                    && (xmlStreamReader.getAttributeCount() == 1)
-                    && xmlStreamReader.getAttributeLocalName(0).equals("PreferredConceptYN")
-                    && xmlStreamReader.getAttributeValue(0).equals("Y"))
+            int lastStart = filled - RECORD_START_TAG.length - 1;
+            
+            for (int i = 0; (i <= lastStart) && !found; i++)
             {
-                // We skip the cursor until the "ConceptName " element
-                
-                do
+                if (isRecordStartTag(buffer, i))
                 {
-                    // We read the following element
-
-                    xmlStreamReader.next();
-
-                    if ((xmlStreamReader.getEventType() == XMLStreamReader.START_ELEMENT)
-                            && xmlStreamReader.getLocalName().equals("ConceptName"))
-                    {
-                        strPreferredName = parseChildNode(xmlStreamReader, "String");
-                        break;
-                    }
-
-                } while ((xmlStreamReader.getEventType() != XMLStreamReader.END_ELEMENT)
-                    || !xmlStreamReader.getLocalName().equals("Concept"));
-                
-                // We exit from the parsing loop
-                
-                break;
+                    recordStart = blockPosition + i;
+                    found = true;
+                }
             }
+            
+            // We move to the following block
+            
+            if (filled < buffer.length) break;
+            
+            blockPosition += lastStart + 1;
         }
         
         // We return the result
         
-        return (strPreferredName);
+        return (recordStart);
     }
     
     /**
-     * This function reads a child element of the current parsed element.
-     * @param xmlStreamReader
-     * @param strChildElementName
-     * @return
-     * @throws XMLStreamException 
+     * This function checks whether the input position contains the
+     * starting tag of a descriptor record.
+     * @param buffer
+     * @param position
+     * @return 
      */
     
-    private static String parseChildNode(
-            XMLStreamReader xmlStreamReader,
-            String          strChildElementName) throws XMLStreamException
+    private static boolean isRecordStartTag(
+            byte[]  buffer,
+            int     position)
     {
-        // We initialize the output
+        // We compare the tag name
+        
+        boolean result = true;
         
-        String strChildNodeValue = "";
+        for (int i = 0; (i < RECORD_START_TAG.length) && result; i++)
+        {
+            result = (buffer[position + i] == RECORD_START_TAG[i]);
+        }
         
-        // We parse the descriptor record 
+        // We check the character following the tag name
         
-        while(xmlStreamReader.hasNext())
+        if (result)
         {
-            // We read to the next element
+            byte next = buffer[position + RECORD_START_TAG.length];
             
-            xmlStreamReader.next();
-            
-            // We detect the staring position of the Tree Number List
+            result = (next == '>') || (next == ' ') || (next == '\t')
+                    || (next == '\r') || (next == '\n');
+        }
+        
+        // We return the result
+        
+        return (result);
+    }
+    
+    /**
+     * This function parses the descriptor records contained in a chunk
+     * of the file. The chunk is wrapped into a record set element in
+     * order to be parsed as a well-formed XML document.
+     * @param meshOntology Owner ontology of the descriptors
+     * @param strMeSHXmlDescriptorFilename
+     * @param chunkStart
+     * @param chunkEnd
+     * @param lastChunk True if the chunk contains the closing tag of the file
+     * @return Descriptors in file order
+     */
+    
+    private static ArrayList<MeSHDescriptor> parseChunk(
+            MeSHOntology    meshOntology,
+            String          strMeSHXmlDescriptorFilename,
+            long            chunkStart,
+            long            chunkEnd,
+            boolean         lastChunk) throws IOException, XMLStreamException
+    {
+        // We read the chunk into a buffer wrapped by the record set tags
+        
+        int chunkLength = (int)(chunkEnd - chunkStart);
+        int endTagLength = lastChunk ? 0 : RECORD_SET_END_TAG.length;
+        
+        byte[] buffer = new byte[RECORD_SET_START_TAG.length + chunkLength + endTagLength];
+        
+        System.arraycopy(RECORD_SET_START_TAG, 0, buffer, 0, RECORD_SET_START_TAG.length);
+        System.arraycopy(RECORD_SET_END_TAG, 0, buffer, buffer.length - endTagLength, endTagLength);
+        
+        try (RandomAccessFile file = new RandomAccessFile(strMeSHXmlDescriptorFilename, "r"))
+        {
+            file.seek(chunkStart);
+            file.readFully(buffer, RECORD_SET_START_TAG.length, chunkLength);
+        }
+        
+        // We create the output list
+        
+        ArrayList<MeSHDescriptor> descriptors = new ArrayList<>();
+        
+        // We open the chunk as a XML document
+        
+        XMLStreamReader xmlStreamReader = XMLInputFactory.newInstance().createXMLStreamReader(
+                                            new ByteArrayInputStream(buffer), "UTF-8");
+        
+        // We parse the document 
+        
+        while (xmlStreamReader.hasNext())
+        {
+            // We detect the staring position of the DescriptorRecord
             
-            if((xmlStreamReader.getEventType() == XMLStreamReader.START_ELEMENT)
-                    && (xmlStreamReader.getLocalName().equals(strChildElementName)))
+            if ((xmlStreamReader.next() == XMLStreamReader.START_ELEMENT)
+                    && (xmlStreamReader.getLocalName().equals("DescriptorRecord")))
+            {
+                MeSHDescriptor descriptor = parseDescriptorRecord(meshOntology, xmlStreamReader);
+                
+                if (descriptor != null) descriptors.add(descriptor);
+            }
+        }
+        
+        // We close the document
+        
+        xmlStreamReader.close();
+        
+        // We return the result
+        
+        return (descriptors);
+    }
+    
+    /**
+     * This function parses a descriptor record, and it returns the
+     * MeSH descriptor or null if the record has no tree nodes. The
+     * parsing stops at the closing tag of the record.
+     * @param meshOntology
+     * @param xmlStreamReader
+     * @return 
+     */
+    
+    private static MeSHDescriptor parseDescriptorRecord(
+            MeSHOntology    meshOntology,
+            XMLStreamReader xmlStreamReader) throws XMLStreamException
+    {
+        // We initialize the three main attributes of the MeSH descriptor
+        
+        String strDescriptorId = null;
+        String strPreferredName = null;
+        
+        ArrayList<String> treeNodes = new ArrayList<>();
+        
+        // We parse the elements of the record
+        
+        boolean inPreferredConcept = false;
+        boolean inPreferredConceptName = false;
+        
+        int eventType;
+        
+        while (((eventType = xmlStreamReader.next()) != XMLStreamReader.END_ELEMENT)
+                || !xmlStreamReader.getLocalName().equals("DescriptorRecord"))
+        {
+            if (eventType == XMLStreamReader.START_ELEMENT)
             {
-                strChildNodeValue = xmlStreamReader.getElementText();
-                break;
+                String strElementName = xmlStreamReader.getLocalName();
+                
+                if ((strDescriptorId == null) && strElementName.equals("DescriptorUI"))
+                {
+                    strDescriptorId = xmlStreamReader.getElementText();
+                }
+                else if (strElementName.equals("TreeNumber"))
+                {
+                    String strTreeNode = xmlStreamReader.getElementText();
+                    
+                    if (!treeNodes.contains(strTreeNode)) treeNodes.add(strTreeNode);
+                }
+                else if ((strPreferredName == null) && strElementName.equals("Concept")
+                        && (xmlStreamReader.getAttributeCount() == 1)
+                        && xmlStreamReader.getAttributeLocalName(0).equals("PreferredConceptYN")
+                        && xmlStreamReader.getAttributeValue(0).equals("Y"))
+                {
+                    inPreferredConcept = true;
+                }
+                else if (inPreferredConcept && strElementName.equals("ConceptName"))
+                {
+                    inPreferredConceptName = true;
+                }
+                else if (inPreferredConceptName && strElementName.equals("String"))
+                {
+                    strPreferredName = xmlStreamReader.getElementText();
+                    
+                    inPreferredConcept = inPreferredConceptName = false;
+                }
+            }
+            else if ((eventType == XMLStreamReader.END_ELEMENT)
+                    && xmlStreamReader.getLocalName().equals("Concept"))
+            {
+                inPreferredConcept = inPreferredConceptName = false;
             }
         }
         
+        // We create the descriptor only if it belongs to any tree
+        
+        MeSHDescriptor descriptor = treeNodes.isEmpty() ? null :
+                new MeSHDescriptor(meshOntology,
+                    (strDescriptorId != null) ? strDescriptorId : "",
+                    (strPreferredName != null) ? strPreferredName : "",
+                    treeNodes.toArray(new String[treeNodes.size()]));
+        
         // We return the result
         
-        return (strChildNodeValue);
-    }   
+        return (descriptor);
+    }
 }
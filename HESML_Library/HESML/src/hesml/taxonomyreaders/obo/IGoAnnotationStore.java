@@ -0,0 +1,107 @@
+/*
+ * Copyright (C) 2016-2022 Universidad Nacional de Educación a Distancia (UNED)
+ * 
+ * This program is free software for non-commercial use:
+ * you can redistribute it and/or modify it under the terms of the
+ * Creative Commons Attribution-NonCommercial-ShareAlike 4.0 International
+ * (CC BY-NC-SA 4.0) as published by the Creative Commons Corporation,
+ * either version 4 of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * section 5 of the CC BY-NC-SA 4.0 License for more details.
+ * 
+ * You should have received a copy of the Creative Commons
+ * Attribution-NonCommercial-ShareAlike 4.0 International (CC BY-NC-SA 4.0) 
+ * license along with this program. If not,
+ * see <http://creativecommons.org/licenses/by-nc-sa/4.0/>.
+ */
+
+package hesml.taxonomyreaders.obo;
+
+import hesml.taxonomy.IVertex;
+import java.io.IOException;
+import java.util.Set;
+
+/**
+ * This interface represents a collection of GO-based protein annotations
+ * read from a GO Annotation File (GAF). Every protein is mapped to the
+ * sorted vector of taxonomy vertexes ID of its GO concepts in the OBO
+ * ontology used to load the annotations. The collection can be saved
+ * into a binary file, which is loaded later by mapping it in memory.
+ * @author j.lastra
+ */
+
+public interface IGoAnnotationStore
+{
+    /**
+     * This function returns the number of annotated proteins
+     * @return 
+     */
+    
+    int getProteinCount();
+    
+    /**
+     * This function returns the overall number of annotations
+     * @return 
+     */
+    
+    long getAnnotationCount();
+    
+    /**
+     * This function returns the sorted IDs of all annotated proteins
+     * @return 
+     */
+    
+    String[] getProteinIds();
+    
+    /**
+     * This function checks if the protein is contained in the collection
+     * @param strProteinId
+     * @return 
+     */
+    
+    boolean containsProtein(String strProteinId);
+    
+    /**
+     * This function returns the sorted vertexes ID in the OBO taxonomy
+     * annotating the protein, or an empty vector if it is not found.
+     * @param strProteinId
+     * @return 
+     */
+    
+    int[] getAnnotations(String strProteinId);
+    
+    /**
+     * This function returns the set of taxonomy vertexes annotating
+     * the protein, or an empty set if it is not found.
+     * @param strProteinId
+     * @return 
+     */
+    
+    Set<IVertex> getAnnotationVertexes(String strProteinId);
+    
+    /**
+     * This function returns the OBO ontology whose taxonomy is
+     * referred by the annotations.
+     * @return 
+     */
+    
+    IOboOntology getOntology();
+    
+    /**
+     * This function saves the collection into a binary file, which can
+     * be loaded by mapping it in memory.
+     * @param strBinaryFilename
+     * @throws IOException 
+     */
+    
+    void save(String strBinaryFilename) throws IOException;
+    
+    /**
+     * This function releases the collection resources
+     */
+    
+    void clear();
+}
@@ -0,0 +1,444 @@
+/*
+ * Copyright (C) 2016-2022 Universidad Nacional de Educación a Distancia (UNED)
+ * 
+ * This program is free software for non-commercial use:
+ * you can redistribute it and/or modify it under the terms of the
+ * Creative Commons Attribution-NonCommercial-ShareAlike 4.0 International
+ * (CC BY-NC-SA 4.0) as published by the Creative Commons Corporation,
+ * either version 4 of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * section 5 of the CC BY-NC-SA 4.0 License for more details.
+ * 
+ * You should have received a copy of the Creative Commons
+ * Attribution-NonCommercial-ShareAlike 4.0 International (CC BY-NC-SA 4.0) 
+ * license along with this program. If not,
+ * see <http://creativecommons.org/licenses/by-nc-sa/4.0/>.
+ */
+
+package hesml.taxonomyreaders.obo.impl;
+
+import hesml.taxonomyreaders.obo.IGoAnnotationStore;
+import hesml.taxonomyreaders.obo.IOboConcept;
+import hesml.taxonomyreaders.obo.IOboOntology;
+import hesml.utils.ParallelTextFileReader;
+import java.io.File;
+import java.io.IOException;
+import java.nio.IntBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * This class reads the GO-based protein annotations contained in a GO
+ * Annotation File (GAF). The file is scanned in parallel, and only the
+ * fields used by the reader are located in every line, which is filtered
+ * by evidence code and aspect without splitting it into strings.
+ * @author j.lastra
+ */
+
+class GafReader
+{
+    /**
+     * Columns of the GAF fields read by the reader
+     */
+    
+    private static final int    PROTEIN_ID_FIELD = 1;
+    private static final int    GO_ID_FIELD = 4;
+    private static final int    EVIDENCE_CODE_FIELD = 6;
+    private static final int    ASPECT_FIELD = 8;
+    
+    /**
+     * This class stores the annotations read from a chunk of the file.
+     * Consecutive lines of the same protein share its ID, and every
+     * annotation stores the index of the protein ID and the vertex ID,
+     * or -1 if the GO concept is not found in the ontology.
+     */
+    
+    private static class AnnotationRecords
+    {
+        /**
+         * Protein IDs in chunk order
+         */
+        
+        ArrayList<String>   m_ProteinIds = new ArrayList<>();
+        
+        /**
+         * UTF-8 bytes of the last protein ID
+         */
+        
+        byte[]  m_LastProteinId = new byte[64];
+        int     m_LastProteinIdLength = -1;
+        
+        /**
+         * Protein index and vertex ID of every annotation
+         */
+        
+        int[]   m_ProteinIndexes = new int[1024];
+        int[]   m_VertexIds = new int[1024];
+        int     m_Count = 0;
+        
+        /**
+         * Bounds of the fields in the current line
+         */
+        
+        int[]   m_FieldStarts = new int[ASPECT_FIELD + 1];
+        int[]   m_FieldEnds = new int[ASPECT_FIELD + 1];
+        
+        /**
+         * This function adds an annotation of the last protein.
+         * @param vertexId 
+         */
+        
+        void add(
+                int vertexId)
+        {
+            if (m_Count == m_VertexIds.length)
+            {
+                m_ProteinIndexes = Arrays.copyOf(m_ProteinIndexes, 2 * m_Count);
+                m_VertexIds = Arrays.copyOf(m_VertexIds, 2 * m_Count);
+            }
+            
+            m_ProteinIndexes[m_Count] = m_ProteinIds.size() - 1;
+            m_VertexIds[m_Count++] = vertexId;
+        }
+    }
+    
+    /**
+     * This function loads the GO-based protein annotations of a GAF file.
+     * @param ontology GO ontology
+     * @param strGafFilename GAF file
+     * @param strEvidenceCodes Evidence codes of the annotations to be read,
+     * or null to read all of them
+     * @param strAspects Aspects of the annotations to be read (P, F or C),
+     * or null to read all of them
+     * @return The collection of annotations
+     * @throws Exception 
+     */
+    
+    static IGoAnnotationStore loadAnnotations(
+            IOboOntology    ontology,
+            String          strGafFilename,
+            String[]        strEvidenceCodes,
+            String          strAspects) throws Exception
+    {
+        // Warning message
+        
+        System.out.println("Loading GO Annotated File = " + strGafFilename);
+        
+        // We check the existence of the file
+        
+        if (!(new File(strGafFilename)).exists())
+        {
+            String strError = "This file doesn´t exist -> " + strGafFilename;
+            throw (new Exception(strError));
+        }
+        
+        // We encode the evidence codes
+        
+        byte[][] evidenceCodes = null;
+        
+        if (strEvidenceCodes != null)
+        {
+            evidenceCodes = new byte[strEvidenceCodes.length][];
+            
+            for (int i = 0; i < strEvidenceCodes.length; i++)
+            {
+                evidenceCodes[i] = strEvidenceCodes[i].getBytes(StandardCharsets.UTF_8);
+            }
+        }
+        
+        // We read the annotations of every chunk of the file
+        
+        final byte[][] finalEvidenceCodes = evidenceCodes;
+        
+        final int lastField = (strAspects != null) ? ASPECT_FIELD :
+                            (evidenceCodes != null) ? EVIDENCE_CODE_FIELD : GO_ID_FIELD;
+        
+        ArrayList<AnnotationRecords> chunks = ParallelTextFileReader.parseFile(
+                strGafFilename, AnnotationRecords::new,
+                (records, buffer, start, end) -> parseLine(ontology, finalEvidenceCodes,
+                                                strAspects, lastField, records, buffer, start, end));
+        
+        // We return the merged collection
+        
+        return (mergeChunks(ontology, chunks));
+    }
+    
+    /**
+     * This function parses a line of the GAF file.
+     * @param ontology
+     * @param evidenceCodes
+     * @param strAspects
+     * @param lastField Last field to be located in the line
+     * @param records
+     * @param buffer
+     * @param start
+     * @param end
+     * @throws IOException 
+     */
+    
+    private static void parseLine(
+            IOboOntology        ontology,
+            byte[][]            evidenceCodes,
+            String              strAspects,
+            int                 lastField,
+            AnnotationRecords   records,
+            byte[]              buffer,
+            int                 start,
+            int                 end) throws IOException
+    {
+        // We skip the empty and commented lines
+        
+        if ((start == end) || (buffer[start] == '!')) return;
+        
+        // We locate the fields up to the last one read
+        
+        int[] fieldStarts = records.m_FieldStarts;
+        int[] fieldEnds = records.m_FieldEnds;
+        
+        int fieldStart = start;
+        
+        for (int i = 0; i <= lastField; i++)
+        {
+            if (fieldStart > end)
+            {
+                String strError = "Wrong GAF line -> " + ParallelTextFileReader.getString(buffer, start, end);
+                throw (new IOException(strError));
+            }
+            
+            int fieldEnd = ParallelTextFileReader.indexOf(buffer, fieldStart, end, (byte) '\t');
+            
+            // We trim the field
+            
+            fieldStarts[i] = fieldStart;
+            fieldEnds[i] = fieldEnd;
+            
+            while ((fieldStarts[i] < fieldEnds[i]) && ((buffer[fieldStarts[i]] & 0xff) <= ' ')) fieldStarts[i]++;
+            while ((fieldEnds[i] > fieldStarts[i]) && ((buffer[fieldEnds[i] - 1] & 0xff) <= ' ')) fieldEnds[i]--;
+            
+            fieldStart = fieldEnd + 1;
+        }
+        
+        // We filter the annotation by evidence code and aspect
+        
+        if ((evidenceCodes != null) && !containsField(evidenceCodes, buffer,
+                fieldStarts[EVIDENCE_CODE_FIELD], fieldEnds[EVIDENCE_CODE_FIELD]))
+        {
+            return;
+        }
+        
+        if ((strAspects != null) && ((fieldEnds[ASPECT_FIELD] - fieldStarts[ASPECT_FIELD] != 1)
+                || (strAspects.indexOf((char) buffer[fieldStarts[ASPECT_FIELD]]) < 0)))
+        {
+            return;
+        }
+        
+        // We register the protein whether it is not the protein of
+        // the previous line
+        
+        int proteinStart = fieldStarts[PROTEIN_ID_FIELD];
+        int proteinLength = fieldEnds[PROTEIN_ID_FIELD] - proteinStart;
+        
+        if ((proteinLength != records.m_LastProteinIdLength)
+                || !equalBytes(records.m_LastProteinId, buffer, proteinStart, proteinLength))
+        {
+            if (proteinLength > records.m_LastProteinId.length)
+            {
+                records.m_LastProteinId = new byte[2 * proteinLength];
+            }
+            
+            System.arraycopy(buffer, proteinStart, records.m_LastProteinId, 0, proteinLength);
+            
+            records.m_LastProteinIdLength = proteinLength;
+            records.m_ProteinIds.add(ParallelTextFileReader.getString(buffer, proteinStart, proteinStart + proteinLength));
+        }
+        
+        // We retrieve the vertex of the GO concept
+        
+        IOboConcept goConcept = ontology.getConceptById(ParallelTextFileReader.getString(
+                                    buffer, fieldStarts[GO_ID_FIELD], fieldEnds[GO_ID_FIELD]));
+        
+        records.add((goConcept != null) ? goConcept.getTaxonomyNodeId().intValue() : -1);
+    }
+    
+    /**
+     * This function merges the annotations read from the chunks into a
+     * collection with the sorted protein IDs and the sorted annotations
+     * of every protein without repetitions.
+     * @param ontology
+     * @param chunks Chunk records in file order
+     * @return 
+     */
+    
+    private static IGoAnnotationStore mergeChunks(
+            IOboOntology                    ontology,
+            ArrayList<AnnotationRecords>    chunks)
+    {
+        // We collect and sort the protein IDs
+        
+        HashMap<String, Integer> proteinIndexes = new HashMap<>();
+        
+        for (AnnotationRecords records : chunks)
+        {
+            for (String strProteinId : records.m_ProteinIds)
+            {
+                proteinIndexes.putIfAbsent(strProteinId, proteinIndexes.size());
+            }
+        }
+        
+        String[] strProteinIds = proteinIndexes.keySet().toArray(new String[proteinIndexes.size()]);
+        
+        Arrays.sort(strProteinIds);
+        
+        for (int i = 0; i < strProteinIds.length; i++)
+        {
+            proteinIndexes.put(strProteinIds[i], i);
+        }
+        
+        // We translate the protein indexes of every chunk and
+        // count the annotations of every protein
+        
+        int[] offsets = new int[strProteinIds.length + 1];
+        
+        for (AnnotationRecords records : chunks)
+        {
+            int[] sortedIndexes = new int[records.m_ProteinIds.size()];
+            
+            for (int i = 0; i < sortedIndexes.length; i++)
+            {
+                sortedIndexes[i] = proteinIndexes.get(records.m_ProteinIds.get(i));
+            }
+            
+            for (int i = 0; i < records.m_Count; i++)
+            {
+                records.m_ProteinIndexes[i] = sortedIndexes[records.m_ProteinIndexes[i]];
+                
+                if (records.m_VertexIds[i] >= 0) offsets[records.m_ProteinIndexes[i] + 1]++;
+            }
+            
+            records.m_ProteinIds.clear();
+        }
+        
+        proteinIndexes.clear();
+        
+        for (int i = 0; i < strProteinIds.length; i++)
+        {
+            offsets[i + 1] += offsets[i];
+        }
+        
+        // We fill the annotations of every protein
+        
+        int[] annotations = new int[offsets[strProteinIds.length]];
+        int[] positions = Arrays.copyOf(offsets, strProteinIds.length);
+        
+        for (AnnotationRecords records : chunks)
+        {
+            for (int i = 0; i < records.m_Count; i++)
+            {
+                if (records.m_VertexIds[i] >= 0)
+                {
+                    annotations[positions[records.m_ProteinIndexes[i]]++] = records.m_VertexIds[i];
+                }
+            }
+        }
+        
+        chunks.clear();
+        
+        // We sort the annotations of every protein and remove the repeated ones
+        
+        int annotationCount = 0;
+        
+        for (int i = 0; i < strProteinIds.length; i++)
+        {
+            int start = offsets[i];
+            int end = offsets[i + 1];
+            
+            Arrays.sort(annotations, start, end);
+            
+            offsets[i] = annotationCount;
+            
+            for (int j = start; j < end; j++)
+            {
+                if ((j == start) || (annotations[j] != annotations[j - 1]))
+                {
+                    annotations[annotationCount++] = annotations[j];
+                }
+            }
+        }
+        
+        offsets[strProteinIds.length] = annotationCount;
+        
+        // We return the result
+        
+        return (new GoAnnotationStore(ontology, strProteinIds, IntBuffer.wrap(offsets),
+                    IntBuffer.wrap(Arrays.copyOf(annotations, annotationCount))));
+    }
+    
+    /**
+     * This function checks if the field is contained in the input values.
+     * @param values
+     * @param buffer
+     * @param start
+     * @param end
+     * @return 
+     */
+    
+    private static boolean containsField(
+            byte[][]    values,
+            byte[]      buffer,
+            int         start,
+            int         end)
+    {
+        // We initialize the output
+        
+        boolean result = false;
+        
+        // We compare the field with every value
+        
+        for (int i = 0; (i < values.length) && !result; i++)
+        {
+            result = (values[i].length == end - start)
+                    && equalBytes(values[i], buffer, start, end - start);
+        }
+        
+        // We return the result
+        
+        return (result);
+    }
+    
+    /**
+     * This function compares the first bytes of the value with the
+     * input range of the buffer.
+     * @param value
+     * @param buffer
+     * @param start
+     * @param length
+     * @return 
+     */
+    
+    private static boolean equalBytes(
+            byte[]  value,
+            byte[]  buffer,
+            int     start,
+            int     length)
+    {
+        // We initialize the output
+        
+        boolean result = true;
+        
+        // We compare the bytes
+        
+        for (int i = 0; (i < length) && result; i++)
+        {
+            result = (value[i] == buffer[start + i]);
+        }
+        
+        // We return the result
+        
+        return (result);
+    }
+}
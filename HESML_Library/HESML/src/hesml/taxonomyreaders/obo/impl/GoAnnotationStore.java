@@ -0,0 +1,388 @@
+/*
+ * Copyright (C) 2016-2022 Universidad Nacional de Educación a Distancia (UNED)
+ * 
+ * This program is free software for non-commercial use:
+ * you can redistribute it and/or modify it under the terms of the
+ * Creative Commons Attribution-NonCommercial-ShareAlike 4.0 International
+ * (CC BY-NC-SA 4.0) as published by the Creative Commons Corporation,
+ * either version 4 of the License, or (at your option) any later version.
+ * 
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * section 5 of the CC BY-NC-SA 4.0 License for more details.
+ * 
+ * You should have received a copy of the Creative Commons
+ * Attribution-NonCommercial-ShareAlike 4.0 International (CC BY-NC-SA 4.0) 
+ * license along with this program. If not,
+ * see <http://creativecommons.org/licenses/by-nc-sa/4.0/>.
+ */
+
+package hesml.taxonomyreaders.obo.impl;
+
+import hesml.taxonomy.IVertex;
+import hesml.taxonomy.IVertexList;
+import hesml.taxonomyreaders.obo.IGoAnnotationStore;
+import hesml.taxonomyreaders.obo.IOboOntology;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * This class implements a compact collection of GO-based protein annotations.
+ * The sorted protein IDs index a vector of offsets into a single vector with
+ * the sorted vertexes ID of all proteins. Both vectors are stored in int
+ * buffers, which are backed by arrays when the annotations are read from
+ * a GAF file, or mapped in memory when they are loaded from a binary file.
+ * The binary file stores a header, the offsets, the annotations and the
+ * protein IDs, in this order.
+ * @author j.lastra
+ */
+
+class GoAnnotationStore implements IGoAnnotationStore
+{
+    /**
+     * Signature and version of the binary files
+     */
+    
+    private static final int    FILE_SIGNATURE = 0x48474146;
+    private static final int    FILE_VERSION = 1;
+    
+    /**
+     * Size of the header of the binary files
+     */
+    
+    private static final int    HEADER_SIZE = 5 * Integer.BYTES;
+    
+    /**
+     * OBO ontology whose taxonomy is referred by the annotations
+     */
+    
+    private IOboOntology    m_Ontology;
+    
+    /**
+     * Sorted protein IDs
+     */
+    
+    private String[]    m_strProteinIds;
+    
+    /**
+     * Position of the first annotation of every protein. The buffer
+     * contains an additional offset with the overall annotation count.
+     */
+    
+    private IntBuffer   m_Offsets;
+    
+    /**
+     * Sorted vertexes ID annotating every protein
+     */
+    
+    private IntBuffer   m_Annotations;
+    
+    /**
+     * Constructor
+     * @param ontology
+     * @param strProteinIds
+     * @param offsets
+     * @param annotations 
+     */
+    
+    GoAnnotationStore(
+            IOboOntology    ontology,
+            String[]        strProteinIds,
+            IntBuffer       offsets,
+            IntBuffer       annotations)
+    {
+        m_Ontology = ontology;
+        m_strProteinIds = strProteinIds;
+        m_Offsets = offsets;
+        m_Annotations = annotations;
+    }
+    
+    /**
+     * This function loads a collection of annotations from a binary
+     * file by mapping the offsets and annotations in memory.
+     * @param ontology
+     * @param strBinaryFilename
+     * @return
+     * @throws Exception 
+     */
+    
+    static GoAnnotationStore load(
+            IOboOntology    ontology,
+            String          strBinaryFilename) throws Exception
+    {
+        // We check the existence of the file
+        
+        if (!(new File(strBinaryFilename)).exists())
+        {
+            String strError = "This file doesn´t exist -> " + strBinaryFilename;
+            throw (new Exception(strError));
+        }
+        
+        // We initialize the output
+        
+        GoAnnotationStore annotationStore;
+        
+        try (RandomAccessFile file = new RandomAccessFile(strBinaryFilename, "r"))
+        {
+            FileChannel channel = file.getChannel();
+            
+            // We read and check the header
+            
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0,
+                                    Math.min(HEADER_SIZE, channel.size()));
+            
+            if ((header.limit() < HEADER_SIZE)
+                    || (header.getInt() != FILE_SIGNATURE)
+                    || (header.getInt() != FILE_VERSION))
+            {
+                String strError = "Wrong GO annotation file -> " + strBinaryFilename;
+                throw (new Exception(strError));
+            }
+            
+            if (header.getInt() != ontology.getTaxonomy().getVertexes().getCount())
+            {
+                String strError = "The GO annotation file " + strBinaryFilename
+                        + " was not created with the ontology " + ontology.getName();
+                throw (new Exception(strError));
+            }
+            
+            int proteinCount = header.getInt();
+            int annotationCount = header.getInt();
+            
+            // We map the offsets and annotations in memory
+            
+            long offsetsPosition = HEADER_SIZE;
+            long annotationsPosition = offsetsPosition + (proteinCount + 1L) * Integer.BYTES;
+            long proteinIdsPosition = annotationsPosition + (long) annotationCount * Integer.BYTES;
+            
+            if (proteinIdsPosition > channel.size())
+            {
+                String strError = "Wrong GO annotation file -> " + strBinaryFilename;
+                throw (new Exception(strError));
+            }
+            
+            IntBuffer offsets = channel.map(FileChannel.MapMode.READ_ONLY,
+                                offsetsPosition, annotationsPosition - offsetsPosition).asIntBuffer();
+            
+            IntBuffer annotations = channel.map(FileChannel.MapMode.READ_ONLY,
+                                annotationsPosition, proteinIdsPosition - annotationsPosition).asIntBuffer();
+            
+            // We read the protein IDs
+            
+            ByteBuffer proteinIdsBuffer = channel.map(FileChannel.MapMode.READ_ONLY,
+                                proteinIdsPosition, channel.size() - proteinIdsPosition);
+            
+            String[] strProteinIds = new String[proteinCount];
+            
+            byte[] buffer = new byte[256];
+            
+            for (int i = 0; i < proteinCount; i++)
+            {
+                int length = proteinIdsBuffer.getInt();
+                
+                if (length > buffer.length) buffer = new byte[length];
+                
+                proteinIdsBuffer.get(buffer, 0, length);
+                
+                strProteinIds[i] = new String(buffer, 0, length, StandardCharsets.UTF_8);
+            }
+            
+            // We create the collection
+            
+            annotationStore = new GoAnnotationStore(ontology, strProteinIds, offsets, annotations);
+        }
+        
+        // We return the result
+        
+        return (annotationStore);
+    }
+    
+    /**
+     * This function saves the collection into a binary file
+     * @param strBinaryFilename
+     * @throws IOException 
+     */
+    
+    @Override
+    public void save(
+            String  strBinaryFilename) throws IOException
+    {
+        try (DataOutputStream writer = new DataOutputStream(new BufferedOutputStream(
+                                        new FileOutputStream(strBinaryFilename))))
+        {
+            // We write the header
+            
+            writer.writeInt(FILE_SIGNATURE);
+            writer.writeInt(FILE_VERSION);
+            writer.writeInt(m_Ontology.getTaxonomy().getVertexes().getCount());
+            writer.writeInt(m_strProteinIds.length);
+            writer.writeInt(m_Annotations.limit());
+            
+            // We write the offsets and annotations
+            
+            for (int i = 0; i < m_Offsets.limit(); i++)
+            {
+                writer.writeInt(m_Offsets.get(i));
+            }
+            
+            for (int i = 0; i < m_Annotations.limit(); i++)
+            {
+                writer.writeInt(m_Annotations.get(i));
+            }
+            
+            // We write the protein IDs
+            
+            for (String strProteinId : m_strProteinIds)
+            {
+                byte[] proteinId = strProteinId.getBytes(StandardCharsets.UTF_8);
+                
+                writer.writeInt(proteinId.length);
+                writer.write(proteinId);
+            }
+        }
+    }
+    
+    /**
+     * This function returns the number of annotated proteins
+     * @return 
+     */
+    
+    @Override
+    public int getProteinCount()
+    {
+        return (m_strProteinIds.length);
+    }
+    
+    /**
+     * This function returns the overall number of annotations
+     * @return 
+     */
+    
+    @Override
+    public long getAnnotationCount()
+    {
+        return (m_Annotations.limit());
+    }
+    
+    /**
+     * This function returns the sorted IDs of all annotated proteins
+     * @return 
+     */
+    
+    @Override
+    public String[] getProteinIds()
+    {
+        return (m_strProteinIds.clone());
+    }
+    
+    /**
+     * This function checks if the protein is contained in the collection
+     * @param strProteinId
+     * @return 
+     */
+    
+    @Override
+    public boolean containsProtein(
+            String  strProteinId)
+    {
+        return (Arrays.binarySearch(m_strProteinIds, strProteinId) >= 0);
+    }
+    
+    /**
+     * This function returns the sorted vertexes ID annotating the protein
+     * @param strProteinId
+     * @return 
+     */
+    
+    @Override
+    public int[] getAnnotations(
+            String  strProteinId)
+    {
+        // We look for the protein
+        
+        int proteinIndex = Arrays.binarySearch(m_strProteinIds, strProteinId);
+        
+        // We create the output vector
+        
+        int[] vertexIds = new int[(proteinIndex >= 0) ?
+                        m_Offsets.get(proteinIndex + 1) - m_Offsets.get(proteinIndex) : 0];
+        
+        // We copy the annotations by using absolute reading operations,
+        // thus the buffer can be shared by several threads
+        
+        for (int i = 0; i < vertexIds.length; i++)
+        {
+            vertexIds[i] = m_Annotations.get(m_Offsets.get(proteinIndex) + i);
+        }
+        
+        // We return the result
+        
+        return (vertexIds);
+    }
+    
+    /**
+     * This function returns the set of taxonomy vertexes annotating
+     * the protein.
+     * @param strProteinId
+     * @return 
+     */
+    
+    @Override
+    public Set<IVertex> getAnnotationVertexes(
+            String  strProteinId)
+    {
+        // We get the vertexes ID
+        
+        int[] vertexIds = getAnnotations(strProteinId);
+        
+        // We retrieve the vertexes
+        
+        IVertexList vertexes = m_Ontology.getTaxonomy().getVertexes();
+        
+        HashSet<IVertex> annotationVertexes = new HashSet<>(2 * vertexIds.length);
+        
+        for (int vertexId : vertexIds)
+        {
+            annotationVertexes.add(vertexes.getById((long) vertexId));
+        }
+        
+        // We return the result
+        
+        return (annotationVertexes);
+    }
+    
+    /**
+     * This function returns the OBO ontology
+     * @return 
+     */
+    
+    @Override
+    public IOboOntology getOntology()
+    {
+        return (m_Ontology);
+    }
+    
+    /**
+     * This function releases the collection resources
+     */
+    
+    @Override
+    public void clear()
+    {
+        m_strProteinIds = new String[0];
+        m_Offsets = IntBuffer.wrap(new int[1]);
+        m_Annotations = IntBuffer.wrap(new int[0]);
+    }
+}
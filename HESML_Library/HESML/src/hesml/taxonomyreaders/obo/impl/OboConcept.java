@@ -67,10 +67,10 @@ class OboConcept implements IOboConcept
     private String[]  m_alternativeIds;
     
     /**
-     * Traversing flag
+     * Dense index of the concept in file order
      */
     
-    private boolean m_visited;
+    private int m_index;
     
     /**
      * Parent ontology
@@ -86,6 +86,7 @@ class OboConcept implements IOboConcept
      * @param strName
      * @param strParentIds
      * @param strAlternativeIds 
+     * @param index Dense index of the concept in file order
      */
     
     OboConcept(
@@ -94,15 +95,17 @@ class OboConcept implements IOboConcept
             String      strNamespace,
             String      strName,
             String[]    strParentIds,
-            String[]    strAlternativeIds)
+            String[]    strAlternativeIds,
+            int         index)
     {
         m_strId = strId;
         m_ontology = ontology;
         m_strNamespace = strNamespace;
         m_strName = strName;
         m_parentsId = strParentIds;
+        m_alternativeIds = strAlternativeIds;
         m_taxonomyNodeId = -1L;
-        m_visited = false;
+        m_index = index;
     }
     
     /**
@@ -151,23 +154,13 @@ class OboConcept implements IOboConcept
     }
     
     /**
-     * This function returns the status of the traversing flag
+     * This function returns the dense index of the concept in file order
      * @return 
      */
     
-    boolean getVisited()
+    int getIndex()
     {
-        return (m_visited);
-    }
-    
-    /**
-     * This function sets the traversing value.
-     * @param visited 
-     */
-    
-    void setVisited(boolean visited)
-    {
-        m_visited = visited;
+        return (m_index);
     }
     
     /**
@@ -20,6 +20,7 @@
 
 package hesml.taxonomyreaders.obo.impl;
 
+import hesml.taxonomyreaders.obo.IGoAnnotationStore;
 import hesml.taxonomyreaders.obo.IOboOntology;
 
 /**
@@ -40,4 +41,60 @@ public class OboFactory
     {
         return (OboReader.loadOntology(strOboFilename));
     }
+    
+    /**
+     * This function loads all the GO-based protein annotations contained
+     * in a GO Annotation File (GAF).
+     * @param goOntology GO ontology
+     * @param strGafFilename GAF file
+     * @return The collection of annotations
+     * @throws Exception 
+     */
+    
+    public static IGoAnnotationStore loadGoAnnotations(
+        IOboOntology    goOntology,
+        String          strGafFilename) throws Exception
+    {
+        return (GafReader.loadAnnotations(goOntology, strGafFilename, null, null));
+    }
+    
+    /**
+     * This function loads the GO-based protein annotations contained
+     * in a GO Annotation File (GAF) filtered by evidence code and aspect.
+     * @param goOntology GO ontology
+     * @param strGafFilename GAF file
+     * @param strEvidenceCodes Evidence codes of the annotations to be read,
+     * such as {"EXP", "IDA"}, or null to read all of them
+     * @param strAspects Aspects of the annotations to be read, such as "PF",
+     * or null to read all of them
+     * @return The collection of annotations
+     * @throws Exception 
+     */
+    
+    public static IGoAnnotationStore loadGoAnnotations(
+        IOboOntology    goOntology,
+        String          strGafFilename,
+        String[]        strEvidenceCodes,
+        String          strAspects) throws Exception
+    {
+        return (GafReader.loadAnnotations(goOntology, strGafFilename,
+                strEvidenceCodes, strAspects));
+    }
+    
+    /**
+     * This function loads a collection of GO-based protein annotations
+     * saved into a binary file by mapping it in memory. The ontology must
+     * be loaded from the same OBO file used to save the annotations.
+     * @param goOntology GO ontology
+     * @param strBinaryFilename Binary file created by IGoAnnotationStore.save()
+     * @return The collection of annotations
+     * @throws Exception 
+     */
+    
+    public static IGoAnnotationStore loadGoAnnotationStore(
+        IOboOntology    goOntology,
+        String          strBinaryFilename) throws Exception
+    {
+        return (GoAnnotationStore.load(goOntology, strBinaryFilename));
+    }
 }
@@ -25,9 +25,10 @@ import hesml.taxonomy.IVertex;
 import hesml.taxonomy.impl.TaxonomyFactory;
 import hesml.taxonomyreaders.obo.IOboConcept;
 import hesml.taxonomyreaders.obo.IOboOntology;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.LinkedList;
 import java.util.Set;
 
 /**
@@ -43,6 +44,12 @@ public class OboOntology implements IOboOntology
     
     private HashMap<String, OboConcept> m_conceptsdIndexedById;
     
+    /**
+     * Collection of concepts sorted by their dense index in file order
+     */
+    
+    private ArrayList<OboConcept>   m_concepts;
+    
     /**
      * Taxonomies associated to each namespace
      */
@@ -62,6 +69,7 @@ public class OboOntology implements IOboOntology
     OboOntology(String strName)
     {
         m_conceptsdIndexedById = new HashMap<>();
+        m_concepts = new ArrayList<>();
         m_strName = strName;
     }
 
@@ -145,11 +153,13 @@ public class OboOntology implements IOboOntology
         // We create the concept and isnert in the ontology
         
         OboConcept concept = new OboConcept(this, strId, strNamespace,
-                                    strName, strParentIds, strAlternativeIds);
+                                    strName, strParentIds, strAlternativeIds,
+                                    m_concepts.size());
         
         // We add the conepot to the overall collection
         
         m_conceptsdIndexedById.put(strId, concept);
+        m_concepts.add(concept);
         
         // We register all alternative 'alias' IDs
         
@@ -218,101 +228,162 @@ public class OboOntology implements IOboOntology
     }
     
     /**
-     * This fucntion builds the taxonomies assocyaed to the ontology
+     * This fucntion builds the taxonomies assocyaed to the ontology.
+     * The concepts are inserted in topological order, which is computed
+     * by the Kahn's algorithm on their dense indexes.
      */
     
     public void buildTaxonomy(
         boolean useAncestorsCaching) throws Exception
     {
-        // We create the collection of namespaces
+        // We get the parent indexes of every concept and count its children
         
-        HashSet<String> namespaces = new HashSet<>();
+        int conceptCount = m_concepts.size();
         
-        // We search for all namespaces
+        int[][] parentIndexes = new int[conceptCount][];
+        int[] childStarts = new int[conceptCount + 1];
         
-        for (OboConcept concept: m_conceptsdIndexedById.values())
+        for (OboConcept concept: m_concepts)
         {
-            namespaces.add(concept.getNamespace());
+            String[] strParentIds = concept.getParentsId();
+            
+            int[] parents = new int[strParentIds.length];
+            int parentCount = 0;
+            
+            for (int i = 0; i < strParentIds.length; i++)
+            {
+                OboConcept parent = m_conceptsdIndexedById.get(strParentIds[i]);
+                
+                if (parent == null)
+                {
+                    String strError = "The parent concept " + strParentIds[i]
+                            + " of the concept " + concept.getId() + " is not found";
+                    throw (new Exception(strError));
+                }
+                
+                // We skip the parents referred by several alternative IDs
+                
+                boolean repeated = false;
+                
+                for (int j = 0; (j < parentCount) && !repeated; j++)
+                {
+                    repeated = (parents[j] == parent.getIndex());
+                }
+                
+                if (!repeated)
+                {
+                    parents[parentCount++] = parent.getIndex();
+                    childStarts[parent.getIndex() + 1]++;
+                }
+            }
+            
+            parentIndexes[concept.getIndex()] = Arrays.copyOf(parents, parentCount);
         }
         
-        // We create a taxonomy for each namespace
+        // We create the children lists
+        
+        for (int i = 0; i < conceptCount; i++)
+        {
+            childStarts[i + 1] += childStarts[i];
+        }
         
-        m_taxonomy = TaxonomyFactory.createBlankTaxonomy();
+        int[] children = new int[childStarts[conceptCount]];
+        int[] childPositions = Arrays.copyOf(childStarts, conceptCount);
         
-        // We createt he virtual root
+        for (int i = 0; i < conceptCount; i++)
+        {
+            for (int parent: parentIndexes[i])
+            {
+                children[childPositions[parent]++] = i;
+            }
+        }
+        
+        // We sort the concepts from the roots to the leaves. Every concept
+        // is enqueued once all its parents have been sorted.
+        
+        int[] pendingParents = new int[conceptCount];
+        int[] sortedIndexes = new int[conceptCount];
+        int sortedCount = 0;
+        
+        for (int i = 0; i < conceptCount; i++)
+        {
+            pendingParents[i] = parentIndexes[i].length;
+            
+            if (pendingParents[i] == 0) sortedIndexes[sortedCount++] = i;
+        }
+        
+        for (int head = 0; head < sortedCount; head++)
+        {
+            int concept = sortedIndexes[head];
+            
+            for (int i = childStarts[concept]; i < childStarts[concept + 1]; i++)
+            {
+                if (--pendingParents[children[i]] == 0)
+                {
+                    sortedIndexes[sortedCount++] = children[i];
+                }
+            }
+        }
         
-        m_taxonomy.addVertex(0L, new Long[0]);
+        // We check that all concepts have been sorted
         
-        Long[] rootParent = {0L};
+        if (sortedCount < conceptCount)
+        {
+            String strError = "The ontology " + m_strName + " contains a cycle";
+            throw (new Exception(strError));
+        }
         
-        // We set the traversing flag and enqueue the concepts
+        // We create the table of vertexes and parents of the unified taxonomy,
+        // whose first vertex is the virtual root and the following vertexes
+        // are the concepts in topological order
         
-        LinkedList<OboConcept> pending = new LinkedList<>(m_conceptsdIndexedById.values());
+        int[] vertexPositions = new int[conceptCount];
         
-        for (OboConcept concept: m_conceptsdIndexedById.values())
+        for (int i = 0; i < conceptCount; i++)
         {
-            concept.setVisited(false);
-            pending.add(concept);
+            vertexPositions[sortedIndexes[i]] = i + 1;
         }
         
-        // We insert all concepts into their corresponding taxonomies
+        long[] vertexIds = new long[conceptCount + 1];
+        int[] parentStarts = new int[conceptCount + 2];
+        int[] vertexParents = new int[childStarts[conceptCount] + conceptCount];
         
-        while (pending.size() > 0)
+        for (int i = 0; i < conceptCount; i++)
         {
-            // We get the following concept
+            int[] parents = parentIndexes[sortedIndexes[i]];
+            int parentCount = parentStarts[i + 1];
             
-            OboConcept concept = pending.remove();
+            vertexIds[i + 1] = i + 1;
             
-            // We check if all its parents have benn already visited
+            // We get the parent vertexes, or the root whether the vertex
+            // is the root of an independent taxonomy
             
-            boolean parentsVisited = true;
+            if (parents.length == 0) vertexParents[parentCount++] = 0;
             
-            for (String strParentId: concept.getParentsId())
+            for (int parent: parents)
             {
-                if (!m_conceptsdIndexedById.get(strParentId).getVisited())
-                {
-                    parentsVisited = false;
-                    pending.add(concept);
-                    break;
-                }
+                vertexParents[parentCount++] = vertexPositions[parent];
             }
             
-            // We check if the concept can be added to the taxonmy
+            parentStarts[i + 2] = parentCount;
+        }
+        
+        // We create the unified taxonomy
+        
+        m_taxonomy = TaxonomyFactory.createTaxonomy(vertexIds, parentStarts,
+                        Arrays.copyOf(vertexParents, parentStarts[conceptCount + 1]));
+        
+        // We set the Tag name of every vertex to the OBO node ID,
+        // and the node ID of every concept
+        
+        for (int i = 0; i < conceptCount; i++)
+        {
+            OboConcept concept = m_concepts.get(sortedIndexes[i]);
             
-            if (parentsVisited && !concept.getVisited())
-            {
-                // We get the parents ID
-                
-                String[] parents = concept.getParentsId();
-                
-                Long[] parentsId = new Long[parents.length];
-                
-                for (int i = 0; i < parents.length; i++)
-                {
-                    parentsId[i] = m_conceptsdIndexedById.get(parents[i]).getTaxonomyNodeId();
-                }
-                
-                // We insert the vertex in the taxonomy
-                
-                Long conceptNodeId = Integer.toUnsignedLong(m_taxonomy.getVertexes().getCount());
-                
-                // We check if the vertex is a root of an independent taxonomy
-                
-                if (parentsId.length == 0) parentsId = rootParent;
-                
-                // We insert the vertex
-                
-                IVertex vertex = m_taxonomy.addVertex(conceptNodeId, parentsId);
-                
-                // We set the Tag name to the OBO node ID
-                
-                vertex.setStringTag(concept.getId());
-                
-                // We set the node ID
-                
-                concept.setTaxonomyNodeId(conceptNodeId);
-                concept.setVisited(true);
-            }
+            Long conceptNodeId = vertexIds[i + 1];
+            
+            m_taxonomy.getVertexes().getById(conceptNodeId).setStringTag(concept.getId());
+            concept.setTaxonomyNodeId(conceptNodeId);
         }
         
         // We compute all cached information
@@ -350,6 +421,7 @@ public class OboOntology implements IOboOntology
     public void clear()
     {
         m_conceptsdIndexedById.clear();
+        m_concepts.clear();
         m_taxonomy.clear();
     }
 }
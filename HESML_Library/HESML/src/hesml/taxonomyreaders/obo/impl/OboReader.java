@@ -21,19 +21,78 @@
 package hesml.taxonomyreaders.obo.impl;
 
 import hesml.taxonomyreaders.obo.IOboOntology;
-import java.io.BufferedReader;
+import hesml.utils.BlockLineReader;
+import java.io.FileInputStream;
 import java.io.FileNotFoundException;
-import java.io.FileReader;
 import java.io.IOException;
-import java.util.HashSet;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
 
 /**
- * Reader of OBO ontology files
+ * Reader of OBO ontology files. The file is read in a single pass by
+ * the shared block line reader, which passes the raw bytes of every
+ * line to the parser, thus only the tag values used by the reader are
+ * decoded into strings. The concepts receive a dense index in file
+ * order, which is used later to build the taxonomy.
  * @author j.lastra
  */
 
 class OboReader
 {
+    /**
+     * Size of the reading buffer
+     */
+    
+    private static final int    BUFFER_SIZE = 1024 * 1024;
+    
+    /**
+     * Tags read by the parser
+     */
+    
+    private static final byte[] TAG_ONTOLOGY_NAME = getTagBytes("ontology:");
+    private static final byte[] TAG_DEFAULT_NAMESPACE = getTagBytes("default-namespace:");
+    private static final byte[] TAG_TERM = getTagBytes("[Term]");
+    private static final byte[] TAG_NAMESPACE = getTagBytes("namespace:");
+    private static final byte[] TAG_ID = getTagBytes("id:");
+    private static final byte[] TAG_NAME = getTagBytes("name:");
+    private static final byte[] TAG_IS_A = getTagBytes("is_a:");
+    private static final byte[] TAG_OBSOLETE = getTagBytes("is_obsolete:");
+    private static final byte[] TAG_ALTERNATIVE_ID = getTagBytes("alt_id:");
+    
+    /**
+     * This class stores the state of the parser and the attributes
+     * of the term being parsed.
+     */
+    
+    private static class ParsingState
+    {
+        /**
+         * Ontology being read and its default namespace
+         */
+        
+        OboOntology m_Ontology = null;
+        String      m_strDefaultNamespace = "";
+        
+        /**
+         * Flag indicating that the current line belongs to a term
+         */
+        
+        boolean m_InTerm = false;
+        
+        /**
+         * Attributes of the current term
+         */
+        
+        String  m_strId;
+        String  m_strName;
+        String  m_strNamespace;
+        boolean m_Obsolete;
+        
+        ArrayList<String>   m_ParentIds = new ArrayList<>();
+        ArrayList<String>   m_AlternativeIds = new ArrayList<>();
+    }
+    
     /**
      * This function loads an OBO ontology.
      * @param strOboFilename
@@ -47,54 +106,26 @@ class OboReader
         
         System.out.println("Loading OBO ontology file = " + strOboFilename);
         
-        // We cretae an OBO ontology in blank
-        
-        OboOntology ontology = null;
-        
-        // We create the OBO reader
-        
-        BufferedReader reader = new BufferedReader(new FileReader(strOboFilename));
-        
-        // We set the tag for the ontology name
+        // We cretae the parsing state with an OBO ontology in blank
         
-        String tagOntologyName = "ontology:";
-        String tagDefaultNamespace = "default-namespace:";
-        
-        // Global names
-        
-        String strDefaultNamespace = "";
+        ParsingState state = new ParsingState();
         
         // We parse the concepts contained in the file
         
-        String strLine;
-        
-        while ((strLine = reader.readLine()) != null)
+        try (InputStream input = new FileInputStream(strOboFilename))
         {
-            // We detect a concept block
-            
-            if (strLine.startsWith(tagOntologyName))
-            {
-                // We extract the ontology name and cretae the ontology
-                
-                String strOntologyName = strLine.substring(tagOntologyName.length()).trim();
-                ontology = new OboOntology(strOntologyName);
-            }
-            else if (strLine.startsWith(tagDefaultNamespace))
-            {
-                strDefaultNamespace = strLine.substring(tagDefaultNamespace.length()).trim();
-            }
-            else if (strLine.startsWith("[Term]"))
-            {
-                parseTerm(reader, ontology, strDefaultNamespace);
-            }
+            BlockLineReader.readLines(input, BUFFER_SIZE, (buffer, start, end) ->
+                    parseLine(state, buffer, start, end));
         }
         
-        // We close the file
+        // We insert the last term whether the file does not end with a blank line
         
-        reader.close();
+        if (state.m_InTerm) addTerm(state);
         
         // We build the taxonomies
         
+        OboOntology ontology = state.m_Ontology;
+        
         ontology.buildTaxonomy(true);
         ontology.checkTopology();
         
@@ -104,99 +135,222 @@ class OboReader
     }
     
     /**
-     * This function parses the input OBO file to extract the concept data.
-     * @param reader 
+     * This function parses a line of the OBO file without its line end.
+     * The terms are blocks of tag lines started by the term tag and
+     * finished by a blank line.
+     * @param state
+     * @param buffer
+     * @param start
+     * @param end
+     * @throws Exception 
      */
     
-    private static void parseTerm(
-            BufferedReader  reader,
-            OboOntology     ontology,
-            String          strDefaultNamespace) throws IOException, Exception
+    private static void parseLine(
+            ParsingState    state,
+            byte[]          buffer,
+            int             start,
+            int             end) throws Exception
     {
-        // We initilize the attributes to be parsed
-        
-        String strId = "";
-        String strName = "";
-        String strNamespace = strDefaultNamespace;
-        
-        // Auxiliary sets for parsing parents and alternative IDs
-        
-        HashSet<String> parentsId = new HashSet<>();
-        HashSet<String> alternativesId = new HashSet<>();
-        
-        // We set the tag names
-        
-        String tagNamespace = "namespace:";
-        String tagId = "id:";
-        String tagName = "name:";
-        String tagIsA = "is_a:";
-        String tagObsolete = "is_obsolete:";
-        String tagAlternativeId = "alt_id:";
-        
-        boolean isObsolete = false;
-        
-        // We parse all term fields
-        
-        String strLine;
-        
-        while (!(strLine = reader.readLine()).equals(""))
+        if (state.m_InTerm)
         {
-            if (strLine.startsWith(tagId))
+            // We parse all term fields until the blank line
+            
+            if (start == end)
             {
-                strId = strLine.substring(tagId.length()).trim();
+                addTerm(state);
             }
-            else if (strLine.startsWith(tagName))
+            else if (startsWith(buffer, start, end, TAG_ID))
             {
-                strName = strLine.substring(tagName.length()).trim();
+                state.m_strId = getTagValue(buffer, start + TAG_ID.length, end);
             }
-            else if (strLine.startsWith(tagNamespace))
+            else if (startsWith(buffer, start, end, TAG_NAME))
             {
-                strNamespace = strLine.substring(tagNamespace.length()).trim();
+                state.m_strName = getTagValue(buffer, start + TAG_NAME.length, end);
             }
-            else if (strLine.startsWith(tagIsA))
+            else if (startsWith(buffer, start, end, TAG_NAMESPACE))
             {
-                String strGoId = strLine.substring(tagIsA.length()).trim();
+                state.m_strNamespace = getTagValue(buffer, start + TAG_NAMESPACE.length, end);
+            }
+            else if (startsWith(buffer, start, end, TAG_IS_A))
+            {
+                // We get the first word of the value, which is followed
+                // by the comments and qualifiers of the relationship
+                
+                int valueStart = skipWhitespaces(buffer, start + TAG_IS_A.length, end);
+                int valueEnd = valueStart;
                 
-                String[] strFields = strGoId.split("\\s+");
+                while ((valueEnd < end) && !isWhitespace(buffer[valueEnd])) valueEnd++;
                 
-                parentsId.add(strFields[0]);
+                String strParentId = new String(buffer, valueStart,
+                                        valueEnd - valueStart, StandardCharsets.UTF_8);
+                
+                if (!state.m_ParentIds.contains(strParentId)) state.m_ParentIds.add(strParentId);
             }
-            else if (strLine.startsWith(tagAlternativeId))
+            else if (startsWith(buffer, start, end, TAG_ALTERNATIVE_ID))
             {
-                String strAltId = strLine.substring(tagAlternativeId.length()).trim();
+                String strAltId = getTagValue(buffer, start + TAG_ALTERNATIVE_ID.length, end);
                 
-                alternativesId.add(strAltId);
+                if (!state.m_AlternativeIds.contains(strAltId)) state.m_AlternativeIds.add(strAltId);
             }
-            else if (strLine.startsWith(tagObsolete))
+            else if (startsWith(buffer, start, end, TAG_OBSOLETE))
             {
-                String value = strLine.substring(tagObsolete.length()).trim();
-                
-                isObsolete = value.equals("true");
+                state.m_Obsolete = getTagValue(buffer, start + TAG_OBSOLETE.length, end).equals("true");
             }
         }
+        else if (startsWith(buffer, start, end, TAG_ONTOLOGY_NAME))
+        {
+            // We extract the ontology name and cretae the ontology
+            
+            state.m_Ontology = new OboOntology(getTagValue(buffer, start + TAG_ONTOLOGY_NAME.length, end));
+        }
+        else if (startsWith(buffer, start, end, TAG_DEFAULT_NAMESPACE))
+        {
+            state.m_strDefaultNamespace = getTagValue(buffer, start + TAG_DEFAULT_NAMESPACE.length, end);
+        }
+        else if (startsWith(buffer, start, end, TAG_TERM))
+        {
+            // We initilize the attributes to be parsed
+            
+            state.m_InTerm = true;
+            state.m_strId = "";
+            state.m_strName = "";
+            state.m_strNamespace = state.m_strDefaultNamespace;
+            state.m_Obsolete = false;
+            state.m_ParentIds.clear();
+            state.m_AlternativeIds.clear();
+        }
+    }
+    
+    /**
+     * This function inserts the parsed term into the ontology
+     * whether it is not obsolete.
+     * @param state
+     * @throws Exception 
+     */
+    
+    private static void addTerm(
+            ParsingState    state) throws Exception
+    {
+        // We close the term
+        
+        state.m_InTerm = false;
         
         // We check that the concept is no obsolete
         
-        if (!isObsolete)
+        if (!state.m_Obsolete)
         {
-            // We create the parents vector
-
-            String[] strParentIds = new String[parentsId.size()];
-
-            parentsId.toArray(strParentIds);
-            parentsId.clear();
+            // We create the ontology whether the file has no name
             
-            // We create the alternative IDs vector
+            if (state.m_Ontology == null) state.m_Ontology = new OboOntology("");
             
-            String[] strAlternativeIds = new String[alternativesId.size()];
-
-            alternativesId.toArray(strAlternativeIds);
-            alternativesId.clear();
-
             // We create a new concept
-
-            ontology.addConcept(strId, strNamespace,
-                    strName, strParentIds, strAlternativeIds);
+            
+            state.m_Ontology.addConcept(state.m_strId, state.m_strNamespace, state.m_strName,
+                    state.m_ParentIds.toArray(new String[state.m_ParentIds.size()]),
+                    state.m_AlternativeIds.toArray(new String[state.m_AlternativeIds.size()]));
         }
     }
+    
+    /**
+     * This function checks if the line starts with the input tag.
+     * @param buffer
+     * @param start
+     * @param end
+     * @param tag
+     * @return 
+     */
+    
+    private static boolean startsWith(
+            byte[]  buffer,
+            int     start,
+            int     end,
+            byte[]  tag)
+    {
+        // We initialize the output
+        
+        boolean result = (end - start >= tag.length);
+        
+        // We compare the tag bytes
+        
+        for (int i = 0; (i < tag.length) && result; i++)
+        {
+            result = (buffer[start + i] == tag[i]);
+        }
+        
+        // We return the result
+        
+        return (result);
+    }
+    
+    /**
+     * This function decodes the tag value in the input range
+     * removing its leading and trailing whitespaces.
+     * @param buffer
+     * @param start
+     * @param end
+     * @return 
+     */
+    
+    private static String getTagValue(
+            byte[]  buffer,
+            int     start,
+            int     end)
+    {
+        // We trim the value
+        
+        start = skipWhitespaces(buffer, start, end);
+        
+        while ((end > start) && ((buffer[end - 1] & 0xff) <= ' ')) end--;
+        
+        // We return the result
+        
+        return (new String(buffer, start, end - start, StandardCharsets.UTF_8));
+    }
+    
+    /**
+     * This function returns the position of the first character which
+     * is not a control character or whitespace.
+     * @param buffer
+     * @param start
+     * @param end
+     * @return 
+     */
+    
+    private static int skipWhitespaces(
+            byte[]  buffer,
+            int     start,
+            int     end)
+    {
+        while ((start < end) && ((buffer[start] & 0xff) <= ' ')) start++;
+        
+        // We return the result
+        
+        return (start);
+    }
+    
+    /**
+     * This function checks if the character is a whitespace separating
+     * the words of a tag value.
+     * @param character
+     * @return 
+     */
+    
+    private static boolean isWhitespace(
+            byte    character)
+    {
+        return ((character == ' ') || (character == '\t') || (character == '\n')
+                || (character == 0x0b) || (character == '\f') || (character == '\r'));
+    }
+    
+    /**
+     * This function encodes a tag
+     * @param strTag
+     * @return 
+     */
+    
+    private static byte[] getTagBytes(
+            String  strTag)
+    {
+        return (strTag.getBytes(StandardCharsets.US_ASCII));
+    }
 }
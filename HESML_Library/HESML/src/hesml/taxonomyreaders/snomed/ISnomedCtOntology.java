@@ -82,6 +82,16 @@ public interface ISnomedCtOntology extends Iterable<ISnomedConcept>
     
     Long[] getConceptIdsForUmlsCUI(String umlsConceptCUI);
     
+    /**
+     * This function returns the SNOMED concept IDs associated to the CUI
+     * as a vector of primitive values, or an empty array if it is not
+     * found in the SNOMED database.
+     * @param umlsConceptCUI
+     * @return 
+     */
+    
+    long[] getConceptIdArrayForUmlsCUI(String umlsConceptCUI);
+    
     /**
      * This function returns the SNOMED concepts associated to the CUIs
      * or null if they are not found in the SNOMED database.
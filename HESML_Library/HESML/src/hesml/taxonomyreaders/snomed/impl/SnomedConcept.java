@@ -37,12 +37,6 @@ import java.util.Set;
 
 class SnomedConcept implements ISnomedConcept
 {
-    /**
-     * Terms associated to this concept
-     */
-    
-    private final ArrayList<String>   m_termsOfConcept;
-    
     /**
      * Parents of the current concept
      */
@@ -86,7 +80,6 @@ class SnomedConcept implements ISnomedConcept
     {
         m_ownerDB = ownerDB;
         m_conceptSnomedCuid = snomedId;
-        m_termsOfConcept = new ArrayList<>();
         m_parentSnomedIds = new ArrayList<>();
         m_Visited = false;
         m_taxonomyVertexId = -1L;
@@ -142,7 +135,6 @@ class SnomedConcept implements ISnomedConcept
     
     void clear()
     {
-        m_termsOfConcept.clear();
         m_parentSnomedIds.clear();
     }
     
@@ -267,17 +259,9 @@ class SnomedConcept implements ISnomedConcept
     @Override
     public String[] getTerms()
     {
-        // We create a vector of terms
+        // The terms are stored in the compact term index of the ontology
         
-        String[] strTerms = new String[m_termsOfConcept.size()];
-        
-        // We copy the terms to the array
-        
-        strTerms = m_termsOfConcept.toArray(strTerms);
-        
-        // We return the result
-        
-        return (strTerms);
+        return ((m_ownerDB != null) ? m_ownerDB.getConceptTerms(this) : new String[0]);
     }
 
     /**
@@ -314,17 +298,6 @@ class SnomedConcept implements ISnomedConcept
         m_parentSnomedIds.add(parentSnomedCuid);
     }
     
-    /**
-     * This function adds one term to the concept.
-     * @param strTerm 
-     */
-    
-    void addTerm(
-            String  strTerm)
-    {
-        m_termsOfConcept.add(strTerm);
-    }
-    
     /**
      * This function sets the values of the traversing flag.
      * @param visited 
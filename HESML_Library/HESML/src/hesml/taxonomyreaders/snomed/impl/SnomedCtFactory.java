@@ -22,6 +22,7 @@
 package hesml.taxonomyreaders.snomed.impl;
 
 import hesml.taxonomyreaders.snomed.ISnomedCtOntology;
+import hesml.taxonomyreaders.umls.IMrconsoReader;
 
 /**
  * This class implements the fucntions to load a SNOMED-CT database
@@ -56,5 +57,64 @@ public class SnomedCtFactory
                 strSnomedDBRelationshipsFileName,
                 strSnomedDBdescriptionFileName,
                 strUmlsDir, strUmlsCuiMappingfilename));
-    }   
+    }
+    
+    /**
+     * This function loads a SNOMED-CT database whose UMLS CUI mappings
+     * are extracted by a MRCONSO reader. The reader can be shared with
+     * the MeSH ontology in order to read the MRCONSO file once.
+     * @param strSnomedDir Direcory containg the SNOMED files
+     * @param strSnomedDBconceptFileName RF2 file containing the SNOMED concepts
+     * @param strSnomedDBRelationshipsFileName Relationships between concepts
+     * @param strSnomedDBdescriptionFileName Terms of the concepts
+     * @param mrconsoReader Reader of the UMLS CUI mapping file
+     * @return The loaded SNOMED-CT database
+     * @throws java.lang.Exception Unexpected error
+     */
+    
+    public static ISnomedCtOntology loadSnomedDatabase(
+            String          strSnomedDir,
+            String          strSnomedDBconceptFileName,
+            String          strSnomedDBRelationshipsFileName,
+            String          strSnomedDBdescriptionFileName,
+            IMrconsoReader  mrconsoReader) throws Exception
+    {
+        return (SnomedDbReader.loadOntology(strSnomedDir,
+                strSnomedDBconceptFileName,
+                strSnomedDBRelationshipsFileName,
+                strSnomedDBdescriptionFileName,
+                mrconsoReader));
+    }
+    
+    /**
+     * This function loads a SNOMED-CT database whose UMLS CUI mappings
+     * are extracted by a MRCONSO reader. The terms of the concepts could
+     * be skipped in order to save memory and loading time when the
+     * ontology is only queried by UMLS CUI or SNOMED-CT ID, in which case
+     * the description file is not read and the term queries return
+     * empty results.
+     * @param strSnomedDir Direcory containg the SNOMED files
+     * @param strSnomedDBconceptFileName RF2 file containing the SNOMED concepts
+     * @param strSnomedDBRelationshipsFileName Relationships between concepts
+     * @param strSnomedDBdescriptionFileName Terms of the concepts
+     * @param mrconsoReader Reader of the UMLS CUI mapping file
+     * @param loadTerms Flag to load the terms of the concepts
+     * @return The loaded SNOMED-CT database
+     * @throws java.lang.Exception Unexpected error
+     */
+    
+    public static ISnomedCtOntology loadSnomedDatabase(
+            String          strSnomedDir,
+            String          strSnomedDBconceptFileName,
+            String          strSnomedDBRelationshipsFileName,
+            String          strSnomedDBdescriptionFileName,
+            IMrconsoReader  mrconsoReader,
+            boolean         loadTerms) throws Exception
+    {
+        return (SnomedDbReader.loadOntology(strSnomedDir,
+                strSnomedDBconceptFileName,
+                strSnomedDBRelationshipsFileName,
+                strSnomedDBdescriptionFileName,
+                mrconsoReader, loadTerms));
+    }
 }
@@ -30,6 +30,7 @@ import java.util.HashMap;
 import java.util.Iterator;
 import java.util.HashSet;
 import hesml.taxonomyreaders.snomed.ISnomedCtOntology;
+import hesml.utils.CompactTermIndex;
 import java.util.Arrays;
 import java.util.Set;
 
@@ -65,11 +66,13 @@ class SnomedCtOntology implements ISnomedCtOntology
     private final HashMap<String, ISnomedConcept[]> m_ConceptsIndexedByCUI;
     
     /**
-     * SNOMED-CT concepts for each term. This is the inverted map from
-     * term to SNOMED-CT concepts.
+     * Compact index of the terms of the SNOMED-CT concepts, which are
+     * identified by their position in the concept collection. This is
+     * the inverted map from term to SNOMED-CT concepts, and it is null
+     * whether the terms were not loaded.
      */
     
-    private final HashMap<String, ArrayList<Long>>  m_ConceptsIndexedByTerm;
+    private CompactTermIndex    m_TermIndex;
 
     /**
      * Constructor. The concepts are sortted from the root with a total order
@@ -86,7 +89,7 @@ class SnomedCtOntology implements ISnomedCtOntology
         
         m_ConceptsIndexedById = new HashMap<>(concepts.size());
         m_SnomedConcepts = new SnomedConcept[concepts.size()];
-        m_ConceptsIndexedByTerm = new HashMap<>(concepts.size());
+        m_TermIndex = null;
         m_ConceptsIndexedByCUI = new HashMap<>(mapCuiToSnomedConcepts.size());
         
         // We copy the concepts
@@ -267,6 +270,35 @@ class SnomedCtOntology implements ISnomedCtOntology
         return (snomedIds);
     }
     
+    /**
+     * This function returns the SNOMED concept IDs associated to the CUI
+     * as a vector of primitive values, or an empty array if it is not
+     * found in the SNOMED database.
+     * @param umlsConceptCUI
+     * @return 
+     */
+    
+    @Override
+    public long[] getConceptIdArrayForUmlsCUI(String umlsConceptCUI)
+    {
+        // We initialize the output
+        
+        ISnomedConcept[] concepts = m_ConceptsIndexedByCUI.get(umlsConceptCUI);
+        
+        // We get all SNOMED ids of the concepts
+        
+        long[] snomedIds = new long[(concepts != null) ? concepts.length : 0];
+        
+        for (int i = 0; i < snomedIds.length; i++)
+        {
+            snomedIds[i] = concepts[i].getSnomedId();
+        }
+        
+        // We return the result
+        
+        return (snomedIds);
+    }
+    
     /**
      * This function returns the SNOMED concepts associated to the CUIs
      * or null if they are not found in the SNOMED database.
@@ -316,26 +348,53 @@ class SnomedCtOntology implements ISnomedCtOntology
             // Index the concepts by its ID
             
             m_ConceptsIndexedById.put(concept.getSnomedId(), concept);
+        }
+    }
+    
+    /**
+     * This function builds the compact index of terms from the description
+     * records in file order, whose terms are encoded as UTF-8 bytes. The
+     * records of the concepts not contained in the ontology are ignored.
+     * @param conceptIds SNOMED ID of the concept of every record
+     * @param termBytes UTF-8 bytes of the terms
+     * @param termStarts First byte of the term of every record
+     * @param recordCount Number of records
+     */
+    
+    void indexTerms(
+            long[]  conceptIds,
+            byte[]  termBytes,
+            int[]   termStarts,
+            int     recordCount)
+    {
+        // We get the position of the concept of every record
+        
+        int[] owners = new int[recordCount];
+        
+        for (int i = 0; i < recordCount; i++)
+        {
+            ISnomedConcept concept = m_ConceptsIndexedById.get(conceptIds[i]);
             
-            // We buld the indexed collection of concepts by terms.
-            
-            for (String strTerm: concept.getTerms())
-            {
-                // We get the list of concept IDs of the term
-                
-                ArrayList<Long> snomedIds = m_ConceptsIndexedByTerm.containsKey(strTerm) ?
-                                            m_ConceptsIndexedByTerm.get(strTerm) :
-                                            new ArrayList<>();
-                
-                // We insert the id array fir the first time
-                
-                if (snomedIds.size() == 0) m_ConceptsIndexedByTerm.put(strTerm, snomedIds);
-                
-                // We insert the conept ID into the indexd list of the term
-                
-                snomedIds.add(concept.getSnomedId());
-            }
+            owners[i] = (concept != null) ? concept.getTaxonomyNodeId().intValue() : -1;
         }
+        
+        // We build the index
+        
+        m_TermIndex = new CompactTermIndex(termBytes, termStarts,
+                        owners, recordCount, m_SnomedConcepts.length);
+    }
+    
+    /**
+     * This function returns the terms of the input concept.
+     * @param concept
+     * @return The terms of the concept in file order
+     */
+    
+    String[] getConceptTerms(
+            SnomedConcept   concept)
+    {
+        return ((m_TermIndex != null) ? m_TermIndex.getOwnerTerms(
+                concept.getTaxonomyNodeId().intValue()) : new String[0]);
     }
     
     /**
@@ -351,17 +410,22 @@ class SnomedCtOntology implements ISnomedCtOntology
         System.out.println("Building the SNOMED-CT taxonomy ("
                 + getConceptCount() + ") nodes");
         
-        // We create the graph
-        
-        m_Taxonomy = hesml.taxonomy.impl.TaxonomyFactory.createBlankTaxonomy(getConceptCount());
+        // We create the table of vertexes and parents. The concepts are sorted
+        // with their parents first, thus the vertex ID of every concept is
+        // its position and the parent vertexes are already assigned.
         
-        // We create a vertex into the taxonomy for each comcept.
+        long[] vertexIds = new long[m_SnomedConcepts.length];
+        int[] parentStarts = new int[vertexIds.length + 1];
+        int[] parentIndexes = new int[vertexIds.length];
         
-        for (SnomedConcept concept: m_SnomedConcepts)
+        for (int i = 0; i < m_SnomedConcepts.length; i++)
         {
+            SnomedConcept concept = m_SnomedConcepts[i];
+            
             // We assign the vertex ID for the SNOED concept within the taxonomy
             
-            concept.setTaxonomyNodeId(Integer.toUnsignedLong(m_Taxonomy.getVertexes().getCount()));
+            vertexIds[i] = i;
+            concept.setTaxonomyNodeId(vertexIds[i]);
             
             // We connect the concept to this database. Omce it is done, the
             // concept clears its collection of parent IDs because this information
@@ -369,12 +433,30 @@ class SnomedCtOntology implements ISnomedCtOntology
             
             concept.setDatabase(this);
             
-            // We add the vertex to the taxonomy with the same SNOMED-CT ID
-            // than its qasaociated ISnomedConcept
+            // We save the parent vertexes of the concept
+            
+            Long[] parentIds = concept.getParentTaxonomyNodesId();
             
-            m_Taxonomy.addVertex(concept.getTaxonomyNodeId(), concept.getParentTaxonomyNodesId());
+            parentStarts[i + 1] = parentStarts[i] + parentIds.length;
+            
+            if (parentStarts[i + 1] > parentIndexes.length)
+            {
+                parentIndexes = Arrays.copyOf(parentIndexes,
+                        Math.max(parentStarts[i + 1], 2 * parentIndexes.length));
+            }
+            
+            for (int j = 0; j < parentIds.length; j++)
+            {
+                parentIndexes[parentStarts[i] + j] = parentIds[j].intValue();
+            }
         }
         
+        // We create the graph with the same IDs than the associated
+        // ISnomedConcept objects
+        
+        m_Taxonomy = hesml.taxonomy.impl.TaxonomyFactory.createTaxonomy(vertexIds,
+                        parentStarts, Arrays.copyOf(parentIndexes, parentStarts[vertexIds.length]));
+        
         // We compute all cached information
         
         m_Taxonomy.computesCachedAttributes();
@@ -418,7 +500,7 @@ class SnomedCtOntology implements ISnomedCtOntology
     @Override
     public boolean contains(String strTerm)
     {
-        return (m_ConceptsIndexedByTerm.containsKey(strTerm));
+        return ((m_TermIndex != null) && m_TermIndex.contains(strTerm));
     }
 
     /**
@@ -444,32 +526,17 @@ class SnomedCtOntology implements ISnomedCtOntology
     public ISnomedConcept[] getTermConcepts(
         String  strTerm) throws Exception
     {
-        // We declare the outpuy
+        // We get the position of the concepts evoked by the term
+        
+        int[] termConcepts = (m_TermIndex != null) ? m_TermIndex.getOwners(strTerm) : new int[0];
         
-        ISnomedConcept[] concepts;
+        // We copy the concepts
         
-        // We check that the input word is contained in WordNet
+        ISnomedConcept[] concepts = new ISnomedConcept[termConcepts.length];
         
-        if (contains(strTerm))
-        {
-            // We get the synsets for the word
-            
-            ArrayList<Long> termConcepts = m_ConceptsIndexedByTerm.get(strTerm);
-
-            // We create the array to copy the synsets
-
-            concepts = new ISnomedConcept[termConcepts.size()];
-
-            // We copy the synsets
-
-            for (int i = 0; i < termConcepts.size(); i++)
-            {
-                concepts[i] = m_ConceptsIndexedById.get(termConcepts.get(i));
-            }
-        }
-        else
+        for (int i = 0; i < termConcepts.length; i++)
         {
-            concepts = new ISnomedConcept[0];
+            concepts[i] = m_SnomedConcepts[termConcepts[i]];
         }
         
         // We return the result
@@ -490,22 +557,17 @@ class SnomedCtOntology implements ISnomedCtOntology
     public Long[] getSnomedConceptIdsEvokedByTerm(
         String  strTerm) throws Exception
     {
-        // We initialize the output
+        // We get the position of the concepts evoked by the term
+        
+        int[] termConcepts = (m_TermIndex != null) ? m_TermIndex.getOwners(strTerm) : new int[0];
         
-        Long[] snomedIds = new Long[0];
+        // We copy the SNOMED ID of the concepts
         
-        // We check that the input word is contained in WordNet
+        Long[] snomedIds = new Long[termConcepts.length];
         
-        if (contains(strTerm))
+        for (int i = 0; i < termConcepts.length; i++)
         {
-            // We get the synsets for the word
-
-            ArrayList<Long> termConcepts = m_ConceptsIndexedByTerm.get(strTerm);
-
-            // We create the arraya to copy the synsets
-
-            snomedIds = new Long[termConcepts.size()];
-            termConcepts.toArray(snomedIds);
+            snomedIds[i] = m_SnomedConcepts[termConcepts[i]].getSnomedId();
         }
         
         // We return the result
@@ -544,13 +606,6 @@ class SnomedCtOntology implements ISnomedCtOntology
     @Override
     public void clear()
     {
-        // We clear the mapping of synsets per word
-        
-        for (ArrayList<Long> concepts: m_ConceptsIndexedByTerm.values())
-        {
-            concepts.clear();
-        }
-
         // We release the resources used by the concepts
         
         for (SnomedConcept concept: m_SnomedConcepts)
@@ -560,7 +615,7 @@ class SnomedCtOntology implements ISnomedCtOntology
         
         // We clear the synset collections
         
-        m_ConceptsIndexedByTerm.clear();
+        m_TermIndex = null;
         m_ConceptsIndexedById.clear();
         m_Taxonomy.clear();
         m_ConceptsIndexedByCUI.clear();
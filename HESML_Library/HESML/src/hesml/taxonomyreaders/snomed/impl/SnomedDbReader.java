@@ -26,16 +26,29 @@ import java.io.File;
 import java.io.FileNotFoundException;
 import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.LinkedList;
 import java.util.HashSet;
 import hesml.taxonomyreaders.snomed.ISnomedCtOntology;
-import java.io.BufferedReader;
-import java.io.FileReader;
+import hesml.taxonomyreaders.umls.IMrconsoReader;
+import hesml.taxonomyreaders.umls.impl.UmlsFactory;
+import hesml.utils.BlockLineReader;
+import hesml.utils.ConcurrentTasks;
+import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * This class is mainly esponsible to parse the SNOMED-CT databse files
- * and loading the taxonomy of concepts.
+ * and loading the taxonomy of concepts. The concept, relationship and
+ * description RF2 files are parsed concurrently by scanning the tab
+ * separators on the raw bytes of every line, and the concepts are
+ * sorted from the root by the Kahn's topological sorting algorithm.
+ * The terms are kept as raw UTF-8 bytes until they are stored into
+ * the compact term index of the ontology.
  * @author j.lastra
  */
 
@@ -52,6 +65,126 @@ class SnomedDbReader
     private static final int ACTIVE_ID = 2;
     private static final int RELATIONSHIP_GROUP_ID = 6;
     private static final int TERM_ID = 7;
+    
+    /**
+     * Size of the reading buffer of the RF2 files
+     */
+    
+    private static final int BUFFER_SIZE = 1024 * 1024;
+    
+    /**
+     * This interface represents the parser of the lines of a RF2 file,
+     * which receives the byte ranges of the scanned columns.
+     */
+    
+    private interface IRF2LineParser
+    {
+        /**
+         * This function parses a line of a RF2 file.
+         * @param buffer
+         * @param columnStarts First byte of every scanned column
+         * @param columnEnds Position after the last byte of every scanned column
+         * @throws IOException
+         */
+        
+        void parseLine(
+                byte[]  buffer,
+                int[]   columnStarts,
+                int[]   columnEnds) throws IOException;
+    }
+    
+    /**
+     * This class stores the records of the relationship and description
+     * files in file order until the concepts are read.
+     */
+    
+    private static class ConceptRecords
+    {
+        /**
+         * SNOMED Id of the concept of every record
+         */
+        
+        private long[]  m_ConceptIds = new long[1024];
+        
+        /**
+         * SNOMED Id of the parent concept of every relationship record
+         */
+        
+        private long[]  m_ParentIds = new long[1024];
+        
+        /**
+         * UTF-8 bytes of the terms of the description records
+         */
+        
+        private byte[]  m_TermBytes = new byte[1024];
+        
+        /**
+         * First byte of the term of every description record
+         */
+        
+        private int[]   m_TermStarts = new int[1025];
+        
+        /**
+         * Number of records
+         */
+        
+        private int     m_Count = 0;
+        
+        /**
+         * This function adds a relationship record.
+         * @param conceptId
+         * @param parentId
+         */
+        
+        void addParent(
+                long    conceptId,
+                long    parentId)
+        {
+            if (m_Count == m_ConceptIds.length)
+            {
+                m_ConceptIds = Arrays.copyOf(m_ConceptIds, 2 * m_Count);
+                m_ParentIds = Arrays.copyOf(m_ParentIds, 2 * m_Count);
+            }
+            
+            m_ConceptIds[m_Count] = conceptId;
+            m_ParentIds[m_Count++] = parentId;
+        }
+        
+        /**
+         * This function adds a description record whose term is
+         * contained in the input byte range.
+         * @param conceptId
+         * @param buffer
+         * @param start
+         * @param end
+         */
+        
+        void addTerm(
+                long    conceptId,
+                byte[]  buffer,
+                int     start,
+                int     end)
+        {
+            if (m_Count == m_ConceptIds.length)
+            {
+                m_ConceptIds = Arrays.copyOf(m_ConceptIds, 2 * m_Count);
+                m_TermStarts = Arrays.copyOf(m_TermStarts, 2 * m_Count + 1);
+            }
+            
+            int termStart = m_TermStarts[m_Count];
+            
+            if (termStart + end - start > m_TermBytes.length)
+            {
+                m_TermBytes = Arrays.copyOf(m_TermBytes,
+                                Math.max(2 * m_TermBytes.length, termStart + end - start));
+            }
+            
+            System.arraycopy(buffer, start, m_TermBytes, termStart, end - start);
+            
+            m_ConceptIds[m_Count++] = conceptId;
+            m_TermStarts[m_Count] = termStart + end - start;
+        }
+    }
 
     /**
      * This function load a SNOMED-CT database
@@ -72,6 +205,76 @@ class SnomedDbReader
             String  strSnomedDBdescriptionFileName,
             String  strUmlsDir,
             String  strUmlsCuiMappingfilename) throws Exception
+    {
+        // We create the reader of the UMLS CUI mapping file
+        
+        IMrconsoReader mrconsoReader = UmlsFactory.createMrconsoReader(
+                                        strUmlsDir + "/" + strUmlsCuiMappingfilename, true, false);
+        
+        // We load the database
+        
+        ISnomedCtOntology snomedDatabase = loadOntology(strSnomedDir,
+                                            strSnomedDBconceptFileName,
+                                            strSnomedDBRelationshipsFileName,
+                                            strSnomedDBdescriptionFileName,
+                                            mrconsoReader);
+        
+        // We release the CUI mappings
+        
+        mrconsoReader.clear();
+        
+        // We return the database
+        
+        return (snomedDatabase);
+    }
+    
+    /**
+     * This function load a SNOMED-CT database whose UMLS CUI mappings
+     * are extracted by a MRCONSO reader, which could be shared with
+     * the MeSH ontology.
+     * @param strSnomedDir
+     * @param strSnomedDBconceptFileName
+     * @param strSnomedDBRelationshipsFileName
+     * @param strSnomedDBdescriptionFileName
+     * @param mrconsoReader
+     * @return
+     * @throws Exception 
+     */
+    
+    static ISnomedCtOntology loadOntology(
+            String          strSnomedDir,
+            String          strSnomedDBconceptFileName,
+            String          strSnomedDBRelationshipsFileName,
+            String          strSnomedDBdescriptionFileName,
+            IMrconsoReader  mrconsoReader) throws Exception
+    {
+        return (loadOntology(strSnomedDir, strSnomedDBconceptFileName,
+                strSnomedDBRelationshipsFileName, strSnomedDBdescriptionFileName,
+                mrconsoReader, true));
+    }
+    
+    /**
+     * This function load a SNOMED-CT database whose UMLS CUI mappings
+     * are extracted by a MRCONSO reader, which could be shared with
+     * the MeSH ontology. The description file is only read whether
+     * the terms are loaded.
+     * @param strSnomedDir
+     * @param strSnomedDBconceptFileName
+     * @param strSnomedDBRelationshipsFileName
+     * @param strSnomedDBdescriptionFileName
+     * @param mrconsoReader
+     * @param loadTerms Flag to load the terms of the concepts
+     * @return
+     * @throws Exception 
+     */
+    
+    static ISnomedCtOntology loadOntology(
+            String          strSnomedDir,
+            String          strSnomedDBconceptFileName,
+            String          strSnomedDBRelationshipsFileName,
+            String          strSnomedDBdescriptionFileName,
+            IMrconsoReader  mrconsoReader,
+            boolean         loadTerms) throws Exception
     {
         // User message
         
@@ -80,11 +283,13 @@ class SnomedDbReader
         
         // We load the SNOMED RF2 file
         
-        String[] strSnomedFilenames = new String[]{
+        String[] strSnomedFilenames = loadTerms ? new String[]{
                                         strSnomedDir + "/" + strSnomedDBconceptFileName,
                                         strSnomedDir + "/" + strSnomedDBRelationshipsFileName,
-                                        strSnomedDir + "/" + strSnomedDBdescriptionFileName,
-                                        strUmlsDir + "/" + strUmlsCuiMappingfilename};
+                                        strSnomedDir + "/" + strSnomedDBdescriptionFileName} :
+                                    new String[]{
+                                        strSnomedDir + "/" + strSnomedDBconceptFileName,
+                                        strSnomedDir + "/" + strSnomedDBRelationshipsFileName};
         
         File[] snomedFiles = new File[strSnomedFilenames.length];
         
@@ -103,17 +308,44 @@ class SnomedDbReader
             }
         }
         
-        // We read the SNOMED-CT concepts
-        
-        HashMap<Long, SnomedConcept> concepts = readConcepts(snomedFiles[0]);
-        
-        // We read the child/parent relationships
+        // We read concurrently the SNOMED-CT concepts, the child/parent
+        // relationships, the terms associated to each SNOMED concept
+        // and the UMLS CUI mappings
         
-        readParentConcepts(snomedFiles[1], concepts);
+        HashMap<Long, SnomedConcept> concepts;
+        ConceptRecords terms = null;
+        String[][] strCuiMappings;
         
-        // We read the terms associated to each SNOMED concept
+        ExecutorService executor = Executors.newFixedThreadPool(4);
         
-        readTermsOfConcepts(snomedFiles[2], concepts);
+        try
+        {
+            Future<HashMap<Long, SnomedConcept>> conceptsTask = executor.submit(() -> readConcepts(snomedFiles[0]));
+            Future<ConceptRecords> parentsTask = executor.submit(() -> readParentConcepts(snomedFiles[1]));
+            Future<ConceptRecords> termsTask = loadTerms ? executor.submit(() -> readTermsOfConcepts(snomedFiles[2])) : null;
+            Future<String[][]> cuiMappingsTask = executor.submit(() -> mrconsoReader.getSnomedCtMappings());
+            
+            concepts = ConcurrentTasks.getTaskResult(conceptsTask);
+            
+            // We link every concept with its parents
+            
+            ConceptRecords parents = ConcurrentTasks.getTaskResult(parentsTask);
+            
+            for (int i = 0; i < parents.m_Count; i++)
+            {
+                SnomedConcept concept = concepts.get(parents.m_ConceptIds[i]);
+                
+                if (concept != null) concept.AddParent(parents.m_ParentIds[i]);
+            }
+            
+            if (termsTask != null) terms = ConcurrentTasks.getTaskResult(termsTask);
+            
+            strCuiMappings = ConcurrentTasks.getTaskResult(cuiMappingsTask);
+        }
+        finally
+        {
+            executor.shutdown();
+        }
         
         // We check the consistency of the data
         
@@ -126,9 +358,17 @@ class SnomedDbReader
         // We insert the sorted concepts into the database
         
         SnomedCtOntology snomedDatabase = new SnomedCtOntology(sortedConcepts,
-                                            readConceptsUmlsCUIs(snomedFiles[3], concepts),
+                                            readConceptsUmlsCUIs(strCuiMappings, concepts),
                                             true);
 
+        // We index the terms of the active concepts
+        
+        if (terms != null)
+        {
+            snomedDatabase.indexTerms(terms.m_ConceptIds, terms.m_TermBytes,
+                                    terms.m_TermStarts, terms.m_Count);
+        }
+        
         // We release the auxiliary collections
 
         concepts.clear();
@@ -172,7 +412,8 @@ class SnomedDbReader
     }
     
     /**
-     * This function sorts all concepts from the root
+     * This function sorts all concepts from the root by the Kahn's
+     * algorithm, thus every concept is inserted after all its parents.
      * @param indexedConcepts
      * @return 
      */
@@ -184,51 +425,105 @@ class SnomedDbReader
         
         ArrayList<SnomedConcept> sortedConcepts = new ArrayList<>(indexedConcepts.size());
         
-        // We cretae the pending queue
+        // We index the concepts
         
-        LinkedList<SnomedConcept> pending = new LinkedList<>();
+        SnomedConcept[] concepts = indexedConcepts.values().toArray(
+                                    new SnomedConcept[indexedConcepts.size()]);
         
-        for (SnomedConcept concept: indexedConcepts.values())
+        HashMap<Long, Integer> conceptIndexes = new HashMap<>(concepts.length);
+        
+        for (int i = 0; i < concepts.length; i++)
         {
-            concept.setVisited(false);
-            pending.add(concept);
+            concepts[i].setVisited(false);
+            conceptIndexes.put(concepts[i].getSnomedId(), i);
         }
         
-        // We process the pending nodes
+        // We count the unvisited parents of every concept and
+        // the children of every concept
         
-        while (!pending.isEmpty())
+        int[] pendingParents = new int[concepts.length];
+        int[][] parentIndexes = new int[concepts.length][];
+        int[] childrenStart = new int[concepts.length + 1];
+        
+        for (int i = 0; i < concepts.length; i++)
         {
-            // We get the next synset to load
-            
-            SnomedConcept pendingConcept = pending.remove();
+            Long[] parentIds = concepts[i].getParentsSnomedId();
             
-            // We check if all its parents have been visited
+            parentIndexes[i] = new int[parentIds.length];
+            pendingParents[i] = parentIds.length;
             
-            boolean allParentsVisited = true;
-            
-            for (Long parentId: pendingConcept.getParentsSnomedId())
+            for (int j = 0; j < parentIds.length; j++)
             {
-                if (!indexedConcepts.get(parentId).getVisited())
+                Integer parentIndex = conceptIndexes.get(parentIds[j]);
+                
+                if (parentIndex == null)
                 {
-                    allParentsVisited = false;
-                    break;
+                    String strError = "The parent concept " + parentIds[j]
+                            + " of the concept " + concepts[i].getSnomedId() + " is not active";
+                    throw (new Exception(strError));
                 }
+                
+                parentIndexes[i][j] = parentIndex;
+                childrenStart[parentIndex + 1]++;
             }
-            
-            // We put the current concept in the list (totally order) or we
-            // enqueue it again when any parent has not been visited yet.
-            
-            if (allParentsVisited)
+        }
+        
+        // We build the children lists
+        
+        for (int i = 0; i < concepts.length; i++)
+        {
+            childrenStart[i + 1] += childrenStart[i];
+        }
+        
+        int[] children = new int[childrenStart[concepts.length]];
+        int[] childrenCount = new int[concepts.length];
+        
+        for (int i = 0; i < concepts.length; i++)
+        {
+            for (int parentIndex: parentIndexes[i])
             {
-                pendingConcept.setVisited(true);
-                sortedConcepts.add(pendingConcept);
+                children[childrenStart[parentIndex] + childrenCount[parentIndex]++] = i;
             }
-            else
+        }
+        
+        // We enqueue the concepts without parents
+        
+        int[] pending = new int[concepts.length];
+        int pendingCount = 0;
+        
+        for (int i = 0; i < concepts.length; i++)
+        {
+            if (pendingParents[i] == 0) pending[pendingCount++] = i;
+        }
+        
+        // We put every concept in the list (totally order) and we enqueue
+        // the children whose parents have been all visited
+        
+        for (int iPending = 0; iPending < pendingCount; iPending++)
+        {
+            SnomedConcept pendingConcept = concepts[pending[iPending]];
+            
+            pendingConcept.setVisited(true);
+            sortedConcepts.add(pendingConcept);
+            
+            for (int iChild = childrenStart[pending[iPending]];
+                    iChild < childrenStart[pending[iPending] + 1]; iChild++)
             {
-                pending.add(pendingConcept);
+                if (--pendingParents[children[iChild]] == 0)
+                {
+                    pending[pendingCount++] = children[iChild];
+                }
             }
         }
         
+        // We check that the taxonomy has no cycles
+        
+        if (sortedConcepts.size() != concepts.length)
+        {
+            String strError = "The SNOMED-CT taxonomy contains cycles";
+            throw (new Exception(strError));
+        }
+        
         // We return the result
         
         return (sortedConcepts);
@@ -236,97 +531,230 @@ class SnomedDbReader
     
     /**
      * This function reads the parents of all conepts.
-     * @param concepts 
+     * @param snomedRelationshipFile
+     * @return The active child/parent relationships in file order
      */
     
-    private static void readParentConcepts(
-            File                            snomedRelationshipFile,
-            HashMap<Long, SnomedConcept>    concepts) throws FileNotFoundException, IOException
+    private static ConceptRecords readParentConcepts(
+            File    snomedRelationshipFile) throws FileNotFoundException, IOException, Exception
     {
-        // We open the file for reading
-        
-        BufferedReader reader = new BufferedReader(new FileReader(snomedRelationshipFile));
-        System.out.println("Loading " + snomedRelationshipFile);
-                
-        // We skip the header line
+        // We create the output records
         
-        String strHeaderLine = reader.readLine();
+        ConceptRecords parents = new ConceptRecords();
         
         // We read the relationship lines
         
-        String strLine = "";
-        
-        while((strLine = reader.readLine()) != null)
-        {            
+        scanRF2File(snomedRelationshipFile, RELATIONSHIP_GROUP_ID + 1, (buffer, starts, ends) ->
+        {
             // We extract the attributes of the relationship
             
-            String[] strAttributes = strLine.split("\t");
+            boolean active = isActive(buffer, starts[ACTIVE_ID], ends[ACTIVE_ID]);
+            long childSnomedId = parseLong(buffer, starts[CHILD_ID], ends[CHILD_ID]);
+            long parentSnomedId = parseLong(buffer, starts[PARENT_ID], ends[PARENT_ID]);
+            long relationshipGroup = parseLong(buffer, starts[RELATIONSHIP_GROUP_ID], ends[RELATIONSHIP_GROUP_ID]);
             
-            boolean active = strAttributes[ACTIVE_ID].equals("1");
-            Long childSnomedId = Long.parseLong(strAttributes[CHILD_ID]);
-            Long parentSnomedId = Long.parseLong(strAttributes[PARENT_ID]);
-            int relationshipGroup = Integer.parseInt(strAttributes[RELATIONSHIP_GROUP_ID]);
+            // We register the relationship which is linked to the
+            // child concept once the concepts are read.
             
-            // We retrieve the child concept and link it with its parent.
-            // We check that the previous reading of the parent concept.
-            
-            if (active && (relationshipGroup == 0) && concepts.containsKey(childSnomedId))
+            if (active && (relationshipGroup == 0))
             {
-                concepts.get(childSnomedId).AddParent(parentSnomedId);
+                parents.addParent(childSnomedId, parentSnomedId);
             }
-        }
+        });
         
-        // We close the database
+        // We return the result
         
-        reader.close();
+        return (parents);
     }
     
     /**
      * This function reads the terms associated to every SNOMED concept
-     * @param concepts 
+     * @param snomedDBdescriptionFile
+     * @return The active terms in file order
      */
     
-    private static void readTermsOfConcepts(
-            File                            snomedDBdescriptionFile,
-            HashMap<Long, SnomedConcept>    concepts) throws FileNotFoundException, IOException
+    private static ConceptRecords readTermsOfConcepts(
+            File    snomedDBdescriptionFile) throws FileNotFoundException, IOException, Exception
     {
-        // We open the file for reading
+        // We create the output records
+        
+        ConceptRecords terms = new ConceptRecords();
+        
+        // We read the term lines
         
-        BufferedReader reader = new BufferedReader(new FileReader(snomedDBdescriptionFile));
-        System.out.println("Loading " + snomedDBdescriptionFile);
+        scanRF2File(snomedDBdescriptionFile, TERM_ID + 1, (buffer, starts, ends) ->
+        {
+            // We decode the term only for the active descriptions
+            
+            if (isActive(buffer, starts[ACTIVE_ID], ends[ACTIVE_ID]))
+            {
+                long conceptId = parseLong(buffer, starts[CHILD_ID], ends[CHILD_ID]);
                 
-        // We skip the header line
+                terms.addTerm(conceptId, buffer, starts[TERM_ID], ends[TERM_ID]);
+            }
+        });
         
-        String strHeaderLine = reader.readLine();
+        // We return the result
         
-        // We read the term lines
+        return (terms);
+    }
+    
+    /**
+     * This function scans the lines of a RF2 file, skipping the header
+     * line, and passes the byte ranges of the first columns to the parser.
+     * The lines are read by the shared block line reader, and the tabs
+     * are looked for on the raw bytes, thus no string is created unless
+     * the parser decodes any column.
+     * @param rf2File
+     * @param columnCount Number of scanned columns
+     * @param parser
+     * @throws IOException
+     */
+    
+    private static void scanRF2File(
+            File            rf2File,
+            int             columnCount,
+            IRF2LineParser  parser) throws IOException, Exception
+    {
+        System.out.println("Loading " + rf2File);
+        
+        // We create the column ranges
+        
+        int[] columnStarts = new int[columnCount];
+        int[] columnEnds = new int[columnCount];
+        
+        // We read the lines skipping the header line
         
-        String strLine = "";
+        boolean[] headerLine = {true};
         
-        while((strLine = reader.readLine()) != null)
+        try (InputStream input = new FileInputStream(rf2File))
         {
-            // We extract the attributes of the relationship
-            
-            String[] strAttributes = strLine.split("\t");
-            
-            boolean active = strAttributes[ACTIVE_ID].equals("1");
-            Long conceptId = Long.parseLong(strAttributes[CHILD_ID]);
-            String strTerm = strAttributes[TERM_ID];
-            
-            // We retrieve the child concept and link it with its parent.
-            // We check that the previous reading of the parent concept.
+            BlockLineReader.readLines(input, BUFFER_SIZE, (buffer, lineStart, lineEnd) ->
+            {
+                if (headerLine[0])
+                {
+                    headerLine[0] = false;
+                }
+                else
+                {
+                    scanColumns(buffer, lineStart, lineEnd, columnStarts, columnEnds);
+                    parser.parseLine(buffer, columnStarts, columnEnds);
+                }
+            });
+        }
+    }
+    
+    /**
+     * This function computes the byte ranges of the first columns of a
+     * line, whose number is given by the length of the range arrays.
+     * @param buffer
+     * @param lineStart
+     * @param lineEnd
+     * @param columnStarts
+     * @param columnEnds
+     * @throws IOException
+     */
+    
+    private static void scanColumns(
+            byte[]  buffer,
+            int     lineStart,
+            int     lineEnd,
+            int[]   columnStarts,
+            int[]   columnEnds) throws IOException
+    {
+        // We look for the tabs
+        
+        int column = 0;
+        
+        columnStarts[0] = lineStart;
+        
+        for (int i = lineStart; (i < lineEnd) && (column < columnStarts.length - 1); i++)
+        {
+            if (buffer[i] == '\t')
+            {
+                columnEnds[column++] = i;
+                columnStarts[column] = i + 1;
+            }
+        }
+        
+        // We look for the end of the last scanned column
+        
+        int lastColumnEnd = columnStarts[column];
+        
+        while ((lastColumnEnd < lineEnd) && (buffer[lastColumnEnd] != '\t'))
+        {
+            lastColumnEnd++;
+        }
+        
+        columnEnds[column] = lastColumnEnd;
+        
+        // We check that all the columns were found
+        
+        if (column < columnStarts.length - 1)
+        {
+            String strError = "Wrong RF2 line -> " + new String(buffer, lineStart,
+                                lineEnd - lineStart, StandardCharsets.UTF_8);
+            throw (new IOException(strError));
+        }
+    }
+    
+    /**
+     * This function checks if the active column is equal to "1".
+     * @param buffer
+     * @param start
+     * @param end
+     * @return 
+     */
+    
+    private static boolean isActive(
+            byte[]  buffer,
+            int     start,
+            int     end)
+    {
+        return ((end == start + 1) && (buffer[start] == '1'));
+    }
+    
+    /**
+     * This function parses the decimal number contained in the input range.
+     * @param buffer
+     * @param start
+     * @param end
+     * @return 
+     */
+    
+    private static long parseLong(
+            byte[]  buffer,
+            int     start,
+            int     end)
+    {
+        // We check the number of digits
+        
+        if ((start == end) || (end - start > 18))
+        {
+            return (Long.parseLong(new String(buffer, start, end - start, StandardCharsets.UTF_8)));
+        }
+        
+        // We parse the digits
+        
+        long value = 0;
+        
+        for (int i = start; i < end; i++)
+        {
+            int digit = buffer[i] - '0';
             
-            if (active && concepts.containsKey(conceptId))
+            if ((digit < 0) || (digit > 9))
             {
-                concepts.get(conceptId).addTerm(strTerm);
+                return (Long.parseLong(new String(buffer, start, end - start, StandardCharsets.UTF_8)));
             }
+            
+            value = value * 10 + digit;
         }
         
-        // We close the database
+        // We return the result
         
-        reader.close();
+        return (value);
     }
-
+    
     /**
      * This function checks if the text is a Long number
      * @param strText
@@ -358,72 +786,52 @@ class SnomedDbReader
     }
     
     /**
-     * This function reads the concept UMLS-CUIs
+     * This function builds the mapping from UMLS-CUIs to concepts
+     * @param strCuiMappings Pairs (CUI, SNOMED code) read from MRCONSO
      * @param concepts 
      */
     
     private static HashMap<String, HashSet<ISnomedConcept>> readConceptsUmlsCUIs(
-            File                            snomedCuiFile,
-            HashMap<Long, SnomedConcept>    concepts) throws FileNotFoundException, IOException
+            String[][]                      strCuiMappings,
+            HashMap<Long, SnomedConcept>    concepts)
     {
         // We create the output mampit table (CUI, SNOMED_id)
         
         HashMap<String, HashSet<ISnomedConcept>> outputCuiToSnomedConcepts = new HashMap<>(concepts.size());
         
-        // We open the file for reading
-        
-        BufferedReader reader = new BufferedReader(new FileReader(snomedCuiFile));
-
-        System.out.println("Loading " + snomedCuiFile);
-                
-        // We read the relationship lines
+        // We read the mappings
         
-        String strLine = "";
+        String[] strUmlsCUIs = strCuiMappings[0];
+        String[] strSnomedCodes = strCuiMappings[1];
         
-        while((strLine = reader.readLine()) != null)
-        {           
-            // We extract the attributes of the relationship
-            
-            String[] strColumns = strLine.split("\\|");
-            
-            // We look for the SNOMED tag
-            
-            for (int iCol = 0; iCol < strColumns.length; iCol++)
+        for (int i = 0; i < strUmlsCUIs.length; i++)
+        {
+            if (isLongNumber(strSnomedCodes[i]))
             {
-                if (strColumns[iCol].equals("SNOMEDCT_US")
-                        && isLongNumber(strColumns[iCol + 2]))
+                // We get the mapping CUI -> SNOMED Id
+                
+                Long snomedId = Long.parseLong(strSnomedCodes[i]);
+                String strUmlsCUI = strUmlsCUIs[i];
+                
+                // We register the snomed concept associated to a given CUI
+                // only when the SNOMED concept exists
+                
+                if (concepts.containsKey(snomedId))
                 {
-                    // We get the mapping CUI -> SNOMED Id
-                    
-                    Long snomedId = Long.parseLong(strColumns[iCol + 2]);
-                    String strUmlsCUI = strColumns[0];
-                    
-                    // We register the snomed concept associated to a given CUI
-                    // only when the SNOMED concept exists
+                    // We register the CUI mapping
                     
-                    if (concepts.containsKey(snomedId))
+                    if (!outputCuiToSnomedConcepts.containsKey(strUmlsCUI))
                     {
-                        // We register the CUI mapping
-                        
-                        if (!outputCuiToSnomedConcepts.containsKey(strUmlsCUI))
-                        {
-                            outputCuiToSnomedConcepts.put(strUmlsCUI, new HashSet<ISnomedConcept>(1));
-                        }
+                        outputCuiToSnomedConcepts.put(strUmlsCUI, new HashSet<ISnomedConcept>(1));
+                    }
 
-                        // We associate the SNOMED concept to the CUI
+                    // We associate the SNOMED concept to the CUI
 
-                        outputCuiToSnomedConcepts.get(strUmlsCUI).add(concepts.get(snomedId));
-                    }
-                    
-                    break;
+                    outputCuiToSnomedConcepts.get(strUmlsCUI).add(concepts.get(snomedId));
                 }
             }
         }
         
-        // We close the database
-        
-        reader.close();
-        
         // We return the result
         
         return (outputCuiToSnomedConcepts);
@@ -436,63 +844,35 @@ class SnomedDbReader
      */
     
     private static HashMap<Long, SnomedConcept> readConcepts(
-            File    snomedFile) throws FileNotFoundException, IOException
+            File    snomedFile) throws FileNotFoundException, IOException, Exception
     {
-        // We open the file for reading
-        
-        BufferedReader reader = new BufferedReader(new FileReader(snomedFile));
-        System.out.println("Loading " + snomedFile);
-                
-        // We skip the first line containing the headers.
-        // We focus only on thereading of concept ID and term, because it
-        // is the only information that we need. Thus, we reject
-        // to read the full record for each concept.
-        
-        String strHeaderLine = reader.readLine();
-        
         // We create the temporary set of concepts
         
         HashMap<Long, SnomedConcept> concepts = new HashMap<>();
                 
-        // We read the concept lines
-        
-        String strLine = "";
+        // We read the concept lines skipping the first line containing
+        // the headers. We focus only on thereading of concept ID and
+        // active flag, because it is the only information that we need.
         
-        while((strLine = reader.readLine()) != null)
+        scanRF2File(snomedFile, ACTIVE_ID + 1, (buffer, starts, ends) ->
         {
-            // We extract the attribites of the concept
-
-            String[] strAttributes = strLine.split("\t");
-
-            // We get the needed attributes
-
-            Long snomedId = Long.parseLong(strAttributes[CONCEPT_ID]);
-            boolean active = strAttributes[ACTIVE_ID].equals("1");
-
             // We create a new concept if it is active
-
-            if (active)
+            
+            if (isActive(buffer, starts[ACTIVE_ID], ends[ACTIVE_ID]))
             {
-                // We insert the novel entity in the database
+                Long snomedId = parseLong(buffer, starts[CONCEPT_ID], ends[CONCEPT_ID]);
                 
-                SnomedConcept concept = new SnomedConcept(null, snomedId);
-            
                 // We insert the novel entity in the database
-            
-                if (!concepts.containsKey(concept.getSnomedId()))
+                
+                if (!concepts.containsKey(snomedId))
                 {
-                    concepts.put(concept.getSnomedId(), concept);
+                    concepts.put(snomedId, new SnomedConcept(null, snomedId));
                 }
             }
-        }
-        
-        // We close the database
+        });
         
-        reader.close();
-
         // We sort the synsets for the creation of the graph
         
         return (concepts);
     }
-}
-
+}
\ No newline at end of file
@@ -0,0 +1,61 @@
+/*
+ * Copyright (C) 2016-2022 Universidad Nacional de Educación a Distancia (UNED)
+ *
+ * This program is free software for non-commercial use:
+ * you can redistribute it and/or modify it under the terms of the
+ * Creative Commons Attribution-NonCommercial-ShareAlike 4.0 International
+ * (CC BY-NC-SA 4.0) as published by the Creative Commons Corporation,
+ * either version 4 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * section 5 of the CC BY-NC-SA 4.0 License for more details.
+ *
+ * You should have received a copy of the Creative Commons
+ * Attribution-NonCommercial-ShareAlike 4.0 International (CC BY-NC-SA 4.0) 
+ * license along with this program. If not,
+ * see <http://creativecommons.org/licenses/by-nc-sa/4.0/>.
+ *
+ */
+
+package hesml.taxonomyreaders.umls;
+
+/**
+ * This interface represents a reader of the UMLS MRCONSO.RRF file, which
+ * extracts the mappings from the UMLS CUIs to the concepts of the SNOMED-CT
+ * and MeSH source vocabularies. All the source vocabularies selected when
+ * the reader is created are extracted in a single pass over the file, thus
+ * the SNOMED-CT and MeSH ontologies can share the reading of the file
+ * when they are loaded together.
+ * @author j.lastra
+ */
+
+public interface IMrconsoReader
+{
+    /**
+     * This function returns the mappings from UMLS CUIs to SNOMED-CT
+     * concept codes in file order. The first row contains the CUIs and
+     * the second one the SNOMED-CT codes.
+     * @return
+     * @throws Exception 
+     */
+    
+    String[][] getSnomedCtMappings() throws Exception;
+    
+    /**
+     * This function returns the mappings from UMLS CUIs to MeSH
+     * descriptor IDs in file order. The first row contains the CUIs and
+     * the second one the MeSH descriptor IDs.
+     * @return
+     * @throws Exception 
+     */
+    
+    String[][] getMeSHMappings() throws Exception;
+    
+    /**
+     * This function releases the mappings read from the file
+     */
+    
+    void clear();
+}
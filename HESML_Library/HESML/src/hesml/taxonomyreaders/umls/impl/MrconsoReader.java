@@ -0,0 +1,364 @@
+/*
+ * Copyright (C) 2016-2022 Universidad Nacional de Educación a Distancia (UNED)
+ *
+ * This program is free software for non-commercial use:
+ * you can redistribute it and/or modify it under the terms of the
+ * Creative Commons Attribution-NonCommercial-ShareAlike 4.0 International
+ * (CC BY-NC-SA 4.0) as published by the Creative Commons Corporation,
+ * either version 4 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * section 5 of the CC BY-NC-SA 4.0 License for more details.
+ *
+ * You should have received a copy of the Creative Commons
+ * Attribution-NonCommercial-ShareAlike 4.0 International (CC BY-NC-SA 4.0) 
+ * license along with this program. If not,
+ * see <http://creativecommons.org/licenses/by-nc-sa/4.0/>.
+ *
+ */
+
+package hesml.taxonomyreaders.umls.impl;
+
+import hesml.taxonomyreaders.umls.IMrconsoReader;
+import hesml.utils.ParallelTextFileReader;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+
+/**
+ * This class implements the reader of the UMLS MRCONSO.RRF file. The file
+ * is scanned in parallel by newline-aligned chunks, and the source
+ * vocabulary (SAB) column of every row is compared on the raw bytes,
+ * thus only the CUI and concept code of the selected rows are decoded.
+ * All the selected source vocabularies are extracted in the first request
+ * of any mapping, being the mappings kept until the reader is cleared.
+ * @author j.lastra
+ */
+
+class MrconsoReader implements IMrconsoReader
+{
+    /**
+     * Column offsets of the MRCONSO.RRF rows
+     */
+    
+    private static final int CUI_COLUMN = 0;
+    private static final int SDUI_COLUMN = 10;
+    private static final int SAB_COLUMN = 11;
+    private static final int CODE_COLUMN = 13;
+    
+    /**
+     * Source vocabulary abbreviations of SNOMED-CT and MeSH
+     */
+    
+    private static final byte[] SNOMEDCT_SAB = "SNOMEDCT_US".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] MESH_SAB = "MSH".getBytes(StandardCharsets.US_ASCII);
+    
+    /**
+     * This class stores the mappings found in a chunk of the file
+     */
+    
+    private static class ChunkMappings
+    {
+        /**
+         * CUIs and codes of the SNOMED-CT and MeSH rows
+         */
+        
+        private final ArrayList<String> m_SnomedCtCuis = new ArrayList<>();
+        private final ArrayList<String> m_SnomedCtCodes = new ArrayList<>();
+        private final ArrayList<String> m_MeSHCuis = new ArrayList<>();
+        private final ArrayList<String> m_MeSHIds = new ArrayList<>();
+        
+        /**
+         * First byte of the columns of the current row
+         */
+        
+        private final int[] m_ColumnStarts = new int[CODE_COLUMN + 2];
+    }
+    
+    /**
+     * MRCONSO.RRF file
+     */
+    
+    private final String    m_strFilename;
+    
+    /**
+     * Selected source vocabularies
+     */
+    
+    private final boolean   m_ReadSnomedCt;
+    private final boolean   m_ReadMeSH;
+    
+    /**
+     * Mappings read from the file, or null if the file has not been read
+     */
+    
+    private String[][]  m_SnomedCtMappings;
+    private String[][]  m_MeSHMappings;
+    
+    /**
+     * Constructor
+     * @param strFilename
+     * @param readSnomedCt
+     * @param readMeSH 
+     */
+    
+    MrconsoReader(
+            String  strFilename,
+            boolean readSnomedCt,
+            boolean readMeSH) throws Exception
+    {
+        // We chechk the existence of the file
+        
+        if (!new File(strFilename).exists())
+        {
+            String strError = "This file doesn´t exist -> " + strFilename;
+            throw (new Exception(strError));
+        }
+        
+        // We save the reading options
+        
+        m_strFilename = strFilename;
+        m_ReadSnomedCt = readSnomedCt;
+        m_ReadMeSH = readMeSH;
+        m_SnomedCtMappings = null;
+        m_MeSHMappings = null;
+    }
+    
+    /**
+     * This function returns the mappings from UMLS CUIs to SNOMED-CT codes
+     * @return
+     * @throws Exception 
+     */
+    
+    @Override
+    public synchronized String[][] getSnomedCtMappings() throws Exception
+    {
+        // We check that the source vocabulary was selected
+        
+        if (!m_ReadSnomedCt)
+        {
+            String strError = "The SNOMED-CT mappings were not selected in the MRCONSO reader";
+            throw (new Exception(strError));
+        }
+        
+        // We read the file if it was not read yet
+        
+        if (m_SnomedCtMappings == null) readMappings();
+        
+        // We return the result
+        
+        return (m_SnomedCtMappings);
+    }
+    
+    /**
+     * This function returns the mappings from UMLS CUIs to MeSH descriptors
+     * @return
+     * @throws Exception 
+     */
+    
+    @Override
+    public synchronized String[][] getMeSHMappings() throws Exception
+    {
+        // We check that the source vocabulary was selected
+        
+        if (!m_ReadMeSH)
+        {
+            String strError = "The MeSH mappings were not selected in the MRCONSO reader";
+            throw (new Exception(strError));
+        }
+        
+        // We read the file if it was not read yet
+        
+        if (m_MeSHMappings == null) readMappings();
+        
+        // We return the result
+        
+        return (m_MeSHMappings);
+    }
+    
+    /**
+     * This function releases the mappings read from the file
+     */
+    
+    @Override
+    public synchronized void clear()
+    {
+        m_SnomedCtMappings = null;
+        m_MeSHMappings = null;
+    }
+    
+    /**
+     * This function reads the mappings of all the selected source
+     * vocabularies in a single pass over the file.
+     * @throws IOException 
+     */
+    
+    private void readMappings() throws IOException
+    {
+        System.out.println("Loading " + m_strFilename);
+        
+        // We scan the file in parallel
+        
+        ArrayList<ChunkMappings> chunks = ParallelTextFileReader.parseFile(
+                m_strFilename, ChunkMappings::new, this::parseLine);
+        
+        // We merge the mappings of the chunks in file order
+        
+        ArrayList<String> snomedCtCuis = new ArrayList<>();
+        ArrayList<String> snomedCtCodes = new ArrayList<>();
+        ArrayList<String> meshCuis = new ArrayList<>();
+        ArrayList<String> meshIds = new ArrayList<>();
+        
+        for (ChunkMappings chunk: chunks)
+        {
+            snomedCtCuis.addAll(chunk.m_SnomedCtCuis);
+            snomedCtCodes.addAll(chunk.m_SnomedCtCodes);
+            meshCuis.addAll(chunk.m_MeSHCuis);
+            meshIds.addAll(chunk.m_MeSHIds);
+        }
+        
+        // We save the mappings
+        
+        m_SnomedCtMappings = new String[][] {
+                                snomedCtCuis.toArray(new String[snomedCtCuis.size()]),
+                                snomedCtCodes.toArray(new String[snomedCtCodes.size()])};
+        
+        m_MeSHMappings = new String[][] {
+                                meshCuis.toArray(new String[meshCuis.size()]),
+                                meshIds.toArray(new String[meshIds.size()])};
+    }
+    
+    /**
+     * This function parses a row of the file. The columns are scanned
+     * up to the source vocabulary, and the row is only decoded when it
+     * belongs to a selected source vocabulary.
+     * @param chunk
+     * @param buffer
+     * @param start
+     * @param end 
+     */
+    
+    private void parseLine(
+            ChunkMappings   chunk,
+            byte[]          buffer,
+            int             start,
+            int             end)
+    {
+        // We look for the columns up to the source vocabulary
+        
+        int[] columnStarts = chunk.m_ColumnStarts;
+        
+        int column = scanColumns(buffer, start, end, columnStarts, 0, SAB_COLUMN + 1);
+        
+        if (column == SAB_COLUMN + 1)
+        {
+            // We compare the source vocabulary
+            
+            int sabStart = columnStarts[SAB_COLUMN];
+            int sabEnd = columnStarts[SAB_COLUMN + 1] - 1;
+            
+            if (m_ReadSnomedCt && equals(buffer, sabStart, sabEnd, SNOMEDCT_SAB))
+            {
+                // We look for the end of the concept code
+                
+                if (scanColumns(buffer, sabEnd + 1, end, columnStarts, column, CODE_COLUMN + 1) == CODE_COLUMN + 1)
+                {
+                    chunk.m_SnomedCtCuis.add(getColumn(buffer, columnStarts, CUI_COLUMN));
+                    chunk.m_SnomedCtCodes.add(getColumn(buffer, columnStarts, CODE_COLUMN));
+                }
+            }
+            else if (m_ReadMeSH && equals(buffer, sabStart, sabEnd, MESH_SAB))
+            {
+                chunk.m_MeSHCuis.add(getColumn(buffer, columnStarts, CUI_COLUMN));
+                chunk.m_MeSHIds.add(getColumn(buffer, columnStarts, SDUI_COLUMN));
+            }
+        }
+    }
+    
+    /**
+     * This function looks for the starts of the columns following the
+     * current one up to the last column.
+     * @param buffer
+     * @param position First byte to be scanned
+     * @param end End of the row
+     * @param columnStarts Starts of the columns
+     * @param column Current column
+     * @param lastColumn Last column to be found
+     * @return The last column found
+     */
+    
+    private static int scanColumns(
+            byte[]  buffer,
+            int     position,
+            int     end,
+            int[]   columnStarts,
+            int     column,
+            int     lastColumn)
+    {
+        // We set the start of the first column
+        
+        if (column == 0) columnStarts[0] = position;
+        
+        // We look for the separators
+        
+        for (int i = position; (i < end) && (column < lastColumn); i++)
+        {
+            if (buffer[i] == '|') columnStarts[++column] = i + 1;
+        }
+        
+        // We return the result
+        
+        return (column);
+    }
+    
+    /**
+     * This function decodes a column whose separator has been found.
+     * @param buffer
+     * @param columnStarts
+     * @param column
+     * @return 
+     */
+    
+    private static String getColumn(
+            byte[]  buffer,
+            int[]   columnStarts,
+            int     column)
+    {
+        return (ParallelTextFileReader.getString(buffer, columnStarts[column],
+                columnStarts[column + 1] - 1));
+    }
+    
+    /**
+     * This function checks if the byte range is equal to the input value.
+     * @param buffer
+     * @param start
+     * @param end
+     * @param value
+     * @return 
+     */
+    
+    private static boolean equals(
+            byte[]  buffer,
+            int     start,
+            int     end,
+            byte[]  value)
+    {
+        // We compare the lengths
+        
+        boolean equal = (end - start == value.length);
+        
+        // We compare the bytes
+        
+        for (int i = 0; equal && (i < value.length); i++)
+        {
+            equal = (buffer[start + i] == value[i]);
+        }
+        
+        // We return the result
+        
+        return (equal);
+    }
+}
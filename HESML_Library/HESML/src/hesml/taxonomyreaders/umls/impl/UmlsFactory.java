@@ -0,0 +1,50 @@
+/*
+ * Copyright (C) 2016-2022 Universidad Nacional de Educación a Distancia (UNED)
+ *
+ * This program is free software for non-commercial use:
+ * you can redistribute it and/or modify it under the terms of the
+ * Creative Commons Attribution-NonCommercial-ShareAlike 4.0 International
+ * (CC BY-NC-SA 4.0) as published by the Creative Commons Corporation,
+ * either version 4 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * section 5 of the CC BY-NC-SA 4.0 License for more details.
+ *
+ * You should have received a copy of the Creative Commons
+ * Attribution-NonCommercial-ShareAlike 4.0 International (CC BY-NC-SA 4.0) 
+ * license along with this program. If not,
+ * see <http://creativecommons.org/licenses/by-nc-sa/4.0/>.
+ *
+ */
+
+package hesml.taxonomyreaders.umls.impl;
+
+import hesml.taxonomyreaders.umls.IMrconsoReader;
+
+/**
+ * This class creates the readers of the UMLS files
+ * @author j.lastra
+ */
+
+public class UmlsFactory
+{
+    /**
+     * This function creates a reader of the MRCONSO.RRF file which extracts
+     * the CUI mappings of the selected source vocabularies in a single pass.
+     * @param strMrconsoFilename UMLS MRCONSO.RRF file
+     * @param readSnomedCt Extract the SNOMED-CT (SNOMEDCT_US) mappings
+     * @param readMeSH Extract the MeSH (MSH) mappings
+     * @return The MRCONSO reader
+     * @throws java.lang.Exception Unexpected error
+     */
+    
+    public static IMrconsoReader createMrconsoReader(
+            String  strMrconsoFilename,
+            boolean readSnomedCt,
+            boolean readMeSH) throws Exception
+    {
+        return (new MrconsoReader(strMrconsoFilename, readSnomedCt, readMeSH));
+    }
+}
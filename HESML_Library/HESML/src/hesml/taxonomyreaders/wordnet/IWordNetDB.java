@@ -81,6 +81,17 @@ public interface IWordNetDB extends Iterable<IWordNetSynset>
     Long[] getWordSynsetsID(
         String  strWord) throws Exception;
     
+    /**
+     * This function returns a vector with the primitive synset ID values
+     * of the concepts evoked by the input word.
+     * @param strWord Input word
+     * @return A sequence of synset ID evoked by the input word
+     * @throws Exception Unexpected error
+     */
+    
+    long[] getWordSynsetIdArray(
+        String  strWord) throws Exception;
+    
     /**
      * This function returns the maximum number of Synset for a word
      * in WordNet.
@@ -66,7 +66,8 @@ public interface IWordNetSynset
 
     /**
      * This function returns the gloss for the current synset if
-     * it was loaded during the WordNet reading.
+     * it was loaded during the WordNet reading, which is read on
+     * demand from the WordNet file.
      * @return The gloss associated to the synset.
      */
     
@@ -23,10 +23,12 @@ package hesml.taxonomyreaders.wordnet.impl;
 
 import hesml.taxonomyreaders.wordnet.IWordNetDB;
 import hesml.taxonomyreaders.wordnet.IWordNetSynset;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.HashMap;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Iterator;
-import java.util.LinkedList;
 
 /**
  * This class implements a WordNet DB which is defined as a collection of
@@ -62,12 +64,26 @@ class WordNetDB implements IWordNetDB
     
     private String  m_strDBVersion;
     
+    /**
+     * Memory-mapped WordNet file which is used to read the glosses on demand,
+     * or null whether the glosses are not loaded
+     */
+    
+    private ByteBuffer  m_DataFile;
+    
     /**
      * Constructor
+     * @param dataFile Memory-mapped WordNet file, or null whether the
+     * glosses are not loaded
      */
     
-    public WordNetDB()
+    public WordNetDB(
+            ByteBuffer  dataFile)
     {
+        // We save the WordNet file
+        
+        m_DataFile = dataFile;
+        
         // We create the mapping table in blank
         
         m_IndexedSynsets = new HashMap<>(120000);
@@ -148,66 +164,215 @@ class WordNetDB implements IWordNetDB
         return (m_IndexedSynsets.get(synsetID));
     }
     
+    /**
+     * This function returns the gloss starting at the input position of
+     * the WordNet file, which is read until the end of the line.
+     * @param glossOffset Position of the gloss or -1 if there is no gloss
+     * @return The gloss, or an empty string whether the glosses are not loaded
+     */
+    
+    String getGloss(
+            int glossOffset)
+    {
+        // We initialize the output
+        
+        String strGloss = "";
+        
+        // We read the gloss from the WordNet file
+        
+        ByteBuffer dataFile = m_DataFile;
+        
+        if ((dataFile != null) && (glossOffset >= 0))
+        {
+            // We get the end of the gloss without the trailing blanks
+            
+            int glossEnd = glossOffset;
+            
+            while ((glossEnd < dataFile.limit()) && (dataFile.get(glossEnd) != '\n'))
+            {
+                glossEnd++;
+            }
+            
+            while ((glossEnd > glossOffset) && (dataFile.get(glossEnd - 1) <= ' '))
+            {
+                glossEnd--;
+            }
+            
+            // We decode the gloss
+            
+            byte[] glossBytes = new byte[glossEnd - glossOffset];
+            
+            for (int i = 0; i < glossBytes.length; i++)
+            {
+                glossBytes[i] = dataFile.get(glossOffset + i);
+            }
+            
+            strGloss = new String(glossBytes, StandardCharsets.UTF_8);
+        }
+        
+        // We return the result
+        
+        return (strGloss);
+    }
+    
     /**
      * This function builds a total ordering for the synset collection
      * regardless their original insertion order. The synsets define
      * a partially ordered set (poset), being the taxonomy of WordNet.
      * We recover the poset structure by building the total ordering,
      * which is achieved if each synset is subsequent to all its
-     * parent synsets.
-     * @throws java.lang.InterruptedException Unexpected error
+     * parent synsets. The ordering is the same one obtained by traversing
+     * the synsets in rounds, where every synset is inserted once all its
+     * parents were inserted. Thus, we compute the round of every synset
+     * in topological order and sort the synsets by round and position.
+     * @throws java.lang.Exception Unexpected error
      */    
 
-    void sortSynsets() throws InterruptedException
+    void sortSynsets() throws Exception
     {
-        // We cretae the pending queue
+        int synsetCount = m_Synsets.size();
+        
+        // We sort the synset IDs in order to get the position of the parents
         
-        LinkedList<IWordNetSynset> pending = new LinkedList<>();
+        long[] sortedIds = new long[synsetCount];
         
-        for (IWordNetSynset synset: m_Synsets)
+        for (int i = 0; i < synsetCount; i++)
         {
-            synset.setVisited(false);
-            pending.add(synset);
+            sortedIds[i] = m_Synsets.get(i).getID();
         }
         
-        // We clear the synset
+        Arrays.sort(sortedIds);
         
-        m_Synsets.clear();
+        int[] positions = new int[synsetCount];
+        
+        for (int i = 0; i < synsetCount; i++)
+        {
+            positions[Arrays.binarySearch(sortedIds, m_Synsets.get(i).getID())] = i;
+        }
         
-        // We process the pending nodes
+        // We get the positions of the parents and count the children
         
-        while (!pending.isEmpty())
+        int[] parentStarts = new int[synsetCount + 1];
+        int[] childStarts = new int[synsetCount + 1];
+        
+        for (int i = 0; i < synsetCount; i++)
         {
-            // We get the next synset to load
-            
-            IWordNetSynset pendingSynset = pending.remove();
-            
-            // We check if all its parents have been visited
-            
-            boolean allParentsVisited = true;
+            parentStarts[i + 1] = parentStarts[i]
+                    + ((WordNetSynset) m_Synsets.get(i)).getParentSynsetIds().length;
+        }
+        
+        int[] parents = new int[parentStarts[synsetCount]];
+        
+        for (int i = 0; i < synsetCount; i++)
+        {
+            long[] parentsId = ((WordNetSynset) m_Synsets.get(i)).getParentSynsetIds();
             
-            for (Long parentId: pendingSynset.getParentsId())
+            for (int j = 0; j < parentsId.length; j++)
             {
-                if (!m_IndexedSynsets.get(parentId).getVisited())
+                int sortedPosition = Arrays.binarySearch(sortedIds, parentsId[j]);
+                
+                if (sortedPosition < 0)
                 {
-                    allParentsVisited = false;
-                    break;
+                    String strError = "The parent synset " + parentsId[j]
+                            + " of the synset " + m_Synsets.get(i).getID() + " is not found";
+                    throw (new Exception(strError));
                 }
+                
+                parents[parentStarts[i] + j] = positions[sortedPosition];
+                childStarts[positions[sortedPosition] + 1]++;
             }
+        }
+        
+        // We create the children lists
+        
+        for (int i = 0; i < synsetCount; i++)
+        {
+            childStarts[i + 1] += childStarts[i];
+        }
+        
+        int[] children = new int[childStarts[synsetCount]];
+        int[] childPositions = Arrays.copyOf(childStarts, synsetCount);
+        
+        for (int i = 0; i < synsetCount; i++)
+        {
+            for (int j = parentStarts[i]; j < parentStarts[i + 1]; j++)
+            {
+                children[childPositions[parents[j]]++] = i;
+            }
+        }
+        
+        // We compute the round of every synset in topological order. A synset
+        // is inserted in the round after the last one of its parents, unless
+        // all the parents in this round precede it.
+        
+        int[] pendingParents = new int[synsetCount];
+        int[] sortedIndexes = new int[synsetCount];
+        int[] rounds = new int[synsetCount];
+        
+        int sortedCount = 0;
+        int roundCount = 0;
+        
+        for (int i = 0; i < synsetCount; i++)
+        {
+            pendingParents[i] = parentStarts[i + 1] - parentStarts[i];
             
-            // We put the current synset in the list (totally order) or we
-            // enqueue it again when any parent has not been visited yet.
+            if (pendingParents[i] == 0) sortedIndexes[sortedCount++] = i;
+        }
+        
+        for (int head = 0; head < sortedCount; head++)
+        {
+            int synset = sortedIndexes[head];
             
-            if (allParentsVisited)
+            for (int j = parentStarts[synset]; j < parentStarts[synset + 1]; j++)
             {
-                pendingSynset.setVisited(true);
-                m_Synsets.add(pendingSynset);
+                rounds[synset] = Math.max(rounds[synset],
+                        rounds[parents[j]] + ((parents[j] > synset) ? 1 : 0));
             }
-            else
+            
+            roundCount = Math.max(roundCount, rounds[synset] + 1);
+            
+            for (int j = childStarts[synset]; j < childStarts[synset + 1]; j++)
             {
-                pending.add(pendingSynset);
+                if (--pendingParents[children[j]] == 0)
+                {
+                    sortedIndexes[sortedCount++] = children[j];
+                }
             }
         }
+        
+        // We check that all synsets have been sorted
+        
+        if (sortedCount < synsetCount)
+        {
+            String strError = "The WordNet taxonomy contains a cycle";
+            throw (new Exception(strError));
+        }
+        
+        // We sort the synsets by round and position
+        
+        int[] roundStarts = new int[roundCount + 1];
+        
+        for (int i = 0; i < synsetCount; i++)
+        {
+            roundStarts[rounds[i] + 1]++;
+        }
+        
+        for (int i = 0; i < roundCount; i++)
+        {
+            roundStarts[i + 1] += roundStarts[i];
+        }
+        
+        IWordNetSynset[] sortedSynsets = new IWordNetSynset[synsetCount];
+        
+        for (int i = 0; i < synsetCount; i++)
+        {
+            sortedSynsets[roundStarts[rounds[i]]++] = m_Synsets.get(i);
+        }
+        
+        // We replace the synset collection
+        
+        m_Synsets.clear();
+        m_Synsets.addAll(Arrays.asList(sortedSynsets));
     }
     
     /**
@@ -291,6 +456,10 @@ class WordNetDB implements IWordNetDB
         
         m_IndexedSynsets.clear();
         m_Synsets.clear();
+        
+        // We release the WordNet file
+        
+        m_DataFile = null;
     }
 
     /**
@@ -450,4 +619,44 @@ class WordNetDB implements IWordNetDB
         
         return (synsets);
     }
+    
+    /**
+     * This function returns a vector with the primitive synset ID values
+     * of the concepts evoked by the input word.
+     * @param strWord Input word
+     * @return A sequence of synset ID evoked by the input word
+     * @throws Exception Unexpected error
+     */
+    
+    @Override
+    public long[] getWordSynsetIdArray(String strWord) throws Exception
+    {
+        long[] synsets;    // Returned value
+        
+        // We check that the input word is contained in WordNet
+        
+        if (contains(strWord))
+        {
+            // We get the synsets for the word
+            
+            ArrayList<IWordNetSynset> wordSynsets = m_IndexedByWord.get(getNormalizedWord(strWord));
+            
+            // We copy the synset ID values
+            
+            synsets = new long[wordSynsets.size()];
+            
+            for (int i = 0; i < synsets.length; i++)
+            {
+                synsets[i] = wordSynsets.get(i).getID();
+            }
+        }
+        else
+        {
+            synsets = new long[0];
+        }
+        
+        // We return the result
+        
+        return (synsets);
+    }
 }
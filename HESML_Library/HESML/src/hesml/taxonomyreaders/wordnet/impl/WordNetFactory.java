@@ -65,7 +65,9 @@ public class WordNetFactory
      * This function loads a WordNet database and reads the glosses
      * @param strWordnetDir Directory for the WordNet database files
      * @param strWordNetDBFileName  Database filename
-     * @param loadGloss Indicates if the gloss will be loaded
+     * @param loadGloss Indicates if the gloss will be loaded. The glosses
+     * are read on demand from the WordNet file, which is memory-mapped
+     * until the database is cleared.
      * @return The loaded WordnNetDB
      * @throws java.lang.Exception Unexpected error
      */
@@ -91,16 +93,7 @@ public class WordNetFactory
     {
         // We create the graph
         
-        ITaxonomy taxonomy = hesml.taxonomy.impl.TaxonomyFactory.createBlankTaxonomy(
-                    wordnet.getSynsetCount());
-        
-        // We create a vertex into the taxonomy for each synset.
-        // Each vertex shares the same ID that its parent synset.
-        
-        for (IWordNetSynset synset: wordnet)
-        {
-            taxonomy.addVertex(synset.getID(), synset.getParentsId());
-        }
+        ITaxonomy taxonomy = createTaxonomy(wordnet);
         
         // We return the result
         
@@ -121,16 +114,7 @@ public class WordNetFactory
     {
         // We create the graph
         
-        ITaxonomy taxonomy = hesml.taxonomy.impl.TaxonomyFactory.createBlankTaxonomy(
-                    wordnet.getSynsetCount());
-        
-        // We create a vertex into the taxonomy for each synset.
-        // Each vertex shares the same ID that its parent synset.
-        
-        for (IWordNetSynset synset: wordnet)
-        {
-            taxonomy.addVertex(synset.getID(), synset.getParentsId());
-        }
+        ITaxonomy taxonomy = createTaxonomy(wordnet);
         
         // We pre-process the taxonomy to compute the cached attributes
         
@@ -141,4 +125,49 @@ public class WordNetFactory
         
         return (taxonomy);
     }
+    
+    /**
+     * This function creates a vertex into the taxonomy for each synset
+     * in a single pass. Each vertex shares the same ID that its parent
+     * synset, and the synsets are sorted with their parents first.
+     * @param wordnet WordNet database
+     * @return The taxonomy representing the WordNet database
+     * @throws Exception 
+     */
+    
+    private static ITaxonomy createTaxonomy(
+            IWordNetDB  wordnet) throws Exception
+    {
+        // We create the table of vertexes and parents
+        
+        long[] vertexIds = new long[wordnet.getSynsetCount()];
+        int[] parentStarts = new int[vertexIds.length + 1];
+        
+        Long[][] parentsBySynset = new Long[vertexIds.length][];
+        
+        int i = 0;
+        
+        for (IWordNetSynset synset: wordnet)
+        {
+            vertexIds[i] = synset.getID();
+            parentsBySynset[i] = synset.getParentsId();
+            parentStarts[i + 1] = parentStarts[i] + parentsBySynset[i].length;
+            i++;
+        }
+        
+        long[] parentIds = new long[parentStarts[vertexIds.length]];
+        
+        for (i = 0; i < vertexIds.length; i++)
+        {
+            for (int j = 0; j < parentsBySynset[i].length; j++)
+            {
+                parentIds[parentStarts[i] + j] = parentsBySynset[i][j];
+            }
+        }
+        
+        // We create the taxonomy
+        
+        return (hesml.taxonomy.impl.TaxonomyFactory.createTaxonomy(
+                    vertexIds, parentStarts, parentIds));
+    }
 }
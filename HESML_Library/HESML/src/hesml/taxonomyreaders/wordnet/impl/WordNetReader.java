@@ -22,16 +22,26 @@
 package hesml.taxonomyreaders.wordnet.impl;
 
 import java.io.File;
-import java.util.ArrayList;
-import java.util.Scanner;
-import java.util.StringTokenizer;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.HashMap;
 import hesml.taxonomy.*;
 import hesml.taxonomyreaders.wordnet.IWordNetDB;
 import hesml.taxonomyreaders.wordnet.IWordNetSynset;
-import java.util.List;
 
 /**
- * This class loads a WordNet database and creates its taxonomy
+ * This class loads a WordNet database and creates its taxonomy.
+ * Every synset line of the WordNet data file is parsed with byte offset
+ * arithmetic. The words are interned in order to share the same string
+ * among all the synsets evoked by any word, and the glosses are not
+ * decoded during the reading. Whether the glosses are loaded, the data
+ * file is memory-mapped and kept by the WordNetDB object, which reads
+ * the glosses on demand. Otherwise, the file is read into a transient
+ * buffer, thus no mapping keeps the file open, and the glosses are empty.
  * @author Juan Lastra-Díaz
  */
 
@@ -41,6 +51,8 @@ class WordNetReader
      * This function drives the WordNet loading process.
      * @param strWordnetDir: Directory containing the WordNet database file
      * @param strWordNetDBFileName: Full name of the WordNet database file.
+     * @param loadGloss This flag indicates if the glosses will be read
+     * on demand from the memory-mapped WordNet file.
      * @throws Exception Unexpected error
      */
     
@@ -49,71 +61,14 @@ class WordNetReader
             String  strWordNetDBFileName,
             boolean loadGloss) throws Exception
     {
-        String  strEntityLine = "";  // Line with entity information
-        
-        // We create the wordnet file
-        
-        File wordnetFile = new File(strWordnetDir + "/" + strWordNetDBFileName);
-        
-        // We chechk the existence of the path
-        
-        if (!wordnetFile.exists())
-        {
-            String strError = "The file doesn´t exist";
-            throw (new Exception(strError));
-        }
-        
-        // We cretae the database
-        
-        WordNetDB wordnet = new WordNetDB();
-               
-        // We open the file for reading
-        
-        Scanner reader = new Scanner(wordnetFile);
-        System.out.println("Loading " + wordnetFile);
-                
-        // We read the entioty lines
-        
-        do
-        {
-            // We skip the header block
-
-            if (strEntityLine.isEmpty())
-            {
-                strEntityLine = skipWordnetHeader(reader);
-            }
-            else
-            {
-                strEntityLine = reader.nextLine();
-            }
-
-            // Get the next entity in the file
-            
-            WordNetSynset synset = readEntity(wordnet, strEntityLine, loadGloss);
-                       
-            // We insert the novel entity in the database
-            
-            wordnet.addSynset(synset);
-            
-        } while (reader.hasNextLine());
-        
-        // We close the database
-        
-        reader.close();
-
-        // We sort the synsets for the creation of the graph
-        
-        wordnet.sortSynsets();
-        
-        // We return the result
-        
-        return (wordnet);
+        return (loadDatabase(strWordnetDir + "/" + strWordNetDBFileName, loadGloss));
     }
    
     /**
      * This function drives the WordNet loading process.
      * @param strWordNetDBFullpath: Full name of the WordNet database file.
-     * @param loadGloss This flag indicates if the gloss of the concepts will be loaded.
+     * @param loadGloss This flag indicates if the glosses will be read
+     * on demand from the memory-mapped WordNet file.
      * @throws Exception 
      */
     
@@ -121,8 +76,6 @@ class WordNetReader
             String  strWordNetDBFullpath,
             boolean loadGloss) throws Exception
     {
-        String  strEntityLine = "";  // Line with entity information
-        
         // We create the wordnet file
         
         File wordnetFile = new File(strWordNetDBFullpath);
@@ -131,48 +84,76 @@ class WordNetReader
         
         if (!wordnetFile.exists())
         {
-            String strError = "The WordNet database file doesn´t exist";
+            String strError = "The WordNet database file doesn´t exist -> " + strWordNetDBFullpath;
             throw (new Exception(strError));
         }
         
-        // We create the database
+        // We map the whole file in memory whether the glosses are loaded,
+        // otherwise the file is read into a buffer which is released
+        // once the synsets are read
         
-        WordNetDB wordnet = new WordNetDB();
-               
-        // We open the file for reading
+        ByteBuffer dataFile;
         
-        Scanner reader = new Scanner(wordnetFile);
-        System.out.println("Loading " + wordnetFile);
-                
-        // We read the entioty lines
-        
-        do
+        if (loadGloss)
         {
-            // We skip the header block
-
-            if (strEntityLine.isEmpty())
+            try (RandomAccessFile file = new RandomAccessFile(wordnetFile, "r"))
             {
-                strEntityLine = skipWordnetHeader(reader);
+                dataFile = file.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, file.length());
             }
-            else
+        }
+        else
+        {
+            dataFile = ByteBuffer.wrap(Files.readAllBytes(wordnetFile.toPath()));
+        }
+        
+        System.out.println("Loading " + wordnetFile);
+        
+        // We create the database, which only keeps the mapped file
+        // whether the glosses are loaded
+        
+        WordNetDB wordnet = new WordNetDB(loadGloss ? dataFile : null);
+        
+        // We create the pool of interned words
+        
+        HashMap<String, String> internedWords = new HashMap<>(200000);
+        
+        // We read the entity lines
+        
+        int fileLength = dataFile.limit();
+        
+        for (int lineStart = 0; lineStart < fileLength; )
+        {
+            // We get the end of the line
+            
+            int lineEnd = lineStart;
+            
+            while ((lineEnd < fileLength) && (dataFile.get(lineEnd) != '\n'))
             {
-                strEntityLine = reader.nextLine();
+                lineEnd++;
             }
-
-            // Get the next entity in the file
             
-            WordNetSynset synset = readEntity(wordnet, strEntityLine, loadGloss);
-                       
-            // We insert the novel entity in the database
+            // We skip the blank lines and the header block, whose
+            // lines start with blank spaces
             
-            wordnet.addSynset(synset);
+            if ((lineEnd > lineStart) && (getTokenEnd(dataFile, lineStart, lineEnd) > lineStart))
+            {
+                // Get the next entity in the file
+                
+                WordNetSynset synset = readEntity(wordnet, dataFile,
+                                        lineStart, lineEnd, internedWords);
+                
+                // We insert the novel entity in the database
+                
+                wordnet.addSynset(synset);
+            }
             
-        } while (reader.hasNextLine());
+            lineStart = lineEnd + 1;
+        }
         
-        // We close the database
+        // We release the pool of words
+        
+        internedWords.clear();
         
-        reader.close();
-
         // We sort the synsets for the creation of the graph
         
         wordnet.sortSynsets();
@@ -226,131 +207,127 @@ class WordNetReader
             }
         }
     }
-            
-    /**
-     * This function reads the header block of the WordNet file.
-     * @param reader 
-     */
-    
-    private static String skipWordnetHeader(
-            Scanner reader)
-    {
-        String  strLine = "";    // Readed line
-        
-        StringTokenizer tokenizer;  // Tokenizer
-        
-        // We go forward until we find an entity line starting with a
-        // 8-digit integer identifier
-        
-        while (reader.hasNextLine())
-        {
-            // We get the next line
-            
-            strLine = reader.nextLine();
-            
-            // We segmentate the line
-            
-            tokenizer = new StringTokenizer(strLine);
-            
-            if (tokenizer.nextToken().length() == 8)
-            {
-                break;
-            }
-        }
-        
-        // We return the result
-        
-        return (strLine);
-    }
     
     /**
      * This function reads one line with the Entity information
-     * and creates one synset for it.
+     * and creates one synset for it. The line is defined by the
+     * format below, where w_cnt is an hexadecimal number:
+     * synset_offset lex_filenum ss_type w_cnt word lex_id [word lex_id...]
+     * p_cnt [ptr...] [frames...] | gloss
+     * @param wordnet Owner database
+     * @param dataFile Mapped WordNet file
+     * @param lineStart First byte of the line
+     * @param lineEnd Position of the line end
+     * @param internedWords Pool of words
+     * @return The new synset
      */
     
     private static WordNetSynset readEntity(
-        WordNetDB   wordnet,
-        String      strEntityLine,
-        boolean     loadGloss)
+        WordNetDB               wordnet,
+        ByteBuffer              dataFile,
+        int                     lineStart,
+        int                     lineEnd,
+        HashMap<String, String> internedWords) throws Exception
     {
-        StringTokenizer tokenizer;  // Tokenizer to get the fields
-            
-        String strGloss = "";  // Gloss describing the synset
-        
-        ArrayList<String>   strTokens;      // List of tokens
-        ArrayList<Long>     parentsIdtemp;  // Id of the parents
+        // We get the synset ID
         
-        int iWord, iToken;  // Counters
+        int tokenEnd = getTokenEnd(dataFile, lineStart, lineEnd);
         
-        // We parse the entity line with the tokenizer
+        long synsetId = parseNumber(dataFile, lineStart, tokenEnd, 10);
         
-        tokenizer = new StringTokenizer(strEntityLine);
+        // We skip the lexicographer file number and get the POS tag
         
-        // We create the temporary list of tokems
+        int tokenStart = getNextToken(dataFile, tokenEnd, lineEnd);
         
-        strTokens = new ArrayList<>();
+        tokenStart = getNextToken(dataFile, getTokenEnd(dataFile, tokenStart, lineEnd), lineEnd);
+        tokenEnd = getTokenEnd(dataFile, tokenStart, lineEnd);
         
-        // Now we parse and store the tokens
-        
-        while (tokenizer.hasMoreTokens())
+        if (tokenEnd == tokenStart)
         {
-            strTokens.add(tokenizer.nextToken());
+            String strError = "Wrong WordNet entity line -> " + synsetId;
+            throw (new Exception(strError));
         }
         
-        // Obtengo el id sel synset
-        
-        Long synsetId = Long.parseUnsignedLong(strTokens.get(0));
+        char partofSpeech = (char) dataFile.get(tokenStart);
         
         // We get the number of words associated to this synset
         
-        Integer wordCount = Integer.parseUnsignedInt(strTokens.get(3), 16);
-        
-        // We create the vector of words for the synset
+        tokenStart = getNextToken(dataFile, tokenEnd, lineEnd);
+        tokenEnd = getTokenEnd(dataFile, tokenStart, lineEnd);
         
-        String[] strWords = new String[wordCount];
+        String[] strWords = new String[(int) parseNumber(dataFile, tokenStart, tokenEnd, 16)];
         
-        // We read the words for the synset
+        // We read the words for the synset, whose underlines
+        // are substituted by blank spaces, and skip the lex_id fields
         
-        for (iWord = 0, iToken = 4; iWord < wordCount; iWord++, iToken += 2)
+        for (int iWord = 0; iWord < strWords.length; iWord++)
         {
-            strWords[iWord] = strTokens.get(iToken);
+            tokenStart = getNextToken(dataFile, tokenEnd, lineEnd);
+            tokenEnd = getTokenEnd(dataFile, tokenStart, lineEnd);
+            
+            byte[] wordBytes = new byte[tokenEnd - tokenStart];
+            
+            for (int i = 0; i < wordBytes.length; i++)
+            {
+                byte character = dataFile.get(tokenStart + i);
+                wordBytes[i] = (character == '_') ? (byte) ' ' : character;
+            }
+            
+            String strWord = new String(wordBytes, StandardCharsets.UTF_8);
+            String strInternedWord = internedWords.putIfAbsent(strWord, strWord);
+            
+            strWords[iWord] = (strInternedWord != null) ? strInternedWord : strWord;
+            
+            tokenEnd = getTokenEnd(dataFile, getNextToken(dataFile, tokenEnd, lineEnd), lineEnd);
         }
         
-        // We get the number of parents for the synset
+        // We get the number of pointers for the synset
+        
+        tokenStart = getNextToken(dataFile, tokenEnd, lineEnd);
+        tokenEnd = getTokenEnd(dataFile, tokenStart, lineEnd);
+        
+        int pointerCount = (int) parseNumber(dataFile, tokenStart, tokenEnd, 10);
         
-        for (iToken++, parentsIdtemp = new ArrayList<>();
-                iToken < strTokens.size();
-                iToken += 2)
+        // We get the parents from the hypernym pointers (@ and @i),
+        // which are defined by the fields: pointer_symbol offset pos source/target
+        
+        long[] parentsId = new long[pointerCount];
+        int parentCount = 0;
+        
+        for (int iPointer = 0; iPointer < pointerCount; iPointer++)
         {
-            if (strTokens.get(iToken).startsWith("@"))
+            tokenStart = getNextToken(dataFile, tokenEnd, lineEnd);
+            tokenEnd = getTokenEnd(dataFile, tokenStart, lineEnd);
+            
+            boolean isHypernym = (tokenEnd > tokenStart) && (dataFile.get(tokenStart) == '@');
+            
+            tokenStart = getNextToken(dataFile, tokenEnd, lineEnd);
+            tokenEnd = getTokenEnd(dataFile, tokenStart, lineEnd);
+            
+            if (isHypernym)
             {
-                parentsIdtemp.add(Long.parseUnsignedLong(strTokens.get(iToken + 1)));
+                parentsId[parentCount++] = parseNumber(dataFile, tokenStart, tokenEnd, 10);
             }
+            
+            tokenEnd = getTokenEnd(dataFile, getNextToken(dataFile, tokenEnd, lineEnd), lineEnd);
+            tokenEnd = getTokenEnd(dataFile, getNextToken(dataFile, tokenEnd, lineEnd), lineEnd);
         }
         
-        // We copy the parents Id and clear the temporary list
-        
-        Long[] parentsId = new Long[parentsIdtemp.size()];
+        // We get the position of the gloss, which follows the separator char '|'
         
-        parentsIdtemp.toArray(parentsId);
-
-        // We read the gloss
+        int glossStart = tokenEnd;
         
-        if (loadGloss)
+        while ((glossStart < lineEnd) && (dataFile.get(glossStart) != '|'))
         {
-            strGloss = readGloss(strTokens);
+            glossStart++;
         }
         
+        glossStart = (glossStart < lineEnd) ? getNextToken(dataFile, glossStart + 1, lineEnd) : -1;
+        
         // We create the synset
        
-        WordNetSynset synset = new WordNetSynset(wordnet, synsetId,
-                        strTokens.get(2).charAt(0),
-                        strWords, parentsId, strGloss);
-        
-        // We release the resources
-        
-        parentsIdtemp.clear();
-        strTokens.clear();
+        WordNetSynset synset = new WordNetSynset(wordnet, synsetId, partofSpeech,
+                                strWords, Arrays.copyOf(parentsId, parentCount), glossStart);
         
         // We return the result
         
@@ -358,41 +335,106 @@ class WordNetReader
     }
     
     /**
-     * THis function extracts the gloss associated to the synset.
-     * @param strTokens
-     * @return Synset gloss
+     * This function returns the start of the next token in the line.
+     * @param dataFile
+     * @param position
+     * @param lineEnd
+     * @return 
      */
     
-    private static String readGloss(
-        ArrayList<String>   strTokens)
+    private static int getNextToken(
+            ByteBuffer  dataFile,
+            int         position,
+            int         lineEnd)
     {
-        String  strGloss = "";   // Returned value
+        while ((position < lineEnd) && isWhitespace(dataFile.get(position)))
+        {
+            position++;
+        }
         
-        List<String>   strGlossTokens; // Gloss tokens
+        // We return the result
         
-        int indexOfGlossSep;    // Position of the gloss separator char '|' 
+        return (position);
+    }
+    
+    /**
+     * This function returns the position after the token starting
+     * at the input position.
+     * @param dataFile
+     * @param position
+     * @param lineEnd
+     * @return 
+     */
+    
+    private static int getTokenEnd(
+            ByteBuffer  dataFile,
+            int         position,
+            int         lineEnd)
+    {
+        while ((position < lineEnd) && !isWhitespace(dataFile.get(position)))
+        {
+            position++;
+        }
         
-        // We find the position of the gloss separator
+        // We return the result
         
-        indexOfGlossSep = strTokens.indexOf("|");
+        return (position);
+    }
+    
+    /**
+     * This function checks whether the input byte is a blank character.
+     * @param character
+     * @return 
+     */
+    
+    private static boolean isWhitespace(
+            byte    character)
+    {
+        return ((character == ' ') || (character == '\t') || (character == '\r'));
+    }
+    
+    /**
+     * This function parses the unsigned number contained in the input range.
+     * @param dataFile
+     * @param start
+     * @param end
+     * @param radix
+     * @return 
+     */
+    
+    private static long parseNumber(
+            ByteBuffer  dataFile,
+            int         start,
+            int         end,
+            int         radix) throws Exception
+    {
+        // We check the token
         
-        // We remove all the tokens until the separator
+        if (start == end)
+        {
+            String strError = "Wrong WordNet entity line at the byte " + start;
+            throw (new Exception(strError));
+        }
         
-        strGlossTokens = strTokens.subList(indexOfGlossSep + 1, strTokens.size() - 1);
+        // We parse the digits
         
-        // We copy the gloss tokens
+        long value = 0;
         
-        for (String strToken: strGlossTokens)
+        for (int i = start; i < end; i++)
         {
-            strGloss += (strToken + " ");
+            int digit = Character.digit(dataFile.get(i), radix);
+            
+            if (digit < 0)
+            {
+                String strError = "Wrong WordNet entity line at the byte " + start;
+                throw (new Exception(strError));
+            }
+            
+            value = value * radix + digit;
         }
         
-        // Liberamos la lista de tokens
-        
-        strGlossTokens.clear();
-        
         // We return the result
         
-        return (strGloss);
+        return (value);
     }
 }
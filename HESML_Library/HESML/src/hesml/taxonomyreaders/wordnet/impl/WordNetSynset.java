@@ -24,7 +24,6 @@ package hesml.taxonomyreaders.wordnet.impl;
 import hesml.taxonomyreaders.wordnet.IWordNetSynset;
 import hesml.taxonomyreaders.wordnet.PartOfSpeech;
 import java.util.HashSet;
-import java.util.Objects;
 import java.util.Set;
 
 /**
@@ -44,13 +43,14 @@ class WordNetSynset implements IWordNetSynset
      * Parents of the current synset
      */
     
-    private final Long[]  m_ParentsId;
+    private final long[]  m_ParentsId;
     
     /**
-     * Gloss associated to the Synsets
+     * Position of the gloss associated to the Synset in the WordNet
+     * file, or -1 if the synset has no gloss.
      */
     
-    private final String  m_strGloss;
+    private final int   m_GlossOffset;
     
     /**
      * Synset unique Id
@@ -81,18 +81,18 @@ class WordNetSynset implements IWordNetSynset
      * @param ownerDB
      * @param synsetId
      * @param partofSpeech
-     * @param strWords
+     * @param strWords Words whose underlines are substituted by blank spaces
      * @param parentsId
-     * @param strGloss 
+     * @param glossOffset Position of the gloss in the WordNet file
      */
     
     public WordNetSynset(
             WordNetDB   ownerDB,
-            Long        synsetId,
+            long        synsetId,
             char        partofSpeech,
             String[]    strWords,
-            Long[]      parentsId,
-            String      strGloss)
+            long[]      parentsId,
+            int         glossOffset)
     {
         // We store the fields
         
@@ -100,16 +100,12 @@ class WordNetSynset implements IWordNetSynset
         m_SynsetId = synsetId;
         m_SynonymWords = strWords;
         m_ParentsId = parentsId;
-        m_strGloss = strGloss;
+        m_GlossOffset = glossOffset;
         m_Visited = false;
         
         // Weread the POS type
         
         readPOS(partofSpeech);
-        
-        // We normalize the words
-        
-        normalizeWords();
     }
     
     /**
@@ -128,9 +124,9 @@ class WordNetSynset implements IWordNetSynset
         
         // We check if the synset is a prent of the current synset
         
-        for (Long parentID: m_ParentsId)
+        for (long parentID: m_ParentsId)
         {
-            if (Objects.equals(parentID, synsetID))
+            if ((synsetID != null) && (parentID == synsetID))
             {
                 parent = true;
                 break;
@@ -199,24 +195,26 @@ class WordNetSynset implements IWordNetSynset
     @Override
     public Long[] getParentsId()
     {
-        return (m_ParentsId.clone());
+        Long[] parentsId = new Long[m_ParentsId.length];
+        
+        for (int i = 0; i < m_ParentsId.length; i++)
+        {
+            parentsId[i] = m_ParentsId[i];
+        }
+        
+        // We return the result
+        
+        return (parentsId);
     }
     
     /**
-     * This function substitutes the underline by blank spaces
-     * used by the WordNet file format.
+     * This function returns the parent IDs without copying them.
+     * @return The id of the parents
      */
     
-    private void normalizeWords()
+    long[] getParentSynsetIds()
     {
-        int i;  // Counter
-        
-        // We normalize the words
-        
-        for (i = 0; i < m_SynonymWords.length; i++)
-        {
-            m_SynonymWords[i] = m_SynonymWords[i].replace('_', ' ');
-        }
+        return (m_ParentsId);
     }
     
     /**
@@ -281,14 +279,16 @@ class WordNetSynset implements IWordNetSynset
     }
     
     /**
-     * This function returns the gloss of the synset.
-     * @return The gloss for the synset
+     * This function returns the gloss of the synset, which is read
+     * on demand from the WordNet file whether the glosses are loaded.
+     * @return The gloss for the synset, or an empty string whether
+     * the glosses are not loaded
      */
     
     @Override
     public String getGloss()
     {
-        return (m_strGloss);
+        return (m_OwnerDB.getGloss(m_GlossOffset));
     }
     
     /**
@@ -315,7 +315,7 @@ class WordNetSynset implements IWordNetSynset
         
         // We get the parents from the owner DB
         
-        for (Long parentId: m_ParentsId)
+        for (long parentId: m_ParentsId)
         {
             parents.add(m_OwnerDB.getSynset(parentId));
         }
@@ -0,0 +1,129 @@
+/*
+ * Copyright (C) 2016-2022 Universidad Nacional de Educación a Distancia (UNED)
+ *
+ * This program is free software for non-commercial use:
+ * you can redistribute it and/or modify it under the terms of the
+ * Creative Commons Attribution-NonCommercial-ShareAlike 4.0 International
+ * (CC BY-NC-SA 4.0) as published by the Creative Commons Corporation,
+ * either version 4 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * section 5 of the CC BY-NC-SA 4.0 License for more details.
+ *
+ * You should have received a copy of the Creative Commons
+ * Attribution-NonCommercial-ShareAlike 4.0 International (CC BY-NC-SA 4.0)
+ * license along with this program. If not,
+ * see <http://creativecommons.org/licenses/by-nc-sa/4.0/>.
+ *
+ */
+
+package hesml.utils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+/**
+ * This class implements a sequential reader of the lines of a text file,
+ * which reads the file in large blocks and passes every line as a raw
+ * byte range to the line parser. Thus, no string is created unless the
+ * parser decodes any part of the line. The reader is shared by the
+ * readers of the ontology files.
+ * @author j.lastra
+ */
+
+public class BlockLineReader
+{
+    /**
+     * This interface represents the parser of every line of the file.
+     */
+    
+    public interface ILineParser
+    {
+        /**
+         * This function parses a line contained in the input buffer
+         * without the line-end characters.
+         * @param buffer
+         * @param start First byte of the line
+         * @param end Position after the last byte of the line
+         * @throws Exception
+         */
+        
+        void parseLine(
+                byte[]  buffer,
+                int     start,
+                int     end) throws Exception;
+    }
+    
+    /**
+     * This function reads all the lines of the input stream, including
+     * the last line without line end. The carriage returns of the
+     * Windows line ends are removed, and the buffer is grown whether
+     * any line does not fit into it.
+     * @param input
+     * @param bufferSize Initial size of the reading buffer
+     * @param parser
+     * @throws IOException
+     * @throws Exception 
+     */
+    
+    public static void readLines(
+            InputStream input,
+            int         bufferSize,
+            ILineParser parser) throws IOException, Exception
+    {
+        // We initialize the reading buffer
+        
+        byte[] buffer = new byte[bufferSize];
+        
+        int filled = 0;
+        boolean endOfFile = false;
+        
+        // We read blocks until the end of the file
+        
+        while (!endOfFile)
+        {
+            int bytesRead = input.read(buffer, filled, buffer.length - filled);
+            
+            endOfFile = (bytesRead < 0);
+            
+            if (!endOfFile) filled += bytesRead;
+            
+            // We scan the lines in the buffer, including the last
+            // line of the file without line end
+            
+            int lineStart = 0;
+            
+            for (int i = 0; i < filled; i++)
+            {
+                if ((buffer[i] == '\n') || (endOfFile && (i == filled - 1)))
+                {
+                    int lineEnd = (buffer[i] == '\n') ? i : filled;
+                    
+                    // We remove the carriage return of Windows files
+                    
+                    if ((lineEnd > lineStart) && (buffer[lineEnd - 1] == '\r')) lineEnd--;
+                    
+                    parser.parseLine(buffer, lineStart, lineEnd);
+                    
+                    lineStart = i + 1;
+                }
+            }
+            
+            // We move the incomplete line to the beginning of the buffer,
+            // or we grow the buffer whether the line does not fit into it
+            
+            if ((lineStart == 0) && (filled == buffer.length))
+            {
+                buffer = Arrays.copyOf(buffer, 2 * buffer.length);
+            }
+            else
+            {
+                System.arraycopy(buffer, lineStart, buffer, 0, filled - lineStart);
+                filled -= lineStart;
+            }
+        }
+    }
+}
@@ -0,0 +1,672 @@
+/*
+ * Copyright (C) 2016-2022 Universidad Nacional de Educación a Distancia (UNED)
+ *
+ * This program is free software for non-commercial use:
+ * you can redistribute it and/or modify it under the terms of the
+ * Creative Commons Attribution-NonCommercial-ShareAlike 4.0 International
+ * (CC BY-NC-SA 4.0) as published by the Creative Commons Corporation,
+ * either version 4 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * section 5 of the CC BY-NC-SA 4.0 License for more details.
+ *
+ * You should have received a copy of the Creative Commons
+ * Attribution-NonCommercial-ShareAlike 4.0 International (CC BY-NC-SA 4.0) 
+ * license along with this program. If not,
+ * see <http://creativecommons.org/licenses/by-nc-sa/4.0/>.
+ *
+ */
+
+package hesml.utils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * This class implements a compact and immutable index of the terms
+ * associated to the concepts of an ontology, which are named owners and
+ * identified by their position in the ontology. The unique terms are
+ * sorted by their UTF-8 bytes and stored into a single byte array with
+ * front coding, thus every term only saves the suffix which differs from
+ * the previous term, except the first term of every block, which is fully
+ * saved. The term lookup is done by binary search on the block heads and
+ * a sequential scan of a single block. The owners of every term and the
+ * terms of every owner are stored into integer arrays, thus the index
+ * does not contain any string object. The index is shared by the
+ * SNOMED-CT and MeSH ontologies.
+ * @author j.lastra
+ */
+
+public class CompactTermIndex
+{
+    /**
+     * Number of terms per block
+     */
+    
+    private static final int    BLOCK_SIZE = 16;
+    
+    /**
+     * Front-coded terms
+     */
+    
+    private final byte[]    m_TermBytes;
+    
+    /**
+     * Position of every block in the front-coded terms
+     */
+    
+    private final int[]     m_BlockOffsets;
+    
+    /**
+     * Number of unique terms
+     */
+    
+    private final int       m_TermCount;
+    
+    /**
+     * Maximum length in bytes of the terms
+     */
+    
+    private final int       m_MaxTermLength;
+    
+    /**
+     * First owner position of every term
+     */
+    
+    private final int[]     m_OwnerStarts;
+    
+    /**
+     * Owners of every term in insertion order
+     */
+    
+    private final int[]     m_Owners;
+    
+    /**
+     * First term position of every owner
+     */
+    
+    private final int[]     m_OwnerTermStarts;
+    
+    /**
+     * Terms of every owner in insertion order
+     */
+    
+    private final int[]     m_OwnerTerms;
+    
+    /**
+     * Constructor. The i-th term is contained in the positions
+     * termStarts[i] to termStarts[i + 1] - 1 of the byte array,
+     * and the terms whose owner is negative are ignored.
+     * @param termBytes UTF-8 bytes of the terms
+     * @param termStarts First byte of every term
+     * @param owners Owner of every term
+     * @param termCount Number of terms
+     * @param ownerCount Number of owners
+     */
+    
+    public CompactTermIndex(
+            byte[]  termBytes,
+            int[]   termStarts,
+            int[]   owners,
+            int     termCount,
+            int     ownerCount)
+    {
+        // We sort the terms keeping the insertion order of the repeated terms
+        
+        int indexedCount = 0;
+        
+        for (int i = 0; i < termCount; i++)
+        {
+            if (owners[i] >= 0) indexedCount++;
+        }
+        
+        int[] sortedTerms = new int[indexedCount];
+        
+        for (int i = 0, j = 0; i < termCount; i++)
+        {
+            if (owners[i] >= 0) sortedTerms[j++] = i;
+        }
+        
+        sortTerms(sortedTerms, new int[indexedCount], 0, indexedCount, termBytes, termStarts);
+        
+        // We get the unique terms and their owners
+        
+        int[] termIds = new int[termCount];
+        int[] uniqueTerms = new int[indexedCount];
+        
+        int[] ownerStarts = new int[indexedCount + 1];
+        
+        m_Owners = new int[indexedCount];
+        
+        int uniqueCount = 0;
+        int maxTermLength = 0;
+        
+        for (int i = 0; i < indexedCount; i++)
+        {
+            int term = sortedTerms[i];
+            
+            if ((i == 0) || (compareBytes(termBytes, termStarts[term], termStarts[term + 1],
+                    termBytes, termStarts[uniqueTerms[uniqueCount - 1]],
+                    termStarts[uniqueTerms[uniqueCount - 1] + 1]) != 0))
+            {
+                ownerStarts[uniqueCount] = i;
+                uniqueTerms[uniqueCount++] = term;
+                maxTermLength = Math.max(maxTermLength, termStarts[term + 1] - termStarts[term]);
+            }
+            
+            termIds[term] = uniqueCount - 1;
+            m_Owners[i] = owners[term];
+        }
+        
+        ownerStarts[uniqueCount] = indexedCount;
+        
+        m_OwnerStarts = Arrays.copyOf(ownerStarts, uniqueCount + 1);
+        m_TermCount = uniqueCount;
+        m_MaxTermLength = maxTermLength;
+        
+        sortedTerms = null;
+        
+        // We create the terms of every owner in insertion order
+        
+        m_OwnerTermStarts = new int[ownerCount + 1];
+        m_OwnerTerms = new int[indexedCount];
+        
+        for (int i = 0; i < termCount; i++)
+        {
+            if (owners[i] >= 0) m_OwnerTermStarts[owners[i] + 1]++;
+        }
+        
+        for (int i = 0; i < ownerCount; i++)
+        {
+            m_OwnerTermStarts[i + 1] += m_OwnerTermStarts[i];
+        }
+        
+        int[] ownerPositions = Arrays.copyOf(m_OwnerTermStarts, ownerCount);
+        
+        for (int i = 0; i < termCount; i++)
+        {
+            if (owners[i] >= 0) m_OwnerTerms[ownerPositions[owners[i]]++] = termIds[i];
+        }
+        
+        // We encode the unique terms
+        
+        m_BlockOffsets = new int[(uniqueCount + BLOCK_SIZE - 1) / BLOCK_SIZE];
+        
+        byte[] encodedTerms = new byte[Math.max(16, termStarts[termCount] / 2)];
+        int encodedLength = 0;
+        
+        for (int i = 0; i < uniqueCount; i++)
+        {
+            int start = termStarts[uniqueTerms[i]];
+            int end = termStarts[uniqueTerms[i] + 1];
+            
+            // We get the prefix shared with the previous term,
+            // except for the first term of every block
+            
+            int prefixLength = 0;
+            
+            if ((i % BLOCK_SIZE) == 0)
+            {
+                m_BlockOffsets[i / BLOCK_SIZE] = encodedLength;
+            }
+            else
+            {
+                int previousStart = termStarts[uniqueTerms[i - 1]];
+                int previousEnd = termStarts[uniqueTerms[i - 1] + 1];
+                
+                while ((start + prefixLength < end)
+                        && (previousStart + prefixLength < previousEnd)
+                        && (termBytes[start + prefixLength] == termBytes[previousStart + prefixLength]))
+                {
+                    prefixLength++;
+                }
+            }
+            
+            // We save the prefix length, the suffix length and the suffix
+            
+            int suffixLength = end - start - prefixLength;
+            
+            if (encodedLength + suffixLength + 10 > encodedTerms.length)
+            {
+                encodedTerms = Arrays.copyOf(encodedTerms,
+                                Math.max(2 * encodedTerms.length, encodedLength + suffixLength + 10));
+            }
+            
+            if ((i % BLOCK_SIZE) != 0)
+            {
+                encodedLength = writeLength(encodedTerms, encodedLength, prefixLength);
+            }
+            
+            encodedLength = writeLength(encodedTerms, encodedLength, suffixLength);
+            
+            System.arraycopy(termBytes, start + prefixLength, encodedTerms, encodedLength, suffixLength);
+            encodedLength += suffixLength;
+        }
+        
+        m_TermBytes = Arrays.copyOf(encodedTerms, encodedLength);
+    }
+    
+    /**
+     * This function sorts a range of term positions by the bytes of their
+     * terms. The merge sort is stable, thus the repeated terms keep their
+     * insertion order, and it works on primitive arrays in order to
+     * avoid boxing every term position.
+     * @param terms Term positions to be sorted
+     * @param buffer Auxiliary array with the same length as the positions
+     * @param start First position of the range
+     * @param end Position after the last position of the range
+     * @param termBytes UTF-8 bytes of the terms
+     * @param termStarts First byte of every term
+     */
+    
+    private static void sortTerms(
+            int[]   terms,
+            int[]   buffer,
+            int     start,
+            int     end,
+            byte[]  termBytes,
+            int[]   termStarts)
+    {
+        // We sort the short ranges by insertion
+        
+        if (end - start <= 16)
+        {
+            for (int i = start + 1; i < end; i++)
+            {
+                int term = terms[i];
+                int j = i;
+                
+                while ((j > start) && (compareBytes(termBytes, termStarts[terms[j - 1]],
+                        termStarts[terms[j - 1] + 1], termBytes, termStarts[term],
+                        termStarts[term + 1]) > 0))
+                {
+                    terms[j] = terms[j - 1];
+                    j--;
+                }
+                
+                terms[j] = term;
+            }
+        }
+        else
+        {
+            // We sort both halves
+            
+            int middle = (start + end) >>> 1;
+            
+            sortTerms(terms, buffer, start, middle, termBytes, termStarts);
+            sortTerms(terms, buffer, middle, end, termBytes, termStarts);
+            
+            // We merge both halves whether they are not already sorted,
+            // taking the left term when both terms are equal
+            
+            if (compareBytes(termBytes, termStarts[terms[middle - 1]], termStarts[terms[middle - 1] + 1],
+                    termBytes, termStarts[terms[middle]], termStarts[terms[middle] + 1]) > 0)
+            {
+                System.arraycopy(terms, start, buffer, start, end - start);
+                
+                for (int i = start, left = start, right = middle; i < end; i++)
+                {
+                    if ((right == end) || ((left < middle) && (compareBytes(termBytes,
+                            termStarts[buffer[left]], termStarts[buffer[left] + 1], termBytes,
+                            termStarts[buffer[right]], termStarts[buffer[right] + 1]) <= 0)))
+                    {
+                        terms[i] = buffer[left++];
+                    }
+                    else
+                    {
+                        terms[i] = buffer[right++];
+                    }
+                }
+            }
+        }
+    }
+    
+    /**
+     * This function creates the index of the input terms.
+     * @param strTerms Terms
+     * @param owners Owner of every term
+     * @param ownerCount Number of owners
+     * @return The index of terms
+     */
+    
+    public static CompactTermIndex createIndex(
+            String[]    strTerms,
+            int[]       owners,
+            int         ownerCount)
+    {
+        // We encode the terms
+        
+        byte[][] encodedTerms = new byte[strTerms.length][];
+        int[] termStarts = new int[strTerms.length + 1];
+        
+        for (int i = 0; i < strTerms.length; i++)
+        {
+            encodedTerms[i] = strTerms[i].getBytes(StandardCharsets.UTF_8);
+            termStarts[i + 1] = termStarts[i] + encodedTerms[i].length;
+        }
+        
+        byte[] termBytes = new byte[termStarts[strTerms.length]];
+        
+        for (int i = 0; i < strTerms.length; i++)
+        {
+            System.arraycopy(encodedTerms[i], 0, termBytes, termStarts[i], encodedTerms[i].length);
+        }
+        
+        // We create the index
+        
+        return (new CompactTermIndex(termBytes, termStarts, owners, strTerms.length, ownerCount));
+    }
+    
+    /**
+     * This function returns the number of unique terms.
+     * @return 
+     */
+    
+    public int getTermCount()
+    {
+        return (m_TermCount);
+    }
+    
+    /**
+     * This function checks whether the input term is contained in the index.
+     * @param strTerm
+     * @return True if the term is contained in the index
+     */
+    
+    public boolean contains(
+            String  strTerm)
+    {
+        return (findTerm(strTerm) >= 0);
+    }
+    
+    /**
+     * This function returns the owners of the input term in insertion order.
+     * @param strTerm
+     * @return The owners of the term, or an empty array if the term
+     * is not contained in the index
+     */
+    
+    public int[] getOwners(
+            String  strTerm)
+    {
+        // We look for the term
+        
+        int termId = findTerm(strTerm);
+        
+        // We return the result
+        
+        return ((termId >= 0) ? Arrays.copyOfRange(m_Owners,
+                m_OwnerStarts[termId], m_OwnerStarts[termId + 1]) : new int[0]);
+    }
+    
+    /**
+     * This function returns the terms of the input owner in insertion order.
+     * @param owner
+     * @return The terms of the owner
+     */
+    
+    public String[] getOwnerTerms(
+            int owner)
+    {
+        // We create the output
+        
+        String[] strTerms = new String[m_OwnerTermStarts[owner + 1] - m_OwnerTermStarts[owner]];
+        
+        // We decode the terms
+        
+        byte[] term = new byte[m_MaxTermLength];
+        
+        for (int i = 0; i < strTerms.length; i++)
+        {
+            int termId = m_OwnerTerms[m_OwnerTermStarts[owner] + i];
+            
+            strTerms[i] = new String(term, 0, decodeTerm(termId, term), StandardCharsets.UTF_8);
+        }
+        
+        // We return the result
+        
+        return (strTerms);
+    }
+    
+    /**
+     * This function returns the position of the input term within
+     * the sorted unique terms.
+     * @param strTerm
+     * @return The position of the term or -1 if it is not found
+     */
+    
+    private int findTerm(
+            String  strTerm)
+    {
+        // We initialize the output
+        
+        int termId = -1;
+        
+        // We look for the last block whose first term is not greater
+        // than the input term
+        
+        byte[] query = strTerm.getBytes(StandardCharsets.UTF_8);
+        
+        int low = 0;
+        int high = m_BlockOffsets.length - 1;
+        int block = -1;
+        
+        while (low <= high)
+        {
+            int middle = (low + high) >>> 1;
+            
+            int position = m_BlockOffsets[middle];
+            int length = readLength(m_TermBytes, position);
+            
+            position += getLengthSize(length);
+            
+            if (compareBytes(m_TermBytes, position, position + length, query, 0, query.length) <= 0)
+            {
+                block = middle;
+                low = middle + 1;
+            }
+            else
+            {
+                high = middle - 1;
+            }
+        }
+        
+        // We scan the terms of the block
+        
+        if ((block >= 0) && (query.length <= m_MaxTermLength))
+        {
+            byte[] term = new byte[m_MaxTermLength];
+            
+            int position = m_BlockOffsets[block];
+            int termLength = 0;
+            
+            int blockEnd = Math.min(m_TermCount, (block + 1) * BLOCK_SIZE);
+            
+            for (int i = block * BLOCK_SIZE; i < blockEnd; i++)
+            {
+                // We decode the next term
+                
+                int prefixLength = 0;
+                
+                if (i > block * BLOCK_SIZE)
+                {
+                    prefixLength = readLength(m_TermBytes, position);
+                    position += getLengthSize(prefixLength);
+                }
+                
+                int suffixLength = readLength(m_TermBytes, position);
+                position += getLengthSize(suffixLength);
+                
+                System.arraycopy(m_TermBytes, position, term, prefixLength, suffixLength);
+                
+                position += suffixLength;
+                termLength = prefixLength + suffixLength;
+                
+                // We compare the term with the query
+                
+                int comparison = compareBytes(term, 0, termLength, query, 0, query.length);
+                
+                if (comparison >= 0)
+                {
+                    if (comparison == 0) termId = i;
+                    break;
+                }
+            }
+        }
+        
+        // We return the result
+        
+        return (termId);
+    }
+    
+    /**
+     * This function decodes the input term into the output buffer.
+     * @param termId
+     * @param term Output buffer
+     * @return Length of the term
+     */
+    
+    private int decodeTerm(
+            int     termId,
+            byte[]  term)
+    {
+        int position = m_BlockOffsets[termId / BLOCK_SIZE];
+        int termLength = 0;
+        
+        // We decode the terms of the block until the input term
+        
+        for (int i = termId - (termId % BLOCK_SIZE); i <= termId; i++)
+        {
+            int prefixLength = 0;
+            
+            if ((i % BLOCK_SIZE) != 0)
+            {
+                prefixLength = readLength(m_TermBytes, position);
+                position += getLengthSize(prefixLength);
+            }
+            
+            int suffixLength = readLength(m_TermBytes, position);
+            position += getLengthSize(suffixLength);
+            
+            System.arraycopy(m_TermBytes, position, term, prefixLength, suffixLength);
+            
+            position += suffixLength;
+            termLength = prefixLength + suffixLength;
+        }
+        
+        // We return the result
+        
+        return (termLength);
+    }
+    
+    /**
+     * This function compares two byte ranges as unsigned bytes.
+     * @param first
+     * @param firstStart
+     * @param firstEnd
+     * @param second
+     * @param secondStart
+     * @param secondEnd
+     * @return A negative, zero or positive value as the first range
+     * is lower, equal or greater than the second one
+     */
+    
+    private static int compareBytes(
+            byte[]  first,
+            int     firstStart,
+            int     firstEnd,
+            byte[]  second,
+            int     secondStart,
+            int     secondEnd)
+    {
+        int length = Math.min(firstEnd - firstStart, secondEnd - secondStart);
+        
+        for (int i = 0; i < length; i++)
+        {
+            int comparison = (first[firstStart + i] & 0xff) - (second[secondStart + i] & 0xff);
+            
+            if (comparison != 0) return (comparison);
+        }
+        
+        // We return the result
+        
+        return ((firstEnd - firstStart) - (secondEnd - secondStart));
+    }
+    
+    /**
+     * This function writes a length with a variable number of bytes.
+     * @param buffer
+     * @param position
+     * @param length
+     * @return The position after the length
+     */
+    
+    private static int writeLength(
+            byte[]  buffer,
+            int     position,
+            int     length)
+    {
+        while (length >= 0x80)
+        {
+            buffer[position++] = (byte) ((length & 0x7f) | 0x80);
+            length >>>= 7;
+        }
+        
+        buffer[position++] = (byte) length;
+        
+        // We return the result
+        
+        return (position);
+    }
+    
+    /**
+     * This function reads a length written with a variable number of bytes.
+     * @param buffer
+     * @param position
+     * @return The length
+     */
+    
+    private static int readLength(
+            byte[]  buffer,
+            int     position)
+    {
+        int length = 0;
+        
+        for (int shift = 0; ; shift += 7)
+        {
+            byte value = buffer[position++];
+            
+            length |= (value & 0x7f) << shift;
+            
+            if (value >= 0) break;
+        }
+        
+        // We return the result
+        
+        return (length);
+    }
+    
+    /**
+     * This function returns the number of bytes of an encoded length.
+     * @param length
+     * @return 
+     */
+    
+    private static int getLengthSize(
+            int length)
+    {
+        int size = 1;
+        
+        while (length >= 0x80)
+        {
+            length >>>= 7;
+            size++;
+        }
+        
+        // We return the result
+        
+        return (size);
+    }
+}
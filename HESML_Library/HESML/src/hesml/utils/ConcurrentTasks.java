@@ -0,0 +1,61 @@
+/*
+ * Copyright (C) 2016-2022 Universidad Nacional de Educación a Distancia (UNED)
+ *
+ * This program is free software for non-commercial use:
+ * you can redistribute it and/or modify it under the terms of the
+ * Creative Commons Attribution-NonCommercial-ShareAlike 4.0 International
+ * (CC BY-NC-SA 4.0) as published by the Creative Commons Corporation,
+ * either version 4 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * section 5 of the CC BY-NC-SA 4.0 License for more details.
+ *
+ * You should have received a copy of the Creative Commons
+ * Attribution-NonCommercial-ShareAlike 4.0 International (CC BY-NC-SA 4.0)
+ * license along with this program. If not,
+ * see <http://creativecommons.org/licenses/by-nc-sa/4.0/>.
+ *
+ */
+
+package hesml.utils;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * This class implements the helper functions shared by the readers of
+ * the ontology files which read several files concurrently.
+ * @author j.lastra
+ */
+
+public class ConcurrentTasks
+{
+    /**
+     * This function waits for the result of a reading task, and it
+     * forwards the error raised by the task.
+     * @param <T>
+     * @param task
+     * @return The result of the task
+     * @throws Exception The error raised by the task
+     */
+    
+    public static <T> T getTaskResult(
+            Future<T>   task) throws Exception
+    {
+        try
+        {
+            return (task.get());
+        }
+        catch (ExecutionException error)
+        {
+            if (error.getCause() instanceof Exception)
+            {
+                throw ((Exception)error.getCause());
+            }
+            
+            throw (error);
+        }
+    }
+}
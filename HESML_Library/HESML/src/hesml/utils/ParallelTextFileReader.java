@@ -0,0 +1,356 @@
+/*
+ * Copyright (C) 2016-2022 Universidad Nacional de Educación a Distancia (UNED)
+ *
+ * This program is free software for non-commercial use:
+ * you can redistribute it and/or modify it under the terms of the
+ * Creative Commons Attribution-NonCommercial-ShareAlike 4.0 International
+ * (CC BY-NC-SA 4.0) as published by the Creative Commons Corporation,
+ * either version 4 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * section 5 of the CC BY-NC-SA 4.0 License for more details.
+ *
+ * You should have received a copy of the Creative Commons
+ * Attribution-NonCommercial-ShareAlike 4.0 International (CC BY-NC-SA 4.0)
+ * license along with this program. If not,
+ * see <http://creativecommons.org/licenses/by-nc-sa/4.0/>.
+ *
+ */
+
+package hesml.utils;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.RandomAccessFile;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+/**
+ * This class implements a parallel reader of large text files. The file
+ * is split into byte ranges aligned to the line ends, which are scanned
+ * concurrently. Every line is passed as a raw byte range to the line parser,
+ * which fills a result object per chunk. The chunk results are returned
+ * in the same order as the chunks in the file, thus the callers can merge
+ * them by keeping the first occurrence of any key as the sequential
+ * readers do. The reader is shared by the word embedding models and
+ * the readers of the large ontology and annotation files.
+ * @author j.lastra
+ */
+
+public class ParallelTextFileReader
+{
+    /**
+     * Size of the reading buffer of each chunk
+     */
+    
+    private static final int    BLOCK_SIZE = 4 * 1024 * 1024;
+    
+    /**
+     * Minimum size of the chunks in order to avoid splitting small files
+     */
+    
+    private static final long   MIN_CHUNK_SIZE = 16 * 1024 * 1024;
+    
+    /**
+     * This interface represents the parser of every line in a chunk.
+     * @param <T> Type of the chunk result
+     */
+    
+    public interface ILineParser<T>
+    {
+        /**
+         * This function parses a line contained in the input buffer
+         * without the line-end characters.
+         * @param chunkResult Result object of the current chunk
+         * @param buffer
+         * @param start First byte of the line
+         * @param end Position after the last byte of the line
+         * @throws IOException
+         */
+        
+        void parseLine(
+                T       chunkResult,
+                byte[]  buffer,
+                int     start,
+                int     end) throws IOException;
+    }
+    
+    /**
+     * This function scans the input file in parallel and returns the
+     * result of each chunk sorted by their position in the file.
+     * @param <T> Type of the chunk result
+     * @param strFilename
+     * @param resultFactory Creates the result object of each chunk
+     * @param parser Line parser
+     * @return Chunk results in file order
+     */
+    
+    public static <T> ArrayList<T> parseFile(
+            String          strFilename,
+            Supplier<T>     resultFactory,
+            ILineParser<T>  parser) throws IOException
+    {
+        // We get the file length
+        
+        long fileLength;
+        
+        try (RandomAccessFile file = new RandomAccessFile(strFilename, "r"))
+        {
+            fileLength = file.length();
+        }
+        
+        // We compute the number of chunks
+        
+        int threadCount = Runtime.getRuntime().availableProcessors();
+        
+        int chunkCount = (int)Math.max(1, Math.min(4L * threadCount,
+                                fileLength / MIN_CHUNK_SIZE));
+        
+        long chunkSize = (fileLength + chunkCount - 1) / chunkCount;
+        
+        // We create one task per chunk
+        
+        ArrayList<Callable<T>> tasks = new ArrayList<>(chunkCount);
+        
+        for (int i = 0; i < chunkCount; i++)
+        {
+            final long chunkStart = Math.min(fileLength, i * chunkSize);
+            final long chunkEnd = Math.min(fileLength, chunkStart + chunkSize);
+            
+            tasks.add(() -> parseChunk(strFilename, chunkStart, chunkEnd, resultFactory.get(), parser));
+        }
+        
+        // We run the tasks and collect their results in file order
+        
+        ArrayList<T> results = new ArrayList<>(chunkCount);
+        
+        ExecutorService executor = Executors.newFixedThreadPool(Math.min(threadCount, chunkCount));
+        
+        try
+        {
+            for (Future<T> future : executor.invokeAll(tasks))
+            {
+                results.add(future.get());
+            }
+        }
+        catch (ExecutionException error)
+        {
+            // We forward the I/O and runtime errors raised by the parser
+            
+            if (error.getCause() instanceof IOException)
+            {
+                throw ((IOException)error.getCause());
+            }
+            else if (error.getCause() instanceof RuntimeException)
+            {
+                throw ((RuntimeException)error.getCause());
+            }
+            
+            throw (new IOException(error.getCause()));
+        }
+        catch (InterruptedException error)
+        {
+            throw (new InterruptedIOException("The parallel reading of " + strFilename + " was interrupted"));
+        }
+        finally
+        {
+            executor.shutdown();
+        }
+        
+        // We return the result
+        
+        return (results);
+    }
+    
+    /**
+     * This function parses all the lines starting in the input byte range.
+     * The first line is skipped whether it starts in the previous chunk.
+     * @param <T>
+     * @param strFilename
+     * @param chunkStart
+     * @param chunkEnd
+     * @param chunkResult
+     * @param parser
+     * @return The chunk result
+     */
+    
+    private static <T> T parseChunk(
+            String          strFilename,
+            long            chunkStart,
+            long            chunkEnd,
+            T               chunkResult,
+            ILineParser<T>  parser) throws IOException
+    {
+        try (RandomAccessFile file = new RandomAccessFile(strFilename, "r"))
+        {
+            // We check if the first line belongs to the previous chunk
+            
+            boolean skipFirstLine = false;
+            
+            if (chunkStart > 0)
+            {
+                file.seek(chunkStart - 1);
+                skipFirstLine = (file.read() != '\n');
+            }
+            
+            // We initialize the reading buffer
+            
+            byte[] buffer = new byte[BLOCK_SIZE];
+            
+            long bufferPosition = chunkStart;
+            int filled = 0;
+            boolean endOfFile = false;
+            boolean endOfChunk = (chunkStart >= chunkEnd);
+            
+            file.seek(chunkStart);
+            
+            // We read blocks until all the lines starting in the chunk are parsed
+            
+            while (!endOfChunk)
+            {
+                int bytesRead = file.read(buffer, filled, buffer.length - filled);
+                
+                if (bytesRead < 0)
+                {
+                    endOfFile = true;
+                }
+                else
+                {
+                    filled += bytesRead;
+                }
+                
+                // We scan the lines in the buffer
+                
+                int lineStart = 0;
+                
+                for (int i = 0; (i < filled) && !endOfChunk; i++)
+                {
+                    if (buffer[i] == '\n')
+                    {
+                        endOfChunk = (bufferPosition + lineStart >= chunkEnd);
+                        
+                        if (!endOfChunk)
+                        {
+                            if (skipFirstLine)
+                            {
+                                skipFirstLine = false;
+                            }
+                            else
+                            {
+                                parser.parseLine(chunkResult, buffer, lineStart, getLineEnd(buffer, lineStart, i));
+                            }
+                        }
+                        
+                        lineStart = i + 1;
+                    }
+                }
+                
+                // We parse the last line of the file without line end
+                
+                if (endOfFile && !endOfChunk)
+                {
+                    if ((lineStart < filled) && !skipFirstLine
+                            && (bufferPosition + lineStart < chunkEnd))
+                    {
+                        parser.parseLine(chunkResult, buffer, lineStart, getLineEnd(buffer, lineStart, filled));
+                    }
+                    
+                    endOfChunk = true;
+                }
+                
+                // We move the incomplete line to the beginning of the buffer,
+                // or we grow the buffer whether the line does not fit into it
+                
+                if (!endOfChunk)
+                {
+                    if ((lineStart == 0) && (filled == buffer.length))
+                    {
+                        buffer = Arrays.copyOf(buffer, 2 * buffer.length);
+                    }
+                    else
+                    {
+                        System.arraycopy(buffer, lineStart, buffer, 0, filled - lineStart);
+                        
+                        bufferPosition += lineStart;
+                        filled -= lineStart;
+                    }
+                }
+            }
+        }
+        
+        // We return the result
+        
+        return (chunkResult);
+    }
+    
+    /**
+     * This function returns the end of the line excluding the carriage
+     * return character of Windows files.
+     * @param buffer
+     * @param start
+     * @param end
+     * @return
+     */
+    
+    private static int getLineEnd(
+            byte[]  buffer,
+            int     start,
+            int     end)
+    {
+        return (((end > start) && (buffer[end - 1] == '\r')) ? end - 1 : end);
+    }
+    
+    /**
+     * This function returns the position of the first occurrence of the
+     * delimiter in the input range, or the end of the range if it is
+     * not found.
+     * @param buffer
+     * @param start
+     * @param end
+     * @param delimiter
+     * @return
+     */
+    
+    public static int indexOf(
+            byte[]  buffer,
+            int     start,
+            int     end,
+            byte    delimiter)
+    {
+        int position = start;
+        
+        while ((position < end) && (buffer[position] != delimiter))
+        {
+            position++;
+        }
+        
+        // We return the result
+        
+        return (position);
+    }
+    
+    /**
+     * This function decodes the UTF-8 string contained in the input range.
+     * @param buffer
+     * @param start
+     * @param end
+     * @return
+     */
+    
+    public static String getString(
+            byte[]  buffer,
+            int     start,
+            int     end)
+    {
+        return (new String(buffer, start, end - start, StandardCharsets.UTF_8));
+    }
+}
@@ -44,6 +44,16 @@ public interface IAggregatedSentenceSimilarityBenchmark
     
     String  getOutputFilename();
     
+    /**
+     * This function enables the preloading of the dataset vocabulary
+     * into the measures before their evaluation, such as the vectors of
+     * the disk-backed word embedding models. The preloading time is
+     * excluded from the execution times of the measures.
+     * @param preloadVocabulary
+     */
+    
+    void setVocabularyPreloading(boolean preloadVocabulary);
+    
     /**
      * This function executes the test and save the raw similarity values into
      * the output CSV file.
@@ -340,6 +340,28 @@ public class SentenceSimBenchmarkFactory
         ISentenceSimilarityBenchmark benchmark = new SentenceSimilaritySingleBenchmark(
                                                     measures, strDatasetDir,
                                                     strDatasetFileName, strOutputFileName);
+        
+        // We read the optional preloading of the dataset vocabulary
+        
+        if (containsFieldName(experimentRoot, "PreloadVocabulary"))
+        {
+            benchmark.setVocabularyPreloading(readBooleanField(experimentRoot, "PreloadVocabulary"));
+        }
+        
+        // We read the optional cache of sentence vectors. The experiments
+        // not defining it keep the current cache.
+        
+        if (containsFieldName(experimentRoot, "SentenceEmbeddingCacheFile"))
+        {
+            String strEmbeddingCacheFilename = readStringField(experimentRoot, "SentenceEmbeddingCacheFile");
+            
+            if (!strOutputDirectory.equals(""))
+            {
+                strEmbeddingCacheFilename = strOutputDirectory + "/" + strEmbeddingCacheFilename;
+            }
+            
+            SentenceSimilarityFactory.setSentenceEmbeddingCacheFile(strEmbeddingCacheFilename);
+        }
                 
         // We return the result
         
@@ -870,13 +892,23 @@ public class SentenceSimBenchmarkFactory
         String strPretrainedModelFilename = readStringField(measureNode, "PretrainedModelFilename");
         String strPretrainedModelDir = readStringField(measureNode, "PretrainedModelDirectory");
 
+        // We read the optional size of the vector cache in megabytes
+        
+        long vectorCacheCapacity = 0;
+        
+        if (containsFieldName(measureNode, "VectorCacheSizeMB"))
+        {
+            vectorCacheCapacity = (long)(readDoubleField(measureNode, "VectorCacheSizeMB") * 1024 * 1024);
+        }
+        
         measure = SentenceSimilarityFactory.getSWEMMeasure(
                 readStringField(measureNode, "Label"),
                 convertToSWEMpoolingMethod(readStringField(measureNode, "Pooling")),
                 convertToWordEmbeddingFileType(readStringField(measureNode, "WordEmbeddingFileFormat")),
                 readWordProcessing(measureNode),
-                strPretrainedModelDir + "/" + strPretrainedModelFilename);
-
+                strPretrainedModelDir + "/" + strPretrainedModelFilename,
+                vectorCacheCapacity);
+        
         // We return the result
         
         return (measure);
@@ -1126,7 +1158,6 @@ public class SentenceSimBenchmarkFactory
                             mlPythonLibrary,
                             readBERTWordProcessing(measureNode), 
                             strBertDir + strBERTPretrainedModelFilename, 
-                            strPythonScriptsDirectory, 
                             strPythonVirtualEnvironmentDir, 
                             strPythonScriptsDirectory + strPythonScript);
         }
@@ -1159,7 +1190,6 @@ public class SentenceSimBenchmarkFactory
                             strBertDir + strBERTPretrainedModelFilename, 
                             strCheckPointFilename,
                             strBertDir + strTunedModelDir,
-                            strPythonScriptsDirectory, 
                             strPythonVirtualEnvironmentDir, 
                             strPythonScriptsDirectory + strPythonScript, 
                             convertToBERTpoolingMethod(readStringField(measureNode, "Pooling")), 
@@ -54,6 +54,13 @@ class SentenceSimilarityAggregativeBenchmark implements IAggregatedSentenceSimil
     
     private ISentenceSimilarityMeasure[] m_Measures;
     
+    /**
+     * Flag to preload the dataset vocabulary before the evaluation
+     * of every measure
+     */
+    
+    private boolean m_PreloadVocabulary;
+    
     /**
      * Column headers
      */
@@ -159,6 +166,19 @@ class SentenceSimilarityAggregativeBenchmark implements IAggregatedSentenceSimil
         return (m_strOutputFilename);
     }
     
+    /**
+     * This function enables the preloading of the dataset vocabulary
+     * into the measures before their evaluation.
+     * @param preloadVocabulary
+     */
+    
+    @Override
+    public void setVocabularyPreloading(
+            boolean preloadVocabulary)
+    {
+        m_PreloadVocabulary = preloadVocabulary;
+    }
+    
     /**
      * This function executes the test and save the raw similarity values into
      * the output CSV file.
@@ -187,6 +207,14 @@ class SentenceSimilarityAggregativeBenchmark implements IAggregatedSentenceSimil
                 System.out.println("Computing measure " + m_Measures[iMeasure].getLabel());
             }
 
+            // We preload the dataset vocabulary into the measure
+            
+            if (m_PreloadVocabulary)
+            {
+                m_Measures[iMeasure].preloadVocabulary(
+                    m_Dataset.getFirstSentences(), m_Dataset.getSecondSentences());
+            }
+            
             // We set the coluimn header for the current measure
 
             m_strColumnHeaders[iMeasure + 1] = m_Measures[iMeasure].getLabel();
@@ -207,6 +235,16 @@ class SentenceSimilarityAggregativeBenchmark implements IAggregatedSentenceSimil
                 m_similarityMatrix[iScore][iMeasure + 1] = similarityScores[iScore];
             }
             
+            // We report the accuracy loss of the compressed models
+            
+            String strAccuracyLoss = m_Measures[iMeasure].getModelAccuracyLoss();
+            
+            if (strAccuracyLoss != null)
+            {
+                System.out.println("Model accuracy loss of " + m_Measures[iMeasure].getLabel()
+                        + " : " + strAccuracyLoss);
+            }
+            
             // We update the measures offset
             
             m_measuresOffset++;
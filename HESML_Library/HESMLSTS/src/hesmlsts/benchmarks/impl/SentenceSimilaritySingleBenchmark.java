@@ -23,9 +23,13 @@ package hesmlsts.benchmarks.impl;
 
 import hesmlsts.benchmarks.ISentenceSimilarityBenchmark;
 import hesmlsts.measures.ISentenceSimilarityMeasure;
+import hesmlsts.preprocess.IWordProcessing;
+import hesmlsts.preprocess.impl.PreprocessingFactory;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -56,6 +60,13 @@ class SentenceSimilaritySingleBenchmark implements ISentenceSimilarityBenchmark
     
     private ISentenceSimilarityMeasure[] m_Measures;
     
+    /**
+     * Flag to preload the dataset vocabulary before the evaluation
+     * of every measure
+     */
+    
+    private boolean m_PreloadVocabulary;
+    
     /**
      * Constructor
      * @param strDatasetFilename
@@ -105,6 +116,19 @@ class SentenceSimilaritySingleBenchmark implements ISentenceSimilarityBenchmark
         return (m_strOutputFilename);
     }
     
+    /**
+     * This function enables the preloading of the dataset vocabulary
+     * into the measures before their evaluation.
+     * @param preloadVocabulary
+     */
+    
+    @Override
+    public void setVocabularyPreloading(
+            boolean preloadVocabulary)
+    {
+        m_PreloadVocabulary = preloadVocabulary;
+    }
+    
     /**
      * This function executes the test and save the raw similarity values into
      * the output CSV file.
@@ -135,10 +159,72 @@ class SentenceSimilaritySingleBenchmark implements ISentenceSimilarityBenchmark
             similarityMatrix[iPair][0] = m_Dataset.getHumanJudgementAt(iPair);
         }
         
+        // We preprocess every distinct sentence once per preprocessing
+        // configuration, sharing the word tokens among all the measures
+        
+        PreprocessingFactory.setWordTokensCaching(true);
+        
+        try
+        {
+            evaluateMeasures(similarityMatrix, strColumnHeaders, showDebugInfo);
+        }
+        finally
+        {
+            PreprocessingFactory.setWordTokensCaching(false);
+        }
+        
+        // We save the raw similarity values into the output file
+        
+        writeCSVfile(strColumnHeaders, similarityMatrix, m_strOutputFilename);
+    }
+    
+    /**
+     * This function evaluates all the measures, filling the similarity
+     * matrix and the column headers, and it saves their execution times.
+     * @param similarityMatrix
+     * @param strColumnHeaders
+     * @param showDebugInfo
+     * @throws Exception 
+     */
+    
+    private void evaluateMeasures(
+            double[][]  similarityMatrix,
+            String[]    strColumnHeaders,
+            boolean     showDebugInfo) throws Exception
+    {
+        // We collect the preprocessing objects of all the measures
+        
+        ArrayList<IWordProcessing> preprocessors = new ArrayList<>();
+        
+        for (ISentenceSimilarityMeasure measure : m_Measures)
+        {
+            preprocessors.addAll(Arrays.asList(measure.getWordPreprocessors()));
+        }
+        
+        // We preprocess all the sentences of the dataset before the evaluation
+        
+        String[] strFirstSentences = m_Dataset.getFirstSentences();
+        String[] strSecondSentences = m_Dataset.getSecondSentences();
+        
+        String[] strAllSentences = Arrays.copyOf(strFirstSentences, strFirstSentences.length + strSecondSentences.length);
+        System.arraycopy(strSecondSentences, 0, strAllSentences, strFirstSentences.length, strSecondSentences.length);
+        
+        if (showDebugInfo)
+        {
+            System.out.println("Preprocessing the sentences of " + m_Dataset.getLabel());
+        }
+        
+        PreprocessingFactory.preprocessSentences(preprocessors.toArray(
+                new IWordProcessing[preprocessors.size()]), strAllSentences);
+        
         // We will save into a file the execution time of each method
         
         HashMap<String, String> execution_times = new HashMap<>();
         
+        // We also save the accuracy loss of the compressed models
+        
+        HashMap<String, String> accuracyLosses = new HashMap<>();
+        
         // We get the start time
 
         long startFileProcessingTime = 0;
@@ -156,6 +242,14 @@ class SentenceSimilaritySingleBenchmark implements ISentenceSimilarityBenchmark
                 System.out.println("Computing measure " + m_Measures[iMeasure].getLabel());
             }
             
+            // We preload the dataset vocabulary into the measure
+            
+            if (m_PreloadVocabulary)
+            {
+                m_Measures[iMeasure].preloadVocabulary(
+                    m_Dataset.getFirstSentences(), m_Dataset.getSecondSentences());
+            }
+            
             // We start the execution time counter
             
             startFileProcessingTime = System.currentTimeMillis();
@@ -189,15 +283,30 @@ class SentenceSimilaritySingleBenchmark implements ISentenceSimilarityBenchmark
             // We update the hashmap with the execution times data
             
             execution_times.put(m_Measures[iMeasure].getLabel() + "_" + m_Dataset.getLabel(), String.valueOf(miliseconds));
+            
+            // We report the accuracy loss of the compressed models
+            
+            String strAccuracyLoss = m_Measures[iMeasure].getModelAccuracyLoss();
+            
+            if (strAccuracyLoss != null)
+            {
+                System.out.println("Model accuracy loss of " + m_Measures[iMeasure].getLabel()
+                        + " : " + strAccuracyLoss);
+                
+                accuracyLosses.put(m_Measures[iMeasure].getLabel() + "_" + m_Dataset.getLabel(), strAccuracyLoss);
+            }
         }
         
         // We save the execution times record
         
         writeExecutionTimesfile(execution_times, "Execution_times_" + m_Dataset.getLabel() + "_miliseconds.txt");
         
-        // We save the raw similarity values into the output file
+        // We save the accuracy loss record
         
-        writeCSVfile(strColumnHeaders, similarityMatrix, m_strOutputFilename);
+        if (!accuracyLosses.isEmpty())
+        {
+            writeAccuracyLossFile(accuracyLosses, "Model_accuracy_loss_" + m_Dataset.getLabel() + ".txt");
+        }
     }
         
     /**
@@ -254,6 +363,32 @@ class SentenceSimilaritySingleBenchmark implements ISentenceSimilarityBenchmark
         writer.close();
     }
     
+    /**
+     * This function writes the accuracy loss of the compressed models to a file
+     * @param accuracyLosses 
+     */
+    
+    private void writeAccuracyLossFile(
+            HashMap<String, String> accuracyLosses,
+            String      strOutputFile) throws IOException
+    {
+        // We open for writing the file
+        
+        FileWriter writer = new FileWriter(strOutputFile, true);
+        System.out.println(strOutputFile);
+        
+        for (Map.Entry<String, String> entry : accuracyLosses.entrySet()) 
+        {
+            // We write the accuracy loss
+            
+            writer.write(entry.getKey() + " : " + entry.getValue() + " \n");
+        }
+        
+        // We close the file
+        
+        writer.close();
+    }
+    
     /**
      * This function writes the raw execution times to a file
      * @param strMatrix 
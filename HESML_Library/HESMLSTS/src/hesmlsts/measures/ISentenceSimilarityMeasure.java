@@ -21,6 +21,7 @@
 
 package hesmlsts.measures;
 
+import hesmlsts.preprocess.IWordProcessing;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 
@@ -59,6 +60,20 @@ public interface ISentenceSimilarityMeasure
     
     void prepareForEvaluation(String dataset_info) throws Exception;
     
+    /**
+     * This function is called by any client function before to evaluate
+     * the current sentence similarity measure with the aim of preloading
+     * the resources required by the words in the input sentences, such
+     * as the cached vectors of the disk-backed word embedding models.
+     * @param lstSentences1
+     * @param lstSentences2
+     * @throws java.lang.Exception
+     */
+    
+    void preloadVocabulary(
+            String[] lstSentences1,
+            String[] lstSentences2) throws Exception;
+    
     /**
      * This function returns the label used to identify the measure in
      * a raw matrix results. This string attribute is set by the users
@@ -86,6 +101,36 @@ public interface ISentenceSimilarityMeasure
     
     SentenceSimilarityFamily getFamily();
     
+    /**
+     * This function returns true whether the getSimilarityValue function
+     * can be called concurrently by several threads. The sentence pairs of
+     * the thread-safe measures are evaluated in parallel, whilst the
+     * remaining ones are evaluated sequentially.
+     * @return 
+     */
+    
+    boolean isThreadSafe();
+    
+    /**
+     * This function returns the word preprocessing objects used by the
+     * measure, which allows the benchmarks to preprocess the sentences
+     * once per preprocessing configuration.
+     * The measures which tokenize the sentences on demand return no
+     * preprocessing objects.
+     * @return 
+     */
+    
+    IWordProcessing[] getWordPreprocessors();
+    
+    /**
+     * This function returns a description of the accuracy loss caused by
+     * the compression of the pre-trained model used by the measure, which
+     * is reported by the benchmarks, or null if the model is not compressed.
+     * @return 
+     */
+    
+    String getModelAccuracyLoss();
+    
     /**
      * This function returns the similarity value (score) between two
      * raw sentences.Any sentence pre-processing is made by the underlying 
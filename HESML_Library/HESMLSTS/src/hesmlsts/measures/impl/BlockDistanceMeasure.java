@@ -28,10 +28,6 @@ import hesmlsts.measures.StringBasedSentenceSimilarityMethod;
 import hesmlsts.preprocess.IWordProcessing;
 import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Map;
-import java.util.Set;
 
 /**
  *  This class implements the Block Distance Measure.
@@ -121,6 +117,19 @@ class BlockDistanceMeasure extends SentenceSimilarityMeasure
     {
         return (SentenceSimilarityFamily.String);
     }
+    
+    /**
+     * This function returns true whether the word preprocessing object
+     * is thread-safe, because the token frequencies are stored in the
+     * profiles of the calling thread.
+     * @return 
+     */
+    
+    @Override
+    public boolean isThreadSafe()
+    {
+        return (m_preprocesser.isThreadSafe());
+    }
         
     /**
      * This function calculates the similarity value between two sentences.
@@ -152,102 +161,25 @@ class BlockDistanceMeasure extends SentenceSimilarityMeasure
         String[] lstWordsSentence1 = m_preprocesser.getWordTokens(strRawSentence1);
         String[] lstWordsSentence2 = m_preprocesser.getWordTokens(strRawSentence2);
         
-        // Hashmap to store the frequency that an element occurs in each sentence
-        
-        Map<String, Integer> mapOccurrencesSentence1 = getStringOccurrences(lstWordsSentence1);
-        Map<String, Integer> mapOccurrencesSentence2 = getStringOccurrences(lstWordsSentence2);
-        
-        // Count the total of items in each sentence (sum of the map values)
+        // We get the sorted token id profiles of both sentences
         
-        int countTotalWordsS1 = mapOccurrencesSentence1.values().stream().mapToInt(Integer::intValue).sum();
-        int countTotalWordsS2 = mapOccurrencesSentence2.values().stream().mapToInt(Integer::intValue).sum();
-       
-        //Calculate the distance
+        SentenceProfile[] profiles = SentenceProfile.getThreadProfiles();
         
-        // Get the union set of both sentences (a dictionary)
-                
-        Set<String> unionSentencesSet = new HashSet<>();
+        profiles[0].setTokens(lstWordsSentence1);
+        profiles[1].setTokens(lstWordsSentence2);
         
-        unionSentencesSet.addAll(mapOccurrencesSentence1.keySet());
-        unionSentencesSet.addAll(mapOccurrencesSentence2.keySet());
-        
-        // for each word get the abs(v1 - v2) being:
+        // We compute the sum of abs(v1 - v2) for each word, being:
         // v1 the number of times the actual word occurs in the sentence 1
         // v2 the number of times the actual word occurs in the sentence 2
         
-        for (String word : unionSentencesSet) 
-        {
-            // Initialize the frequency a word appears in the sentences to 0
-            
-            int frequencyofWordInSentence1 = 0;
-            int frequencyofWordInSentence2 = 0;
-            
-            // Get the number of occurences of the word in the first sentence
-            
-            Integer numberOfOccurences = mapOccurrencesSentence1.get(word);
-            
-            // If there is one or more occurrences, add to the frequency
-            
-            if (numberOfOccurences != null) 
-            {
-                frequencyofWordInSentence1 = numberOfOccurences;
-            }
-            
-            numberOfOccurences = mapOccurrencesSentence2.get(word);
-            
-            if (numberOfOccurences != null) 
-            {
-                frequencyofWordInSentence2 = numberOfOccurences;
-            }
-            
-            // Add the local distance to the total distance.
-            
-            distance += Math.abs(frequencyofWordInSentence1 - frequencyofWordInSentence2);
-        }
-        
-        // We release the auxiliary sets
-        
-        unionSentencesSet.clear();
-        mapOccurrencesSentence1.clear();
-        mapOccurrencesSentence2.clear();
-
+        distance = profiles[0].getFrequencyDistance(profiles[1]);
+        
         // The similarity is calculated as 1 minus the normalized distance
         
-        similarity = 1.0f - distance / (countTotalWordsS1 + countTotalWordsS2);
+        similarity = 1.0f - distance / (profiles[0].size() + profiles[1].size());
         
         // Return the similarity
         
         return (similarity);
     }
-    
-    /**
-     * Get a HashMap with the number of occurrences for each word in the sentence.
-     * 
-     * For example: "this words this ..."
-     * 
-     * {{"this", 2}, {"word", 1}, ...}
-     * 
-     * @param lstWordsSentence list of words in the sentence
-     * @return Map<String, Integer> string occurrences.
-     */
-    
-    private Map<String, Integer> getStringOccurrences(
-            String[]    lstWordsSentence)
-    {
-        // Initialize the output
-        
-        Map<String, Integer> occurrences = new HashMap<>(); 
-  
-        // For each word in the sentence, 
-        // count the time the word appears in the sentence and store it.
-        
-        for (String word : lstWordsSentence) { 
-            Integer numberOcurrencesofWordInSentence = occurrences.get(word); 
-            occurrences.put(word, (numberOcurrencesofWordInSentence == null) ? 1 : numberOcurrencesofWordInSentence + 1); 
-        } 
-        
-        // Return the result
-        
-        return (occurrences);
-    }
 }
\ No newline at end of file
@@ -25,8 +25,11 @@ import hesmlsts.measures.ICombinedSentenceSimilarityMeasure;
 import hesmlsts.measures.ISentenceSimilarityMeasure;
 import hesmlsts.measures.SentenceSimilarityFamily;
 import hesmlsts.measures.SentenceSimilarityMethod;
+import hesmlsts.preprocess.IWordProcessing;
 import java.io.FileNotFoundException;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
 
 /**
  * This class implements the general methods for calculating measures scores by combining different measures.
@@ -81,6 +84,26 @@ abstract class CombinedSentenceSimilarityMeasure implements ICombinedSentenceSim
             measure.clear();
     }
     
+    /**
+     * This function is called by any client function before to evaluate
+     * the current sentence similarity measure. The preloading is
+     * forwarded to all the combined measures.
+     * @param lstSentences1
+     * @param lstSentences2
+     * @throws Exception 
+     */
+    
+    @Override
+    public void preloadVocabulary(
+            String[] lstSentences1,
+            String[] lstSentences2) throws Exception
+    {
+        for (ISentenceSimilarityMeasure measure : m_measures)
+        {
+            measure.preloadVocabulary(lstSentences1, lstSentences2);
+        }
+    }
+    
     /**
      * This function returns the current method.
      * @return SentenceSimilarityMethod
@@ -97,6 +120,83 @@ abstract class CombinedSentenceSimilarityMeasure implements ICombinedSentenceSim
     @Override
     public abstract SentenceSimilarityFamily getFamily();
     
+    /**
+     * This function returns true whether all the combined measures are
+     * thread-safe.
+     * @return 
+     */
+    
+    @Override
+    public boolean isThreadSafe()
+    {
+        // We initialize the output
+        
+        boolean isThreadSafe = true;
+        
+        // We check all the measures
+        
+        for (ISentenceSimilarityMeasure measure : m_measures)
+        {
+            isThreadSafe = isThreadSafe && measure.isThreadSafe();
+        }
+        
+        // We return the result
+        
+        return (isThreadSafe);
+    }
+    
+    /**
+     * This function returns the word preprocessing objects used by
+     * all the combined measures.
+     * @return 
+     */
+    
+    @Override
+    public IWordProcessing[] getWordPreprocessors()
+    {
+        // We collect the preprocessing objects of all the measures
+        
+        ArrayList<IWordProcessing> preprocessors = new ArrayList<>();
+        
+        for (ISentenceSimilarityMeasure measure : m_measures)
+        {
+            preprocessors.addAll(Arrays.asList(measure.getWordPreprocessors()));
+        }
+        
+        // We return the result
+        
+        return (preprocessors.toArray(new IWordProcessing[preprocessors.size()]));
+    }
+    
+    /**
+     * This function returns the accuracy loss of the compressed models
+     * used by the combined measures, or null whether none of them uses
+     * a compressed model.
+     * @return
+     */
+    
+    @Override
+    public String getModelAccuracyLoss()
+    {
+        // We collect the accuracy loss of every combined measure
+        
+        ArrayList<String> strAccuracyLosses = new ArrayList<>();
+        
+        for (ISentenceSimilarityMeasure measure : m_measures)
+        {
+            String strAccuracyLoss = measure.getModelAccuracyLoss();
+            
+            if (strAccuracyLoss != null)
+            {
+                strAccuracyLosses.add(measure.getLabel() + " : " + strAccuracyLoss);
+            }
+        }
+        
+        // We return the result
+        
+        return (!strAccuracyLosses.isEmpty() ? String.join(", ", strAccuracyLosses) : null);
+    }
+    
     /**
      * Get the similarity value of two sentences.
      * Each measure implements its own method.
@@ -138,19 +238,9 @@ abstract class CombinedSentenceSimilarityMeasure implements ICombinedSentenceSim
             throw new IllegalArgumentException(strerror);
         }
         
-        // Initialize the scores
-        
-        double[] similarityScores = new double[firstSentencesVector.length];
-        
-        // Iterate the sentences and get the similarity scores.
-        
-        for (int i = 0; i < firstSentencesVector.length; i++)
-        {
-            similarityScores[i] = this.getSimilarityValue(firstSentencesVector[i], secondSentencesVector[i]);
-        }
-        
-        // Return the result
+        // We evaluate the sentence pairs
         
-        return (similarityScores);
+        return (SentenceSimilarityMeasure.evaluateSentencePairs(this,
+                    firstSentencesVector, secondSentencesVector));
     }
 }
\ No newline at end of file
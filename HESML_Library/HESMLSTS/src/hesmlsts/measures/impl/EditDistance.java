@@ -0,0 +1,558 @@
+/*
+ * Copyright (C) 2016-2022 Universidad Nacional de Educación a Distancia (UNED)
+ *
+ * This program is free software for non-commercial use:
+ * you can redistribute it and/or modify it under the terms of the
+ * Creative Commons Attribution-NonCommercial-ShareAlike 4.0 International
+ * (CC BY-NC-SA 4.0) as published by the Creative Commons Corporation,
+ * either version 4 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * section 5 of the CC BY-NC-SA 4.0 License for more details.
+ *
+ * You should have received a copy of the Creative Commons
+ * Attribution-NonCommercial-ShareAlike 4.0 International (CC BY-NC-SA 4.0)
+ * license along with this program. If not,
+ * see <http://creativecommons.org/licenses/by-nc-sa/4.0/>.
+ *
+ */
+
+package hesmlsts.measures.impl;
+
+import java.util.Arrays;
+
+/**
+ * This class implements the edit distance functions used by the
+ * Levenshtein measure. The unit-cost distance is computed by the
+ * bit-parallel algorithm of Myers in the global distance formulation
+ * of Hyyrö, which processes 64 rows of the dynamic programming matrix
+ * per machine word. The banded function computes the unit-cost distance
+ * only whether it does not exceed a known threshold, whilst the weighted
+ * distance is computed by the classic dynamic programming algorithm.
+ * All the working buffers are reused by every thread, thus the functions
+ * do not allocate any object per sentence pair once warmed up.
+ *
+ *  Myers, Gene. 1999. “A Fast Bit-Vector Algorithm for Approximate
+ *  String Matching Based on Dynamic Programming.”
+ *  Journal of the ACM 46 (3): 395–415.
+ *
+ *  Hyyrö, Heikki. 2003. “A Bit-Vector Algorithm for Computing
+ *  Levenshtein and Damerau Edit Distances.”
+ *  Nordic Journal of Computing 10 (1): 29–39.
+ *
+ *  Ukkonen, Esko. 1985. “Algorithms for Approximate String Matching.”
+ *  Information and Control 64 (1-3): 100–118.
+ *
+ * @author alicia
+ */
+
+class EditDistance
+{
+    /**
+     * Working buffers of every thread
+     */
+    
+    private static final ThreadLocal<WorkingBuffers>    m_Buffers = new ThreadLocal<>();
+    
+    /**
+     * This class holds the working buffers of a thread, which are grown
+     * on demand to fit the longest sentences evaluated so far.
+     */
+    
+    private static class WorkingBuffers
+    {
+        /**
+         * Dense id of every character in the current pattern string.
+         * The zero id is assigned to the characters not in the pattern,
+         * thus the ids are reset after every distance computation.
+         */
+        
+        final int[] m_CharIds = new int[Character.MAX_VALUE + 1];
+        
+        /**
+         * Match masks of every pattern character and row block
+         */
+        
+        long[]  m_MatchMasks = new long[0];
+        
+        /**
+         * Positive and negative vertical deltas of every row block
+         */
+        
+        long[]  m_PositiveDeltas = new long[0];
+        long[]  m_NegativeDeltas = new long[0];
+        
+        /**
+         * Rows of the dynamic programming matrix
+         */
+        
+        int[]       m_IntRow1 = new int[0];
+        int[]       m_IntRow2 = new int[0];
+        double[]    m_Row1 = new double[0];
+        double[]    m_Row2 = new double[0];
+    }
+    
+    /**
+     * This function returns the working buffers of the current thread.
+     * @return
+     */
+    
+    private static WorkingBuffers getBuffers()
+    {
+        WorkingBuffers buffers = m_Buffers.get();
+        
+        if (buffers == null)
+        {
+            buffers = new WorkingBuffers();
+            m_Buffers.set(buffers);
+        }
+        
+        // We return the result
+        
+        return (buffers);
+    }
+    
+    /**
+     * This function computes the Levenshtein distance between two strings
+     * with unit costs for the insert, delete and substitute operations.
+     * The shortest string is encoded as a bit-vector pattern and the
+     * longest one is scanned once, thus the cost is O(ceil(m/64)·n).
+     * @param strText1
+     * @param strText2
+     * @return Edit distance
+     */
+    
+    static int getUnitDistance(
+            String  strText1,
+            String  strText2)
+    {
+        // We use the shortest string as the pattern
+        
+        String strPattern = (strText1.length() <= strText2.length()) ? strText1 : strText2;
+        String strText = (strPattern == strText1) ? strText2 : strText1;
+        
+        // We initialize the result
+        
+        int distance = strText.length();
+        
+        if (!strPattern.isEmpty())
+        {
+            WorkingBuffers buffers = getBuffers();
+            
+            int patternLength = strPattern.length();
+            int blockCount = (patternLength + 63) >>> 6;
+            
+            // We assign a dense id to every distinct pattern character
+            
+            int[] charIds = buffers.m_CharIds;
+            int charCount = 0;
+            
+            for (int i = 0; i < patternLength; i++)
+            {
+                char c = strPattern.charAt(i);
+                
+                if (charIds[c] == 0)
+                {
+                    charIds[c] = ++charCount;
+                }
+            }
+            
+            // We build the match masks of the pattern characters.
+            // The masks of the zero id remain empty.
+            
+            int maskCount = (charCount + 1) * blockCount;
+            
+            if (buffers.m_MatchMasks.length < maskCount)
+            {
+                buffers.m_MatchMasks = new long[Math.max(maskCount, 2 * buffers.m_MatchMasks.length)];
+            }
+            
+            long[] matchMasks = buffers.m_MatchMasks;
+            
+            Arrays.fill(matchMasks, 0, maskCount, 0L);
+            
+            for (int i = 0; i < patternLength; i++)
+            {
+                matchMasks[charIds[strPattern.charAt(i)] * blockCount + (i >>> 6)] |= 1L << i;
+            }
+            
+            // We compute the distance
+            
+            distance = (blockCount == 1) ?
+                        getSingleWordDistance(strText, patternLength, charIds, matchMasks) :
+                        getMultiWordDistance(strText, patternLength, blockCount, charIds, matchMasks, buffers);
+            
+            // We reset the character ids for the next computation
+            
+            for (int i = 0; i < patternLength; i++)
+            {
+                charIds[strPattern.charAt(i)] = 0;
+            }
+        }
+        
+        // We return the result
+        
+        return (distance);
+    }
+    
+    /**
+     * This function computes the unit-cost distance for a pattern
+     * of at most 64 characters, whose rows fit into a single word.
+     * @param strText
+     * @param patternLength
+     * @param charIds
+     * @param matchMasks
+     * @return
+     */
+    
+    private static int getSingleWordDistance(
+            String  strText,
+            int     patternLength,
+            int[]   charIds,
+            long[]  matchMasks)
+    {
+        // We initialize the vertical deltas of the first column: D[i][0] = i
+        
+        long positiveDeltas = -1L;
+        long negativeDeltas = 0L;
+        
+        long lastRowBit = 1L << (patternLength - 1);
+        
+        int distance = patternLength;
+        
+        // We process the text columns
+        
+        for (int j = 0; j < strText.length(); j++)
+        {
+            long matches = matchMasks[charIds[strText.charAt(j)]];
+            
+            long verticalChanges = matches | negativeDeltas;
+            long horizontalChanges = (((matches & positiveDeltas) + positiveDeltas) ^ positiveDeltas) | matches;
+            
+            long positiveHorizontal = negativeDeltas | ~(horizontalChanges | positiveDeltas);
+            long negativeHorizontal = positiveDeltas & horizontalChanges;
+            
+            // We update the distance in the last row
+            
+            if ((positiveHorizontal & lastRowBit) != 0)
+            {
+                distance++;
+            }
+            else if ((negativeHorizontal & lastRowBit) != 0)
+            {
+                distance--;
+            }
+            
+            // The first row increases by one on every column: D[0][j] = j
+            
+            positiveHorizontal = (positiveHorizontal << 1) | 1L;
+            negativeHorizontal <<= 1;
+            
+            positiveDeltas = negativeHorizontal | ~(verticalChanges | positiveHorizontal);
+            negativeDeltas = positiveHorizontal & verticalChanges;
+        }
+        
+        // We return the result
+        
+        return (distance);
+    }
+    
+    /**
+     * This function computes the unit-cost distance for a pattern longer
+     * than 64 characters. The rows are split into blocks of 64 rows and
+     * the horizontal delta leaving every block is carried into the next one.
+     * @param strText
+     * @param patternLength
+     * @param blockCount
+     * @param charIds
+     * @param matchMasks
+     * @param buffers
+     * @return
+     */
+    
+    private static int getMultiWordDistance(
+            String          strText,
+            int             patternLength,
+            int             blockCount,
+            int[]           charIds,
+            long[]          matchMasks,
+            WorkingBuffers  buffers)
+    {
+        // We initialize the vertical deltas of the first column: D[i][0] = i
+        
+        if (buffers.m_PositiveDeltas.length < blockCount)
+        {
+            buffers.m_PositiveDeltas = new long[Math.max(blockCount, 2 * buffers.m_PositiveDeltas.length)];
+            buffers.m_NegativeDeltas = new long[buffers.m_PositiveDeltas.length];
+        }
+        
+        long[] positiveDeltas = buffers.m_PositiveDeltas;
+        long[] negativeDeltas = buffers.m_NegativeDeltas;
+        
+        Arrays.fill(positiveDeltas, 0, blockCount, -1L);
+        Arrays.fill(negativeDeltas, 0, blockCount, 0L);
+        
+        int lastBlock = blockCount - 1;
+        long lastRowBit = 1L << (patternLength - 1);
+        
+        int distance = patternLength;
+        
+        // We process the text columns
+        
+        for (int j = 0; j < strText.length(); j++)
+        {
+            int maskOffset = charIds[strText.charAt(j)] * blockCount;
+            
+            // The first row increases by one on every column: D[0][j] = j
+            
+            int horizontalDelta = 1;
+            
+            for (int block = 0; block < blockCount; block++)
+            {
+                long matches = matchMasks[maskOffset + block];
+                long positive = positiveDeltas[block];
+                long negative = negativeDeltas[block];
+                
+                long verticalChanges = matches | negative;
+                
+                if (horizontalDelta < 0)
+                {
+                    matches |= 1L;
+                }
+                
+                long horizontalChanges = (((matches & positive) + positive) ^ positive) | matches;
+                
+                long positiveHorizontal = negative | ~(horizontalChanges | positive);
+                long negativeHorizontal = positive & horizontalChanges;
+                
+                // We get the horizontal delta in the last row of the block
+                
+                long highBit = (block == lastBlock) ? lastRowBit : Long.MIN_VALUE;
+                
+                int outputDelta = 0;
+                
+                if ((positiveHorizontal & highBit) != 0)
+                {
+                    outputDelta = 1;
+                }
+                else if ((negativeHorizontal & highBit) != 0)
+                {
+                    outputDelta = -1;
+                }
+                
+                // We shift the horizontal deltas carrying the input delta
+                
+                positiveHorizontal <<= 1;
+                negativeHorizontal <<= 1;
+                
+                if (horizontalDelta < 0)
+                {
+                    negativeHorizontal |= 1L;
+                }
+                else if (horizontalDelta > 0)
+                {
+                    positiveHorizontal |= 1L;
+                }
+                
+                positiveDeltas[block] = negativeHorizontal | ~(verticalChanges | positiveHorizontal);
+                negativeDeltas[block] = positiveHorizontal & verticalChanges;
+                
+                horizontalDelta = outputDelta;
+            }
+            
+            // We update the distance in the last row
+            
+            distance += horizontalDelta;
+        }
+        
+        // We return the result
+        
+        return (distance);
+    }
+    
+    /**
+     * This function computes the unit-cost Levenshtein distance whether
+     * it does not exceed the input threshold. Only the diagonal band of
+     * the dynamic programming matrix whose cells can be lower than or
+     * equal to the threshold is computed, and the computation stops as
+     * soon as all the cells in a row exceed it.
+     * @param strText1
+     * @param strText2
+     * @param maxDistance Threshold of the distance
+     * @return Edit distance, or maxDistance + 1 whether it is exceeded
+     */
+    
+    static int getBoundedUnitDistance(
+            String  strText1,
+            String  strText2,
+            int     maxDistance)
+    {
+        int length1 = strText1.length();
+        int length2 = strText2.length();
+        
+        // Any value greater than the threshold is saturated
+        
+        int outOfBand = maxDistance + 1;
+        
+        // We initialize the result
+        
+        int distance = outOfBand;
+        
+        // The distance is never lower than the length difference
+        
+        if (Math.abs(length1 - length2) <= maxDistance)
+        {
+            WorkingBuffers buffers = getBuffers();
+            
+            if (buffers.m_IntRow1.length < length2 + 1)
+            {
+                buffers.m_IntRow1 = new int[Math.max(length2 + 1, 2 * buffers.m_IntRow1.length)];
+                buffers.m_IntRow2 = new int[buffers.m_IntRow1.length];
+            }
+            
+            int[] previousRow = buffers.m_IntRow1;
+            int[] currentRow = buffers.m_IntRow2;
+            int[] swap;
+            
+            // We initialize the first row within the band
+            
+            int bandEnd = Math.min(length2, maxDistance);
+            
+            for (int j = 0; j <= bandEnd; j++)
+            {
+                previousRow[j] = j;
+            }
+            
+            if (bandEnd < length2)
+            {
+                previousRow[bandEnd + 1] = outOfBand;
+            }
+            
+            // We compute the band of every row
+            
+            boolean exceeded = false;
+            
+            for (int i = 1; (i <= length1) && !exceeded; i++)
+            {
+                int bandStart = Math.max(1, i - maxDistance);
+                
+                bandEnd = Math.min(length2, i + maxDistance);
+                
+                // The cell before the band is either in the first column or out of it
+                
+                currentRow[bandStart - 1] = ((bandStart == 1) && (i <= maxDistance)) ? i : outOfBand;
+                
+                int rowMinimum = currentRow[bandStart - 1];
+                
+                char c = strText1.charAt(i - 1);
+                
+                for (int j = bandStart; j <= bandEnd; j++)
+                {
+                    int cost = previousRow[j - 1] + ((c == strText2.charAt(j - 1)) ? 0 : 1);
+                    
+                    cost = Math.min(cost, currentRow[j - 1] + 1);
+                    cost = Math.min(cost, previousRow[j] + 1);
+                    
+                    currentRow[j] = Math.min(cost, outOfBand);
+                    rowMinimum = Math.min(rowMinimum, currentRow[j]);
+                }
+                
+                // The cell after the band is out of it in the next row
+                
+                if (bandEnd < length2)
+                {
+                    currentRow[bandEnd + 1] = outOfBand;
+                }
+                
+                // We stop whether all the cells in the row exceed the threshold
+                
+                exceeded = (rowMinimum > maxDistance);
+                
+                // We swap both rows
+                
+                swap = previousRow;
+                previousRow = currentRow;
+                currentRow = swap;
+            }
+            
+            if (!exceeded)
+            {
+                distance = previousRow[length2];
+            }
+        }
+        
+        // We return the result
+        
+        return (distance);
+    }
+    
+    /**
+     * This function computes the weighted Levenshtein distance between
+     * two strings by the classic dynamic programming algorithm.
+     * @param strText1
+     * @param strText2
+     * @param insertDeleteCost Cost of an insert or delete operation
+     * @param substituteCost Cost of a substitute operation
+     * @return Edit distance
+     */
+    
+    static double getWeightedDistance(
+            String  strText1,
+            String  strText2,
+            double  insertDeleteCost,
+            double  substituteCost)
+    {
+        WorkingBuffers buffers = getBuffers();
+        
+        int length2 = strText2.length();
+        
+        if (buffers.m_Row1.length < length2 + 1)
+        {
+            buffers.m_Row1 = new double[Math.max(length2 + 1, 2 * buffers.m_Row1.length)];
+            buffers.m_Row2 = new double[buffers.m_Row1.length];
+        }
+        
+        double[] previousRow = buffers.m_Row1;
+        double[] currentRow = buffers.m_Row2;
+        double[] swap;
+        
+        // We initialize the first row: the cost of inserting the text 2
+        
+        for (int j = 0; j <= length2; j++)
+        {
+            previousRow[j] = j * insertDeleteCost;
+        }
+        
+        // We compute the cost of insert, delete and substitute the characters
+        
+        for (int i = 0; i < strText1.length(); i++)
+        {
+            currentRow[0] = (i + 1) * insertDeleteCost;
+            
+            char c = strText1.charAt(i);
+            
+            for (int j = 0; j < length2; j++)
+            {
+                double substitutionCost = (c == strText2.charAt(j)) ? 0.0 : substituteCost;
+                
+                currentRow[j + 1] = Math.min(currentRow[j] + insertDeleteCost,
+                                        previousRow[j + 1] + insertDeleteCost);
+                
+                currentRow[j + 1] = Math.min(currentRow[j + 1],
+                                        previousRow[j] + substitutionCost);
+            }
+            
+            // We swap both rows
+            
+            swap = previousRow;
+            previousRow = currentRow;
+            currentRow = swap;
+        }
+        
+        // We return the result
+        
+        return (previousRow[length2]);
+    }
+}
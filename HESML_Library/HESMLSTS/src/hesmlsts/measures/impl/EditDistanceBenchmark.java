@@ -0,0 +1,284 @@
+/*
+ * Copyright (C) 2016-2022 Universidad Nacional de Educación a Distancia (UNED)
+ *
+ * This program is free software for non-commercial use:
+ * you can redistribute it and/or modify it under the terms of the
+ * Creative Commons Attribution-NonCommercial-ShareAlike 4.0 International
+ * (CC BY-NC-SA 4.0) as published by the Creative Commons Corporation,
+ * either version 4 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * section 5 of the CC BY-NC-SA 4.0 License for more details.
+ *
+ * You should have received a copy of the Creative Commons
+ * Attribution-NonCommercial-ShareAlike 4.0 International (CC BY-NC-SA 4.0)
+ * license along with this program. If not,
+ * see <http://creativecommons.org/licenses/by-nc-sa/4.0/>.
+ *
+ */
+
+package hesmlsts.measures.impl;
+
+import java.util.Random;
+
+/**
+ * This class implements a microbenchmark of the edit distance functions
+ * used by the Levenshtein measure. The benchmark builds a set of random
+ * sentence pairs made up by biomedical-like words, checks that every
+ * optimized function returns the same distance as the classic dynamic
+ * programming algorithm, and reports the average time per pair.
+ * The benchmark is run as follows:
+ *
+ *  java -cp HESMLSTS.jar hesmlsts.measures.impl.EditDistanceBenchmark [pairCount]
+ *
+ * @author alicia
+ */
+
+class EditDistanceBenchmark
+{
+    /**
+     * Vocabulary used to build the random sentences
+     */
+    
+    private static final String[] m_Vocabulary = {"the", "of", "and", "in",
+        "patients", "protein", "expression", "cells", "gene", "tumor",
+        "was", "were", "with", "treatment", "cancer", "mutations", "levels",
+        "increased", "significantly", "receptor", "kinase", "pathway",
+        "inhibition", "mice", "clinical", "therapy", "risk", "associated",
+        "β-catenin", "TP53", "BRCA1", "apoptosis", "signaling", "induced"};
+    
+    /**
+     * Number of timed repetitions of every function
+     */
+    
+    private static final int    REPETITIONS = 5;
+    
+    /**
+     * This function runs the benchmark.
+     * @param args Optional number of sentence pairs
+     * @throws Exception
+     */
+    
+    public static void main(String[] args) throws Exception
+    {
+        // We build the sentence pairs
+        
+        int pairCount = (args.length > 0) ? Integer.parseInt(args[0]) : 2000;
+        
+        String[] sentences1 = new String[pairCount];
+        String[] sentences2 = new String[pairCount];
+        
+        Random random = new Random(2022);
+        
+        long totalChars = 0;
+        
+        for (int i = 0; i < pairCount; i++)
+        {
+            sentences1[i] = getRandomSentence(random);
+            sentences2[i] = (i % 2 == 0) ? getEditedSentence(sentences1[i], random) : getRandomSentence(random);
+            
+            totalChars += sentences1[i].length() + sentences2[i].length();
+        }
+        
+        System.out.println("Edit distance microbenchmark: " + pairCount
+                + " sentence pairs, " + (totalChars / (2 * pairCount))
+                + " characters per sentence on average");
+        
+        // We check the equivalence of the optimized functions
+        
+        int mismatches = 0;
+        
+        for (int i = 0; i < pairCount; i++)
+        {
+            double unitDistance = getClassicDistance(sentences1[i], sentences2[i], 1.0, 1.0);
+            double weightedDistance = getClassicDistance(sentences1[i], sentences2[i], 1.0, 2.0);
+            
+            int threshold = sentences1[i].length() / 4;
+            
+            if ((EditDistance.getUnitDistance(sentences1[i], sentences2[i]) != unitDistance)
+                    || (EditDistance.getBoundedUnitDistance(sentences1[i], sentences2[i], threshold)
+                        != Math.min(unitDistance, threshold + 1))
+                    || (EditDistance.getWeightedDistance(sentences1[i], sentences2[i], 1.0, 2.0)
+                        != weightedDistance))
+            {
+                mismatches++;
+            }
+        }
+        
+        System.out.println("Mismatched distances: " + mismatches);
+        
+        // We time every function
+        
+        long checksum = 0;
+        
+        for (int function = 0; function < 4; function++)
+        {
+            long bestTime = Long.MAX_VALUE;
+            
+            for (int repetition = 0; repetition < REPETITIONS; repetition++)
+            {
+                long startTime = System.nanoTime();
+                
+                for (int i = 0; i < pairCount; i++)
+                {
+                    switch (function)
+                    {
+                        case 0:
+                            
+                            checksum += getClassicDistance(sentences1[i], sentences2[i], 1.0, 1.0);
+                            break;
+                        
+                        case 1:
+                            
+                            checksum += EditDistance.getUnitDistance(sentences1[i], sentences2[i]);
+                            break;
+                        
+                        case 2:
+                            
+                            checksum += EditDistance.getBoundedUnitDistance(sentences1[i],
+                                            sentences2[i], sentences1[i].length() / 4);
+                            break;
+                        
+                        case 3:
+                            
+                            checksum += EditDistance.getWeightedDistance(sentences1[i], sentences2[i], 1.0, 2.0);
+                            break;
+                    }
+                }
+                
+                bestTime = Math.min(bestTime, System.nanoTime() - startTime);
+            }
+            
+            String[] strFunctions = {"Classic DP (allocating)", "Bit-parallel (unit costs)",
+                                    "Banded (threshold = length/4)", "Weighted DP (reused buffers)"};
+            
+            System.out.println(String.format("%-32s%10.3f us/pair", strFunctions[function],
+                                bestTime / 1000.0 / pairCount));
+        }
+        
+        System.out.println("Checksum: " + checksum);
+    }
+    
+    /**
+     * This function builds a random sentence.
+     * @param random
+     * @return
+     */
+    
+    private static String getRandomSentence(
+            Random  random)
+    {
+        StringBuilder sentence = new StringBuilder();
+        
+        int wordCount = 10 + random.nextInt(50);
+        
+        for (int i = 0; i < wordCount; i++)
+        {
+            if (i > 0)
+            {
+                sentence.append(' ');
+            }
+            
+            sentence.append(m_Vocabulary[random.nextInt(m_Vocabulary.length)]);
+        }
+        
+        // We return the result
+        
+        return (sentence.toString());
+    }
+    
+    /**
+     * This function returns a copy of the input sentence with a few
+     * random character edits in order to get close sentence pairs.
+     * @param strSentence
+     * @param random
+     * @return
+     */
+    
+    private static String getEditedSentence(
+            String  strSentence,
+            Random  random)
+    {
+        StringBuilder sentence = new StringBuilder(strSentence);
+        
+        int editCount = 1 + random.nextInt(Math.max(1, strSentence.length() / 10));
+        
+        for (int i = 0; (i < editCount) && (sentence.length() > 1); i++)
+        {
+            int position = random.nextInt(sentence.length());
+            
+            switch (random.nextInt(3))
+            {
+                case 0:
+                    
+                    sentence.deleteCharAt(position);
+                    break;
+                
+                case 1:
+                    
+                    sentence.insert(position, (char)('a' + random.nextInt(26)));
+                    break;
+                
+                default:
+                    
+                    sentence.setCharAt(position, (char)('a' + random.nextInt(26)));
+                    break;
+            }
+        }
+        
+        // We return the result
+        
+        return (sentence.toString());
+    }
+    
+    /**
+     * This function computes the weighted Levenshtein distance by the
+     * classic dynamic programming algorithm allocating two cost vectors
+     * per call, which is the reference of the benchmark.
+     * @param strText1
+     * @param strText2
+     * @param insertDeleteCost
+     * @param substituteCost
+     * @return
+     */
+    
+    private static double getClassicDistance(
+            String  strText1,
+            String  strText2,
+            double  insertDeleteCost,
+            double  substituteCost)
+    {
+        double[] swap;
+        double[] previousRow = new double[strText2.length() + 1];
+        double[] currentRow = new double[strText2.length() + 1];
+        
+        for (int j = 0; j < previousRow.length; j++)
+        {
+            previousRow[j] = j * insertDeleteCost;
+        }
+        
+        for (int i = 0; i < strText1.length(); i++)
+        {
+            currentRow[0] = (i + 1) * insertDeleteCost;
+            
+            for (int j = 0; j < strText2.length(); j++)
+            {
+                double substitutionCost = (strText1.charAt(i) == strText2.charAt(j)) ? 0.0 : substituteCost;
+                
+                currentRow[j + 1] = Math.min(Math.min(currentRow[j] + insertDeleteCost,
+                                        previousRow[j + 1] + insertDeleteCost),
+                                        previousRow[j] + substitutionCost);
+            }
+            
+            swap = previousRow;
+            previousRow = currentRow;
+            currentRow = swap;
+        }
+        
+        // We return the result
+        
+        return (previousRow[strText2.length()]);
+    }
+}
@@ -28,9 +28,6 @@ import hesmlsts.measures.StringBasedSentenceSimilarityMethod;
 import hesmlsts.preprocess.IWordProcessing;
 import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.util.Arrays;
-import java.util.HashSet;
-import java.util.Set;
 
 /**
  *  This function implements the Jaccard similarity between two sentences .
@@ -96,6 +93,19 @@ class JaccardMeasure extends SentenceSimilarityMeasure
         return (SentenceSimilarityFamily.String);
     }
     
+    /**
+     * This function returns true whether the word preprocessing object
+     * is thread-safe, because the token sets are counted with the
+     * profiles of the calling thread.
+     * @return 
+     */
+    
+    @Override
+    public boolean isThreadSafe()
+    {
+        return (m_preprocesser.isThreadSafe());
+    }
+    
     /**
      * This function returns the type of method implemented by the current
      * sentence similarity measure.
@@ -152,19 +162,20 @@ class JaccardMeasure extends SentenceSimilarityMeasure
         String[] lstWordsSentence1 = m_preprocesser.getWordTokens(strRawSentence1);
         String[] lstWordsSentence2 = m_preprocesser.getWordTokens(strRawSentence2);
         
-        // Convert the lists to set objects
-        // HashSet is a set where the elements are not sorted or ordered.
+        // We get the sorted token id profiles of both sentences
+        
+        SentenceProfile[] profiles = SentenceProfile.getThreadProfiles();
+        
+        profiles[0].setTokens(lstWordsSentence1);
+        profiles[1].setTokens(lstWordsSentence2);
         
-        Set<String> setWordsSentence1 = new HashSet<>(Arrays.asList(lstWordsSentence1)); 
-        Set<String> setWordsSentence2 = new HashSet<>(Arrays.asList(lstWordsSentence2)); 
-
         // If both sets are empty, the similarity is 1
         
-        if (setWordsSentence1.isEmpty() && setWordsSentence2.isEmpty())
+        if ((profiles[0].size() == 0) && (profiles[1].size() == 0))
         {
             similarity = 1.0;
         }
-        else if (setWordsSentence1.isEmpty() || setWordsSentence2.isEmpty())
+        else if ((profiles[0].size() == 0) || (profiles[1].size() == 0))
         {
             similarity = 0.0;
         }
@@ -172,48 +183,18 @@ class JaccardMeasure extends SentenceSimilarityMeasure
         {
             // We compute the number of common words
             
-            double intersection = intersection(setWordsSentence1, setWordsSentence2).size();
-
+            double intersection = profiles[0].getCommonDistinctCount(profiles[1]);
+            
             // ∣a ∩ b∣ / ∣a ∪ b∣
             // Implementation note: The size of the union of two sets is equal to
             // the size of both sets minus the duplicate elements.
-
+            
             similarity = intersection /
-                        (setWordsSentence1.size() + setWordsSentence2.size() - intersection);
+                        (profiles[0].getDistinctCount() + profiles[1].getDistinctCount() - intersection);
         }
         
-        // We release all auxiliary objects
-        
-        setWordsSentence1.clear();
-        setWordsSentence2.clear();
-        
         // We return the result
         
         return (similarity);
     }
-    
-    /**
-     * This function calculates the intersection between two sets 
-     * to compute the Jaccard Similarity.
-     * @param s1
-     * @param s2
-     * @return Set<String> intersection set
-     */
-    
-    static Set<String> intersection(
-            Set<String> s1, 
-            Set<String> s2) 
-    {
-        // Initialize the set with the information of the first set
-        
-        Set<String> intersection = new HashSet<>(s1);
-        
-        // Intersect with the second set
-        
-        intersection.retainAll(s2);
-        
-        // Return the intersection
-        
-        return (intersection);
-    }
 }
\ No newline at end of file
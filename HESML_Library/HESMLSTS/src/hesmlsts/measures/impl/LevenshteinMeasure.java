@@ -34,6 +34,9 @@ import java.io.IOException;
  * 
  *  * In this implementation, the cost of insert and deletions are 1 by default.
  * 
+ *  The uniform-cost distances are computed by the bit-parallel algorithm
+ *  implemented in the EditDistance class.
+ * 
  *  Levenshtein, Vladimir I. 1966. “Binary Codes Capable of 
  *  Correcting Deletions, Insertions, and Reversals.” 
  *  In Soviet Physics Doklady, 10:707–10. nymity.ch.
@@ -120,6 +123,19 @@ class LevenshteinMeasure extends SentenceSimilarityMeasure
         return (SentenceSimilarityFamily.String);
     }
     
+    /**
+     * This function returns true whether the word preprocessing object
+     * is thread-safe, because the edit distances are computed with the
+     * working buffers of the calling thread.
+     * @return 
+     */
+    
+    @Override
+    public boolean isThreadSafe()
+    {
+        return (m_preprocesser.isThreadSafe());
+    }
+    
     /**
      * This function returns the String method.
      * @return StringBasedSentenceSimilarityMethod
@@ -220,58 +236,39 @@ class LevenshteinMeasure extends SentenceSimilarityMeasure
         {
             distanceValue = 0.0;
         }
+        else if ((m_insertDeleteCost == m_substituteCost) && isPowerOfTwo(m_insertDeleteCost))
+        {
+            // The uniform-cost distance is the unit-cost distance scaled by
+            // the cost, which is computed by the bit-parallel algorithm.
+            // The product only matches the sums of the weighted distance
+            // bit by bit whether the cost is a power of two.
+            
+            distanceValue = m_insertDeleteCost * EditDistance.getUnitDistance(strSentence1, strSentence2);
+        }
         else
         {
-            // Initialize the vectors cost
-
-            double[] swap;
-            double[] costVectorSentence1 = new double[strSentence2.length() + 1];
-            double[] costVectorSentence2 = new double[strSentence2.length() + 1];
-
-            // initialize costVectorSentence1 (the previous row of distances)
-            // this row is A[0][i]: edit distance for an empty s
-            // the distance is just the number of characters to delete from t
-
-            for (int i = 0; i < costVectorSentence1.length; i++) 
-            {
-                costVectorSentence1[i] = i * m_insertDeleteCost;
-            }
+            // We compute the weighted distance reusing the cost vectors of the thread
             
-            // We compute the cost of insert, delete and substitute the characters
-            // of wrod2 to become word1
-
-            for (int i = 0; i < strSentence1.length(); i++) 
-            {
-                // first element of v1 is A[i+1][0]
-                // edit distance is delete (i+1) chars from s to match empty t
-
-                costVectorSentence2[0] = (i + 1) * m_insertDeleteCost;
-
-                for (int j = 0; j < strSentence2.length(); j++) 
-                {
-                    double substitutionCost = (strSentence1.charAt(i) 
-                            == strSentence2.charAt(j)) ? 0.0 : m_substituteCost;
-
-                    costVectorSentence2[j + 1] = Math.min(costVectorSentence2[j] 
-                            + m_insertDeleteCost, costVectorSentence1[j + 1] + m_insertDeleteCost);
-                    costVectorSentence2[j + 1] = Math.min(costVectorSentence2[j + 1], 
-                            costVectorSentence1[j] + substitutionCost);
-                }
-
-                // We swap both cost vectors
-                
-                swap = costVectorSentence1;
-                costVectorSentence1 = costVectorSentence2;
-                costVectorSentence2 = swap;
-            }
-
-            // latest results was in v1 which was swapped with v0
-        
-            distanceValue = costVectorSentence1[strSentence2.length()];
+            distanceValue = EditDistance.getWeightedDistance(strSentence1,
+                                strSentence2, m_insertDeleteCost, m_substituteCost);
         }
         
         // We return the result
         
         return (distanceValue);
     }
+    
+    /**
+     * This function checks whether the input cost is a power of two,
+     * such as 1.0, 0.5 or 2.0, thus its multiples are computed exactly.
+     * @param cost
+     * @return 
+     */
+    
+    private static boolean isPowerOfTwo(
+            double  cost)
+    {
+        return ((cost >= Double.MIN_NORMAL) && (cost <= Double.MAX_VALUE)
+                && ((Double.doubleToLongBits(cost) & 0x000FFFFFFFFFFFFFL) == 0));
+    }
 }
\ No newline at end of file
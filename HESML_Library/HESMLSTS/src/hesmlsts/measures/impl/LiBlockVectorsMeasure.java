@@ -28,11 +28,7 @@ import hesmlsts.measures.SentenceSimilarityMethod;
 import hesmlsts.preprocess.IWordProcessing;
 import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashSet;
-import java.util.LinkedHashSet;
-import java.util.Set;
 
 /**
  * This class implements the LiBlock method
@@ -134,6 +130,41 @@ class LiBlockVectorsMeasure extends SentenceSimilarityMeasure
         return (SentenceSimilarityFamily.String);
     }
     
+    /**
+     * This function returns true whether the getSimilarityValue function
+     * can be called concurrently by several threads, which depends on
+     * the word preprocessing object and the string-based measure.
+     * @return 
+     */
+    
+    @Override
+    public boolean isThreadSafe()
+    {
+        return (m_preprocesser.isThreadSafe() && m_stringMeasure.isThreadSafe());
+    }
+    
+    /**
+     * This function returns the word preprocessing objects used by the
+     * measure and its string-based measure.
+     * @return 
+     */
+    
+    @Override
+    public IWordProcessing[] getWordPreprocessors()
+    {
+        // We append the preprocessing objects of the string-based measure
+        
+        IWordProcessing[] stringPreprocessors = m_stringMeasure.getWordPreprocessors();
+        
+        IWordProcessing[] preprocessors = Arrays.copyOf(stringPreprocessors, stringPreprocessors.length + 1);
+        
+        preprocessors[stringPreprocessors.length] = m_preprocesser;
+        
+        // We return the result
+        
+        return (preprocessors);
+    }
+    
     /**
      * The method returns the similarity value between two sentences 
      * using the WBSM measure.
@@ -160,10 +191,6 @@ class LiBlockVectorsMeasure extends SentenceSimilarityMeasure
         double[] semanticVector1 = null;
         double[] semanticVector2 = null;
         
-        // We initialize the dictionary vector
-        
-        ArrayList<String> dictionary = null;
-        
         // Preprocess the sentences and get the tokens for each sentence
         
         String[] lstWordsSentence1 = null;
@@ -174,12 +201,12 @@ class LiBlockVectorsMeasure extends SentenceSimilarityMeasure
         lstWordsSentence1 = m_preprocesser.getWordTokens(strRawSentence1);
         lstWordsSentence2 = m_preprocesser.getWordTokens(strRawSentence2);
         
-        dictionary = constructDictionaryList(lstWordsSentence1, lstWordsSentence2);
+        WordSimilarityMatrix dictionary = new WordSimilarityMatrix(lstWordsSentence1, lstWordsSentence2);
         
         // 2. Initialize the semantic vectors.
         
-        semanticVector1 = constructSemanticVector(dictionary, lstWordsSentence1);
-        semanticVector2 = constructSemanticVector(dictionary, lstWordsSentence2);
+        semanticVector1 = dictionary.getBinaryVector(0);
+        semanticVector2 = dictionary.getBinaryVector(1);
         
         // 3. Compute the cosine similarity between the semantic vectors
 
@@ -275,87 +302,6 @@ class LiBlockVectorsMeasure extends SentenceSimilarityMeasure
         return (norm);
     }
     
-    /**
-     * This method initializes the semantic vectors.
-     * Each vector has the words from the dictionary vector.
-     * If the word exists in the sentence of the semantic vector, the value is 1.
-     * 
-     * @param lstWordsSentence1
-     * @param lstWordsSentence2
-     * @throws FileNotFoundException 
-     */
-    
-    private double[] constructSemanticVector(
-            ArrayList<String>   dictionary,
-            String[]            lstWordsSentence) throws FileNotFoundException, Exception
-    {
-        // Initialize the semantic vector
-        
-        double[] semanticVector = new double[dictionary.size()];
-        
-        // Convert arrays to set to facilitate the operations 
-        // (this method do not preserve the word order)
-        
-        Set<String> setWordsSentence1 = new HashSet<>(Arrays.asList(lstWordsSentence));
-
-        // For each list of words of a sentence
-        // If the value is in the sentence, the value of the semantic vector will be 1.
-        
-        int count = 0;
-        for (String word : dictionary)
-        {
-            // We check if the first sentence contains the word
-            double wordVectorComponent;
-            
-            if(setWordsSentence1.contains(word))
-            {
-                wordVectorComponent = 1.0;
-            }
-            else
-            {
-                wordVectorComponent = 0.0;
-            }
-            
-            semanticVector[count] = wordVectorComponent;
-            count++;
-        } 
-        
-        // Return the result
-        
-        return (semanticVector);
-    }
-    
-    /**
-     * Constructs the dictionary set with all the distinct words from the sentences.
-     * 
-     * @param lstWordsSentence1
-     * @param lstWordsSentence2
-     * @throws FileNotFoundException 
-     */
-    
-    private ArrayList<String> constructDictionaryList(
-            String[] lstWordsSentence1, 
-            String[] lstWordsSentence2) throws FileNotFoundException
-    {
-        // Initialize the set
-        
-        ArrayList<String> dictionary = null;
-        
-        // Create a linked set with the ordered union of the two sentences
-        
-        Set<String> setOrderedWords = new LinkedHashSet<>();
-        setOrderedWords.addAll(Arrays.asList(lstWordsSentence1));
-        setOrderedWords.addAll(Arrays.asList(lstWordsSentence2));
-        
-        // Copy the linked set to the arraylist
-        
-        dictionary = new ArrayList<>(setOrderedWords);
-        
-        // Return the result
-        
-        return (dictionary);
-    }
-    
     /**
      * Unload the ontology
      */
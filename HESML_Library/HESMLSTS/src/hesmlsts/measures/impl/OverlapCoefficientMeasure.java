@@ -28,9 +28,6 @@ import hesmlsts.measures.StringBasedSentenceSimilarityMethod;
 import hesmlsts.preprocess.IWordProcessing;
 import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.util.Arrays;
-import java.util.HashSet;
-import java.util.Set;
 
 /**
  *  This function implements the Overlap coefficient similarity between two sentences.
@@ -107,6 +104,19 @@ class OverlapCoefficientMeasure extends SentenceSimilarityMeasure
         return (SentenceSimilarityFamily.String);
     }
     
+    /**
+     * This function returns true whether the word preprocessing object
+     * is thread-safe, because the shared tokens are counted with the
+     * profiles of the calling thread.
+     * @return 
+     */
+    
+    @Override
+    public boolean isThreadSafe()
+    {
+        return (m_preprocesser.isThreadSafe());
+    }
+    
     /**
      * This function returns the String method
      * @return StringBasedSentenceSimilarityMethod
@@ -147,37 +157,34 @@ class OverlapCoefficientMeasure extends SentenceSimilarityMeasure
         String[] lstWordsSentence1 = m_preprocesser.getWordTokens(strRawSentence1);
         String[] lstWordsSentence2 = m_preprocesser.getWordTokens(strRawSentence2);
         
-        // Convert the lists to set objects
-        // HashSet is a set where the elements are not sorted or ordered.
+        // We get the sorted token id profiles of both sentences
+        
+        SentenceProfile[] profiles = SentenceProfile.getThreadProfiles();
+        
+        profiles[0].setTokens(lstWordsSentence1);
+        profiles[1].setTokens(lstWordsSentence2);
         
-        Set<String> setWordsSentence1 = new HashSet<>(Arrays.asList(lstWordsSentence1)); 
-        Set<String> setWordsSentence2 = new HashSet<>(Arrays.asList(lstWordsSentence2)); 
-
         // If both sets are empty, the similarity is 1
         
-        if (setWordsSentence1.isEmpty() && setWordsSentence2.isEmpty())
+        if ((profiles[0].size() == 0) && (profiles[1].size() == 0))
         {
             similarity = 1.0;
         }
-        else if (setWordsSentence1.isEmpty() || setWordsSentence2.isEmpty())
+        else if ((profiles[0].size() == 0) || (profiles[1].size() == 0))
         {
             similarity = 0.0;
         }
         else
         {
-            double intersection = intersection(setWordsSentence1, setWordsSentence2).size();
-
+            double intersection = profiles[0].getCommonDistinctCount(profiles[1]);
+            
             // Get the smallest sentence
-
-            int minimumSentenceSize = setWordsSentence1.size();
-
-            if (setWordsSentence2.size() < minimumSentenceSize)
-            {
-                minimumSentenceSize = setWordsSentence2.size();
-            }
-        
+            
+            int minimumSentenceSize = Math.min(profiles[0].getDistinctCount(),
+                                        profiles[1].getDistinctCount());
+            
             // ∣a ∩ b∣ / ∣Min(|A|, |B|)∣
-        
+            
             similarity = intersection / minimumSentenceSize;
         }
         
@@ -185,30 +192,4 @@ class OverlapCoefficientMeasure extends SentenceSimilarityMeasure
         
         return (similarity);
     }
-    
-    /**
-     * This function calculates the intersection between two sets 
-     * to compute the Overlap Coefficient Similarity.
-     * 
-     * @param sentence1Set
-     * @param sentence2Set
-     * @return 
-     */
-    
-    private Set<String> intersection(
-            Set<String> sentence1Set, 
-            Set<String> sentence2Set) 
-    {
-        // Initialize the intersection set with the first set.
-        
-        Set<String> intersection = new HashSet<>(sentence1Set);
-        
-        // Intersect with the second set
-        
-        intersection.retainAll(sentence2Set);
-        
-        // Return the intersected set.
-        
-        return (intersection);
-    }
 }
\ No newline at end of file
@@ -0,0 +1,466 @@
+/* 
+ * Copyright (C) 2016-2022 Universidad Nacional de Educación a Distancia (UNED)
+ *
+ * This program is free software for non-commercial use:
+ * you can redistribute it and/or modify it under the terms of the
+ * Creative Commons Attribution-NonCommercial-ShareAlike 4.0 International
+ * (CC BY-NC-SA 4.0) as published by the Creative Commons Corporation,
+ * either version 4 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * section 5 of the CC BY-NC-SA 4.0 License for more details.
+ *
+ * You should have received a copy of the Creative Commons
+ * Attribution-NonCommercial-ShareAlike 4.0 International (CC BY-NC-SA 4.0) 
+ * license along with this program. If not,
+ * see <http://creativecommons.org/licenses/by-nc-sa/4.0/>.
+ *
+ */
+
+package hesmlsts.measures.impl;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * This class manages a long-lived Python process which loads a sentence
+ * embedding model once and infers the vectors of the sentences sent by
+ * the sentence embedding measures. Thus, the model is kept warm between
+ * evaluations, instead of being reloaded by every call to the former
+ * file-based Python wrappers.
+ * 
+ * The worker is started by running the Python wrapper of the model with
+ * the "--worker" flag, and it speaks the following length-prefixed
+ * binary protocol over its standard input and output, in which all
+ * integers and floats are encoded in big-endian order:
+ * 
+ * (1) Once the model is loaded, the worker writes the int32 signature
+ *     WORKER_SIGNATURE.
+ * (2) Every request is made up by an int32 sentence count followed by
+ *     the int32 length and UTF-8 bytes of every sentence. A negative
+ *     count asks the worker to exit.
+ * (3) Every response is made up by an int32 status. A zero status
+ *     is followed by the int32 dimension and float32 coordinates of
+ *     every sentence vector, whilst any other status is followed by
+ *     the int32 length and UTF-8 bytes of the error message.
+ * 
+ * The wrappers redirect their standard output to the standard error
+ * whilst running in worker mode, thus the messages printed by the
+ * Python libraries do not corrupt the protocol.
+ * @author alicia
+ */
+
+class PythonEmbeddingWorker
+{
+    /**
+     * Signature written by the worker once the model is loaded
+     */
+    
+    private static final int    WORKER_SIGNATURE = 0x48535457;
+    
+    /**
+     * Maximum number of sentences sent in a single request
+     */
+    
+    private static final int    MAX_BATCH_SIZE = 128;
+    
+    /**
+     * Running workers indexed by their command line and sorted from
+     * the least to the most recently used one.
+     */
+    
+    private static final LinkedHashMap<String, PythonEmbeddingWorker>  m_Workers = new LinkedHashMap<>(16, 0.75f, true);
+    
+    /**
+     * Maximum number of workers kept alive at the same time, because
+     * every worker holds its model in memory.
+     */
+    
+    private static int  m_MaxWorkerCount = 2;
+    
+    /**
+     * Command line running the Python wrapper in worker mode
+     */
+    
+    private final List<String>  m_Command;
+    
+    /**
+     * Python process and its protocol streams
+     */
+    
+    private volatile Process    m_Process;
+    private DataInputStream     m_Input;
+    private DataOutputStream    m_Output;
+    
+    /**
+     * Flag set when the worker is evicted from the pool of running
+     * workers, thus it cannot start its process anymore.
+     */
+    
+    private volatile boolean    m_Evicted;
+    
+    // We stop all workers when the Java virtual machine exits
+    
+    static
+    {
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> closeAll()));
+    }
+    
+    /**
+     * Constructor
+     * @param command Command line running the Python wrapper in worker mode
+     */
+    
+    private PythonEmbeddingWorker(
+            List<String>    command)
+    {
+        m_Command = command;
+    }
+    
+    /**
+     * This function returns the worker running the input command line,
+     * which is started whether it is not running. The least recently
+     * used workers are stopped when the maximum number of workers is
+     * exceeded.
+     * @param command Command line running the Python wrapper in worker mode
+     * @return 
+     */
+    
+    static PythonEmbeddingWorker getWorker(
+            List<String>    command)
+    {
+        // We initialize the output
+        
+        PythonEmbeddingWorker worker;
+        
+        // We look for the worker
+        
+        synchronized (m_Workers)
+        {
+            String strKey = String.join(" ", command);
+            
+            worker = m_Workers.get(strKey);
+            
+            if (worker == null)
+            {
+                worker = new PythonEmbeddingWorker(new ArrayList<>(command));
+                m_Workers.put(strKey, worker);
+                
+                // We evict the least recently used workers
+                
+                Iterator<PythonEmbeddingWorker> iter = m_Workers.values().iterator();
+                
+                while (m_Workers.size() > m_MaxWorkerCount)
+                {
+                    iter.next().evict();
+                    iter.remove();
+                }
+            }
+        }
+        
+        // We return the result
+        
+        return (worker);
+    }
+    
+    /**
+     * This function sets the maximum number of workers kept alive.
+     * @param maxWorkerCount 
+     */
+    
+    static void setMaxWorkerCount(
+            int maxWorkerCount)
+    {
+        synchronized (m_Workers)
+        {
+            m_MaxWorkerCount = Math.max(1, maxWorkerCount);
+        }
+    }
+    
+    /**
+     * This function stops all the running workers.
+     */
+    
+    static void closeAll()
+    {
+        synchronized (m_Workers)
+        {
+            for (PythonEmbeddingWorker worker : m_Workers.values())
+            {
+                worker.evict();
+            }
+            
+            m_Workers.clear();
+        }
+    }
+    
+    /**
+     * This function returns the vectors of the input sentences, which
+     * are sent to the worker in batches. The worker is restarted once
+     * whether it fails or exits during a request, whilst the remaining
+     * batches are sent to the running worker of the pool whether this
+     * worker was evicted.
+     * @param strSentences
+     * @return Sentence vectors in the same order as the sentences
+     * @throws IOException
+     * @throws InterruptedException
+     * @throws Exception 
+     */
+    
+    synchronized double[][] getSentenceVectors(
+            String[]    strSentences) throws IOException, InterruptedException, Exception
+    {
+        // We initialize the output
+        
+        double[][] vectors = new double[strSentences.length][];
+        
+        // We send the sentences in batches
+        
+        for (int start = 0; start < strSentences.length; start += MAX_BATCH_SIZE)
+        {
+            int end = Math.min(strSentences.length, start + MAX_BATCH_SIZE);
+            
+            try
+            {
+                if (!m_Evicted) sendRequest(strSentences, start, end, vectors);
+            }
+            catch (IOException error)
+            {
+                close();
+                
+                // We restart the worker and send the batch again
+                
+                if (!m_Evicted)
+                {
+                    System.out.println("The Python worker failed (" + error + "), restarting it");
+                    sendRequest(strSentences, start, end, vectors);
+                }
+            }
+            
+            // We send the remaining sentences to the worker of the pool
+            
+            if (m_Evicted)
+            {
+                close();
+                
+                double[][] remainingVectors = getWorker(m_Command).getSentenceVectors(
+                                    Arrays.copyOfRange(strSentences, start, strSentences.length));
+                
+                System.arraycopy(remainingVectors, 0, vectors, start, remainingVectors.length);
+                
+                break;
+            }
+        }
+        
+        // We return the result
+        
+        return (vectors);
+    }
+    
+    /**
+     * This function sends a request with a range of sentences and reads
+     * their vectors.
+     * @param strSentences
+     * @param start
+     * @param end
+     * @param vectors Output vectors
+     * @throws IOException
+     * @throws Exception 
+     */
+    
+    private void sendRequest(
+            String[]    strSentences,
+            int         start,
+            int         end,
+            double[][]  vectors) throws IOException, InterruptedException, Exception
+    {
+        // We start the worker whether it is not running
+        
+        if ((m_Process == null) || !m_Process.isAlive())
+        {
+            start();
+        }
+        
+        // We write the request
+        
+        m_Output.writeInt(end - start);
+        
+        for (int i = start; i < end; i++)
+        {
+            byte[] sentenceBytes = strSentences[i].getBytes(StandardCharsets.UTF_8);
+            
+            m_Output.writeInt(sentenceBytes.length);
+            m_Output.write(sentenceBytes);
+        }
+        
+        m_Output.flush();
+        
+        // We read the response status, reporting the Python errors
+        
+        if (m_Input.readInt() != 0)
+        {
+            String strError = "Python worker error: " + readString();
+            throw (new Exception(strError));
+        }
+        
+        // We read the vectors
+        
+        for (int i = start; i < end; i++)
+        {
+            int dimension = m_Input.readInt();
+            
+            byte[] buffer = new byte[4 * dimension];
+            m_Input.readFully(buffer);
+            
+            FloatBuffer coordinates = ByteBuffer.wrap(buffer).asFloatBuffer();
+            
+            vectors[i] = new double[dimension];
+            
+            for (int j = 0; j < dimension; j++)
+            {
+                vectors[i][j] = coordinates.get(j);
+            }
+        }
+    }
+    
+    /**
+     * This function reads a length-prefixed UTF-8 string.
+     * @return
+     * @throws IOException 
+     */
+    
+    private String readString() throws IOException
+    {
+        byte[] buffer = new byte[m_Input.readInt()];
+        
+        m_Input.readFully(buffer);
+        
+        // We return the result
+        
+        return (new String(buffer, StandardCharsets.UTF_8));
+    }
+    
+    /**
+     * This function starts the Python process and waits until the
+     * model is loaded.
+     * @throws IOException
+     * @throws Exception 
+     */
+    
+    private void start() throws IOException, Exception
+    {
+        // Debug message
+        
+        System.out.println("Starting Python worker: " + String.join(" ", m_Command));
+        
+        // We start the process, whose error output is shown in the console
+        
+        ProcessBuilder builder = new ProcessBuilder(m_Command);
+        builder.redirectError(ProcessBuilder.Redirect.INHERIT);
+        
+        m_Process = builder.start();
+        
+        // We destroy the process whether the worker was evicted whilst
+        // it was being started
+        
+        if (m_Evicted)
+        {
+            m_Process.destroy();
+            m_Process = null;
+            
+            throw (new IOException("The Python worker was evicted"));
+        }
+        
+        m_Input = new DataInputStream(new BufferedInputStream(m_Process.getInputStream()));
+        m_Output = new DataOutputStream(new BufferedOutputStream(m_Process.getOutputStream()));
+        
+        // We wait for the signature of the worker, which is not sent
+        // whether the model cannot be loaded
+        
+        int signature;
+        
+        try
+        {
+            signature = m_Input.readInt();
+        }
+        catch (EOFException error)
+        {
+            signature = 0;
+        }
+        
+        if (signature != WORKER_SIGNATURE)
+        {
+            close();
+            
+            String strError = "The Python wrapper failed to load the model in worker mode: " + String.join(" ", m_Command);
+            throw (new Exception(strError));
+        }
+    }
+    
+    /**
+     * This function evicts the worker from the pool, destroying its
+     * process even whether it is running a request, which then fails
+     * and is sent to the running worker of the pool. This function
+     * is not synchronized in order to not wait for the running request.
+     */
+    
+    private void evict()
+    {
+        m_Evicted = true;
+        
+        Process process = m_Process;
+        
+        if (process != null)
+        {
+            process.destroy();
+        }
+    }
+    
+    /**
+     * This function stops the Python process.
+     */
+    
+    synchronized void close()
+    {
+        if (m_Process != null)
+        {
+            // We ask the worker to exit
+            
+            try
+            {
+                if (m_Process.isAlive())
+                {
+                    m_Output.writeInt(-1);
+                    m_Output.flush();
+                }
+                
+                m_Output.close();
+                m_Input.close();
+            }
+            catch (IOException error)
+            {
+                // The worker has already exited
+            }
+            
+            // We destroy the process
+            
+            m_Process.destroy();
+            m_Process = null;
+        }
+    }
+}
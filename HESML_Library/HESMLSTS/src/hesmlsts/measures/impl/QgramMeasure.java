@@ -29,10 +29,6 @@ import hesmlsts.preprocess.IWordProcessing;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.util.Arrays;
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Map;
-import java.util.Set;
 
 /**
   *  This function implements the Qgram similarity between two sentences.
@@ -117,6 +113,19 @@ class QgramMeasure extends SentenceSimilarityMeasure
         return (SentenceSimilarityFamily.SentenceEmbedding);
     }
     
+    /**
+     * This function returns true whether the word preprocessing object
+     * is thread-safe, because the q-gram frequencies are stored in the
+     * profiles of the calling thread.
+     * @return 
+     */
+    
+    @Override
+    public boolean isThreadSafe()
+    {
+        return (m_preprocesser.isThreadSafe());
+    }
+    
     /**
      * This function returns the String method implemented by the current
      * sentence similarity measure.
@@ -174,93 +183,24 @@ class QgramMeasure extends SentenceSimilarityMeasure
         }
         else
         {
-            // Create the maps for the ngrams 
-
-            Map<String, Integer> mapQgramsSentence1 = getQGramsWithPadding(lstWordsSentence1, m_padding);
-            Map<String, Integer> mapQgramsSentence2 = getQGramsWithPadding(lstWordsSentence2, m_padding);
-
-            // We get the total values for each map.
-
-            int totalQgramsS1 = mapQgramsSentence1.values().stream().mapToInt(Integer::intValue).sum();
-            int totalQgramsS2 = mapQgramsSentence2.values().stream().mapToInt(Integer::intValue).sum();
-
-            // We build a globat set with all q-grams
+            // We get the sorted q-gram profiles of both sentences
             
-            Set<String> union = new HashSet<>();
-
-            union.addAll(mapQgramsSentence1.keySet());
-            union.addAll(mapQgramsSentence2.keySet());
-
-            // We initialize the accummulated distance
+            SentenceProfile[] profiles = SentenceProfile.getThreadProfiles();
             
-            double distance = 0.0;
+            profiles[0].setQgrams(lstWordsSentence1, m_padding);
+            profiles[1].setQgrams(lstWordsSentence2, m_padding);
             
-            for (String key : union) 
-            {
-                // We get the frequency for each q-gram in each sentence
-                
-                int qgramFreqInSentence1 = !mapQgramsSentence1.containsKey(key) ? 0 : mapQgramsSentence1.get(key);
-                int qgramFreqInSentence2 = !mapQgramsSentence2.containsKey(key) ? 0 : mapQgramsSentence2.get(key);
-
-                // We compute the frequency difference for the q-gram
-                
-                distance += Math.abs(qgramFreqInSentence1 - qgramFreqInSentence2);
-            }
-
-            // The similarity is calculated as in BIOSSES2017 implementation.
-
-            similarity = 1.0 - distance / (totalQgramsS1 + totalQgramsS2);
+            // We compute the sum of the frequency differences of every q-gram
             
-            // We release the mappins
+            double distance = profiles[0].getFrequencyDistance(profiles[1]);
             
-            mapQgramsSentence1.clear();
-            mapQgramsSentence2.clear();
-            union.clear();
+            // The similarity is calculated as in BIOSSES2017 implementation.
+            
+            similarity = 1.0 - distance / (profiles[0].size() + profiles[1].size());
         }
         
         // We return the result
         
         return (similarity);
     }
-    
-    /**
-     * Get the qgrams with a defined padding o window.
-     * For example, the input ["hello", "world"] will generate:
-     * [[hell, 1], [ell, 1], [low, 1], ...]
-     * @param strings
-     * @return 
-     */
-    
-    private Map<String, Integer> getQGramsWithPadding(
-            String[]    strings, 
-            int         padding) 
-    {
-        // Initialize a hashmap with the qgram
-        
-        HashMap<String, Integer> mapQgrams = new HashMap<>();
-
-        // Add a padding "##" at the start and the end of the sentence
-        
-        String strSentence = "##" + String.join(" ", strings) + "##";
-
-        // Get all the substrings of the sentence and add to the map counting the frequency
-        
-        for (int i = 0; i < (strSentence.length() - padding + 1); i++) 
-        {
-            String strSubstring = strSentence.substring(i, i + padding);
-            Integer aux = mapQgrams.get(strSubstring);
-            if (aux != null) 
-            {
-                mapQgrams.put(strSubstring, aux + 1);
-            } 
-            else 
-            {
-                mapQgrams.put(strSubstring, 1);
-            }
-        }
-        
-        // Return the map of Qgrams
-        
-        return mapQgrams;
-    }
 }
\ No newline at end of file
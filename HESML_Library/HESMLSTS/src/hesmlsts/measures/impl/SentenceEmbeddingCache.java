@@ -0,0 +1,577 @@
+/* 
+ * Copyright (C) 2016-2022 Universidad Nacional de Educación a Distancia (UNED)
+ *
+ * This program is free software for non-commercial use:
+ * you can redistribute it and/or modify it under the terms of the
+ * Creative Commons Attribution-NonCommercial-ShareAlike 4.0 International
+ * (CC BY-NC-SA 4.0) as published by the Creative Commons Corporation,
+ * either version 4 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * section 5 of the CC BY-NC-SA 4.0 License for more details.
+ *
+ * You should have received a copy of the Creative Commons
+ * Attribution-NonCommercial-ShareAlike 4.0 International (CC BY-NC-SA 4.0) 
+ * license along with this program. If not,
+ * see <http://creativecommons.org/licenses/by-nc-sa/4.0/>.
+ *
+ */
+
+package hesmlsts.measures.impl;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+
+/**
+ * This class implements a persistent cache of sentence vectors shared by
+ * all the sentence embedding measures. The cache is stored in an
+ * append-only file which is memory-mapped for reading. Every record is
+ * identified by the MD5 hash of the model identity, the label of the
+ * word preprocessing configuration and the raw sentence. Thus, the
+ * vectors inferred in a previous experiment are reused without calling
+ * the Python wrappers, whilst the new vectors are appended to the file.
+ * 
+ * The file is made up by a header with the FILE_SIGNATURE and
+ * FILE_VERSION int32 values followed by the records, each one encoded
+ * as two int64 values for the 128-bit key, an int32 dimension and
+ * the float32 coordinates of the vector in big-endian order.
+ * @author alicia
+ */
+
+class SentenceEmbeddingCache
+{
+    /**
+     * File format identification
+     */
+    
+    private static final int    FILE_SIGNATURE = 0x48534543;
+    private static final int    FILE_VERSION = 1;
+    private static final int    FILE_HEADER_SIZE = 8;
+    
+    /**
+     * Size of the record header: key and dimension
+     */
+    
+    private static final int    RECORD_HEADER_SIZE = 20;
+    
+    /**
+     * Maximum size of every mapped region of the file
+     */
+    
+    private static final long   MAX_SEGMENT_SIZE = 1L << 30;
+    
+    /**
+     * Caches opened in the current session indexed by their canonical path
+     */
+    
+    private static final HashMap<String, SentenceEmbeddingCache>    m_Caches = new HashMap<>();
+    
+    /**
+     * Cache used by the sentence embedding measures, or null whether
+     * the caching is disabled.
+     */
+    
+    private static SentenceEmbeddingCache   m_DefaultCache = null;
+    
+    /**
+     * File storing the records and its lock
+     */
+    
+    private final String        m_strFilename;
+    private final FileChannel   m_Channel;
+    private final FileLock      m_Lock;
+    
+    /**
+     * Mapped regions of the file and their offsets. The regions cover
+     * complete records, thus any record is contained in a single region.
+     */
+    
+    private final ArrayList<MappedByteBuffer>   m_Segments;
+    private final ArrayList<Long>               m_SegmentOffsets;
+    
+    /**
+     * End of the mapped regions
+     */
+    
+    private long    m_MappedEnd;
+    
+    /**
+     * Offset of every record indexed by its key
+     */
+    
+    private final HashMap<CacheKey, Long>   m_RecordOffsets;
+    
+    /**
+     * Cache statistics
+     */
+    
+    private long    m_HitCount;
+    private long    m_MissCount;
+    
+    /**
+     * This class represents the 128-bit key of a record.
+     */
+    
+    static class CacheKey
+    {
+        private final long  m_High;
+        private final long  m_Low;
+        
+        /**
+         * Constructor
+         * @param high
+         * @param low 
+         */
+        
+        CacheKey(
+                long    high,
+                long    low)
+        {
+            m_High = high;
+            m_Low = low;
+        }
+        
+        @Override
+        public boolean equals(
+                Object  other)
+        {
+            return ((other instanceof CacheKey)
+                    && (((CacheKey)other).m_High == m_High)
+                    && (((CacheKey)other).m_Low == m_Low));
+        }
+        
+        @Override
+        public int hashCode()
+        {
+            return ((int)(m_Low ^ (m_Low >>> 32)));
+        }
+    }
+    
+    /**
+     * Constructor. The file is created whether it does not exist, and
+     * the incomplete record left by an interrupted session is removed.
+     * @param strFilename
+     * @throws IOException
+     * @throws Exception 
+     */
+    
+    private SentenceEmbeddingCache(
+            String  strFilename) throws IOException, Exception
+    {
+        // We initialize the collections
+        
+        m_strFilename = strFilename;
+        m_Segments = new ArrayList<>();
+        m_SegmentOffsets = new ArrayList<>();
+        m_RecordOffsets = new HashMap<>();
+        
+        // We open and lock the file because the records cannot be
+        // appended by several processes at the same time
+        
+        m_Channel = FileChannel.open(new File(strFilename).toPath(),
+                        StandardOpenOption.CREATE, StandardOpenOption.READ,
+                        StandardOpenOption.WRITE);
+        
+        m_Lock = m_Channel.tryLock();
+        
+        if (m_Lock == null)
+        {
+            m_Channel.close();
+            
+            String strError = "The sentence embedding cache is used by other process: " + strFilename;
+            throw (new Exception(strError));
+        }
+        
+        // We write the header of a new file or check the existing one
+        
+        ByteBuffer header = ByteBuffer.allocate(FILE_HEADER_SIZE);
+        
+        if (m_Channel.size() == 0)
+        {
+            header.putInt(FILE_SIGNATURE).putInt(FILE_VERSION).flip();
+            m_Channel.write(header, 0);
+        }
+        else if ((m_Channel.read(header, 0) != FILE_HEADER_SIZE)
+                || (header.getInt(0) != FILE_SIGNATURE)
+                || (header.getInt(4) != FILE_VERSION))
+        {
+            close();
+            
+            String strError = "Wrong sentence embedding cache file format: " + strFilename;
+            throw (new Exception(strError));
+        }
+        
+        // We map and index the existing records
+        
+        m_MappedEnd = FILE_HEADER_SIZE;
+        
+        mapNewRecords();
+        
+        // Debug message
+        
+        System.out.println("Loaded sentence embedding cache " + strFilename
+                + " (" + m_RecordOffsets.size() + " vectors)");
+    }
+    
+    /**
+     * This function sets the file storing the sentence vectors inferred
+     * by the sentence embedding measures. The cache is disabled whether
+     * the filename is null.
+     * @param strFilename
+     * @throws IOException
+     * @throws Exception 
+     */
+    
+    static void setDefaultCacheFile(
+            String  strFilename) throws IOException, Exception
+    {
+        synchronized (m_Caches)
+        {
+            m_DefaultCache = null;
+            
+            if (strFilename != null)
+            {
+                String strPath = new File(strFilename).getCanonicalPath();
+                
+                m_DefaultCache = m_Caches.get(strPath);
+                
+                if (m_DefaultCache == null)
+                {
+                    m_DefaultCache = new SentenceEmbeddingCache(strPath);
+                    m_Caches.put(strPath, m_DefaultCache);
+                }
+            }
+        }
+    }
+    
+    /**
+     * This function returns the cache used by the sentence embedding
+     * measures, or null whether the caching is disabled.
+     * @return 
+     */
+    
+    static SentenceEmbeddingCache getDefaultCache()
+    {
+        synchronized (m_Caches)
+        {
+            return (m_DefaultCache);
+        }
+    }
+    
+    /**
+     * This function closes all the caches opened in the current session.
+     */
+    
+    static void closeAll()
+    {
+        synchronized (m_Caches)
+        {
+            for (SentenceEmbeddingCache cache : m_Caches.values())
+            {
+                cache.close();
+            }
+            
+            m_Caches.clear();
+            m_DefaultCache = null;
+        }
+    }
+    
+    /**
+     * This function computes the keys of the input sentences for
+     * a model and word preprocessing configuration.
+     * @param strModelId Model identity
+     * @param strPreprocessingLabel Label of the word preprocessing object
+     * @param strSentences Raw sentences
+     * @return 
+     */
+    
+    static CacheKey[] getKeys(
+            String      strModelId,
+            String      strPreprocessingLabel,
+            String[]    strSentences) throws NoSuchAlgorithmException
+    {
+        // We initialize the output
+        
+        CacheKey[] keys = new CacheKey[strSentences.length];
+        
+        // We encode the model and preprocessing configuration
+        
+        MessageDigest digest = MessageDigest.getInstance("MD5");
+        
+        byte[] prefix = (strModelId + "\n" + strPreprocessingLabel + "\n").getBytes(StandardCharsets.UTF_8);
+        
+        // We compute the key of every sentence
+        
+        for (int i = 0; i < strSentences.length; i++)
+        {
+            digest.update(prefix);
+            
+            ByteBuffer hash = ByteBuffer.wrap(digest.digest(strSentences[i].getBytes(StandardCharsets.UTF_8)));
+            
+            keys[i] = new CacheKey(hash.getLong(0), hash.getLong(8));
+        }
+        
+        // We return the result
+        
+        return (keys);
+    }
+    
+    /**
+     * This function returns the cached vectors of the input keys,
+     * or null for the keys which are not found.
+     * @param keys
+     * @return
+     * @throws IOException 
+     */
+    
+    synchronized double[][] getVectors(
+            CacheKey[]  keys) throws IOException
+    {
+        // We initialize the output
+        
+        double[][] vectors = new double[keys.length][];
+        
+        // We read the vectors from the mapped regions
+        
+        for (int i = 0; i < keys.length; i++)
+        {
+            Long offset = m_RecordOffsets.get(keys[i]);
+            
+            if (offset != null)
+            {
+                vectors[i] = readVector(offset);
+                m_HitCount++;
+            }
+            else
+            {
+                m_MissCount++;
+            }
+        }
+        
+        // We return the result
+        
+        return (vectors);
+    }
+    
+    /**
+     * This function appends the vectors of the input keys to the file,
+     * excepting those ones which are already stored. The empty vectors
+     * of the non-valid sentences are not stored, thus the sentences are
+     * filtered again by the measures instead of being read as vectors.
+     * @param keys
+     * @param vectors
+     * @throws IOException 
+     */
+    
+    synchronized void addVectors(
+            CacheKey[]  keys,
+            double[][]  vectors) throws IOException
+    {
+        // We compute the size of the new records
+        
+        int totalSize = 0;
+        
+        boolean[] isNew = new boolean[keys.length];
+        
+        HashSet<CacheKey> newKeys = new HashSet<>();
+        
+        for (int i = 0; i < keys.length; i++)
+        {
+            isNew[i] = (vectors[i].length > 0)
+                        && !m_RecordOffsets.containsKey(keys[i])
+                        && newKeys.add(keys[i]);
+            
+            if (isNew[i])
+            {
+                totalSize += RECORD_HEADER_SIZE + 4 * vectors[i].length;
+            }
+        }
+        
+        // We encode the new records
+        
+        ByteBuffer records = ByteBuffer.allocate(totalSize);
+        
+        for (int i = 0; i < keys.length; i++)
+        {
+            if (isNew[i])
+            {
+                records.putLong(keys[i].m_High);
+                records.putLong(keys[i].m_Low);
+                records.putInt(vectors[i].length);
+                
+                for (int j = 0; j < vectors[i].length; j++)
+                {
+                    records.putFloat((float) vectors[i][j]);
+                }
+            }
+        }
+        
+        // We append the records to the file and map them
+        
+        records.flip();
+        
+        long position = m_Channel.size();
+        
+        while (records.hasRemaining())
+        {
+            position += m_Channel.write(records, position);
+        }
+        
+        mapNewRecords();
+    }
+    
+    /**
+     * This function maps the records appended after the last mapped
+     * region and indexes them. The incomplete record at the end of the
+     * file is truncated.
+     * @throws IOException 
+     */
+    
+    private void mapNewRecords() throws IOException
+    {
+        long fileEnd = m_Channel.size();
+        
+        boolean truncated = false;
+        
+        // We map the new records in regions of whole records
+        
+        while ((m_MappedEnd < fileEnd) && !truncated)
+        {
+            long segmentOffset = m_MappedEnd;
+            
+            MappedByteBuffer segment = m_Channel.map(FileChannel.MapMode.READ_ONLY,
+                                        segmentOffset, Math.min(MAX_SEGMENT_SIZE, fileEnd - segmentOffset));
+            
+            // We index the complete records in the region
+            
+            int position = 0;
+            
+            while ((position + RECORD_HEADER_SIZE <= segment.limit())
+                    && (segment.getInt(position + 16) >= 0)
+                    && (position + RECORD_HEADER_SIZE + 4L * segment.getInt(position + 16) <= segment.limit()))
+            {
+                m_RecordOffsets.putIfAbsent(new CacheKey(segment.getLong(position),
+                        segment.getLong(position + 8)), segmentOffset + position);
+                
+                position += RECORD_HEADER_SIZE + 4 * segment.getInt(position + 16);
+            }
+            
+            // We register the region, or we stop at the incomplete record
+            
+            if (position > 0)
+            {
+                m_Segments.add(segment);
+                m_SegmentOffsets.add(segmentOffset);
+                m_MappedEnd += position;
+            }
+            
+            truncated = (position < segment.limit())
+                        && ((position == 0) || (segmentOffset + segment.limit() == fileEnd));
+        }
+        
+        // We remove the incomplete record
+        
+        if (truncated)
+        {
+            System.out.println("Removing an incomplete record from " + m_strFilename);
+            
+            m_Channel.truncate(m_MappedEnd);
+        }
+    }
+    
+    /**
+     * This function reads the vector stored at the input file offset.
+     * @param offset
+     * @return 
+     */
+    
+    private double[] readVector(
+            long    offset)
+    {
+        // We look for the mapped region containing the record
+        
+        int iSegment = Collections.binarySearch(m_SegmentOffsets, offset);
+        
+        if (iSegment < 0)
+        {
+            iSegment = -iSegment - 2;
+        }
+        
+        MappedByteBuffer segment = m_Segments.get(iSegment);
+        
+        int position = (int)(offset - m_SegmentOffsets.get(iSegment));
+        
+        // We decode the vector
+        
+        double[] vector = new double[segment.getInt(position + 16)];
+        
+        for (int i = 0; i < vector.length; i++)
+        {
+            vector[i] = segment.getFloat(position + RECORD_HEADER_SIZE + 4 * i);
+        }
+        
+        // We return the result
+        
+        return (vector);
+    }
+    
+    /**
+     * This function returns the number of vectors stored in the cache.
+     * @return 
+     */
+    
+    synchronized int getVectorCount()
+    {
+        return (m_RecordOffsets.size());
+    }
+    
+    /**
+     * This function returns the rate of vectors found in the cache.
+     * @return 
+     */
+    
+    synchronized double getHitRate()
+    {
+        return ((m_HitCount + m_MissCount > 0) ?
+                (double) m_HitCount / (m_HitCount + m_MissCount) : 0.0);
+    }
+    
+    /**
+     * This function closes the file.
+     */
+    
+    synchronized void close()
+    {
+        try
+        {
+            if (m_Lock.isValid())
+            {
+                m_Lock.release();
+            }
+            
+            m_Channel.close();
+        }
+        catch (IOException error)
+        {
+            System.out.println("Error closing the sentence embedding cache " + m_strFilename);
+        }
+        
+        m_Segments.clear();
+        m_SegmentOffsets.clear();
+        m_RecordOffsets.clear();
+    }
+}
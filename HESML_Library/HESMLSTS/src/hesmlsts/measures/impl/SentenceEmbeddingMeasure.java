@@ -0,0 +1,378 @@
+/* 
+ * Copyright (C) 2016-2022 Universidad Nacional de Educación a Distancia (UNED)
+ *
+ * This program is free software for non-commercial use:
+ * you can redistribute it and/or modify it under the terms of the
+ * Creative Commons Attribution-NonCommercial-ShareAlike 4.0 International
+ * (CC BY-NC-SA 4.0) as published by the Creative Commons Corporation,
+ * either version 4 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * section 5 of the CC BY-NC-SA 4.0 License for more details.
+ *
+ * You should have received a copy of the Creative Commons
+ * Attribution-NonCommercial-ShareAlike 4.0 International (CC BY-NC-SA 4.0) 
+ * license along with this program. If not,
+ * see <http://creativecommons.org/licenses/by-nc-sa/4.0/>.
+ *
+ */
+
+package hesmlsts.measures.impl;
+
+import hesml.measures.impl.MeasureFactory;
+import hesmlsts.measures.SentenceSimilarityFamily;
+import hesmlsts.preprocess.IWordProcessing;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * This class implements the common evaluation of the sentence embedding
+ * models inferred by Python wrappers, such as BERT, USE, Flair or Sent2vec.
+ * The sentences are preprocessed in Java and their vectors are requested
+ * to a persistent Python worker which keeps the model loaded in memory
+ * between evaluations. Thus, the model is loaded only once per session.
+ * The vectors are also looked up in the persistent sentence embedding
+ * cache, whether it is enabled, before preprocessing the sentences.
+ * @author alicia
+ */
+
+abstract class SentenceEmbeddingMeasure extends SentenceSimilarityMeasure
+{
+    // Path to the python executable using the virtual environment (venv directory).
+    
+    protected final String m_pythonVenvDir;
+    
+    // Path to the python script wrapper to extract the embeddings.
+    
+    protected final String m_pythonScriptDir;
+    
+    // Label shown in all raw matrix results
+    
+    private final String m_strLabel;
+    
+    /**
+     * Constructor
+     * @param strLabel
+     * @param preprocesser
+     * @param pythonVenvDir
+     * @param pythonScriptDir 
+     */
+    
+    SentenceEmbeddingMeasure(
+            String              strLabel,
+            IWordProcessing     preprocesser,
+            String              pythonVenvDir,
+            String              pythonScriptDir)
+    {
+        // We intialize the base class
+        
+        super(preprocesser);
+        
+        // We initialize main attributes
+        
+        m_strLabel = strLabel;
+        m_pythonVenvDir = pythonVenvDir;
+        m_pythonScriptDir = pythonScriptDir;
+    }
+    
+    /**
+     * This function returns the label used to identify the measure in
+     * a raw matrix results. This string attribute is set by the users
+     * to provide the column header name included in all results generated
+     * by this measure. This attribute was especially defined to
+     * provide a meaningful name to distinguish the measures based on
+     * pre-trained model files.
+     * @return 
+     */
+    
+    @Override
+    public String getLabel()
+    {
+        return (m_strLabel);
+    }
+    
+    /**
+     * This function returns the family of the current sentence similarity method.
+     * @return SentenceSimilarityFamily
+     */
+    
+    @Override
+    public SentenceSimilarityFamily getFamily()
+    {
+        return (SentenceSimilarityFamily.SentenceEmbedding);
+    }
+    
+    /**
+     * This function returns no word preprocessing objects, because the
+     * sentences are only tokenized on demand when their vectors are not
+     * found in the sentence embedding cache. Thus, the benchmarks do not
+     * preprocess in advance the sentences answered by the cache.
+     * @return 
+     */
+    
+    @Override
+    public IWordProcessing[] getWordPreprocessors()
+    {
+        return (new IWordProcessing[0]);
+    }
+    
+    /**
+     * This function returns the arguments passed to the Python wrapper
+     * in order to load the model.
+     * @return 
+     */
+    
+    protected abstract List<String> getModelArguments();
+    
+    /**
+     * This function checks whether the Python wrapper is able to infer
+     * the vector of a preprocessed sentence. The vectors of the non-valid
+     * sentences are not inferred and their similarity is NaN.
+     * @param strSentence
+     * @return 
+     */
+    
+    protected boolean isValidSentence(
+            String  strSentence)
+    {
+        return (true);
+    }
+    
+    /**
+     * This function returns the identity of the model used as part of
+     * the keys of the sentence embedding cache.
+     * @return 
+     */
+    
+    private String getModelId()
+    {
+        return (new File(m_pythonScriptDir).getName() + " " + String.join(" ", getModelArguments()));
+    }
+    
+    /**
+     * This function returns the Python worker evaluating the model.
+     * @return 
+     */
+    
+    private PythonEmbeddingWorker getWorker()
+    {
+        // We fill the command line running the wrapper in worker mode.
+        // Ignore the Tensorflow warnings.
+        
+        ArrayList<String> command = new ArrayList<>();
+        
+        command.add(m_pythonVenvDir);
+        command.add("-W");
+        command.add("ignore");
+        command.add(m_pythonScriptDir);
+        command.add("--worker");
+        command.addAll(getModelArguments());
+        
+        // We return the result
+        
+        return (PythonEmbeddingWorker.getWorker(command));
+    }
+    
+    /**
+     * Get the similarity value of two sentences.
+     * 
+     * @param strRawSentence1
+     * @param strRawSentence2
+     * @return
+     * @throws IOException 
+     */
+    
+    @Override
+    public double getSimilarityValue(
+            String strRawSentence1, 
+            String strRawSentence2) throws IOException,
+            FileNotFoundException, InterruptedException, Exception
+    {
+        return (getSimilarityValues(new String[] {strRawSentence1},
+                new String[] {strRawSentence2})[0]);
+    }
+    
+    /**
+     * This method get two lists of sentences and calculate the similarity values.
+     * The vectors of the unique sentences are read from the sentence embedding
+     * cache, and the missing ones are sent in batches to the Python worker.
+     * 
+     * @param lstSentences1
+     * @param lstSentences2
+     * @return
+     * @throws IOException 
+     */
+    
+    @Override
+    public double[] getSimilarityValues(
+            String[] lstSentences1, 
+            String[] lstSentences2) throws IOException,
+            InterruptedException, Exception
+    {
+        // We check that input vectors have the same length
+        
+        if (lstSentences1.length != lstSentences2.length)
+        {
+            String strError = "The size of the input arrays are different!";
+            throw new IllegalArgumentException(strError);    
+        }
+        
+        // We assign an index to every unique sentence
+        
+        HashMap<String, Integer> sentenceIndexes = new HashMap<>();
+        
+        int[] sentenceIds1 = new int[lstSentences1.length];
+        int[] sentenceIds2 = new int[lstSentences2.length];
+        
+        for (int i = 0; i < lstSentences1.length; i++)
+        {
+            sentenceIds1[i] = sentenceIndexes.computeIfAbsent(lstSentences1[i], key -> sentenceIndexes.size());
+            sentenceIds2[i] = sentenceIndexes.computeIfAbsent(lstSentences2[i], key -> sentenceIndexes.size());
+        }
+        
+        String[] strUniqueSentences = new String[sentenceIndexes.size()];
+        
+        for (String strSentence : sentenceIndexes.keySet())
+        {
+            strUniqueSentences[sentenceIndexes.get(strSentence)] = strSentence;
+        }
+        
+        // We get the vectors of the unique sentences
+        
+        double[][] vectors = getSentenceVectors(strUniqueSentences);
+        
+        // We traverse the collection of sentence pairs and compute
+        // the similarity score for each pair. The pairs containing
+        // any non-valid sentence get a NaN score.
+        
+        double[] scores = new double[lstSentences1.length];
+        
+        for (int i = 0; i < scores.length; i++)
+        {
+            double[] vector1 = vectors[sentenceIds1[i]];
+            double[] vector2 = vectors[sentenceIds2[i]];
+            
+            scores[i] = ((vector1.length > 0) && (vector2.length > 0)) ?
+                        getVectorSimilarityValue(vector1, vector2) : Double.NaN;
+        }
+        
+        // We return the result
+        
+        return (scores);
+    }
+    
+    /**
+     * This function returns the vectors of the input raw sentences. The
+     * cached vectors are reused, whilst the remaining sentences are
+     * preprocessed and inferred by the Python worker. The vectors of the
+     * non-valid sentences are empty.
+     * @param strRawSentences
+     * @return
+     * @throws Exception 
+     */
+    
+    private double[][] getSentenceVectors(
+            String[]    strRawSentences) throws IOException,
+            InterruptedException, Exception
+    {
+        // We look for the cached vectors
+        
+        SentenceEmbeddingCache cache = SentenceEmbeddingCache.getDefaultCache();
+        
+        SentenceEmbeddingCache.CacheKey[] keys = null;
+        
+        double[][] vectors = new double[strRawSentences.length][];
+        
+        if (cache != null)
+        {
+            keys = SentenceEmbeddingCache.getKeys(getModelId(), m_preprocesser.getLabel(), strRawSentences);
+            vectors = cache.getVectors(keys);
+        }
+        
+        // We preprocess the missing sentences, filtering the non-valid ones
+        
+        ArrayList<Integer> missingIds = new ArrayList<>();
+        ArrayList<String> strMissingSentences = new ArrayList<>();
+        
+        for (int i = 0; i < strRawSentences.length; i++)
+        {
+            if (vectors[i] == null)
+            {
+                String strSentence = String.join(" ", m_preprocesser.getWordTokens(strRawSentences[i]));
+                
+                if (isValidSentence(strSentence))
+                {
+                    missingIds.add(i);
+                    strMissingSentences.add(strSentence);
+                }
+                else
+                {
+                    vectors[i] = new double[0];
+                }
+            }
+        }
+        
+        // We infer the vectors of the missing sentences
+        
+        if (!strMissingSentences.isEmpty())
+        {
+            double[][] inferredVectors = getWorker().getSentenceVectors(
+                                strMissingSentences.toArray(new String[strMissingSentences.size()]));
+            
+            for (int i = 0; i < inferredVectors.length; i++)
+            {
+                vectors[missingIds.get(i)] = inferredVectors[i];
+            }
+        }
+        
+        // We store the new vectors in the cache
+        
+        if (cache != null)
+        {
+            cache.addVectors(keys, vectors);
+        }
+        
+        // We return the result
+        
+        return (vectors);
+    }
+    
+    /**
+     * Get the similarity value between two vectors
+     * @param sentence1Vector
+     * @param sentence2Vector
+     * @return
+     */
+    
+    private double getVectorSimilarityValue(
+            double[]    sentence1Vector,
+            double[]    sentence2Vector)
+    {
+        // We initialize the output value
+        
+        double similarity = 0.0;
+        
+        // We compute the cosine similarity function (dot product)
+        
+        for (int i = 0; i < sentence1Vector.length; i++)
+        {
+            similarity += sentence1Vector[i] * sentence2Vector[i];
+        }
+        
+        // We divide by the vector norms
+        
+        similarity /= (MeasureFactory.getVectorNorm(sentence1Vector)
+                    * MeasureFactory.getVectorNorm(sentence2Vector));
+        
+        // We return the result
+        
+        return (similarity);
+    }
+}
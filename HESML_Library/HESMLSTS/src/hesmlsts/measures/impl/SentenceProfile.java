@@ -0,0 +1,606 @@
+/*
+ * Copyright (C) 2016-2022 Universidad Nacional de Educación a Distancia (UNED)
+ *
+ * This program is free software for non-commercial use:
+ * you can redistribute it and/or modify it under the terms of the
+ * Creative Commons Attribution-NonCommercial-ShareAlike 4.0 International
+ * (CC BY-NC-SA 4.0) as published by the Creative Commons Corporation,
+ * either version 4 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * section 5 of the CC BY-NC-SA 4.0 License for more details.
+ *
+ * You should have received a copy of the Creative Commons
+ * Attribution-NonCommercial-ShareAlike 4.0 International (CC BY-NC-SA 4.0)
+ * license along with this program. If not,
+ * see <http://creativecommons.org/licenses/by-nc-sa/4.0/>.
+ *
+ */
+
+package hesmlsts.measures.impl;
+
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * This class implements the profile of a sentence as a sorted multiset of
+ * integer keys, which is used by the string-based measures to compare
+ * two sentences without allocating any collection per sentence pair.
+ * The keys are either the ids of the word tokens or the encoding of the
+ * character q-grams of the sentence. The q-grams up to four characters
+ * are packed exactly into a 64-bit key, whilst the longer ones are
+ * located by a 64-bit rolling polynomial hash and compared character
+ * by character in order to get their ids.
+ *
+ * Every thread owns a pair of reusable profiles, whose key buffers are
+ * grown on demand to fit the longest sentences evaluated so far. The
+ * ids of the tokens and q-grams are only shared by the profiles of the
+ * pair, thus they are cleared for every sentence pair.
+ * @author alicia
+ */
+
+class SentenceProfile
+{
+    /**
+     * Multiplier of the rolling hash of the long q-grams
+     */
+    
+    private static final long   HASH_MULTIPLIER = 0x9E3779B97F4A7C15L;
+    
+    /**
+     * Maximum length of the q-grams packed exactly into a key
+     */
+    
+    private static final int    MAX_PACKED_QGRAM_LENGTH = 4;
+    
+    /**
+     * Pair of profiles of every thread
+     */
+    
+    private static final ThreadLocal<SentenceProfile[]> m_ThreadProfiles = new ThreadLocal<>();
+    
+    /**
+     * Sorted keys of the profile
+     */
+    
+    private long[]  m_Keys;
+    
+    /**
+     * Number of keys in the profile
+     */
+    
+    private int     m_Count;
+    
+    /**
+     * Characters of the padded sentence used to build the q-grams
+     */
+    
+    private char[]  m_Chars;
+    
+    /**
+     * Dictionary of ids shared by the profiles of the pair
+     */
+    
+    private final PairDictionary    m_Dictionary;
+    
+    /**
+     * Constructor
+     * @param dictionary Dictionary of ids shared by the profiles of the pair
+     */
+    
+    private SentenceProfile(
+            PairDictionary  dictionary)
+    {
+        m_Keys = new long[64];
+        m_Chars = new char[256];
+        m_Count = 0;
+        m_Dictionary = dictionary;
+    }
+    
+    /**
+     * This function returns the pair of reusable profiles of the current
+     * thread, whose dictionary of ids is cleared. The profiles are only
+     * valid until the next call to this function in the same thread.
+     * @return
+     */
+    
+    static SentenceProfile[] getThreadProfiles()
+    {
+        SentenceProfile[] profiles = m_ThreadProfiles.get();
+        
+        if (profiles == null)
+        {
+            PairDictionary dictionary = new PairDictionary();
+            
+            profiles = new SentenceProfile[] {new SentenceProfile(dictionary),
+                                            new SentenceProfile(dictionary)};
+            
+            m_ThreadProfiles.set(profiles);
+        }
+        else
+        {
+            profiles[0].m_Dictionary.clear();
+        }
+        
+        // We return the result
+        
+        return (profiles);
+    }
+    
+    /**
+     * This function ensures that the key buffer fits the input count.
+     * @param count
+     */
+    
+    private void ensureKeyCapacity(
+            int count)
+    {
+        if (m_Keys.length < count)
+        {
+            m_Keys = new long[Math.max(count, 2 * m_Keys.length)];
+        }
+    }
+    
+    /**
+     * This function sets the profile to the sorted ids of the word tokens.
+     * @param tokens
+     */
+    
+    void setTokens(
+            String[]    tokens)
+    {
+        ensureKeyCapacity(tokens.length);
+        
+        // We intern the tokens
+        
+        for (int i = 0; i < tokens.length; i++)
+        {
+            m_Keys[i] = m_Dictionary.getTokenId(tokens[i]);
+        }
+        
+        m_Count = tokens.length;
+        
+        // We sort the keys
+        
+        Arrays.sort(m_Keys, 0, m_Count);
+    }
+    
+    /**
+     * This function sets the profile to the sorted q-grams of the sentence
+     * made up by the input tokens joined by blanks and padded with "##"
+     * at the start and the end, as done by the BIOSSES2017 implementation.
+     * @param tokens
+     * @param qgramLength
+     */
+    
+    void setQgrams(
+            String[]    tokens,
+            int         qgramLength)
+    {
+        // We build the padded sentence
+        
+        int length = 4 + Math.max(0, tokens.length - 1);
+        
+        for (String strToken : tokens)
+        {
+            length += strToken.length();
+        }
+        
+        if (m_Chars.length < length)
+        {
+            m_Chars = new char[Math.max(length, 2 * m_Chars.length)];
+        }
+        
+        char[] chars = m_Chars;
+        
+        int position = 0;
+        
+        chars[position++] = '#';
+        chars[position++] = '#';
+        
+        for (int i = 0; i < tokens.length; i++)
+        {
+            if (i > 0)
+            {
+                chars[position++] = ' ';
+            }
+            
+            tokens[i].getChars(0, tokens[i].length(), chars, position);
+            position += tokens[i].length();
+        }
+        
+        chars[position++] = '#';
+        chars[position++] = '#';
+        
+        // We encode the q-grams
+        
+        m_Count = Math.max(0, length - qgramLength + 1);
+        
+        ensureKeyCapacity(m_Count);
+        
+        if (qgramLength <= MAX_PACKED_QGRAM_LENGTH)
+        {
+            // We pack the 16-bit characters of every q-gram
+            
+            for (int i = 0; i < m_Count; i++)
+            {
+                long key = 0L;
+                
+                for (int j = 0; j < qgramLength; j++)
+                {
+                    key = (key << 16) | chars[i + j];
+                }
+                
+                m_Keys[i] = key;
+            }
+        }
+        else if (m_Count > 0)
+        {
+            // We compute the rolling hash of every q-gram, which is used
+            // to look for its id. The leading factor removes the outgoing
+            // character.
+            
+            long leadingFactor = 1L;
+            long key = 0L;
+            
+            for (int j = 0; j < qgramLength; j++)
+            {
+                key = key * HASH_MULTIPLIER + chars[j];
+                
+                if (j > 0)
+                {
+                    leadingFactor *= HASH_MULTIPLIER;
+                }
+            }
+            
+            m_Keys[0] = m_Dictionary.getQgramId(chars, 0, qgramLength, key);
+            
+            for (int i = 1; i < m_Count; i++)
+            {
+                key = (key - chars[i - 1] * leadingFactor) * HASH_MULTIPLIER
+                        + chars[i + qgramLength - 1];
+                
+                m_Keys[i] = m_Dictionary.getQgramId(chars, i, qgramLength, key);
+            }
+        }
+        
+        // We sort the keys
+        
+        Arrays.sort(m_Keys, 0, m_Count);
+    }
+    
+    /**
+     * This function returns the number of keys including the repeated ones.
+     * @return
+     */
+    
+    int size()
+    {
+        return (m_Count);
+    }
+    
+    /**
+     * This function returns the number of distinct keys.
+     * @return
+     */
+    
+    int getDistinctCount()
+    {
+        int count = 0;
+        
+        for (int i = 0; i < m_Count; i++)
+        {
+            if ((i == 0) || (m_Keys[i] != m_Keys[i - 1]))
+            {
+                count++;
+            }
+        }
+        
+        // We return the result
+        
+        return (count);
+    }
+    
+    /**
+     * This function returns the number of distinct keys shared with
+     * other profile, which is the size of the intersection of both sets.
+     * @param other
+     * @return
+     */
+    
+    int getCommonDistinctCount(
+            SentenceProfile other)
+    {
+        int count = 0;
+        
+        long[] keys2 = other.m_Keys;
+        
+        // We merge both sorted key lists skipping the repeated keys
+        
+        for (int i = 0, j = 0; (i < m_Count) && (j < other.m_Count); )
+        {
+            if (m_Keys[i] < keys2[j])
+            {
+                i++;
+            }
+            else if (m_Keys[i] > keys2[j])
+            {
+                j++;
+            }
+            else
+            {
+                long key = m_Keys[i];
+                
+                count++;
+                
+                while ((i < m_Count) && (m_Keys[i] == key))
+                {
+                    i++;
+                }
+                
+                while ((j < other.m_Count) && (keys2[j] == key))
+                {
+                    j++;
+                }
+            }
+        }
+        
+        // We return the result
+        
+        return (count);
+    }
+    
+    /**
+     * This function returns the sum of the absolute differences between
+     * the frequencies of every key in both profiles, which is the block
+     * distance between their frequency vectors.
+     * @param other
+     * @return
+     */
+    
+    int getFrequencyDistance(
+            SentenceProfile other)
+    {
+        // The block distance is the total number of keys minus
+        // twice the number of keys matched in both multisets
+        
+        int matched = 0;
+        
+        long[] keys2 = other.m_Keys;
+        
+        for (int i = 0, j = 0; (i < m_Count) && (j < other.m_Count); )
+        {
+            if (m_Keys[i] < keys2[j])
+            {
+                i++;
+            }
+            else if (m_Keys[i] > keys2[j])
+            {
+                j++;
+            }
+            else
+            {
+                matched++;
+                i++;
+                j++;
+            }
+        }
+        
+        // We return the result
+        
+        return (m_Count + other.m_Count - 2 * matched);
+    }
+    
+    /**
+     * This class assigns consecutive ids to the word tokens and the long
+     * q-grams of a sentence pair. The q-grams are stored as references
+     * to the characters of their profiles in an open-addressing table
+     * indexed by their rolling hash, and two q-grams get the same id only
+     * whether their characters are equal, thus the hash collisions do not
+     * change the scores.
+     */
+    
+    private static class PairDictionary
+    {
+        /**
+         * Ids of the word tokens
+         */
+        
+        private final HashMap<String, Integer>  m_TokenIds = new HashMap<>();
+        
+        /**
+         * Hash table of the q-grams, whose slots store the q-gram id
+         * plus one, or zero whether they are empty.
+         */
+        
+        private int[]       m_QgramTable = new int[256];
+        
+        /**
+         * Hash, characters and offset of every q-gram indexed by its id
+         */
+        
+        private long[]      m_QgramHashes = new long[128];
+        private char[][]    m_QgramChars = new char[128][];
+        private int[]       m_QgramOffsets = new int[128];
+        
+        /**
+         * Number of q-grams in the table
+         */
+        
+        private int         m_QgramCount;
+        
+        /**
+         * This function removes all the ids.
+         */
+        
+        void clear()
+        {
+            m_TokenIds.clear();
+            
+            if (m_QgramCount > 0)
+            {
+                Arrays.fill(m_QgramTable, 0);
+                Arrays.fill(m_QgramChars, 0, m_QgramCount, null);
+                m_QgramCount = 0;
+            }
+        }
+        
+        /**
+         * This function returns the id of the input word token, which is
+         * registered whether it is not found.
+         * @param strToken
+         * @return
+         */
+        
+        int getTokenId(
+                String  strToken)
+        {
+            Integer id = m_TokenIds.get(strToken);
+            
+            if (id == null)
+            {
+                id = m_TokenIds.size();
+                m_TokenIds.put(strToken, id);
+            }
+            
+            // We return the result
+            
+            return (id);
+        }
+        
+        /**
+         * This function returns the id of the q-gram starting at the input
+         * offset, which is registered whether it is not found.
+         * @param chars
+         * @param offset
+         * @param qgramLength
+         * @param hash Rolling hash of the q-gram
+         * @return
+         */
+        
+        int getQgramId(
+                char[]  chars,
+                int     offset,
+                int     qgramLength,
+                long    hash)
+        {
+            // We look for the q-gram comparing the characters of the
+            // q-grams with the same hash
+            
+            int mask = m_QgramTable.length - 1;
+            
+            int slot = getSlot(hash, mask);
+            
+            while (m_QgramTable[slot] != 0)
+            {
+                int id = m_QgramTable[slot] - 1;
+                
+                if ((m_QgramHashes[id] == hash)
+                        && equalChars(m_QgramChars[id], m_QgramOffsets[id],
+                                    chars, offset, qgramLength))
+                {
+                    return (id);
+                }
+                
+                slot = (slot + 1) & mask;
+            }
+            
+            // We register the new q-gram
+            
+            int id = m_QgramCount++;
+            
+            if (id == m_QgramHashes.length)
+            {
+                m_QgramHashes = Arrays.copyOf(m_QgramHashes, 2 * id);
+                m_QgramChars = Arrays.copyOf(m_QgramChars, 2 * id);
+                m_QgramOffsets = Arrays.copyOf(m_QgramOffsets, 2 * id);
+            }
+            
+            m_QgramHashes[id] = hash;
+            m_QgramChars[id] = chars;
+            m_QgramOffsets[id] = offset;
+            
+            m_QgramTable[slot] = id + 1;
+            
+            // We keep the table half empty at most
+            
+            if (2 * m_QgramCount > m_QgramTable.length)
+            {
+                growTable();
+            }
+            
+            // We return the result
+            
+            return (id);
+        }
+        
+        /**
+         * This function doubles the size of the hash table.
+         */
+        
+        private void growTable()
+        {
+            m_QgramTable = new int[2 * m_QgramTable.length];
+            
+            int mask = m_QgramTable.length - 1;
+            
+            for (int id = 0; id < m_QgramCount; id++)
+            {
+                int slot = getSlot(m_QgramHashes[id], mask);
+                
+                while (m_QgramTable[slot] != 0)
+                {
+                    slot = (slot + 1) & mask;
+                }
+                
+                m_QgramTable[slot] = id + 1;
+            }
+        }
+        
+        /**
+         * This function returns the initial slot of the input hash.
+         * @param hash
+         * @param mask
+         * @return
+         */
+        
+        private static int getSlot(
+                long    hash,
+                int     mask)
+        {
+            return ((int)(hash ^ (hash >>> 32)) & mask);
+        }
+        
+        /**
+         * This function checks whether two ranges of characters are equal.
+         * @param chars1
+         * @param offset1
+         * @param chars2
+         * @param offset2
+         * @param length
+         * @return
+         */
+        
+        private static boolean equalChars(
+                char[]  chars1,
+                int     offset1,
+                char[]  chars2,
+                int     offset2,
+                int     length)
+        {
+            for (int i = 0; i < length; i++)
+            {
+                if (chars1[offset1 + i] != chars2[offset2 + i])
+                {
+                    return (false);
+                }
+            }
+            
+            // We return the result
+            
+            return (true);
+        }
+    }
+}
@@ -33,6 +33,7 @@ import hesmlsts.measures.SWEMpoolingMethod;
 import hesmlsts.measures.SentenceEmbeddingMethod;
 import hesmlsts.measures.StringBasedSentenceSimilarityMethod;
 import hesmlsts.preprocess.IWordProcessing;
+import hesmlsts.utils.ParallelRangeExecutor;
 import hesml.taxonomy.ITaxonomy;
 import hesml.taxonomy.IVertexList;
 import hesml.taxonomyreaders.mesh.IMeSHOntology;
@@ -254,6 +255,37 @@ public class SentenceSimilarityFactory
                 embeddingType, preprocesser, strPretrainedWEFilename));
     }
     
+    /**
+     * This function creates a Simple Word-Emebedding model for
+     * sentence similarity whose pre-trained WE file is queried through
+     * a bounded LRU cache of word vectors. This cache is intended for
+     * the disk-backed models, such as the BioWordVec and FastText ones.
+     * 
+     * @param strLabel
+     * @param poolingMethod
+     * @param embeddingType
+     * @param preprocesser
+     * @param strPretrainedWEFilename
+     * @param vectorCacheCapacity Maximum memory (bytes) used by the cached vectors
+     * @return 
+     * @throws java.io.IOException 
+     * @throws java.text.ParseException 
+     */
+    
+    public static ISentenceSimilarityMeasure getSWEMMeasure(
+            String                  strLabel,
+            SWEMpoolingMethod       poolingMethod,
+            WordEmbeddingFileType   embeddingType,
+            IWordProcessing         preprocesser,
+            String                  strPretrainedWEFilename,
+            long                    vectorCacheCapacity) 
+            throws IOException, ParseException, Exception
+    {
+        return (new SimpleWordEmbeddingModelMeasure(strLabel, poolingMethod,
+                embeddingType, preprocesser, strPretrainedWEFilename,
+                vectorCacheCapacity));
+    }
+    
     /**
      * This function creates a LiBlock measure.
      * 
@@ -395,7 +427,6 @@ public class SentenceSimilarityFactory
      * @param method
      * @param mlLibrary
      * @param wordPreprocessor
-     * @param strBertDir
      * @param strPretrainedModelFilename
      * @param pythonScriptDir
      * @param strPythonVirtualEnvironmentDir
@@ -411,7 +442,6 @@ public class SentenceSimilarityFactory
             MLPythonLibrary         mlLibrary,
             IWordProcessing         wordPreprocessor,
             String                  strPretrainedModelFilename,
-            String                  strBertDir,
             String                  strPythonVirtualEnvironmentDir,
             String                  pythonScriptDir) throws IOException,
             InterruptedException, org.json.simple.parser.ParseException
@@ -420,8 +450,7 @@ public class SentenceSimilarityFactory
         
         ISentenceSimilarityMeasure measure = new BertEmbeddingModelMeasure(
                         strLabel, strPretrainedModelFilename, mlLibrary, 
-                        wordPreprocessor, strBertDir, strPythonVirtualEnvironmentDir, 
-                        pythonScriptDir);
+                        wordPreprocessor, strPythonVirtualEnvironmentDir, pythonScriptDir);
 
         // We return the result
         
@@ -437,7 +466,6 @@ public class SentenceSimilarityFactory
      * @param wordPreprocessor
      * @param strPretrainedModelFilename
      * @param strCheckPointFilename
-     * @param strBertDir
      * @param strTunedModelDir
      * @param strPythonVirtualEnvironmentDir
      * @param pythonScriptDir
@@ -457,7 +485,6 @@ public class SentenceSimilarityFactory
             String                  strPretrainedModelFilename,
             String                  strCheckPointFilename,
             String                  strTunedModelDir,
-            String                  strBertDir,
             String                  strPythonVirtualEnvironmentDir,
             String                  pythonScriptDir,
             BERTpoolingMethod       poolingStrategy,
@@ -468,11 +495,89 @@ public class SentenceSimilarityFactory
         
         ISentenceSimilarityMeasure measure = new BertEmbeddingModelMeasure(
                         strLabel, strPretrainedModelFilename, mlLibrary, wordPreprocessor,
-                        strBertDir, strCheckPointFilename, strTunedModelDir, strPythonVirtualEnvironmentDir,
+                        strCheckPointFilename, strTunedModelDir, strPythonVirtualEnvironmentDir,
                         pythonScriptDir, poolingStrategy, poolingLayers);
 
         // We return the result
         
         return (measure);
     }
+    
+    /**
+     * This function sets the number of threads evaluating the sentence
+     * pairs of the thread-safe measures and preprocessing the sentences
+     * of the benchmarks, which is the number of available processors
+     * by default. Both tasks are run sequentially whether the thread
+     * count is 1.
+     * @param threadCount 
+     */
+    
+    public static void setEvaluationThreadCount(
+            int threadCount)
+    {
+        ParallelRangeExecutor.setThreadCount(threadCount);
+    }
+    
+    /**
+     * This function enables or disables the dataset-wide cache of the
+     * word-pair similarity values owned by every WBSM and UBSM measure,
+     * which is disabled by default. Thus, every word pair is evaluated
+     * once per measure in all the sentence pairs of a benchmark.
+     * @param enabled 
+     */
+    
+    public static void setWordPairSimilarityCaching(
+            boolean enabled)
+    {
+        WordPairSimilarityCache.setEnabled(enabled);
+    }
+    
+    /**
+     * This function sets the maximum number of persistent Python workers
+     * kept alive by the sentence embedding methods. Every worker keeps
+     * its model loaded in memory, thus the least recently used workers
+     * are stopped when this limit is exceeded.
+     * @param maxWorkerCount 
+     */
+    
+    public static void setMaxPythonWorkerCount(
+            int maxWorkerCount)
+    {
+        PythonEmbeddingWorker.setMaxWorkerCount(maxWorkerCount);
+    }
+    
+    /**
+     * This function stops all the persistent Python workers used by
+     * the sentence embedding methods.
+     */
+    
+    public static void closePythonWorkers()
+    {
+        PythonEmbeddingWorker.closeAll();
+    }
+    
+    /**
+     * This function sets the persistent cache file storing the sentence
+     * vectors inferred by the sentence embedding methods, which is
+     * created whether it does not exist. The cache is shared by all the
+     * methods because its keys include the model and the word
+     * preprocessing configuration, and it is disabled by a null filename.
+     * @param strCacheFilename 
+     * @throws java.io.IOException 
+     */
+    
+    public static void setSentenceEmbeddingCacheFile(
+            String  strCacheFilename) throws IOException, Exception
+    {
+        SentenceEmbeddingCache.setDefaultCacheFile(strCacheFilename);
+    }
+    
+    /**
+     * This function closes all the sentence embedding cache files.
+     */
+    
+    public static void closeSentenceEmbeddingCaches()
+    {
+        SentenceEmbeddingCache.closeAll();
+    }
 }
\ No newline at end of file
@@ -25,6 +25,7 @@ import hesmlsts.measures.ISentenceSimilarityMeasure;
 import hesmlsts.measures.SentenceSimilarityFamily;
 import hesmlsts.measures.SentenceSimilarityMethod;
 import hesmlsts.preprocess.IWordProcessing;
+import hesmlsts.utils.ParallelRangeExecutor;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 
@@ -95,6 +96,20 @@ abstract class SentenceSimilarityMeasure implements ISentenceSimilarityMeasure
         m_datasetInfo = datasetInfo;
     }
     
+    /**
+     * This function is called by any client function before to evaluate
+     * the current sentence similarity measure with the aim of preloading
+     * the resources required by the words in the input sentences.
+     * Most measures do not require any preloading.
+     * @param lstSentences1
+     * @param lstSentences2
+     */
+    
+    @Override
+    public void preloadVocabulary(
+            String[] lstSentences1,
+            String[] lstSentences2) throws Exception {}
+    
     /**
      * This function releases all resources used by the measure. Once this
      * function is called the measure is completely disabled.
@@ -122,6 +137,46 @@ abstract class SentenceSimilarityMeasure implements ISentenceSimilarityMeasure
     @Override
     public abstract SentenceSimilarityFamily getFamily();
     
+    /**
+     * This function returns true whether the getSimilarityValue function
+     * can be called concurrently by several threads. Most measures share
+     * non thread-safe resources, thus they are evaluated sequentially
+     * by default. The measures without any shared mutable state can be
+     * evaluated in parallel whether their word preprocessing object is
+     * thread-safe, thus they override this function.
+     * @return 
+     */
+    
+    @Override
+    public boolean isThreadSafe()
+    {
+        return (false);
+    }
+    
+    /**
+     * This function returns the word preprocessing objects used by the measure.
+     * @return 
+     */
+    
+    @Override
+    public IWordProcessing[] getWordPreprocessors()
+    {
+        return (new IWordProcessing[] {m_preprocesser});
+    }
+    
+    /**
+     * This function returns a description of the accuracy loss caused by
+     * the compression of the pre-trained model used by the measure.
+     * Most measures do not use compressed models.
+     * @return 
+     */
+    
+    @Override
+    public String getModelAccuracyLoss()
+    {
+        return (null);
+    }
+    
     /**
      * Get the similarity value of two sentences.
      * Each measure implements its own method.
@@ -163,16 +218,43 @@ abstract class SentenceSimilarityMeasure implements ISentenceSimilarityMeasure
             throw new IllegalArgumentException(strerror);
         }
         
+        // We evaluate the sentence pairs
+        
+        return (evaluateSentencePairs(this, firstSentencesVector, secondSentencesVector));
+    }
+    
+    /**
+     * This function evaluates the similarity of every sentence pair. The
+     * pairs of the thread-safe measures are split into contiguous ranges
+     * which are evaluated in parallel, whilst the scores are returned in
+     * the same order as the input pairs.
+     * 
+     * @param measure
+     * @param firstSentencesVector
+     * @param secondSentencesVector
+     * @return
+     * @throws Exception 
+     */
+    
+    static double[] evaluateSentencePairs(
+            ISentenceSimilarityMeasure  measure,
+            String[]                    firstSentencesVector,
+            String[]                    secondSentencesVector) throws Exception
+    {
         // Initialize the scores
         
         double[] similarityScores = new double[firstSentencesVector.length];
         
-        // Iterate the sentences and get the similarity scores.
+        // Iterate the sentences and get the similarity scores
         
-        for (int i = 0; i < firstSentencesVector.length; i++)
+        ParallelRangeExecutor.evaluate(firstSentencesVector.length,
+                measure.isThreadSafe(), (start, end) ->
         {
-            similarityScores[i] = this.getSimilarityValue(firstSentencesVector[i], secondSentencesVector[i]);
-        }
+            for (int i = start; i < end; i++)
+            {
+                similarityScores[i] = measure.getSimilarityValue(firstSentencesVector[i], secondSentencesVector[i]);
+            }
+        });
         
         // Return the result
         
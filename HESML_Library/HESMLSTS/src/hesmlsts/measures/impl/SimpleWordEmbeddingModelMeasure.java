@@ -21,7 +21,9 @@
 
 package hesmlsts.measures.impl;
 
+import hesml.measures.ICachedWordEmbedding;
 import hesml.measures.IPretrainedWordEmbedding;
+import hesml.measures.IQuantizedWordEmbedding;
 import hesml.measures.WordEmbeddingFileType;
 import hesml.measures.impl.MeasureFactory;
 import hesmlsts.measures.SWEMpoolingMethod;
@@ -31,6 +33,7 @@ import hesmlsts.preprocess.IWordProcessing;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.text.ParseException;
+import java.util.HashSet;
 
 /**
  * This function implements a Simple Word-Embedding Model as introduced by
@@ -73,6 +76,25 @@ class SimpleWordEmbeddingModelMeasure extends SentenceSimilarityMeasure
             WordEmbeddingFileType   embeddingType,
             IWordProcessing         preprocesser,
             String                  strPretrainedModelFilename) throws IOException, ParseException, Exception
+    {
+        this(strLabel, poolingMethod, embeddingType, preprocesser, strPretrainedModelFilename, 0);
+    }
+    
+    /**
+     * Constructor
+     * @param embeddingType
+     * @param strPretrainedModelFilename 
+     * @param vectorCacheCapacity Maximum memory (bytes) used by the LRU
+     * cache of word vectors, or zero to disable the cache.
+     */
+    
+    SimpleWordEmbeddingModelMeasure(
+            String                  strLabel,
+            SWEMpoolingMethod       poolingMethod,
+            WordEmbeddingFileType   embeddingType,
+            IWordProcessing         preprocesser,
+            String                  strPretrainedModelFilename,
+            long                    vectorCacheCapacity) throws IOException, ParseException, Exception
     {
         // We initialize the base class
         
@@ -82,7 +104,84 @@ class SimpleWordEmbeddingModelMeasure extends SentenceSimilarityMeasure
         
         m_strLabel = strLabel;
         m_poolingMethod = poolingMethod;
-        m_wordEmbedding = MeasureFactory.getWordEmbeddingModel(embeddingType, strPretrainedModelFilename);
+        
+        // We place a vector cache in front of the model when it is requested
+        
+        m_wordEmbedding = (vectorCacheCapacity > 0) ?
+                MeasureFactory.getCachedWordEmbeddingModel(embeddingType, strPretrainedModelFilename, vectorCacheCapacity) :
+                MeasureFactory.getWordEmbeddingModel(embeddingType, strPretrainedModelFilename);
+    }
+    
+    /**
+     * This function returns the accuracy loss of the word embedding
+     * model whether it is a quantized model.
+     * @return 
+     */
+    
+    @Override
+    public String getModelAccuracyLoss()
+    {
+        // We check if the model is quantized
+        
+        String strAccuracyLoss = null;
+        
+        if (m_wordEmbedding instanceof IQuantizedWordEmbedding)
+        {
+            IQuantizedWordEmbedding quantizedModel = (IQuantizedWordEmbedding) m_wordEmbedding;
+            
+            strAccuracyLoss = "Pearson correlation = " + quantizedModel.getQuantizationPearsonCorrelation()
+                            + " ; Mean absolute error = " + quantizedModel.getQuantizationMeanAbsoluteError();
+        }
+        
+        // We return the result
+        
+        return (strAccuracyLoss);
+    }
+    
+    /**
+     * This function loads into the vector cache the vectors of all the
+     * words in the input sentences. The function does nothing whether
+     * the measure does not use a vector cache.
+     * @param lstSentences1
+     * @param lstSentences2
+     * @throws Exception 
+     */
+    
+    @Override
+    public void preloadVocabulary(
+            String[] lstSentences1,
+            String[] lstSentences2) throws Exception
+    {
+        // We check if the model uses a vector cache
+        
+        if (m_wordEmbedding instanceof ICachedWordEmbedding)
+        {
+            // We collect the words of all sentences
+            
+            HashSet<String> vocabulary = new HashSet<>();
+            
+            for (String[] strSentences : new String[][] {lstSentences1, lstSentences2})
+            {
+                for (String strSentence : strSentences)
+                {
+                    for (String strWord : m_preprocesser.getWordTokens(strSentence))
+                    {
+                        vocabulary.add(strWord);
+                    }
+                }
+            }
+            
+            // We load the vectors of the vocabulary
+            
+            String[] strWords = new String[vocabulary.size()];
+            
+            vocabulary.toArray(strWords);
+            ((ICachedWordEmbedding) m_wordEmbedding).preloadWords(strWords);
+            
+            // We release the auxiliary set
+            
+            vocabulary.clear();
+        }
     }
     
     /**
@@ -109,6 +208,17 @@ class SimpleWordEmbeddingModelMeasure extends SentenceSimilarityMeasure
     @Override
     public void clear()
     {       
+        // We report the usage of the vector cache
+        
+        if (m_wordEmbedding instanceof ICachedWordEmbedding)
+        {
+            ICachedWordEmbedding cachedModel = (ICachedWordEmbedding) m_wordEmbedding;
+            
+            System.out.println(m_strLabel + " vector cache: hit rate = " + cachedModel.getHitRate()
+                    + ", cached vectors = " + cachedModel.getCachedVectorCount()
+                    + ", bytes used = " + cachedModel.getCachedBytes());
+        }
+        
         // We release the embedding query structure
         
         m_wordEmbedding.clear();
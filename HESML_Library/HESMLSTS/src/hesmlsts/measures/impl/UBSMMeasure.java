@@ -39,11 +39,6 @@ import hesml.taxonomyreaders.obo.IOboOntology;
 import hesml.taxonomyreaders.snomed.ISnomedCtOntology;
 import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.HashSet;
-import java.util.LinkedHashSet;
-import java.util.Set;
 
 /**
  * This class implements the BIOSSES2017 Measure for WBSM methods (WordNet-based methods)
@@ -100,6 +95,12 @@ class UBSMMeasure extends SentenceSimilarityMeasure
     
     private IOboOntology    m_OboOntology;
     
+    /**
+     * Dataset-wide cache of the word-pair similarity values
+     */
+    
+    private final WordPairSimilarityCache m_wordPairCache = new WordPairSimilarityCache();
+    
     /**
      * Constructor for SNOMED-CT ontology
      * @param preprocesser 
@@ -314,23 +315,32 @@ class UBSMMeasure extends SentenceSimilarityMeasure
         double[] semanticVector1 = null;
         double[] semanticVector2 = null;
         
-        // We initialize the dictionary vector
-        
-        ArrayList<String> dictionary = null;
-        
         // Preprocess the sentences and get the tokens for each sentence
         
         String[] lstWordsSentence1 = m_preprocesser.getWordTokens(strRawSentence1);
         String[] lstWordsSentence2 = m_preprocesser.getWordTokens(strRawSentence2);
         
         // 1. Construct the joint set of distinct words from S1 and S2 (dictionary)
-                
-        dictionary = constructDictionaryList(lstWordsSentence1, lstWordsSentence2);
+        
+        WordSimilarityMatrix dictionary = new WordSimilarityMatrix(lstWordsSentence1, lstWordsSentence2);
+        
+        // We get the taxonomy vertexes evoked by every dictionary word.
+        // The null value means that the word is not a CUI code.
+        
+        IVertex[][] wordVertexes = new IVertex[dictionary.size()][];
+        
+        for (int i = 0; i < wordVertexes.length; i++)
+        {
+            wordVertexes[i] = getWordVertexes(dictionary.getWord(i));
+        }
+        
+        WordSimilarityMatrix.IWordPairSimilarity wordSimilarity = (word1, word2) ->
+                getSimilarityWordPairs(wordVertexes[word1], wordVertexes[word2]);
         
         // 2. Initialize the semantic vectors.
         
-        semanticVector1 = constructSemanticVector(dictionary, lstWordsSentence1);
-        semanticVector2 = constructSemanticVector(dictionary, lstWordsSentence2);
+        semanticVector1 = dictionary.getSemanticVector(0, wordSimilarity, m_wordPairCache);
+        semanticVector2 = dictionary.getSemanticVector(1, wordSimilarity, m_wordPairCache);
         
         // 3. Compute the cosine similarity between the semantic vectors
         
@@ -381,245 +391,105 @@ class UBSMMeasure extends SentenceSimilarityMeasure
     }
     
     /**
-     * This method initializes the semantic vectors.
-     * Each vector has the words from the dictionary vector.
-     * If the word exists in the sentence of the semantic vector, the value is 1.
-     * 
-     * @param lstWordsSentence1
-     * @param lstWordsSentence2
-     * @throws FileNotFoundException 
-     */
-    
-    private double[] constructSemanticVector(
-            ArrayList<String>   dictionary,
-            String[]            lstWordsSentence) throws FileNotFoundException, Exception
-    {
-        // Initialize the semantic vector
-        
-        double[] semanticVector = new double[dictionary.size()];
-        
-        // Convert arrays to set to facilitate the operations 
-        // (this method do not preserve the word order)
-        
-        Set<String> setWordsSentence1 = new HashSet<>(Arrays.asList(lstWordsSentence));
-
-        // For each list of words of a sentence
-        // If the value is in the sentence, the value of the semantic vector will be 1.
-        
-        int count = 0;
-        for (String word : dictionary)
-        {
-            // We check if the first sentence contains the word
-            
-            double wordVectorComponent = setWordsSentence1.contains(word) ? 1.0 : 
-                        getWordSimilarityScore(word, lstWordsSentence);
-            
-            semanticVector[count] = wordVectorComponent;
-            count++;
-        } 
-        
-        // Return the result
-        
-        return (semanticVector);
-    }
-    
-    /**
-     * Get the maximum similarity value comparing a word with a list of words.
-     * 
-     * @param word
-     * @param lstWordsSentence
-     * @return double
-     */
-    
-    private double getWordSimilarityScore(
-            String              word,
-            String[]            lstWordsSentence) throws Exception
-    {
-        // Initialize the result
-        
-        double maxValue = 0.0;
-        
-        // Iterate the dictionary and compare the similarity 
-        // between the pivot word and the dictionary words to get the maximum value.
-        
-        for (String wordDict : lstWordsSentence)
-        {
-            // Get the similarity between the words
-            
-            double similarityScore = getSimilarityWordPairs(word, wordDict);
-            
-            // If the returned value is greater, set the new similarity value
-            
-            maxValue = maxValue < similarityScore ? similarityScore : maxValue;
-        }
-        
-        // Return the result
-        
-        return (maxValue);
-    }
-    
-    /**
-     * This function returns the degree of similarity between two CUI concepts.
-     * @param strFirstConceptId
-     * @param strSecondConceptId
+     * This function returns the taxonomy vertexes evoked by a CUI code
+     * in the active ontology, or null whether the word is not a CUI code
+     * or none ontology is active.
+     * @param strConceptId
      * @return 
      */
-
-    private double getSimilarityWordPairs(
-            String  strFirstConceptId,
-            String  strSecondConceptId) throws Exception
+    
+    private IVertex[] getWordVertexes(
+            String  strConceptId) throws Exception
     {
         // We initialize the output
         
-        double similarity = Double.NaN;
+        IVertex[] vertexes = null;
         
-        // If both concepts are CUIs codes, compute similarity values
+        // We get the vertexes using the active ontology
         
-        if(isCuiCode(strFirstConceptId) && isCuiCode(strSecondConceptId))
+        if (isCuiCode(strConceptId))
         {
-            // We compute the similarity using the active ontology
-        
             if (m_MeshOntology != null)
             {
-                similarity = getMeSHSimilarity(strFirstConceptId, strSecondConceptId);
+                vertexes = m_MeshOntology.getTaxonomyNodesForUmlsCUI(strConceptId.toUpperCase());
             }
             else if (m_SnomedOntology != null)
             {
-                similarity = getSnomedSimilarity(strFirstConceptId, strSecondConceptId);
+                vertexes = m_SnomedOntology.getTaxonomyVertexesForUmlsCUI(strConceptId.toUpperCase());
             }
             else if (m_OboOntology != null)
             {
-                // We get the OBO concepts
-
-                IOboConcept concept1 = m_OboOntology.getConceptById(strFirstConceptId);
-                IOboConcept concept2 = m_OboOntology.getConceptById(strSecondConceptId);
-
-                // We check the existence of both concepts
-
-                if ((concept1 != null) && (concept2 != null))
-                {
-                    similarity = m_wordSimilarityMeasure.getSimilarity(
-                                    m_Vertexes.getById(concept1.getTaxonomyNodeId()),
-                                    m_Vertexes.getById(concept2.getTaxonomyNodeId()));
-                }
+                // We get the OBO concept
+                
+                IOboConcept concept = m_OboOntology.getConceptById(strConceptId);
+                
+                vertexes = (concept != null) ?
+                            new IVertex[] {m_Vertexes.getById(concept.getTaxonomyNodeId())} :
+                            new IVertex[0];
             }
         }
         
         // We return the result
         
-        return (similarity);
-    }
-    
-   
-    
-    /**
-     * Constructs the dictionary set with all the distinct words from the sentences.
-     * 
-     * @param lstWordsSentence1
-     * @param lstWordsSentence2
-     * @throws FileNotFoundException 
-     */
-    
-    private ArrayList<String> constructDictionaryList(
-            String[] lstWordsSentence1, 
-            String[] lstWordsSentence2) throws FileNotFoundException
-    {
-        // Initialize the set
-        
-        ArrayList<String> dictionary = null;
-        
-        // Create a linked set with the ordered union of the two sentences
-        
-        Set<String> setOrderedWords = new LinkedHashSet<>();
-        setOrderedWords.addAll(Arrays.asList(lstWordsSentence1));
-        setOrderedWords.addAll(Arrays.asList(lstWordsSentence2));
-        
-        // Copy the linked set to the arraylist
-        
-        dictionary = new ArrayList<>(setOrderedWords);
-        
-        // Return the result
-        
-        return (dictionary);
+        return (vertexes);
     }
     
     /**
-     * This function returns the degree of similarity between two CUI concepts
-     * evaluated on SNOMED.
-     * @param strFirstUmlsCUI
-     * @param strSecondUmlsCUI
+     * This function returns the degree of similarity between two CUI concepts.
+     * @param firstVertexes Vertexes evoked by the first concept, or null
+     * @param secondVertexes Vertexes evoked by the second concept, or null
      * @return 
      */
 
-    private double getSnomedSimilarity(
-            String  strFirstUmlsCUI,
-            String  strSecondUmlsCUI) throws Exception
+    private double getSimilarityWordPairs(
+            IVertex[]   firstVertexes,
+            IVertex[]   secondVertexes) throws Exception
     {
-        // We initilizae the output
-        
-        double similarity = 0.0;
-        
-        // We get the SNOMED concepts evoked by each CUI
+        // We initialize the output
         
-        IVertex[] firstVertexes = m_SnomedOntology.getTaxonomyVertexesForUmlsCUI(strFirstUmlsCUI.toUpperCase());
-        IVertex[] secondVertexes = m_SnomedOntology.getTaxonomyVertexesForUmlsCUI(strSecondUmlsCUI.toUpperCase());
+        double similarity = Double.NaN;
         
-        // We check the existence oif SNOMED concepts associated to the CUIS
+        // If both concepts are CUIs codes, compute similarity values
         
-        if ((firstVertexes.length > 0)
-                && (secondVertexes.length > 0))
+        if ((firstVertexes != null) && (secondVertexes != null))
         {
-            // We initialize the maximum similarity
-            
-            double maxSimilarity = Double.NEGATIVE_INFINITY;
-            
-            // We compare all pairs of evoked SNOMED concepts
-            
-            for (IVertex vertex1: firstVertexes)
+            // We compute the similarity using the active ontology
+        
+            if ((m_MeshOntology != null) || (m_SnomedOntology != null))
             {
-                for (IVertex vertex2: secondVertexes)
-                {
-                    double snomedSimilarity = m_wordSimilarityMeasure.getSimilarity(
-                                                vertex1, vertex2);
+                similarity = getHighestSimilarity(firstVertexes, secondVertexes);
+            }
+            else if ((firstVertexes.length > 0) && (secondVertexes.length > 0))
+            {
+                // We compare the OBO concepts
                 
-                    // We update the maximum similarity
-
-                    if (snomedSimilarity > maxSimilarity) maxSimilarity = snomedSimilarity;
-                }
+                similarity = m_wordSimilarityMeasure.getSimilarity(
+                                firstVertexes[0], secondVertexes[0]);
             }
-            
-            // We assign the output similarity value
-            
-            similarity = maxSimilarity;
         }
         
         // We return the result
         
         return (similarity);
     }
-
+    
     /**
-     * This function returns the degree of similarity between two CUI concepts
-     * evaluated on MeSH.
-     * @param strFirstUmlsCUI
-     * @param strSecondUmlsCUI
+     * This function returns the highest similarity between the SNOMED
+     * or MeSH concepts evoked by two CUI concepts.
+     * @param firstVertexes
+     * @param secondVertexes
      * @return 
      */
 
-    private double getMeSHSimilarity(
-            String  strFirstUmlsCUI,
-            String  strSecondUmlsCUI) throws Exception
+    private double getHighestSimilarity(
+            IVertex[]   firstVertexes,
+            IVertex[]   secondVertexes) throws Exception
     {
         // We initilizae the output
         
         double similarity = 0.0;
         
-        // We get the SNOMED concepts evoked by each CUI
-        
-        IVertex[] firstVertexes = m_MeshOntology.getTaxonomyNodesForUmlsCUI(strFirstUmlsCUI.toUpperCase());
-        IVertex[] secondVertexes = m_MeshOntology.getTaxonomyNodesForUmlsCUI(strSecondUmlsCUI.toUpperCase());
-        
-        // We check the existence oif SNOMED concepts associated to the CUIS
+        // We check the existence of concepts associated to the CUIS
         
         if ((firstVertexes.length > 0)
                 && (secondVertexes.length > 0))
@@ -628,18 +498,18 @@ class UBSMMeasure extends SentenceSimilarityMeasure
             
             double maxSimilarity = Double.NEGATIVE_INFINITY;
             
-            // We compare all pairs of evoked SNOMED concepts
+            // We compare all pairs of evoked concepts
             
             for (IVertex vertex1: firstVertexes)
             {
                 for (IVertex vertex2: secondVertexes)
                 {
-                    double meshSimilarity = m_wordSimilarityMeasure.getSimilarity(
+                    double conceptSimilarity = m_wordSimilarityMeasure.getSimilarity(
                                                 vertex1, vertex2);
                 
                     // We update the maximum similarity
 
-                    if (meshSimilarity > maxSimilarity) maxSimilarity = meshSimilarity;
+                    if (conceptSimilarity > maxSimilarity) maxSimilarity = conceptSimilarity;
                 }
             }
             
@@ -669,6 +539,10 @@ class UBSMMeasure extends SentenceSimilarityMeasure
     @Override
     public void clear()
     {
+        // We release the cached word-pair similarity values
+        
+        m_wordPairCache.clear();
+        
         // We release the resources of the base class
         
         super.clear();
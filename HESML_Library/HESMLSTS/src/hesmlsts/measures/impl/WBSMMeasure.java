@@ -35,11 +35,6 @@ import hesml.taxonomy.IVertexList;
 import hesml.taxonomyreaders.wordnet.IWordNetDB;
 import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.HashSet;
-import java.util.LinkedHashSet;
-import java.util.Set;
 
 /**
  * This class implements the BIOSSES2017 Measure for WBSM methods (WordNet-based methods)
@@ -76,6 +71,12 @@ class WBSMMeasure extends SentenceSimilarityMeasure
     
     private final ITaxonomyInfoConfigurator m_ICmodel;
     
+    /**
+     * Dataset-wide cache of the word-pair similarity values
+     */
+    
+    private final WordPairSimilarityCache m_wordPairCache;
+    
     /**
      * Constructor
      * @param preprocesser 
@@ -112,6 +113,10 @@ class WBSMMeasure extends SentenceSimilarityMeasure
         
         m_wordSimilarityMeasure = MeasureFactory.getMeasure(m_wordnetTaxonomy, wordSimilarityType);
 
+        // We create the cache of word-pair similarity values
+        
+        m_wordPairCache = new WordPairSimilarityCache();
+        
         // We save the label
 
         m_strLabel = strLabel;
@@ -197,24 +202,42 @@ class WBSMMeasure extends SentenceSimilarityMeasure
         double[] semanticVector1 = null;
         double[] semanticVector2 = null;
         
-        // We initialize the dictionary vector
-        
-        ArrayList<String> dictionary = null;
-        
         // Preprocess the sentences and get the tokens for each sentence
         
         String[] lstWordsSentence1 = m_preprocesser.getWordTokens(strRawSentence1);
         String[] lstWordsSentence2 = m_preprocesser.getWordTokens(strRawSentence2);
         
         // 1. Construct the joint set of distinct words from S1 and S2 (dictionary)
-                
-        dictionary = constructDictionaryList(lstWordsSentence1, lstWordsSentence2);
+        
+        WordSimilarityMatrix dictionary = new WordSimilarityMatrix(lstWordsSentence1, lstWordsSentence2);
+        
+        // We get the WordNet concepts evoked by every dictionary word.
+        // The null value means that the word is not contained in WordNet.
+        
+        IVertexList[] wordConcepts = new IVertexList[dictionary.size()];
+        
+        for (int i = 0; i < wordConcepts.length; i++)
+        {
+            wordConcepts[i] = getWordConcepts(dictionary.getWord(i));
+        }
+        
+        WordSimilarityMatrix.IWordPairSimilarity wordSimilarity = (word1, word2) ->
+                getSimilarityWordPairs(wordConcepts[word1], wordConcepts[word2]);
         
         // 2. Initialize and compute the semantic vectors.
         
-        semanticVector1 = constructSemanticVector(dictionary, lstWordsSentence1);
-        semanticVector2 = constructSemanticVector(dictionary, lstWordsSentence2);
-
+        semanticVector1 = dictionary.getSemanticVector(0, wordSimilarity, m_wordPairCache);
+        semanticVector2 = dictionary.getSemanticVector(1, wordSimilarity, m_wordPairCache);
+        
+        // We clear the vertex lists
+        
+        for (IVertexList concepts : wordConcepts)
+        {
+            if (concepts != null)
+            {
+                concepts.clear();
+            }
+        }
         
         // 3. Compute the cosine similarity between the semantic vectors
         
@@ -226,52 +249,44 @@ class WBSMMeasure extends SentenceSimilarityMeasure
     }
     
     /**
-     * Get the maximum similarity value comparing a word with a list of words.
-     * 
-     * @param word
-     * @param lstWordsSentence
-     * @return double
+     * This function returns the WordNet concepts evoked by a word,
+     * or null whether the word is not contained in WordNet.
+     * @param strWord
+     * @return
+     * @throws Exception 
      */
     
-    private double getWordSimilarityScore(
-            String              word,
-            String[]            lstWordsSentence) throws Exception
+    private IVertexList getWordConcepts(
+            String  strWord) throws Exception
     {
-        // Initialize the result
+        // We initialize the output
         
-        double maxValue = 0.0;
+        IVertexList concepts = null;
         
-        // Iterate the dictionary and compare the similarity 
-        // between the pivot word and the dictionary words to get the maximum value.
+        // We obtain the concepts evoked by the word
         
-        for (String wordDict : lstWordsSentence)
+        if (m_wordnet.contains(strWord))
         {
-            // Get the similarity between the words
-            
-            double similarityScore = getSimilarityWordPairs(word, wordDict);
-            
-            // If the returned value is greater, set the new similarity value
-            
-            maxValue = maxValue < similarityScore ? similarityScore : maxValue;
+            concepts = m_wordnetTaxonomy.getVertexes().getByIds(
+                                m_wordnet.getWordSynsetIdArray(strWord));
         }
         
-        // Return the result
+        // We return the result
         
-        return (maxValue);
+        return (concepts);
     }
     
     /**
      * Get the similarity of two words using a Wordnet-based similarity measure
-     * @param measure
-     * @param word1
-     * @param word2
+     * @param word1Concepts Concepts evoked by the word1, or null
+     * @param word2Concepts Concepts evoked by the word2, or null
      * @return
      * @throws Exception 
      */
     
     private double getSimilarityWordPairs(
-            String              word1, 
-            String              word2) throws Exception
+            IVertexList         word1Concepts, 
+            IVertexList         word2Concepts) throws Exception
     {
         // Initialize the similarity values
         
@@ -279,34 +294,13 @@ class WBSMMeasure extends SentenceSimilarityMeasure
 
         // If the concepts exists in WordNet, compute the similiarity
         
-        if(m_wordnet.contains(word1) & m_wordnet.contains(word2))
+        if ((word1Concepts != null) && (word2Concepts != null))
         {
-            // Vertexes corresponding to the concepts evoked by the word1
-            
-            IVertexList word1Concepts;  
-
-            // Vertexes corresponding to the concepts evoked by the word2
-            
-            IVertexList word2Concepts;  
-                                    
-            // We obtain the concepts evoked by the words 
-            
-            word1Concepts = m_wordnetTaxonomy.getVertexes().getByIds(
-                                m_wordnet.getWordSynsetsID(word1));
-
-            word2Concepts = m_wordnetTaxonomy.getVertexes().getByIds(
-                                m_wordnet.getWordSynsetsID(word2));
-
             // We compute the similarity among all the pairwise
             // combinations of Synsets (cartesian product)
 
             simValue = m_wordSimilarityMeasure.getHighestPairwiseSimilarity(
                                 word1Concepts, word2Concepts);
-
-            // We clear the vertex lists
-
-            word1Concepts.clear();
-            word2Concepts.clear();
         }
         
         // Return the value
@@ -382,80 +376,6 @@ class WBSMMeasure extends SentenceSimilarityMeasure
         return (norm);
     }
     
-    /**
-     * Constructs the dictionary set with all the distinct words from the sentences.
-     * 
-     * @param lstWordsSentence1
-     * @param lstWordsSentence2
-     * @throws FileNotFoundException 
-     */
-    
-    private ArrayList<String> constructDictionaryList(
-            String[] lstWordsSentence1, 
-            String[] lstWordsSentence2) throws FileNotFoundException
-    {
-        // Initialize the set
-        
-        ArrayList<String> dictionary = null;
-        
-        // Create a linked set with the ordered union of the two sentences
-        
-        Set<String> setOrderedWords = new LinkedHashSet<>();
-        setOrderedWords.addAll(Arrays.asList(lstWordsSentence1));
-        setOrderedWords.addAll(Arrays.asList(lstWordsSentence2));
-        
-        // Copy the linked set to the arraylist
-        
-        dictionary = new ArrayList<>(setOrderedWords);
-        
-        // Return the result
-        
-        return (dictionary);
-    }
-    
-    /**
-     * This method initializes the semantic vectors.
-     * Each vector has the words from the dictionary vector.
-     * If the word exists in the sentence of the semantic vector, the value is 1.
-     * 
-     * @param lstWordsSentence1
-     * @param lstWordsSentence2
-     * @throws FileNotFoundException 
-     */
-    
-    private double[] constructSemanticVector(
-            ArrayList<String>   dictionary,
-            String[]            lstWordsSentence) throws FileNotFoundException, Exception
-    {
-        // Initialize the semantic vector
-        
-        double[] semanticVector = new double[dictionary.size()];
-        
-        // Convert arrays to set to facilitate the operations 
-        // (this method do not preserve the word order)
-        
-        Set<String> setWordsSentence1 = new HashSet<>(Arrays.asList(lstWordsSentence));
-
-        // For each list of words of a sentence
-        // If the value is in the sentence, the value of the semantic vector will be 1.
-        
-        int count = 0;
-        for (String word : dictionary)
-        {
-            // We check if the first sentence contains the word
-            
-            double wordVectorComponent = setWordsSentence1.contains(word) ? 1.0 : 
-                        getWordSimilarityScore(word, lstWordsSentence);
-            
-            semanticVector[count] = wordVectorComponent;
-            count++;
-        } 
-        
-        // Return the result
-        
-        return (semanticVector);
-    }
-    
     /**
      * This function releases all resources used by the measure. Once this
      * function is called the measure is completely disabled.
@@ -464,6 +384,10 @@ class WBSMMeasure extends SentenceSimilarityMeasure
     @Override
     public void clear()
     {     
+       // We release the cached word-pair similarity values
+       
+       m_wordPairCache.clear();
+       
        // We release the resources of the base class
        
        super.clear();
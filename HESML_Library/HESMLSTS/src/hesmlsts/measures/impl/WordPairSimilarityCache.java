@@ -0,0 +1,133 @@
+/*
+ * Copyright (C) 2016-2022 Universidad Nacional de Educación a Distancia (UNED)
+ *
+ * This program is free software for non-commercial use:
+ * you can redistribute it and/or modify it under the terms of the
+ * Creative Commons Attribution-NonCommercial-ShareAlike 4.0 International
+ * (CC BY-NC-SA 4.0) as published by the Creative Commons Corporation,
+ * either version 4 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * section 5 of the CC BY-NC-SA 4.0 License for more details.
+ *
+ * You should have received a copy of the Creative Commons
+ * Attribution-NonCommercial-ShareAlike 4.0 International (CC BY-NC-SA 4.0)
+ * license along with this program. If not,
+ * see <http://creativecommons.org/licenses/by-nc-sa/4.0/>.
+ *
+ */
+
+package hesmlsts.measures.impl;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * This class implements the cache of word-pair similarity values owned
+ * by every ontology-based sentence similarity measure. The cache keeps
+ * the values across all the sentence pairs of a dataset, thus every
+ * ordered word pair is evaluated once per measure. The caching is
+ * disabled by default and it is enabled for all the measures by the
+ * SentenceSimilarityFactory class.
+ * @author alicia
+ */
+
+class WordPairSimilarityCache
+{
+    /**
+     * Flag enabling the caching in all the measures
+     */
+    
+    private static volatile boolean m_Enabled = false;
+    
+    /**
+     * Similarity values indexed by the first and second words
+     */
+    
+    private final ConcurrentHashMap<String, ConcurrentHashMap<String, Double>>  m_Similarities;
+    
+    /**
+     * Constructor
+     */
+    
+    WordPairSimilarityCache()
+    {
+        m_Similarities = new ConcurrentHashMap<>();
+    }
+    
+    /**
+     * This function enables or disables the caching in all the measures.
+     * The values cached by the measures are not released until they are
+     * cleared.
+     * @param enabled
+     */
+    
+    static void setEnabled(
+            boolean enabled)
+    {
+        m_Enabled = enabled;
+    }
+    
+    /**
+     * This function returns the cached similarity value of an ordered
+     * word pair, or null whether it is not found or the caching is disabled.
+     * @param strWord1
+     * @param strWord2
+     * @return
+     */
+    
+    Double getSimilarity(
+            String  strWord1,
+            String  strWord2)
+    {
+        // We initialize the output
+        
+        Double similarity = null;
+        
+        // We look for the word pair
+        
+        if (m_Enabled)
+        {
+            ConcurrentHashMap<String, Double> word1Similarities = m_Similarities.get(strWord1);
+            
+            if (word1Similarities != null)
+            {
+                similarity = word1Similarities.get(strWord2);
+            }
+        }
+        
+        // We return the result
+        
+        return (similarity);
+    }
+    
+    /**
+     * This function stores the similarity value of an ordered word pair
+     * whether the caching is enabled.
+     * @param strWord1
+     * @param strWord2
+     * @param similarity
+     */
+    
+    void putSimilarity(
+            String  strWord1,
+            String  strWord2,
+            double  similarity)
+    {
+        if (m_Enabled)
+        {
+            m_Similarities.computeIfAbsent(strWord1, key -> new ConcurrentHashMap<>()).put(
+                    strWord2, similarity);
+        }
+    }
+    
+    /**
+     * This function releases all the cached values.
+     */
+    
+    void clear()
+    {
+        m_Similarities.clear();
+    }
+}
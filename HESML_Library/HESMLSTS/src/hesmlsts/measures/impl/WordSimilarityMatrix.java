@@ -0,0 +1,277 @@
+/*
+ * Copyright (C) 2016-2022 Universidad Nacional de Educación a Distancia (UNED)
+ *
+ * This program is free software for non-commercial use:
+ * you can redistribute it and/or modify it under the terms of the
+ * Creative Commons Attribution-NonCommercial-ShareAlike 4.0 International
+ * (CC BY-NC-SA 4.0) as published by the Creative Commons Corporation,
+ * either version 4 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * section 5 of the CC BY-NC-SA 4.0 License for more details.
+ *
+ * You should have received a copy of the Creative Commons
+ * Attribution-NonCommercial-ShareAlike 4.0 International (CC BY-NC-SA 4.0)
+ * license along with this program. If not,
+ * see <http://creativecommons.org/licenses/by-nc-sa/4.0/>.
+ *
+ */
+
+package hesmlsts.measures.impl;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+
+/**
+ * This class implements the dictionary of a sentence pair together with
+ * the matrix of similarity values between its words, which is used to
+ * build the semantic vectors of the BIOSSES2017 measures. The dictionary
+ * is the ordered union of the distinct words of both sentences, and every
+ * ordered word pair is evaluated at most once per sentence pair. Thus,
+ * the measures resolve the concepts evoked by every dictionary word once,
+ * and the values are optionally looked up in the dataset-wide cache
+ * of the measure before being evaluated.
+ * @author alicia
+ */
+
+class WordSimilarityMatrix
+{
+    /**
+     * This interface represents the word similarity function evaluated
+     * on a pair of dictionary words identified by their index.
+     */
+    
+    interface IWordPairSimilarity
+    {
+        /**
+         * This function returns the similarity between two dictionary words.
+         * @param word1 Index of the first word
+         * @param word2 Index of the second word
+         * @return
+         * @throws Exception
+         */
+        
+        double getSimilarity(
+                int word1,
+                int word2) throws Exception;
+    }
+    
+    /**
+     * Distinct words of both sentences in order of appearance
+     */
+    
+    private final String[]      m_Dictionary;
+    
+    /**
+     * Indexes of the distinct dictionary words of every sentence
+     */
+    
+    private final int[][]       m_SentenceWords;
+    
+    /**
+     * Membership of the dictionary words to every sentence
+     */
+    
+    private final boolean[][]   m_InSentence;
+    
+    /**
+     * Similarity values between the dictionary words, which are
+     * computed on demand.
+     */
+    
+    private final double[]      m_Similarities;
+    private final boolean[]     m_Computed;
+    
+    /**
+     * Constructor
+     * @param lstWordsSentence1
+     * @param lstWordsSentence2
+     */
+    
+    WordSimilarityMatrix(
+            String[]    lstWordsSentence1,
+            String[]    lstWordsSentence2)
+    {
+        // We build the ordered union of the distinct words
+        
+        LinkedHashMap<String, Integer> wordIndexes = new LinkedHashMap<>();
+        
+        String[][] sentences = {lstWordsSentence1, lstWordsSentence2};
+        
+        for (String[] words : sentences)
+        {
+            for (String strWord : words)
+            {
+                wordIndexes.putIfAbsent(strWord, wordIndexes.size());
+            }
+        }
+        
+        m_Dictionary = wordIndexes.keySet().toArray(new String[wordIndexes.size()]);
+        
+        // We get the distinct words of every sentence
+        
+        m_SentenceWords = new int[2][];
+        m_InSentence = new boolean[2][m_Dictionary.length];
+        
+        for (int i = 0; i < sentences.length; i++)
+        {
+            int[] sentenceWords = new int[sentences[i].length];
+            int count = 0;
+            
+            for (String strWord : sentences[i])
+            {
+                int word = wordIndexes.get(strWord);
+                
+                if (!m_InSentence[i][word])
+                {
+                    m_InSentence[i][word] = true;
+                    sentenceWords[count++] = word;
+                }
+            }
+            
+            m_SentenceWords[i] = Arrays.copyOf(sentenceWords, count);
+        }
+        
+        // We initialize the similarity matrix
+        
+        m_Similarities = new double[m_Dictionary.length * m_Dictionary.length];
+        m_Computed = new boolean[m_Similarities.length];
+    }
+    
+    /**
+     * This function returns the number of dictionary words.
+     * @return
+     */
+    
+    int size()
+    {
+        return (m_Dictionary.length);
+    }
+    
+    /**
+     * This function returns a dictionary word.
+     * @param word Index of the word
+     * @return
+     */
+    
+    String getWord(
+            int word)
+    {
+        return (m_Dictionary[word]);
+    }
+    
+    /**
+     * This function returns the binary vector of a sentence, whose
+     * coordinates are 1 for the dictionary words in the sentence.
+     * @param sentence Index of the sentence (0 or 1)
+     * @return
+     */
+    
+    double[] getBinaryVector(
+            int sentence)
+    {
+        double[] vector = new double[m_Dictionary.length];
+        
+        for (int i = 0; i < vector.length; i++)
+        {
+            vector[i] = m_InSentence[sentence][i] ? 1.0 : 0.0;
+        }
+        
+        // We return the result
+        
+        return (vector);
+    }
+    
+    /**
+     * This function returns the semantic vector of a sentence. The
+     * coordinate of every dictionary word is 1 whether the word is in the
+     * sentence, or otherwise its highest similarity with the sentence words,
+     * being 0 the minimum value.
+     * @param sentence Index of the sentence (0 or 1)
+     * @param measure Word similarity function
+     * @param cache Dataset-wide cache of the measure
+     * @return
+     * @throws Exception
+     */
+    
+    double[] getSemanticVector(
+            int                     sentence,
+            IWordPairSimilarity     measure,
+            WordPairSimilarityCache cache) throws Exception
+    {
+        double[] vector = new double[m_Dictionary.length];
+        
+        for (int i = 0; i < vector.length; i++)
+        {
+            if (m_InSentence[sentence][i])
+            {
+                vector[i] = 1.0;
+            }
+            else
+            {
+                // We get the highest similarity with the sentence words.
+                // The NaN values are ignored.
+                
+                double maxValue = 0.0;
+                
+                for (int word : m_SentenceWords[sentence])
+                {
+                    double similarityScore = getSimilarity(i, word, measure, cache);
+                    
+                    maxValue = maxValue < similarityScore ? similarityScore : maxValue;
+                }
+                
+                vector[i] = maxValue;
+            }
+        }
+        
+        // We return the result
+        
+        return (vector);
+    }
+    
+    /**
+     * This function returns the similarity between two dictionary words,
+     * which is evaluated only whether it is not found in the matrix
+     * nor in the dataset-wide cache.
+     * @param word1
+     * @param word2
+     * @param measure
+     * @param cache
+     * @return
+     * @throws Exception
+     */
+    
+    private double getSimilarity(
+            int                     word1,
+            int                     word2,
+            IWordPairSimilarity     measure,
+            WordPairSimilarityCache cache) throws Exception
+    {
+        int position = word1 * m_Dictionary.length + word2;
+        
+        if (!m_Computed[position])
+        {
+            Double cachedValue = cache.getSimilarity(m_Dictionary[word1], m_Dictionary[word2]);
+            
+            if (cachedValue != null)
+            {
+                m_Similarities[position] = cachedValue;
+            }
+            else
+            {
+                m_Similarities[position] = measure.getSimilarity(word1, word2);
+                
+                cache.putSimilarity(m_Dictionary[word1], m_Dictionary[word2], m_Similarities[position]);
+            }
+            
+            m_Computed[position] = true;
+        }
+        
+        // We return the result
+        
+        return (m_Similarities[position]);
+    }
+}
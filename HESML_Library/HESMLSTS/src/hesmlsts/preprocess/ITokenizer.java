@@ -49,4 +49,18 @@ public interface ITokenizer
     
     String[] getTokens(
             String strRawSentence) throws InterruptedException, IOException;
+    
+    /**
+     * Given a collection of sentences, get the tokens of every sentence
+     * using the method selected. This function is intended to tokenize
+     * large corpora in a single batch.
+     * 
+     * @param strRawSentences
+     * @return String[][] tokens of every sentence in the same order
+     * @throws java.lang.InterruptedException
+     * @throws java.io.IOException
+     */
+    
+    String[][] getTokens(
+            String[] strRawSentences) throws InterruptedException, IOException;
 }
\ No newline at end of file
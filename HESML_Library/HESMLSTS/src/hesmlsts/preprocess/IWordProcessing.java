@@ -60,6 +60,14 @@ public interface IWordProcessing
     
     String getLabel();
     
+    /**
+     * This function returns true whether the getWordTokens function
+     * can be called concurrently by several threads.
+     * @return 
+     */
+    
+    boolean isThreadSafe();
+    
     /**
      * Set the NER type
      */
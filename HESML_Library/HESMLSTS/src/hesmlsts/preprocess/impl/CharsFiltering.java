@@ -23,11 +23,21 @@ package hesmlsts.preprocess.impl;
 
 import hesmlsts.preprocess.CharFilteringType;
 import hesmlsts.preprocess.ICharsFiltering;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.Locale;
 
 /**
  *  This class implements the punctuation marks 
  *  filtering methods used in the papers.
+ * 
+ *  The replacement patterns are applied in the iteration order of the
+ *  replacement mapping. Every pattern replaces single characters, except
+ *  the one which collapses the whitespace runs. Thus, the patterns
+ *  applied before and after the collapsing are compiled into two
+ *  character translation tables, and the sentences are filtered in a
+ *  single pass over their characters producing the same output as the
+ *  sequential application of the regular expressions.
  *  @author alicia
  */
 
@@ -42,6 +52,35 @@ class CharsFiltering implements ICharsFiltering
     
     CharFilteringType m_charFilteringType;
     
+    /**
+     * Pattern collapsing the whitespace runs
+     */
+    
+    private static final String WHITESPACE_RUN_PATTERN = "\\s{2,}";
+    
+    /**
+     * Translation value of the removed characters
+     */
+    
+    private static final char   REMOVED_CHAR = '\uffff';
+    
+    /**
+     * Translation tables of the ASCII characters applied before and
+     * after collapsing the whitespace runs, or null whether the patterns
+     * cannot be compiled into translation tables.
+     */
+    
+    private char[]  m_firstTranslationTable;
+    private char[]  m_secondTranslationTable;
+    
+    /**
+     * Flags removing the non-ASCII characters before and after
+     * collapsing the whitespace runs
+     */
+    
+    private boolean m_firstRemovesNonAscii;
+    private boolean m_secondRemovesNonAscii;
+    
     /**
      *  Constructor with parameters.
      *  @param charFilteringType
@@ -91,6 +130,308 @@ class CharsFiltering implements ICharsFiltering
         // We register the last extra words applied as last filtering
         
         m_replacingMap.put("\\s{2,}", " ");
+        
+        // We compile the replacement patterns
+        
+        compileTranslationTables();
+    }
+    
+    /**
+     * This function compiles the replacement patterns applied before
+     * and after the whitespace collapsing into two translation tables.
+     * The translation of every character is obtained by applying the
+     * patterns to the character in the same order as the filter function.
+     * The tables are not built whether any pattern is not a single
+     * character pattern or it does not replace single characters by
+     * single characters, being then the sentences filtered by the
+     * regular expressions.
+     */
+    
+    private void compileTranslationTables()
+    {
+        // We split the patterns at the whitespace collapsing
+        
+        ArrayList<String> firstPatterns = new ArrayList<>();
+        ArrayList<String> secondPatterns = new ArrayList<>();
+        
+        ArrayList<String> currentPatterns = firstPatterns;
+        
+        boolean compilable = true;
+        
+        for (String strPattern : m_replacingMap.keySet())
+        {
+            if (strPattern.equals(WHITESPACE_RUN_PATTERN))
+            {
+                compilable = compilable && (currentPatterns == firstPatterns);
+                currentPatterns = secondPatterns;
+            }
+            else
+            {
+                currentPatterns.add(strPattern);
+                
+                compilable = compilable && isSingleCharPattern(
+                                strPattern, m_replacingMap.get(strPattern));
+            }
+        }
+        
+        // We build the translation tables
+        
+        char[] firstTable = compilable ? getTranslationTable(firstPatterns) : null;
+        char[] secondTable = compilable ? getTranslationTable(secondPatterns) : null;
+        
+        if ((firstTable != null) && (secondTable != null))
+        {
+            m_firstTranslationTable = firstTable;
+            m_secondTranslationTable = secondTable;
+            
+            m_firstRemovesNonAscii = (firstTable[128] == REMOVED_CHAR);
+            m_secondRemovesNonAscii = (secondTable[128] == REMOVED_CHAR);
+        }
+    }
+    
+    /**
+     * This function checks whether the input pattern matches single
+     * characters regardless of their context, and its replacement is a
+     * literal string. Thus, the pattern must be either a literal or
+     * escaped character, a predefined character class or a bracketed
+     * character class. The only quantifier allowed is '+' on patterns
+     * removing the matched characters, because removing a run of
+     * characters is equivalent to removing every character of the run.
+     * @param strPattern
+     * @param strReplacement
+     * @return True whether the pattern can be compiled into a translation table
+     */
+    
+    private static boolean isSingleCharPattern(
+            String  strPattern,
+            String  strReplacement)
+    {
+        // We check that the replacement does not contain group references
+        
+        if (strPattern.isEmpty() || (strReplacement.indexOf('$') >= 0)
+                || (strReplacement.indexOf('\\') >= 0))
+        {
+            return (false);
+        }
+        
+        // We get the end of the character pattern, or -1 whether the
+        // pattern does not start by a single character pattern
+        
+        int end;
+        
+        char first = strPattern.charAt(0);
+        
+        if (first == '\\')
+        {
+            end = getEscapedCharEnd(strPattern);
+        }
+        else if (first == '[')
+        {
+            end = getCharClassEnd(strPattern);
+        }
+        else
+        {
+            end = ("$^|?*+(){}]".indexOf(first) < 0) ? 1 : -1;
+        }
+        
+        // We check the optional quantifier
+        
+        if ((end > 0) && (end < strPattern.length()))
+        {
+            end = (strReplacement.isEmpty() && strPattern.substring(end).equals("+")) ?
+                    strPattern.length() : -1;
+        }
+        
+        // We return the result
+        
+        return (end == strPattern.length());
+    }
+    
+    /**
+     * This function returns the end of the escaped character which starts
+     * the pattern, or -1 whether the escape sequence does not match single
+     * characters, such as the boundaries, the back references or quotes.
+     * @param strPattern
+     * @return 
+     */
+    
+    private static int getEscapedCharEnd(
+            String  strPattern)
+    {
+        // We initialize the output
+        
+        int end = -1;
+        
+        if (strPattern.length() > 1)
+        {
+            char escaped = strPattern.charAt(1);
+            
+            if ((escaped == 'p') || (escaped == 'P'))
+            {
+                // Unicode and POSIX character classes
+                
+                int closing = strPattern.indexOf('}');
+                
+                end = ((strPattern.length() > 2) && (strPattern.charAt(2) == '{')
+                        && (closing > 3)) ? closing + 1 : -1;
+            }
+            else if ("dDsSwWhHvVtnrfae".indexOf(escaped) >= 0)
+            {
+                // Predefined character classes and control characters
+                
+                end = 2;
+            }
+            else if ((escaped == 'x') && (strPattern.length() >= 4)
+                    && isHexDigits(strPattern.substring(2, 4)))
+            {
+                end = 4;
+            }
+            else if ((escaped == 'u') && (strPattern.length() >= 6)
+                    && isHexDigits(strPattern.substring(2, 6)))
+            {
+                end = 6;
+            }
+            else if (!Character.isLetterOrDigit(escaped))
+            {
+                // Escaped literal characters
+                
+                end = 2;
+            }
+        }
+        
+        // We return the result
+        
+        return (end);
+    }
+    
+    /**
+     * This function returns the end of the bracketed character class
+     * which starts the pattern, or -1 whether it is not closed.
+     * @param strPattern
+     * @return 
+     */
+    
+    private static int getCharClassEnd(
+            String  strPattern)
+    {
+        // We look for the closing bracket skipping the escaped characters
+        // and the nested classes. A closing bracket is literal whether
+        // it is the first character of the class.
+        
+        int depth = 0;
+        
+        for (int i = 0; i < strPattern.length(); i++)
+        {
+            char c = strPattern.charAt(i);
+            
+            if (c == '\\')
+            {
+                i++;
+            }
+            else if (c == '[')
+            {
+                depth++;
+                
+                // We skip the negation and the leading literal bracket
+                
+                if ((i + 1 < strPattern.length()) && (strPattern.charAt(i + 1) == '^')) i++;
+                if ((i + 1 < strPattern.length()) && (strPattern.charAt(i + 1) == ']')) i++;
+            }
+            else if ((c == ']') && (--depth == 0))
+            {
+                return (i + 1);
+            }
+        }
+        
+        // We return the result
+        
+        return (-1);
+    }
+    
+    /**
+     * This function checks whether the input string is made up by
+     * hexadecimal digits.
+     * @param strDigits
+     * @return 
+     */
+    
+    private static boolean isHexDigits(
+            String  strDigits)
+    {
+        for (int i = 0; i < strDigits.length(); i++)
+        {
+            if (Character.digit(strDigits.charAt(i), 16) < 0)
+            {
+                return (false);
+            }
+        }
+        
+        // We return the result
+        
+        return (true);
+    }
+    
+    /**
+     * This function returns the translation table of the ASCII characters
+     * for a sequence of patterns. The last entry encodes the translation
+     * of the non-ASCII characters, which must be either kept or removed.
+     * @param patterns
+     * @return The translation table, or null whether the patterns
+     * cannot be translated character by character
+     */
+    
+    private char[] getTranslationTable(
+            ArrayList<String>   patterns)
+    {
+        // We initialize the output
+        
+        char[] table = new char[129];
+        
+        // We translate every ASCII character and two non-ASCII samples
+        
+        String[] strNonAsciiSamples = {"\u00e9", "\ud835\udc00"};
+        
+        for (int i = 0; (i < 128 + strNonAsciiSamples.length) && (table != null); i++)
+        {
+            String strInput = (i < 128) ? String.valueOf((char)i) : strNonAsciiSamples[i - 128];
+            String strOutput = strInput;
+            
+            for (String strPattern : patterns)
+            {
+                strOutput = strOutput.replaceAll(strPattern, m_replacingMap.get(strPattern));
+            }
+            
+            // We save the translation of the character
+            
+            if (i < 128)
+            {
+                table = (strOutput.length() <= 1) ? table : null;
+                
+                if (table != null)
+                {
+                    table[i] = strOutput.isEmpty() ? REMOVED_CHAR : strOutput.charAt(0);
+                }
+            }
+            else if (strOutput.isEmpty() || strOutput.equals(strInput))
+            {
+                char nonAsciiTranslation = strOutput.isEmpty() ? REMOVED_CHAR : 0;
+                
+                table = ((i == 128) || (table[128] == nonAsciiTranslation)) ? table : null;
+                
+                if (table != null)
+                {
+                    table[128] = nonAsciiTranslation;
+                }
+            }
+            else
+            {
+                table = null;
+            }
+        }
+        
+        // We return the result
+        
+        return (table);
     }
     
     /**
@@ -100,6 +441,9 @@ class CharsFiltering implements ICharsFiltering
     public void clear()
     {
         m_replacingMap.clear();
+        
+        m_firstTranslationTable = null;
+        m_secondTranslationTable = null;
     }
     
     /**
@@ -111,6 +455,64 @@ class CharsFiltering implements ICharsFiltering
     @Override
     public String filter(
             String strRawSentence)
+    {
+        return (filter(strRawSentence, false));
+    }
+    
+    /**
+     * This function filters the punctuation marks of a sentence, which
+     * is optionally lowercased before being filtered.
+     * @param strRawSentence
+     * @param lowercase
+     * @return String
+     */
+    
+    String filter(
+            String  strRawSentence,
+            boolean lowercase)
+    {
+        // We initialize the output
+        
+        String strFilteredSentence;
+        
+        // The ASCII characters are lowercased in the single pass, except
+        // in the languages with special lowercasing rules for them.
+        
+        String strLanguage = Locale.getDefault().getLanguage();
+        
+        boolean asciiLowercasing = lowercase && !strLanguage.equals("tr")
+                                    && !strLanguage.equals("az")
+                                    && isAscii(strRawSentence);
+        
+        String strSentence = (lowercase && !asciiLowercasing) ?
+                                strRawSentence.toLowerCase() : strRawSentence;
+        
+        // We filter the sentence
+        
+        if (m_firstTranslationTable != null)
+        {
+            strFilteredSentence = translate(strSentence, asciiLowercasing);
+        }
+        else
+        {
+            strFilteredSentence = replacePatterns(asciiLowercasing ?
+                                    strSentence.toLowerCase() : strSentence);
+        }
+        
+        // Return the result
+        
+        return (strFilteredSentence);
+    }
+    
+    /**
+     * This function filters the sentence by the sequential application
+     * of all the replacement patterns.
+     * @param strRawSentence
+     * @return String
+     */
+    
+    String replacePatterns(
+            String strRawSentence)
     {
         // We apply the first triming
         
@@ -134,6 +536,171 @@ class CharsFiltering implements ICharsFiltering
         return (strFilteredSentence);
     }
     
+    /**
+     * This function filters the sentence in a single pass using the
+     * translation tables. The whitespace runs produced by the first
+     * translation are collapsed before applying the second one.
+     * @param strSentence
+     * @param asciiLowercasing
+     * @return String
+     */
+    
+    private String translate(
+            String  strSentence,
+            boolean asciiLowercasing)
+    {
+        // We apply the first triming
+        
+        int start = 0;
+        int end = strSentence.length();
+        
+        while ((start < end) && (strSentence.charAt(start) <= ' '))
+        {
+            start++;
+        }
+        
+        while ((end > start) && (strSentence.charAt(end - 1) <= ' '))
+        {
+            end--;
+        }
+        
+        // We translate the characters
+        
+        char[] output = new char[end - start];
+        int outputLength = 0;
+        
+        int whitespaceCount = 0;
+        char firstWhitespace = ' ';
+        
+        for (int i = start; i <= end; i++)
+        {
+            // We get the first translation of the character.
+            // The end position flushes the pending whitespaces.
+            
+            char c = 0;
+            boolean removed = true;
+            
+            if (i < end)
+            {
+                c = strSentence.charAt(i);
+                
+                if (asciiLowercasing && (c >= 'A') && (c <= 'Z'))
+                {
+                    c += 'a' - 'A';
+                }
+                
+                if (c < 128)
+                {
+                    c = m_firstTranslationTable[c];
+                    removed = (c == REMOVED_CHAR);
+                }
+                else
+                {
+                    removed = m_firstRemovesNonAscii;
+                }
+            }
+            
+            // We collapse the whitespace runs
+            
+            if (!removed && isRegexWhitespace(c))
+            {
+                if (whitespaceCount++ == 0)
+                {
+                    firstWhitespace = c;
+                }
+            }
+            else if (!removed || (i == end))
+            {
+                // We apply the second translation to the pending
+                // whitespaces and the current character
+                
+                if (whitespaceCount > 0)
+                {
+                    char whitespace = m_secondTranslationTable[(whitespaceCount == 1) ? firstWhitespace : ' '];
+                    
+                    if (whitespace != REMOVED_CHAR)
+                    {
+                        output[outputLength++] = whitespace;
+                    }
+                    
+                    whitespaceCount = 0;
+                }
+                
+                if (!removed)
+                {
+                    if (c < 128)
+                    {
+                        c = m_secondTranslationTable[c];
+                        removed = (c == REMOVED_CHAR);
+                    }
+                    else
+                    {
+                        removed = m_secondRemovesNonAscii;
+                    }
+                    
+                    if (!removed)
+                    {
+                        output[outputLength++] = c;
+                    }
+                }
+            }
+        }
+        
+        // We apply the last triming
+        
+        start = 0;
+        end = outputLength;
+        
+        while ((start < end) && (output[start] <= ' '))
+        {
+            start++;
+        }
+        
+        while ((end > start) && (output[end - 1] <= ' '))
+        {
+            end--;
+        }
+        
+        // Return the result
+        
+        return (new String(output, start, end - start));
+    }
+    
+    /**
+     * This function checks whether the character is matched by the
+     * whitespace class of the regular expressions.
+     * @param c
+     * @return
+     */
+    
+    private static boolean isRegexWhitespace(
+            char    c)
+    {
+        return ((c == ' ') || (c == '\t') || (c == '\n')
+                || (c == '\u000b') || (c == '\f') || (c == '\r'));
+    }
+    
+    /**
+     * This function checks whether all the characters are ASCII.
+     * @param strText
+     * @return
+     */
+    
+    private static boolean isAscii(
+            String  strText)
+    {
+        boolean ascii = true;
+        
+        for (int i = 0; (i < strText.length()) && ascii; i++)
+        {
+            ascii = (strText.charAt(i) < 128);
+        }
+        
+        // We return the result
+        
+        return (ascii);
+    }
+    
     /**
      * Replace the punctuation marks as the BIOSSES2017 original code does.
      */
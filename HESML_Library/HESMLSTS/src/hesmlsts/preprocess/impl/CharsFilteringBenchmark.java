@@ -0,0 +1,184 @@
+/*
+ * Copyright (C) 2016-2022 Universidad Nacional de Educación a Distancia (UNED)
+ *
+ * This program is free software for non-commercial use:
+ * you can redistribute it and/or modify it under the terms of the
+ * Creative Commons Attribution-NonCommercial-ShareAlike 4.0 International
+ * (CC BY-NC-SA 4.0) as published by the Creative Commons Corporation,
+ * either version 4 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * section 5 of the CC BY-NC-SA 4.0 License for more details.
+ *
+ * You should have received a copy of the Creative Commons
+ * Attribution-NonCommercial-ShareAlike 4.0 International (CC BY-NC-SA 4.0)
+ * license along with this program. If not,
+ * see <http://creativecommons.org/licenses/by-nc-sa/4.0/>.
+ *
+ */
+
+package hesmlsts.preprocess.impl;
+
+import hesmlsts.preprocess.CharFilteringType;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+
+/**
+ * This class implements a microbenchmark of the token normalization stage
+ * of the WordProcessing class. The benchmark reads the sentence pairs of
+ * the input datasets, which are tab-separated files with the sentence pairs
+ * in the first two columns, such as BIOSSES and MedSTS. Then, it checks
+ * that the single-pass filtering returns the same tokens as the sequential
+ * lowercasing and regular expression replacements for every char filtering
+ * type, and it reports the average time per token of both methods.
+ * The benchmark is run as follows:
+ *
+ *  java -cp HESMLSTS.jar hesmlsts.preprocess.impl.CharsFilteringBenchmark
+ *          ../SentenceSimDatasets/BIOSSESNormalized.tsv
+ *          ../SentenceSimDatasets/MedStsFullNormalized.tsv
+ *
+ * @author alicia
+ */
+
+class CharsFilteringBenchmark
+{
+    /**
+     * Number of timed repetitions of every method
+     */
+    
+    private static final int    REPETITIONS = 5;
+    
+    /**
+     * This function runs the benchmark.
+     * @param args Dataset files
+     * @throws Exception
+     */
+    
+    public static void main(String[] args) throws Exception
+    {
+        String[] strDatasetFiles = (args.length > 0) ? args :
+                new String[] {"../SentenceSimDatasets/BIOSSESNormalized.tsv",
+                            "../SentenceSimDatasets/MedStsFullNormalized.tsv"};
+        
+        for (String strDatasetFile : strDatasetFiles)
+        {
+            // We get the whitespace-separated tokens of all the sentences
+            
+            String[] tokens = getDatasetTokens(strDatasetFile);
+            
+            System.out.println("Dataset: " + strDatasetFile + " (" + tokens.length + " tokens)");
+            
+            // We evaluate both methods for every configuration
+            
+            for (CharFilteringType filteringType : CharFilteringType.values())
+            {
+                CharsFiltering charFilter = new CharsFiltering(filteringType);
+                
+                for (boolean lowercase : new boolean[] {false, true})
+                {
+                    // We check the equivalence of both methods
+                    
+                    int mismatches = 0;
+                    
+                    for (String strToken : tokens)
+                    {
+                        if (!getRegexFilteredToken(charFilter, strToken, lowercase).equals(
+                                charFilter.filter(strToken, lowercase)))
+                        {
+                            mismatches++;
+                        }
+                    }
+                    
+                    // We time both methods
+                    
+                    long checksum = 0;
+                    
+                    long regexTime = Long.MAX_VALUE;
+                    long singlePassTime = Long.MAX_VALUE;
+                    
+                    for (int repetition = 0; repetition < REPETITIONS; repetition++)
+                    {
+                        long startTime = System.nanoTime();
+                        
+                        for (String strToken : tokens)
+                        {
+                            checksum += getRegexFilteredToken(charFilter, strToken, lowercase).length();
+                        }
+                        
+                        regexTime = Math.min(regexTime, System.nanoTime() - startTime);
+                        
+                        startTime = System.nanoTime();
+                        
+                        for (String strToken : tokens)
+                        {
+                            checksum += charFilter.filter(strToken, lowercase).length();
+                        }
+                        
+                        singlePassTime = Math.min(singlePassTime, System.nanoTime() - startTime);
+                    }
+                    
+                    System.out.println(String.format("%-12s lowercase=%-5b regex: %8.1f ns/token"
+                            + "  single pass: %8.1f ns/token  mismatches: %d  (checksum %d)",
+                            filteringType, lowercase, (double) regexTime / tokens.length,
+                            (double) singlePassTime / tokens.length, mismatches, checksum));
+                }
+            }
+        }
+    }
+    
+    /**
+     * This function filters a token as done by the previous WordProcessing
+     * implementation, which lowercases the token and applies the regular
+     * expressions sequentially.
+     * @param charFilter
+     * @param strToken
+     * @param lowercase
+     * @return
+     */
+    
+    private static String getRegexFilteredToken(
+            CharsFiltering  charFilter,
+            String          strToken,
+            boolean         lowercase)
+    {
+        return (charFilter.replacePatterns(lowercase ? strToken.toLowerCase() : strToken));
+    }
+    
+    /**
+     * This function returns the whitespace-separated tokens of the
+     * sentence pairs in the dataset file.
+     * @param strDatasetFile
+     * @return
+     * @throws Exception
+     */
+    
+    private static String[] getDatasetTokens(
+            String  strDatasetFile) throws Exception
+    {
+        ArrayList<String> tokens = new ArrayList<>();
+        
+        for (String strLine : Files.readAllLines(Paths.get(strDatasetFile), StandardCharsets.UTF_8))
+        {
+            String[] strColumns = strLine.split("\t");
+            
+            for (int i = 0; i < Math.min(2, strColumns.length); i++)
+            {
+                for (String strToken : strColumns[i].split("\\s+"))
+                {
+                    if (!strToken.isEmpty())
+                    {
+                        tokens.add(strToken);
+                    }
+                }
+            }
+        }
+        
+        // We return the result
+        
+        return (tokens.toArray(new String[tokens.size()]));
+    }
+}
\ No newline at end of file
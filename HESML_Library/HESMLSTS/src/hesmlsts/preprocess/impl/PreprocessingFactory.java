@@ -90,4 +90,34 @@ public class PreprocessingFactory
                 nerType, stopWordFileName, charFilteringType, tempDir,
                 pythonVirtualEnvironmentDir, pythonScriptDir, modelDirPath));
     }    
+    
+    /**
+     * This function enables or disables the cache of word tokens shared
+     * by all the word preprocessing objects with the same configuration.
+     * The cached tokens are released when the cache is disabled.
+     * @param enabled 
+     */
+    
+    public static void setWordTokensCaching(
+            boolean enabled)
+    {
+        WordTokensCache.setEnabled(enabled);
+    }
+    
+    /**
+     * This function preprocesses the distinct input sentences once per
+     * distinct configuration of the input preprocessing objects, storing
+     * their tokens in the shared cache. The word tokens caching must be
+     * enabled before calling this function.
+     * @param preprocessors
+     * @param strRawSentences
+     * @throws Exception 
+     */
+    
+    public static void preprocessSentences(
+            IWordProcessing[]   preprocessors,
+            String[]            strRawSentences) throws Exception
+    {
+        WordTokensCache.preprocessSentences(preprocessors, strRawSentences);
+    }
 }
\ No newline at end of file
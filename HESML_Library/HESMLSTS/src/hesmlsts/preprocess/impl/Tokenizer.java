@@ -23,18 +23,19 @@ package hesmlsts.preprocess.impl;
 
 import bioc.preprocessing.pipeline.PreprocessingPipeline;
 import edu.stanford.nlp.ling.CoreLabel;
+import edu.stanford.nlp.pipeline.Annotation;
 import edu.stanford.nlp.pipeline.CoreDocument;
 import edu.stanford.nlp.pipeline.StanfordCoreNLP;
 import hesmlsts.preprocess.ITokenizer;
 import hesmlsts.preprocess.TokenizerType;
 
 import edu.stanford.nlp.simple.*;
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  *  Implementation of the tokenization methods
@@ -47,17 +48,19 @@ class Tokenizer implements ITokenizer
     
     private final TokenizerType m_tokenizerType;
     
-    // Python executable using the virtual environment.
+    // Path to the model dir path
     
-    private final String m_pythonVenvDir;
+    private final String m_modelDirPath;
     
-    // Python script wrapper
+    // Stanford CoreNLP pipelines shared by all the tokenizers and indexed
+    // by language. The pipelines are created once because their creation
+    // is much more expensive than the tokenization itself.
     
-    private final String m_pythonScriptDir;
+    private static final ConcurrentHashMap<String, StanfordCoreNLP> m_StanfordPipelines = new ConcurrentHashMap<>();
     
-    // Path to the model dir path
+    // WordPiece tokenizers shared by all the tokenizers and indexed by model
     
-    private final String m_modelDirPath;
+    private static final ConcurrentHashMap<String, WordPieceTokenizer> m_WordPieceTokenizers = new ConcurrentHashMap<>();
     
     /**
      * Constructor with parameters.
@@ -71,15 +74,16 @@ class Tokenizer implements ITokenizer
         
         m_tokenizerType = tokenizerType;
         
-        // If the Python wrapper is not used, set the variables null.
+        // If the WordPiece tokenizer is not used, set the variables null.
         
-        m_pythonVenvDir = null;
-        m_pythonScriptDir = null;
         m_modelDirPath = null;
     }
     
     /**
-     * Constructor with parameters using the python wrapper.
+     * Constructor with parameters for the WordPiece tokenizer. The
+     * WordPiece tokenization is implemented in Java, thus the Python
+     * parameters are only kept for compatibility with the previous
+     * Python wrapper and they are not used.
      * 
      * @param TempDir
      * @param PythonVenvDir
@@ -96,8 +100,6 @@ class Tokenizer implements ITokenizer
         // Set the variables by constructor
         
         m_tokenizerType = tokenizerType;
-        m_pythonScriptDir = PythonScriptDir;
-        m_pythonVenvDir = PythonVenvDir;
         m_modelDirPath = modelDirPath;
     }
     
@@ -156,7 +158,7 @@ class Tokenizer implements ITokenizer
 
             case WordPieceTokenizer:
 
-                tokens = this.getTokensUsingWordPiecePythonWrapper(strRawSentence);
+                tokens = getWordPieceTokenizer(m_modelDirPath).getTokens(strRawSentence);
 
                 break;
 
@@ -173,93 +175,198 @@ class Tokenizer implements ITokenizer
             
         return tokens;
     }
+    
+    /**
+     * Get the tokens from a collection of sentences. The Stanford CoreNLP
+     * tokenizers process all the sentences as a single stream of
+     * documents in parallel, whilst the remaining methods tokenize
+     * every sentence individually.
+     * @param strRawSentences
+     * @return String[][] list of tokens of every sentence
+     */
+    
+    @Override
+    public String[][] getTokens(
+            String[]    strRawSentences) throws InterruptedException, IOException
+    {
+        // Initialize the output
+        
+        String[][] tokens;
+        
+        // We tokenize the sentences
+        
+        switch (m_tokenizerType)
+        {
+            case StanfordCoreNLPv4_2_0:
+                
+                tokens = getTokensStanfordCoreNLPLibrary(strRawSentences, "en");
+                
+                break;
+                
+            case StanfordCoreNLPv4_2_0_Spanish:
+                
+                tokens = getTokensStanfordCoreNLPLibrary(strRawSentences, "es");
+                
+                break;
+                
+            default:
+                
+                tokens = new String[strRawSentences.length][];
+                
+                for (int i = 0; i < strRawSentences.length; i++)
+                {
+                    tokens[i] = getTokens(strRawSentences[i]);
+                }
+                
+                break;
+        }
+        
+        // Return the tokens
+        
+        return tokens;
+    }
 
     /**
-     * Execute the wrapper for get the tokenized texts.
+     * This function returns the WordPiece tokenizer of the input model,
+     * which is created in the first call by loading its vocabulary and
+     * shared by all the tokenizers.
      * 
-     * @throws InterruptedException
+     * @param strModelDirPath
+     * @return WordPieceTokenizer
      * @throws IOException 
-     * @return String[] array of tokens
      */
     
-    private String[] getTokensUsingWordPiecePythonWrapper(
-            String  strSentence) 
-            throws InterruptedException, IOException
+    private static WordPieceTokenizer getWordPieceTokenizer(
+            String  strModelDirPath) throws IOException
     {
-        //Initialize the output
+        // We load the tokenizer in the first call. The loading exception is
+        // wrapped by the mapping function and restored here.
         
-        String[] tokenizedText = {};
-                
-        // Fill the command params and execute the script
-        // Create the command 
-
-        Process proc = new ProcessBuilder(
-                m_pythonVenvDir,
-                "-W",
-                "ignore",
-                m_pythonScriptDir,
-                m_modelDirPath + "/vocab.txt",
-                strSentence).start();
+        try
+        {
+            return (m_WordPieceTokenizers.computeIfAbsent(strModelDirPath, key ->
+            {
+                try
+                {
+                    return (new WordPieceTokenizer(key));
+                }
+                catch (IOException error)
+                {
+                    throw (new UncheckedIOException(error));
+                }
+            }));
+        }
+        catch (UncheckedIOException error)
+        {
+            throw (error.getCause());
+        }
+    }
+    
+    /**
+     * Use the Stanford CoreNLP library to tokenize the text.
+     * 
+     * @param strSentence
+     * @return String[] array with the tokens of the sentence
+     */
+    
+    private String[] getTokensStanfordCoreNLPLibrary(
+            String strSentence,
+            String lang) 
+    {
+        // We get the shared pipeline of the language and tokenize the sentence
         
-        // Read the output 
+        CoreDocument doc = getStanfordPipeline(lang).processToCoreDocument(strSentence);
         
-        String command = m_pythonVenvDir + " " +
-                "-W" + " " +
-                "ignore" + " " +
-                m_pythonScriptDir + " " +
-                m_modelDirPath + "/vocab.txt" + " " + strSentence;
+        // Return the results
         
-//        System.out.println(command);
+        return getTokenStrings(strSentence, doc.tokens());
+    }
+    
+    /**
+     * Use the Stanford CoreNLP library to tokenize a collection of sentences.
+     * Every sentence is annotated as an independent document, thus the
+     * tokens are the same as those obtained for the individual sentences,
+     * and all documents are processed in parallel by the shared pipeline.
+     * 
+     * @param strSentences
+     * @param lang
+     * @return String[][] array with the tokens of every sentence
+     */
+    
+    private String[][] getTokensStanfordCoreNLPLibrary(
+            String[]    strSentences,
+            String      lang) 
+    {
+        // We create the stream of documents
         
-        InputStreamReader inputStreamReader = new InputStreamReader(proc.getInputStream());
-        BufferedReader readerTerminal = new BufferedReader(inputStreamReader);
-
-        // Read the sentence and split by whitespaces
+        ArrayList<Annotation> documents = new ArrayList<>(strSentences.length);
         
-        String sentence = readerTerminal.readLine();
-        sentence = sentence.trim();
-        tokenizedText = sentence.split(" ");
+        for (String strSentence : strSentences)
+        {
+            documents.add(new Annotation(strSentence));
+        }
+        
+        // We tokenize all documents with the shared pipeline of the language
         
-        // Close the reader
-        readerTerminal.close();
-        inputStreamReader.close();
+        getStanfordPipeline(lang).annotate(documents, Runtime.getRuntime().availableProcessors());
         
-        // Destroy the process
+        // We extract the tokens of every sentence
         
-        proc.waitFor();  
-        proc.destroy();
+        String[][] tokens = new String[strSentences.length][];
         
-        // Return the result
+        for (int i = 0; i < strSentences.length; i++)
+        {
+            tokens[i] = getTokenStrings(strSentences[i], new CoreDocument(documents.get(i)).tokens());
+        }
         
-        return tokenizedText;
+        // We release the documents
+        
+        documents.clear();
+        
+        // Return the results
+        
+        return tokens;
     }
     
     /**
-     * Use the Stanford CoreNLP library to tokenize the text.
+     * This function returns the Stanford CoreNLP tokenization pipeline
+     * of the input language, which is created in the first call and
+     * shared by all the tokenizers. The pipeline is thread-safe.
+     * 
+     * @param lang
+     * @return StanfordCoreNLP pipeline
+     */
+    
+    private static StanfordCoreNLP getStanfordPipeline(
+            String  lang)
+    {
+        return (m_StanfordPipelines.computeIfAbsent(lang, key ->
+        {
+            Properties props = new Properties();
+            props.put("annotators", "tokenize");
+            props.setProperty("tokenize.language", key);
+            
+            return (new StanfordCoreNLP(props));
+        }));
+    }
+    
+    /**
+     * This function extracts the text of the tokens from the sentence.
      * 
      * @param strSentence
+     * @param sentenceCoreLabel
      * @return String[] array with the tokens of the sentence
      */
     
-    private String[] getTokensStanfordCoreNLPLibrary(
-            String strSentence,
-            String lang) 
+    private static String[] getTokenStrings(
+            String          strSentence,
+            List<CoreLabel> sentenceCoreLabel)
     {
         // Initialize the output
 
         String[] tokens = {};
         ArrayList<String> tokenizedTokens = new ArrayList();
         
-        Properties props = new Properties();
-        props.put("annotators", "tokenize");
-        props.setProperty("tokenize.language", lang);
-        
-        StanfordCoreNLP pipeline = new StanfordCoreNLP(props);
-
-        CoreDocument doc = pipeline.processToCoreDocument(strSentence);
-
-        List<CoreLabel> sentenceCoreLabel = doc.tokens();
-
         for(CoreLabel token: sentenceCoreLabel)
         {
             // Extract the token from the sentence
@@ -0,0 +1,544 @@
+/* 
+ * Copyright (C) 2016-2022 Universidad Nacional de Educación a Distancia (UNED)
+ *
+ * This program is free software for non-commercial use:
+ * you can redistribute it and/or modify it under the terms of the
+ * Creative Commons Attribution-NonCommercial-ShareAlike 4.0 International
+ * (CC BY-NC-SA 4.0) as published by the Creative Commons Corporation,
+ * either version 4 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * section 5 of the CC BY-NC-SA 4.0 License for more details.
+ *
+ * You should have received a copy of the Creative Commons
+ * Attribution-NonCommercial-ShareAlike 4.0 International (CC BY-NC-SA 4.0) 
+ * license along with this program. If not,
+ * see <http://creativecommons.org/licenses/by-nc-sa/4.0/>.
+ *
+ */
+
+package hesmlsts.preprocess.impl;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * This class implements the WordPiece tokenizer of the BERT models [1]
+ * in native Java, thus it produces the same tokens as the FullTokenizer
+ * class of the reference Python implementation without running any
+ * external process. The text is firstly split by the basic tokenizer
+ * (text cleaning, CJK characters, lowercasing, accent stripping and
+ * punctuation splitting), and every word is then split into the longest
+ * matching pieces of the vocabulary, which are retrieved by walking
+ * a trie built from the vocab.txt file of the model.
+ * 
+ * [1] Devlin, Jacob, Ming-Wei Chang, Kenton Lee, and Kristina Toutanova. 2018. 
+ * “BERT: Pre-Training of Deep Bidirectional Transformers for 
+ * Language Understanding.” arXiv [cs.CL]. arXiv. 
+ * http://arxiv.org/abs/1810.04805.
+ * 
+ * @author alicia
+ */
+
+class WordPieceTokenizer
+{
+    /**
+     * Token returned for the words which cannot be split into pieces
+     */
+    
+    private static final String UNKNOWN_TOKEN = "[UNK]";
+    
+    /**
+     * Maximum length (characters) of the words split into pieces
+     */
+    
+    private static final int    MAX_INPUT_CHARS_PER_WORD = 200;
+    
+    /**
+     * Root node of the vocabulary trie
+     */
+    
+    private static final int    ROOT_NODE = 0;
+    
+    /**
+     * Transitions of the vocabulary trie. Every key encodes the parent
+     * node and a character (code point), whilst the value is the child node.
+     */
+    
+    private final HashMap<Long, Integer>    m_Transitions;
+    
+    /**
+     * Nodes ending a vocabulary token
+     */
+    
+    private final BitSet    m_TerminalNodes;
+    
+    /**
+     * Node reached by the "##" prefix of the continuation pieces,
+     * or -1 if the vocabulary does not contain continuation pieces.
+     */
+    
+    private final int   m_ContinuationNode;
+    
+    /**
+     * Lowercasing and accent stripping flags defined by the model
+     */
+    
+    private final boolean   m_lowercaseNormalization;
+    private final boolean   m_stripAccents;
+    
+    /**
+     * Constructor. The vocabulary is loaded from the vocab.txt file
+     * of the model, whilst the lowercasing is read from the optional
+     * tokenizer_config.json file. The models are lowercased by default
+     * as in the Python wrapper.
+     * @param strModelDirPath Directory of the BERT model
+     * @throws IOException 
+     */
+    
+    WordPieceTokenizer(
+            String  strModelDirPath) throws IOException
+    {
+        // We read the configuration of the model
+        
+        File configFile = new File(strModelDirPath + "/tokenizer_config.json");
+        
+        String strConfig = configFile.exists() ?
+                new String(Files.readAllBytes(configFile.toPath()), StandardCharsets.UTF_8) : "";
+        
+        m_lowercaseNormalization = readBooleanOption(strConfig, "do_lower_case", true);
+        m_stripAccents = readBooleanOption(strConfig, "strip_accents", m_lowercaseNormalization);
+        
+        // We create the trie
+        
+        m_Transitions = new HashMap<>();
+        m_TerminalNodes = new BitSet();
+        
+        // We load the vocabulary
+        
+        BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new FileInputStream(strModelDirPath + "/vocab.txt"), StandardCharsets.UTF_8));
+        
+        String strLine;
+        
+        while ((strLine = reader.readLine()) != null)
+        {
+            // We insert the token into the trie
+            
+            String strToken = strLine.trim();
+            
+            int node = ROOT_NODE;
+            
+            for (int i = 0; i < strToken.length(); )
+            {
+                int character = strToken.codePointAt(i);
+                
+                Long key = getTransitionKey(node, character);
+                Integer child = m_Transitions.get(key);
+                
+                if (child == null)
+                {
+                    child = m_Transitions.size() + 1;
+                    m_Transitions.put(key, child);
+                }
+                
+                node = child;
+                i += Character.charCount(character);
+            }
+            
+            m_TerminalNodes.set(node);
+        }
+        
+        // We close the file
+        
+        reader.close();
+        
+        // We get the starting node of the continuation pieces
+        
+        m_ContinuationNode = getChildNode(getChildNode(ROOT_NODE, '#'), '#');
+    }
+    
+    /**
+     * This function reads a Boolean option from the JSON configuration
+     * of the model.
+     * @param strConfig
+     * @param strOption
+     * @param defaultValue
+     * @return 
+     */
+    
+    private static boolean readBooleanOption(
+            String  strConfig,
+            String  strOption,
+            boolean defaultValue)
+    {
+        // We look for the option
+        
+        Matcher matcher = Pattern.compile("\"" + strOption + "\"\\s*:\\s*(true|false)").matcher(strConfig);
+        
+        // We return the result
+        
+        return (matcher.find() ? matcher.group(1).equals("true") : defaultValue);
+    }
+    
+    /**
+     * This function encodes a transition of the trie.
+     * @param node
+     * @param character
+     * @return 
+     */
+    
+    private static long getTransitionKey(
+            int node,
+            int character)
+    {
+        return (((long)node << 21) | character);
+    }
+    
+    /**
+     * This function returns the child node reached by the input character,
+     * or -1 if the transition does not exist.
+     * @param node
+     * @param character
+     * @return 
+     */
+    
+    private int getChildNode(
+            int node,
+            int character)
+    {
+        Integer child = (node >= 0) ? m_Transitions.get(getTransitionKey(node, character)) : null;
+        
+        // We return the result
+        
+        return ((child != null) ? child : -1);
+    }
+    
+    /**
+     * This function splits the input sentence into WordPiece tokens.
+     * @param strSentence
+     * @return String[] array of tokens
+     */
+    
+    String[] getTokens(
+            String  strSentence)
+    {
+        // We initialize the output
+        
+        ArrayList<String> tokens = new ArrayList<>();
+        
+        // We split the words of the basic tokenizer into pieces
+        
+        for (String strWord : getBasicTokens(strSentence))
+        {
+            addWordPieces(strWord, tokens);
+        }
+        
+        // We return the result
+        
+        return (tokens.toArray(new String[tokens.size()]));
+    }
+    
+    /**
+     * This function splits the sentence into words as the BasicTokenizer
+     * class of the reference implementation. The control characters are
+     * removed, the CJK characters and punctuation marks become
+     * single-character words, and the words are lowercased and their
+     * accents are stripped according to the model configuration.
+     * @param strSentence
+     * @return 
+     */
+    
+    private ArrayList<String> getBasicTokens(
+            String  strSentence)
+    {
+        // We split the text by whitespaces and CJK characters
+        
+        ArrayList<String> words = new ArrayList<>();
+        StringBuilder word = new StringBuilder();
+        
+        for (int i = 0; i < strSentence.length(); )
+        {
+            int character = strSentence.codePointAt(i);
+            i += Character.charCount(character);
+            
+            if ((character == 0) || (character == 0xFFFD) || isControl(character))
+            {
+                // We remove the invalid and control characters
+            }
+            else if (isWhitespace(character) || isChineseCharacter(character))
+            {
+                addWord(word, words);
+                
+                if (!isWhitespace(character))
+                {
+                    words.add(new String(Character.toChars(character)));
+                }
+            }
+            else
+            {
+                word.appendCodePoint(character);
+            }
+        }
+        
+        addWord(word, words);
+        
+        // We normalize the words and split them on punctuation marks
+        
+        ArrayList<String> tokens = new ArrayList<>(words.size());
+        
+        for (String strWord : words)
+        {
+            if (m_lowercaseNormalization)
+            {
+                strWord = strWord.toLowerCase(Locale.ROOT);
+            }
+            
+            if (m_stripAccents)
+            {
+                strWord = stripAccents(strWord);
+            }
+            
+            for (int i = 0; i < strWord.length(); )
+            {
+                int character = strWord.codePointAt(i);
+                i += Character.charCount(character);
+                
+                if (isPunctuation(character))
+                {
+                    addWord(word, tokens);
+                    tokens.add(new String(Character.toChars(character)));
+                }
+                else
+                {
+                    word.appendCodePoint(character);
+                }
+            }
+            
+            addWord(word, tokens);
+        }
+        
+        // We return the result
+        
+        return (tokens);
+    }
+    
+    /**
+     * This function moves the non-empty word in the builder into the list.
+     * @param word
+     * @param words 
+     */
+    
+    private static void addWord(
+            StringBuilder       word,
+            ArrayList<String>   words)
+    {
+        if (word.length() > 0)
+        {
+            words.add(word.toString());
+            word.setLength(0);
+        }
+    }
+    
+    /**
+     * This function splits the input word into the longest pieces of
+     * the vocabulary from left to right. The whole word is replaced by
+     * the unknown token whether any piece is not found.
+     * @param strWord
+     * @param tokens Output list of tokens
+     */
+    
+    private void addWordPieces(
+            String              strWord,
+            ArrayList<String>   tokens)
+    {
+        // We get the characters of the word
+        
+        int[] characters = strWord.codePoints().toArray();
+        
+        // The too long words are directly replaced by the unknown token
+        
+        boolean isUnknown = (characters.length > MAX_INPUT_CHARS_PER_WORD);
+        
+        // We split the word
+        
+        ArrayList<String> pieces = new ArrayList<>();
+        
+        for (int start = 0; (start < characters.length) && !isUnknown; )
+        {
+            // We walk the trie to find the longest piece starting
+            // at the current position
+            
+            int node = (start == 0) ? ROOT_NODE : m_ContinuationNode;
+            int end = -1;
+            
+            for (int i = start; (i < characters.length) && (node >= 0); i++)
+            {
+                node = getChildNode(node, characters[i]);
+                
+                if ((node >= 0) && m_TerminalNodes.get(node))
+                {
+                    end = i + 1;
+                }
+            }
+            
+            // We add the piece, or we set the word as unknown whether
+            // the current position does not match any piece
+            
+            if (end < 0)
+            {
+                isUnknown = true;
+            }
+            else
+            {
+                String strPiece = new String(characters, start, end - start);
+                
+                pieces.add((start == 0) ? strPiece : "##" + strPiece);
+                
+                start = end;
+            }
+        }
+        
+        // We add the pieces or the unknown token to the output
+        
+        if (isUnknown)
+        {
+            tokens.add(UNKNOWN_TOKEN);
+        }
+        else
+        {
+            tokens.addAll(pieces);
+        }
+    }
+    
+    /**
+     * This function removes the non-spacing marks of the canonical
+     * decomposition of the word.
+     * @param strWord
+     * @return 
+     */
+    
+    private static String stripAccents(
+            String  strWord)
+    {
+        // We decompose the word
+        
+        String strDecomposed = Normalizer.normalize(strWord, Normalizer.Form.NFD);
+        
+        StringBuilder output = new StringBuilder(strDecomposed.length());
+        
+        // We copy the characters which are not non-spacing marks
+        
+        for (int i = 0; i < strDecomposed.length(); )
+        {
+            int character = strDecomposed.codePointAt(i);
+            i += Character.charCount(character);
+            
+            if (Character.getType(character) != Character.NON_SPACING_MARK)
+            {
+                output.appendCodePoint(character);
+            }
+        }
+        
+        // We return the result
+        
+        return (output.toString());
+    }
+    
+    /**
+     * This function checks whether the character is a whitespace.
+     * @param character
+     * @return 
+     */
+    
+    private static boolean isWhitespace(
+            int character)
+    {
+        return ((character == ' ') || (character == '\t')
+                || (character == '\n') || (character == '\r')
+                || (Character.getType(character) == Character.SPACE_SEPARATOR));
+    }
+    
+    /**
+     * This function checks whether the character is a control character
+     * (Unicode category C*), excluding the whitespaces.
+     * @param character
+     * @return 
+     */
+    
+    private static boolean isControl(
+            int character)
+    {
+        // We check the Unicode category
+        
+        int type = Character.getType(character);
+        
+        boolean isControl = (type == Character.CONTROL) || (type == Character.FORMAT)
+                            || (type == Character.PRIVATE_USE) || (type == Character.SURROGATE)
+                            || (type == Character.UNASSIGNED);
+        
+        // We return the result excluding the whitespaces
+        
+        return (isControl && (character != '\t') && (character != '\n') && (character != '\r'));
+    }
+    
+    /**
+     * This function checks whether the character is a punctuation mark.
+     * All non-letter and non-number ASCII characters are considered
+     * punctuation marks as in the reference implementation.
+     * @param character
+     * @return 
+     */
+    
+    private static boolean isPunctuation(
+            int character)
+    {
+        // We check the ASCII symbols
+        
+        boolean isAsciiSymbol = ((character >= 33) && (character <= 47)) || ((character >= 58) && (character <= 64))
+                                || ((character >= 91) && (character <= 96)) || ((character >= 123) && (character <= 126));
+        
+        // We check the Unicode category
+        
+        int type = Character.getType(character);
+        
+        return (isAsciiSymbol || (type == Character.CONNECTOR_PUNCTUATION) || (type == Character.DASH_PUNCTUATION)
+                || (type == Character.START_PUNCTUATION) || (type == Character.END_PUNCTUATION)
+                || (type == Character.INITIAL_QUOTE_PUNCTUATION) || (type == Character.FINAL_QUOTE_PUNCTUATION)
+                || (type == Character.OTHER_PUNCTUATION));
+    }
+    
+    /**
+     * This function checks whether the character belongs to the CJK
+     * Unified Ideographs blocks.
+     * @param character
+     * @return 
+     */
+    
+    private static boolean isChineseCharacter(
+            int character)
+    {
+        return (((character >= 0x4E00) && (character <= 0x9FFF))
+                || ((character >= 0x3400) && (character <= 0x4DBF))
+                || ((character >= 0x20000) && (character <= 0x2A6DF))
+                || ((character >= 0x2A700) && (character <= 0x2B73F))
+                || ((character >= 0x2B740) && (character <= 0x2B81F))
+                || ((character >= 0x2B820) && (character <= 0x2CEAF))
+                || ((character >= 0xF900) && (character <= 0xFAFF))
+                || ((character >= 0x2F800) && (character <= 0x2FA1F)));
+    }
+}
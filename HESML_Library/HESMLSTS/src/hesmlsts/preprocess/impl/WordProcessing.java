@@ -202,7 +202,9 @@ class WordProcessing implements IWordProcessing
     }
     
     /**
-     * Get the tokens from a string sentence.
+     * Get the tokens from a string sentence. The tokens are shared through
+     * the word tokens cache by all the objects with the same configuration
+     * during the evaluation of the benchmarks.
      * @param strRawSentence
      * @return String[] array of ordered tokens
      */
@@ -210,6 +212,35 @@ class WordProcessing implements IWordProcessing
     @Override
     public String[] getWordTokens(
             String  strRawSentence) throws IOException, InterruptedException, Exception
+    {
+        // We look for the tokens in the cache
+        
+        String strLabel = getLabel();
+        
+        String[] tokens = WordTokensCache.getTokens(strLabel, strRawSentence);
+        
+        // We preprocess the sentence whether it is not cached
+        
+        if (tokens == null)
+        {
+            tokens = preprocessSentence(strRawSentence);
+            
+            WordTokensCache.putTokens(strLabel, strRawSentence, tokens);
+        }
+        
+        // Return the tokens
+        
+        return (tokens);
+    }
+    
+    /**
+     * Get the tokens from a string sentence.
+     * @param strRawSentence
+     * @return String[] array of ordered tokens
+     */
+    
+    private String[] preprocessSentence(
+            String  strRawSentence) throws IOException, InterruptedException, Exception
     {
         // Initialize tokens
         
@@ -258,15 +289,10 @@ class WordProcessing implements IWordProcessing
 
             for (String token : tokens_tokenized)
             {
-                String preprocessedToken = token;
-
-                // Lowercase if true
-
-                if (m_lowercaseNormalization) preprocessedToken = preprocessedToken.toLowerCase();
+                // Lowercase if true and filter the punctuation marks
+                // in a single pass over the token characters
 
-                // Filter the punctuation marks
-
-                preprocessedToken = m_charFilter.filter(preprocessedToken);
+                String preprocessedToken = m_charFilter.filter(token, m_lowercaseNormalization);
 
                 // Remove the word if its a stop word
 
@@ -383,6 +409,19 @@ class WordProcessing implements IWordProcessing
         return isStopWord;
     }
     
+    /**
+     * This function returns true whether the getWordTokens function
+     * can be called concurrently by several threads. The tokenizers
+     * are thread-safe, but the NER annotators are not.
+     * @return 
+     */
+    
+    @Override
+    public boolean isThreadSafe()
+    {
+        return (m_nerType == NERType.None);
+    }
+    
     /**
      * Dynamically assign a label or name for a Wordprocessing object 
      * using the parameters configuration.
@@ -0,0 +1,160 @@
+/* 
+ * Copyright (C) 2016-2022 Universidad Nacional de Educación a Distancia (UNED)
+ *
+ * This program is free software for non-commercial use:
+ * you can redistribute it and/or modify it under the terms of the
+ * Creative Commons Attribution-NonCommercial-ShareAlike 4.0 International
+ * (CC BY-NC-SA 4.0) as published by the Creative Commons Corporation,
+ * either version 4 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * section 5 of the CC BY-NC-SA 4.0 License for more details.
+ *
+ * You should have received a copy of the Creative Commons
+ * Attribution-NonCommercial-ShareAlike 4.0 International (CC BY-NC-SA 4.0) 
+ * license along with this program. If not,
+ * see <http://creativecommons.org/licenses/by-nc-sa/4.0/>.
+ *
+ */
+
+package hesmlsts.preprocess.impl;
+
+import hesmlsts.preprocess.IWordProcessing;
+import hesmlsts.utils.ParallelRangeExecutor;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * This class implements a cache of word tokens shared by all the word
+ * preprocessing objects with the same configuration, which is identified
+ * by their label. Thus, the sentences of a benchmark are preprocessed
+ * once per configuration instead of once per measure. The cache is only
+ * enabled during the evaluation of the benchmarks in order to avoid
+ * keeping the tokens of previous datasets in memory.
+ * @author alicia
+ */
+
+class WordTokensCache
+{
+    /**
+     * Word tokens indexed by preprocessing label and raw sentence,
+     * or null whether the cache is disabled.
+     */
+    
+    private static volatile ConcurrentHashMap<String, ConcurrentHashMap<String, String[]>>  m_Tokens = null;
+    
+    /**
+     * This function enables or disables the cache. The cached tokens
+     * are released when the cache is disabled.
+     * @param enabled 
+     */
+    
+    static synchronized void setEnabled(
+            boolean enabled)
+    {
+        m_Tokens = enabled ? new ConcurrentHashMap<>() : null;
+    }
+    
+    /**
+     * This function returns the cached tokens for a sentence and
+     * preprocessing configuration, or null whether they are not found.
+     * @param strLabel Label of the preprocessing configuration
+     * @param strRawSentence
+     * @return 
+     */
+    
+    static String[] getTokens(
+            String  strLabel,
+            String  strRawSentence)
+    {
+        // We initialize the output
+        
+        String[] tokens = null;
+        
+        // We look for the sentence
+        
+        ConcurrentHashMap<String, ConcurrentHashMap<String, String[]>> cache = m_Tokens;
+        
+        if (cache != null)
+        {
+            ConcurrentHashMap<String, String[]> sentenceTokens = cache.get(strLabel);
+            
+            if (sentenceTokens != null)
+            {
+                tokens = sentenceTokens.get(strRawSentence);
+            }
+        }
+        
+        // We return a copy in order to protect the cached tokens
+        
+        return ((tokens != null) ? tokens.clone() : null);
+    }
+    
+    /**
+     * This function stores the tokens of a sentence whether the cache
+     * is enabled.
+     * @param strLabel Label of the preprocessing configuration
+     * @param strRawSentence
+     * @param tokens 
+     */
+    
+    static void putTokens(
+            String      strLabel,
+            String      strRawSentence,
+            String[]    tokens)
+    {
+        ConcurrentHashMap<String, ConcurrentHashMap<String, String[]>> cache = m_Tokens;
+        
+        if (cache != null)
+        {
+            cache.computeIfAbsent(strLabel, key -> new ConcurrentHashMap<>()).put(
+                    strRawSentence, tokens.clone());
+        }
+    }
+    
+    /**
+     * This function preprocesses the distinct sentences once per distinct
+     * preprocessing configuration and stores their tokens in the cache.
+     * The sentences are preprocessed in parallel by the thread-safe
+     * preprocessing objects, using the evaluation thread count.
+     * @param preprocessors
+     * @param strRawSentences
+     * @throws Exception 
+     */
+    
+    static void preprocessSentences(
+            IWordProcessing[]   preprocessors,
+            String[]            strRawSentences) throws Exception
+    {
+        // We select one preprocessing object per configuration
+        
+        HashMap<String, IWordProcessing> configurations = new HashMap<>();
+        
+        for (IWordProcessing preprocessor : preprocessors)
+        {
+            configurations.putIfAbsent(preprocessor.getLabel(), preprocessor);
+        }
+        
+        // We remove the duplicated sentences
+        
+        String[] strDistinctSentences = new LinkedHashSet<>(Arrays.asList(strRawSentences)).toArray(new String[0]);
+        
+        // We preprocess the sentences of every configuration
+        
+        for (IWordProcessing preprocessor : configurations.values())
+        {
+            ParallelRangeExecutor.evaluate(strDistinctSentences.length,
+                    preprocessor.isThreadSafe(), (start, end) ->
+            {
+                for (int i = start; i < end; i++)
+                {
+                    preprocessor.getWordTokens(strDistinctSentences[i]);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,160 @@
+/* 
+ * Copyright (C) 2016-2022 Universidad Nacional de Educación a Distancia (UNED)
+ *
+ * This program is free software for non-commercial use:
+ * you can redistribute it and/or modify it under the terms of the
+ * Creative Commons Attribution-NonCommercial-ShareAlike 4.0 International
+ * (CC BY-NC-SA 4.0) as published by the Creative Commons Corporation,
+ * either version 4 of the License, or (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * section 5 of the CC BY-NC-SA 4.0 License for more details.
+ *
+ * You should have received a copy of the Creative Commons
+ * Attribution-NonCommercial-ShareAlike 4.0 International (CC BY-NC-SA 4.0) 
+ * license along with this program. If not,
+ * see <http://creativecommons.org/licenses/by-nc-sa/4.0/>.
+ *
+ */
+
+package hesmlsts.utils;
+
+import java.util.ArrayList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * This class evaluates a collection of items in parallel by splitting
+ * them into contiguous ranges. It is shared by the evaluation of the
+ * sentence pairs and the preprocessing of the sentences, which use the
+ * same number of threads.
+ * @author j.lastra
+ */
+
+public class ParallelRangeExecutor
+{
+    /**
+     * Number of threads evaluating the ranges, which is the number
+     * of available processors by default.
+     */
+    
+    private static int  m_ThreadCount = Runtime.getRuntime().availableProcessors();
+    
+    /**
+     * This interface evaluates the items of a range.
+     */
+    
+    public interface IRangeEvaluator
+    {
+        /**
+         * This function evaluates the items within the [start, end) range.
+         * @param start
+         * @param end
+         * @throws Exception 
+         */
+        
+        void evaluateRange(
+                int start,
+                int end) throws Exception;
+    }
+    
+    /**
+     * This function sets the number of threads evaluating the ranges.
+     * The items are evaluated sequentially whether the thread count is 1.
+     * @param threadCount 
+     */
+    
+    public static void setThreadCount(
+            int threadCount)
+    {
+        m_ThreadCount = Math.max(1, threadCount);
+    }
+    
+    /**
+     * This function returns the number of threads evaluating the ranges.
+     * @return 
+     */
+    
+    public static int getThreadCount()
+    {
+        return (m_ThreadCount);
+    }
+    
+    /**
+     * This function evaluates the input number of items. The items are
+     * split into contiguous ranges which are evaluated in parallel,
+     * using several ranges per thread in order to balance the load,
+     * whilst the items are evaluated sequentially whether the evaluator
+     * is not thread-safe. The first error of the ranges is forwarded.
+     * @param itemCount
+     * @param isThreadSafe
+     * @param evaluator
+     * @throws Exception 
+     */
+    
+    public static void evaluate(
+            int             itemCount,
+            boolean         isThreadSafe,
+            IRangeEvaluator evaluator) throws Exception
+    {
+        // We compute the number of threads
+        
+        int threadCount = Math.min(m_ThreadCount, itemCount);
+        
+        if (!isThreadSafe || (threadCount < 2))
+        {
+            evaluator.evaluateRange(0, itemCount);
+        }
+        else
+        {
+            // We create one task per range of items
+            
+            int rangeCount = Math.min(itemCount, 4 * threadCount);
+            
+            ArrayList<Callable<Void>> tasks = new ArrayList<>(rangeCount);
+            
+            for (int iRange = 0; iRange < rangeCount; iRange++)
+            {
+                final int start = (int)((long) iRange * itemCount / rangeCount);
+                final int end = (int)((long) (iRange + 1) * itemCount / rangeCount);
+                
+                tasks.add(() ->
+                {
+                    evaluator.evaluateRange(start, end);
+                    
+                    return (null);
+                });
+            }
+            
+            // We run the tasks and forward the first error
+            
+            ExecutorService executor = Executors.newFixedThreadPool(threadCount);
+            
+            try
+            {
+                for (Future<Void> future : executor.invokeAll(tasks))
+                {
+                    future.get();
+                }
+            }
+            catch (ExecutionException error)
+            {
+                if (error.getCause() instanceof Exception)
+                {
+                    throw ((Exception) error.getCause());
+                }
+                
+                throw (new Exception(error.getCause()));
+            }
+            finally
+            {
+                executor.shutdownNow();
+            }
+        }
+    }
+}
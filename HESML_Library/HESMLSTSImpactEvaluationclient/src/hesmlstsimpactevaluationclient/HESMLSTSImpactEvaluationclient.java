@@ -1575,7 +1575,6 @@ public class HESMLSTSImpactEvaluationclient
                             modelPaths[i][5], 
                             modelPaths[i][7],
                             modelPaths[i][8],
-                            modelPaths[i][1], 
                             modelPaths[i][2], 
                             modelPaths[i][3],
                             BERTpoolingMethod.REDUCE_MEAN, 
@@ -1590,7 +1589,6 @@ public class HESMLSTSImpactEvaluationclient
                             mllibrary,
                             wordProcessing, 
                             modelPaths[i][4], 
-                            modelPaths[i][1], 
                             modelPaths[i][2], 
                             modelPaths[i][3]);
                 }
@@ -29,16 +29,11 @@ import hesml.measures.IGroupwiseSimilarityMeasure;
 import hesml.measures.SimilarityMeasureType;
 import hesml.measures.impl.MeasureFactory;
 import hesml.taxonomy.IVertex;
-import hesml.taxonomy.IVertexList;
-import hesml.taxonomyreaders.obo.IOboConcept;
+import hesml.taxonomyreaders.obo.IGoAnnotationStore;
 import hesml.taxonomyreaders.obo.IOboOntology;
 import hesml.taxonomyreaders.obo.impl.OboFactory;
 import hesml_umls_benchmark.IBioLibraryExperiment;
-import java.io.BufferedReader;
-import java.io.FileReader;
-import java.io.IOException;
-import java.util.HashMap;
-import java.util.HashSet;
+import java.util.ArrayList;
 import java.util.Set;
 
 /**
@@ -58,15 +53,14 @@ class LargeGOfileBenchmark implements IBioLibraryExperiment
     private IOboOntology    m_GOontology;
     
     /**
-     * Sets of proteins annotated with GO concepts. Both
-     * collections are indexed by the protein keyname as
-     * read from the GO Annotated Files (GAF). The loading
-     * function reads the GO annotation and retrieves
-     * their corresponding Go concept node (vertex).
+     * Compact collections of proteins annotated with GO concepts, which
+     * are read from the GO Annotated Files (GAF). The sets of GO concept
+     * nodes (vertexes) of the proteins are only created during the
+     * evaluation of the protein pairs.
      */
     
-    private HashMap<String, Set<IVertex>>   m_firstProteinsSet;
-    private HashMap<String, Set<IVertex>>   m_secondProteinsSet;
+    private IGoAnnotationStore  m_firstProteinsSet;
+    private IGoAnnotationStore  m_secondProteinsSet;
     
     /**
      * Groupwise similarity measures
@@ -177,77 +171,16 @@ class LargeGOfileBenchmark implements IBioLibraryExperiment
     
     /**
      * This functions loads all proteins defiend in the input file and returns
-     * an indexed collection of GO-based annotations, one per protein as defined
+     * the compact collection of GO-based annotations, one per protein as defined
      * in the input file.
      * @param strGoAnnotatedFilename
      * @return 
      */
     
-    private HashMap<String, Set<IVertex>> loadGoAnnotatedFile(
-            String  strGoAnnotatedFilename) throws IOException
+    private IGoAnnotationStore loadGoAnnotatedFile(
+            String  strGoAnnotatedFilename) throws Exception
     {
-        // We initialize the output
-        
-        HashMap<String, Set<IVertex>> indexedProteins = new HashMap<>();
-         
-        // Warning message
-        
-        System.out.println("Loading GO Annotated File = " + strGoAnnotatedFilename);
-        
-        // We create the OBO reader
-        
-        BufferedReader reader = new BufferedReader(new FileReader(strGoAnnotatedFilename));
-        
-        // We get the Go taxonomy
-        
-        IVertexList goVertexes = m_GOontology.getTaxonomy().getVertexes();
-        
-        // We parse the concepts contained in the file
-        
-        String strLine;
-        
-        while ((strLine = reader.readLine()) != null)
-        {
-            // We skip the commented lines
-            
-            if (!strLine.startsWith("!"))
-            {
-                // We recover the tag-separated fields
-                
-                String[] strFields = strLine.split("\t");
-                
-                // We recover the name of the protein and GO annotation
-                
-                String strProteinName = strFields[1].trim();
-                String strGoAnnotation = strFields[4].trim();
-                
-                // We retrieve the collection of annotations of the protein
-                
-                if (!indexedProteins.containsKey(strProteinName))
-                {
-                    indexedProteins.put(strProteinName, new HashSet<>());                            
-                }
-                
-                HashSet<IVertex> goAnnotations = (HashSet) indexedProteins.get(strProteinName);
-                
-                // We save the new Go annotation
-                
-                IOboConcept goConcept = m_GOontology.getConceptById(strGoAnnotation);
-                
-                if (goConcept != null)
-                {
-                    goAnnotations.add(goVertexes.getById(goConcept.getTaxonomyNodeId()));
-                }
-            }
-        }
-        
-        // We close the file
-        
-        reader.close();
-        
-        // We return the result
-         
-        return (indexedProteins);
+        return (OboFactory.loadGoAnnotations(m_GOontology, strGoAnnotatedFilename));
     }
     
     /**
@@ -258,25 +191,10 @@ class LargeGOfileBenchmark implements IBioLibraryExperiment
 
     private long getOverallGoAnnotations()
     {
-        // We compute the overall number of GO-based comparisons
-        
-        long firstGoAnnotations = 0;
-        
-        for (Set<IVertex> annotationSet : m_firstProteinsSet.values())
-        {
-            firstGoAnnotations += annotationSet.size();
-        }
-        
-        long secondGoAnnotations = 0;
-        
-        for (Set<IVertex> annotationSet : m_secondProteinsSet.values())
-        {
-            secondGoAnnotations += annotationSet.size();
-        }
-        
         // We compute the overall annotation count
         
-        long overallAnnotations = firstGoAnnotations * secondGoAnnotations;
+        long overallAnnotations = m_firstProteinsSet.getAnnotationCount()
+                                * m_secondProteinsSet.getAnnotationCount();
         
         // We return the result
         
@@ -306,15 +224,29 @@ class LargeGOfileBenchmark implements IBioLibraryExperiment
 
         System.out.println("Evaluating GO files with " + m_groupwiseSimMeasure.toString());
 
+        // We create the GO concept sets of the proteins in the second
+        // file, whilst the ones of the first file are created one at a time
+        
+        String[] strSecondProteinIds = m_secondProteinsSet.getProteinIds();
+        
+        ArrayList<Set<IVertex>> secondProteins = new ArrayList<>(strSecondProteinIds.length);
+        
+        for (String strProteinId : strSecondProteinIds)
+        {
+            secondProteins.add(m_secondProteinsSet.getAnnotationVertexes(strProteinId));
+        }
+        
         // We start the stopwatch
 
         long startWatch = System.currentTimeMillis();
 
         // We evaluate all protein pairs
 
-        for (Set<IVertex> protein1 : m_firstProteinsSet.values())
+        for (String strProteinId : m_firstProteinsSet.getProteinIds())
         {
-            for (Set<IVertex> protein2 : m_secondProteinsSet.values())
+            Set<IVertex> protein1 = m_firstProteinsSet.getAnnotationVertexes(strProteinId);
+            
+            for (Set<IVertex> protein2 : secondProteins)
             {
                 m_groupwiseSimMeasure.getSimilarity(protein1, protein2);
             }
@@ -327,7 +259,8 @@ class LargeGOfileBenchmark implements IBioLibraryExperiment
         // We save the result
 
         strOutputMatrix[1][0] = m_groupwiseSimMeasure.toString();
-        strOutputMatrix[1][1] = Long.toString(m_firstProteinsSet.size() * m_secondProteinsSet.size());
+        strOutputMatrix[1][1] = Long.toString((long)m_firstProteinsSet.getProteinCount()
+                                    * m_secondProteinsSet.getProteinCount());
         strOutputMatrix[1][2] = Long.toString(getOverallGoAnnotations());
         strOutputMatrix[1][3] = Double.toString(ellapedTimeSecs);
         
@@ -343,22 +276,10 @@ class LargeGOfileBenchmark implements IBioLibraryExperiment
     @Override
     public void clear()
     {
-        // We release all GO-based annotations
-        
-        for (Set<IVertex> annotationSet : m_firstProteinsSet.values())
-        {
-            annotationSet.clear();
-        }
-
-        for (Set<IVertex> annotationSet : m_secondProteinsSet.values())
-        {
-            annotationSet.clear();
-        }
-        
         // We relrease all resources
         
-        m_GOontology.clear();
         m_firstProteinsSet.clear();
         m_secondProteinsSet.clear();
+        m_GOontology.clear();
     }
 }
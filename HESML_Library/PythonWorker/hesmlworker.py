@@ -0,0 +1,83 @@
+import numpy
+import os
+import struct
+import sys
+
+# Persistent worker mode shared by the sentence embedding wrappers used
+# by HESML (see PythonEmbeddingWorker.java). The model is loaded once and
+# the sentences received in every request are answered with their vectors
+# encoded as big-endian float32 arrays.
+
+WORKER_SIGNATURE = 0x48535457
+
+protocol_in = None
+protocol_out = None
+
+# check whether the wrapper runs in worker mode, removing the --worker flag
+# from the arguments. The standard output is redirected to the standard
+# error in order to avoid that the messages printed by the libraries
+# corrupt the protocol.
+
+def start_worker_mode():
+    global protocol_in, protocol_out
+
+    worker_mode = (len(sys.argv) > 1) and (sys.argv[1] == "--worker")
+
+    if worker_mode:
+        del sys.argv[1]
+        protocol_in = sys.stdin.buffer
+        protocol_out = os.fdopen(os.dup(1), "wb")
+        os.dup2(2, 1)
+        sys.stdout = sys.stderr
+
+    return worker_mode
+
+def read_exactly(size):
+    data = b""
+    while len(data) < size:
+        chunk = protocol_in.read(size - len(data))
+        if not chunk:
+            raise EOFError("HESML closed the worker pipe")
+        data += chunk
+    return data
+
+def read_int():
+    return struct.unpack(">i", read_exactly(4))[0]
+
+# serve the requests of HESML with the input function, which infers
+# the vectors of a list of sentences
+
+def serve_worker(embed):
+    protocol_out.write(struct.pack(">i", WORKER_SIGNATURE))
+    protocol_out.flush()
+
+    # a negative sentence count or a closed pipe stops the worker
+
+    try:
+        count = read_int()
+    except EOFError:
+        count = -1
+
+    while count >= 0:
+        sentences = [read_exactly(read_int()).decode("utf-8") for i in range(count)]
+
+        # infer the vectors and report the errors to HESML
+
+        try:
+            response = [struct.pack(">i", 0)]
+            vectors = embed(sentences) if count > 0 else []
+            for vector in vectors:
+                vector = numpy.asarray(vector, dtype=">f4").ravel()
+                response.append(struct.pack(">i", vector.size))
+                response.append(vector.tobytes())
+        except Exception as error:
+            message = repr(error).encode("utf-8")
+            response = [struct.pack(">ii", 1, len(message)), message]
+
+        protocol_out.write(b"".join(response))
+        protocol_out.flush()
+
+        try:
+            count = read_int()
+        except EOFError:
+            count = -1
@@ -1,11 +1,22 @@
+import os
 import sent2vec
 import sys
 
+# Persistent worker mode used by HESML, which is implemented by the
+# shared hesmlworker module (see PythonWorker/hesmlworker.py).
+
+sys.path.append(os.path.join(os.path.dirname(os.path.abspath(__file__)), "..", "PythonWorker"))
+import hesmlworker
+
+worker_mode = hesmlworker.start_worker_mode()
+
 # import the arguments
 
 strModelPath = sys.argv[1]
-absPathTempSentencesFile = sys.argv[2] # the preprocessed sentences path in format: s1 \t s2 \n
-absPathTempVectorsFile = sys.argv[3] # the output path
+
+if not worker_mode:
+    absPathTempSentencesFile = sys.argv[2] # the preprocessed sentences path in format: s1 \t s2 \n
+    absPathTempVectorsFile = sys.argv[3] # the output path
 
 # strModelPath = "BioSentVec_PubMed_MIMICIII-bigram_d700.bin"
 # absPathTempSentencesFile = "tempSentences.txt"
@@ -19,6 +30,12 @@ model = sent2vec.Sent2vecModel()
 
 model.load_model(strModelPath)
 
+# serve the requests of HESML in worker mode
+
+if worker_mode:
+    hesmlworker.serve_worker(model.embed_sentences)
+    sys.exit(0)
+
 # open the sentences file
 
 f = open(absPathTempSentencesFile, "r")
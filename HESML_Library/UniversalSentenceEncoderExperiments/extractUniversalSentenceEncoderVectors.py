@@ -3,13 +3,24 @@
 import tensorflow as tf
 import tensorflow_hub as hub
 import logging
+import os
 import sys
 
+# Persistent worker mode used by HESML, which is implemented by the
+# shared hesmlworker module (see PythonWorker/hesmlworker.py).
+
+sys.path.append(os.path.join(os.path.dirname(os.path.abspath(__file__)), "..", "PythonWorker"))
+import hesmlworker
+
+worker_mode = hesmlworker.start_worker_mode()
+
 # get the arguments from the input
 
 module_url = sys.argv[1] # the preprocessed sentences path in format: s1 \t s2 \n
-absPathTempSentencesFile = sys.argv[2] # the preprocessed sentences path in format: s1 \t s2 \n
-absPathTempVectorsFile = sys.argv[3] # the output path
+
+if not worker_mode:
+    absPathTempSentencesFile = sys.argv[2] # the preprocessed sentences path in format: s1 \t s2 \n
+    absPathTempVectorsFile = sys.argv[3] # the output path
 
 # set up the logger info
 
@@ -28,6 +39,12 @@ print ("module %s loaded" % module_url)
 def embed(input):
   return model(input)
 
+# serve the requests of HESML in worker mode
+
+if worker_mode:
+    hesmlworker.serve_worker(lambda sentences: embed(sentences).numpy())
+    sys.exit(0)
+
 # open the file sentences.txt
 
 f = open(absPathTempSentencesFile, "r")